@@ -2,7 +2,10 @@ package com.mimimart.api.controller.admin;
 
 import com.mimimart.api.dto.ApiResponse;
 import com.mimimart.api.dto.banner.*;
+import com.mimimart.application.service.AiGenerationJobService;
 import com.mimimart.application.service.BannerService;
+import com.mimimart.application.service.ImageDerivativeService;
+import com.mimimart.infrastructure.persistence.entity.AiGenerationLog;
 import com.mimimart.infrastructure.persistence.entity.BannerEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,11 +21,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.mimimart.infrastructure.security.CustomUserDetails;
+import com.mimimart.shared.valueobject.AiGenerationStatus;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,10 +45,10 @@ import java.util.stream.Collectors;
 public class AdminBannerController {
 
     private final BannerService bannerService;
-    private final com.mimimart.application.service.OpenAiImageService openAiImageService;
-    private final com.mimimart.application.service.DeepseekService deepseekService;
+    private final AiGenerationJobService aiGenerationJobService;
     private final com.mimimart.infrastructure.storage.S3StorageService s3StorageService;
     private final com.mimimart.application.service.AiGenerationLogService aiGenerationLogService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * 查詢所有輪播圖 (含停用)
@@ -58,9 +66,8 @@ public class AdminBannerController {
         log.info("後台查詢所有輪播圖");
 
         List<BannerEntity> banners = bannerService.getAllBanners();
-        List<BannerResponse> responses = banners.stream()
-                .map(BannerResponse::from)
-                .collect(Collectors.toList());
+        List<BannerResponse> responses = imageDerivativeService.mapWithDerivatives(banners,
+                BannerEntity::getImageUrl, BannerResponse::from);
 
         return ResponseEntity.ok(ApiResponse.success("查詢成功", responses));
     }
@@ -87,7 +94,8 @@ public class AdminBannerController {
         log.info("後台查詢輪播圖詳情 - BannerId: {}", bannerId);
 
         BannerEntity banner = bannerService.getBannerById(bannerId);
-        BannerResponse response = BannerResponse.from(banner);
+        BannerResponse response = BannerResponse.from(banner,
+                imageDerivativeService.findDerivatives(banner.getImageUrl()));
 
         return ResponseEntity.ok(ApiResponse.success("查詢成功", response));
     }
@@ -348,6 +356,7 @@ public class AdminBannerController {
 
     /**
      * AI 生成輪播圖圖片
+     * 以背景工作執行,等待期間不佔用請求執行緒;逾時未完成時回傳工作 ID 供後續查詢
      */
     @PostMapping("/ai/generate-image")
     @Operation(summary = "AI 生成輪播圖", description = "使用 OpenAI DALL-E 生成輪播圖圖片")
@@ -362,7 +371,7 @@ public class AdminBannerController {
                     description = "生成失敗"
             )
     })
-    public ResponseEntity<ApiResponse<AiImageResponse>> generateImage(
+    public DeferredResult<ResponseEntity<ApiResponse<AiImageResponse>>> generateImage(
             @Valid @RequestBody AiImageRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
 
@@ -370,18 +379,20 @@ public class AdminBannerController {
 
         log.info("AI 生成輪播圖 - AdminId: {}, Prompt: {}", adminId, request.prompt());
 
-        String s3Key = openAiImageService.generateImage(
+        AiGenerationLog job = aiGenerationJobService.submitImage(
                 request.prompt(),
                 adminId,
                 "/api/admin/banner/ai/generate-image"
         );
 
-        AiImageResponse response = new AiImageResponse(s3Key);
-        return ResponseEntity.ok(ApiResponse.success("圖片生成成功", response));
+        return awaitJob(job.getId(), completed -> completed.getStatus() == AiGenerationStatus.SUCCESS
+                ? ApiResponse.success("圖片生成成功", new AiImageResponse(completed.getS3Key()))
+                : ApiResponse.error("AI_GENERATION_FAILED", "AI 圖片生成失敗: " + completed.getErrorMessage()));
     }
 
     /**
      * AI 生成輪播圖描述文案
+     * 以背景工作執行,等待期間不佔用請求執行緒;逾時未完成時回傳工作 ID 供後續查詢
      */
     @PostMapping("/ai/generate-description")
     @Operation(summary = "AI 生成描述", description = "使用 Deepseek Chat 生成輪播圖文案")
@@ -396,7 +407,7 @@ public class AdminBannerController {
                     description = "生成失敗"
             )
     })
-    public ResponseEntity<ApiResponse<AiDescriptionResponse>> generateDescription(
+    public DeferredResult<ResponseEntity<ApiResponse<AiDescriptionResponse>>> generateDescription(
             @Valid @RequestBody AiDescriptionRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
 
@@ -404,14 +415,128 @@ public class AdminBannerController {
 
         log.info("AI 生成描述 - AdminId: {}, Context: {}", adminId, request.context());
 
-        String description = deepseekService.generateDescription(
+        AiGenerationLog job = aiGenerationJobService.submitDescription(
                 request.context(),
                 adminId,
                 "/api/admin/banner/ai/generate-description"
         );
 
-        AiDescriptionResponse response = new AiDescriptionResponse(description);
-        return ResponseEntity.ok(ApiResponse.success("描述生成成功", response));
+        return awaitJob(job.getId(), completed -> completed.getStatus() == AiGenerationStatus.SUCCESS
+                ? ApiResponse.success("描述生成成功", new AiDescriptionResponse(completed.getResponseContent()))
+                : ApiResponse.error("AI_GENERATION_FAILED", "AI 描述生成失敗: " + completed.getErrorMessage()));
+    }
+
+    /**
+     * 提交 AI 生成輪播圖工作
+     */
+    @PostMapping("/ai/job/submit-image")
+    @Operation(summary = "提交 AI 生圖工作", description = "提交 OpenAI DALL-E 生圖工作,立即回傳工作 ID")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "提交成功",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<AiJobResponse>> submitImageJob(
+            @Valid @RequestBody AiImageRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long adminId = userDetails.getUserId();
+
+        log.info("提交 AI 生圖工作 - AdminId: {}, Prompt: {}", adminId, request.prompt());
+
+        AiGenerationLog job = aiGenerationJobService.submitImage(
+                request.prompt(),
+                adminId,
+                "/api/admin/banner/ai/job/submit-image"
+        );
+
+        return ResponseEntity.ok(ApiResponse.success("工作已提交", AiJobResponse.from(job)));
+    }
+
+    /**
+     * 提交 AI 生成描述文案工作
+     */
+    @PostMapping("/ai/job/submit-description")
+    @Operation(summary = "提交 AI 文案工作", description = "提交 Deepseek Chat 文案生成工作,立即回傳工作 ID")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "提交成功",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<AiJobResponse>> submitDescriptionJob(
+            @Valid @RequestBody AiDescriptionRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long adminId = userDetails.getUserId();
+
+        log.info("提交 AI 文案工作 - AdminId: {}, Context: {}", adminId, request.context());
+
+        AiGenerationLog job = aiGenerationJobService.submitDescription(
+                request.context(),
+                adminId,
+                "/api/admin/banner/ai/job/submit-description"
+        );
+
+        return ResponseEntity.ok(ApiResponse.success("工作已提交", AiJobResponse.from(job)));
+    }
+
+    /**
+     * 查詢 AI 生成工作狀態 (輪詢)
+     */
+    @GetMapping("/ai/job")
+    @Operation(summary = "查詢 AI 生成工作", description = "查詢 AI 生成工作的狀態與結果")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "查詢成功",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<AiJobResponse>> getJob(
+            @Parameter(description = "工作 ID", required = true)
+            @RequestParam Long jobId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        AiGenerationLog job = aiGenerationJobService.getJob(jobId, userDetails.getUserId());
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", AiJobResponse.from(job)));
+    }
+
+    /**
+     * 訂閱 AI 生成工作狀態 (SSE)
+     * 連線後立即推送目前狀態,工作完成時推送結果並結束連線
+     */
+    @GetMapping(value = "/ai/job/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "訂閱 AI 生成工作", description = "以 Server-Sent Events 推送 AI 生成工作的狀態,完成後結束連線")
+    public SseEmitter subscribeJob(
+            @Parameter(description = "工作 ID", required = true)
+            @RequestParam Long jobId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) throws IOException {
+
+        AiGenerationLog job = aiGenerationJobService.getJob(jobId, userDetails.getUserId());
+
+        SseEmitter emitter = new SseEmitter(aiGenerationJobService.getSubscriptionTimeout().toMillis());
+        emitter.send(SseEmitter.event().name("status").data(AiJobResponse.from(job), MediaType.APPLICATION_JSON));
+        if (AiGenerationJobService.isCompleted(job)) {
+            emitter.complete();
+            return emitter;
+        }
+
+        Runnable unregister = aiGenerationJobService.onCompletion(jobId, completed -> {
+            try {
+                emitter.send(SseEmitter.event().name("status")
+                        .data(AiJobResponse.from(completed), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+        return emitter;
     }
 
     /**
@@ -496,6 +621,35 @@ public class AdminBannerController {
             String description
     ) {}
 
+    public record AiJobResponse(
+            @Parameter(description = "工作 ID")
+            Long jobId,
+            com.mimimart.shared.valueobject.GenerationType generationType,
+            AiGenerationStatus status,
+            @Parameter(description = "生成的文案 (文案工作)")
+            String description,
+            @Parameter(description = "S3 圖片 Key (生圖工作)")
+            String s3Key,
+            String errorMessage,
+            java.time.LocalDateTime createdAt,
+            java.time.LocalDateTime completedAt
+    ) {
+        public static AiJobResponse from(AiGenerationLog job) {
+            boolean succeededText = job.getStatus() == AiGenerationStatus.SUCCESS
+                    && job.getGenerationType() == com.mimimart.shared.valueobject.GenerationType.TEXT;
+            return new AiJobResponse(
+                    job.getId(),
+                    job.getGenerationType(),
+                    job.getStatus(),
+                    succeededText ? job.getResponseContent() : null,
+                    job.getS3Key(),
+                    job.getErrorMessage(),
+                    job.getCreatedAt(),
+                    job.getCompletedAt()
+            );
+        }
+    }
+
     public record AiGenerationHistoryResponse(
             Long id,
             String apiEndpoint,
@@ -507,7 +661,7 @@ public class AdminBannerController {
             String s3Key,
             Integer tokensUsed,
             java.math.BigDecimal costUsd,
-            com.mimimart.shared.valueobject.AiGenerationStatus status,
+            AiGenerationStatus status,
             String errorMessage,
             java.time.LocalDateTime createdAt
     ) {
@@ -529,4 +683,23 @@ public class AdminBannerController {
             );
         }
     }
+
+    /**
+     * 等待 AI 生成工作完成 (非同步回應,不佔用請求執行緒)
+     * 逾時未完成時回傳工作 ID,工作仍繼續執行,可透過 /ai/job 查詢結果
+     */
+    private <T> DeferredResult<ResponseEntity<ApiResponse<T>>> awaitJob(
+            Long jobId, Function<AiGenerationLog, ApiResponse<T>> toResponse) {
+        DeferredResult<ResponseEntity<ApiResponse<T>>> result =
+                new DeferredResult<>(aiGenerationJobService.getSubscriptionTimeout().toMillis());
+        Runnable unregister = aiGenerationJobService.onCompletion(jobId,
+                completed -> result.setResult(ResponseEntity.ok(toResponse.apply(completed))));
+        result.onTimeout(() -> {
+            unregister.run();
+            result.setResult(ResponseEntity.ok(
+                    ApiResponse.error("AI_JOB_PENDING", "AI 生成處理中,請稍後以工作 ID 查詢結果: " + jobId)));
+        });
+        result.onError(e -> unregister.run());
+        return result;
+    }
 }
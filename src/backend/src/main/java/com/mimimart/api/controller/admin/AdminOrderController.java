@@ -9,6 +9,7 @@ import com.mimimart.application.service.ShipmentService;
 import com.mimimart.domain.order.model.Order;
 import com.mimimart.domain.shipment.model.Shipment;
 import com.mimimart.domain.shipment.model.ShippingInfo;
+import com.mimimart.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,8 +18,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +88,42 @@ public class AdminOrderController {
         return ApiResponse.success("查詢成功", responseList, meta);
     }
 
+    /**
+     * 查詢所有訂單(游標分頁+篩選)
+     */
+    @Operation(summary = "查詢訂單列表(游標分頁)",
+            description = "依建立時間降序查詢訂單,以上一頁回傳的 nextCursor 取得下一頁,深分頁效能不受頁數影響")
+    @GetMapping("/list-cursor")
+    public ApiResponse<List<OrderListItemResponse>> getOrderListByCursor(
+            @ModelAttribute AdminOrderQueryRequest queryRequest,
+            @Parameter(description = "上一頁回傳的游標(第一頁不帶)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁筆數") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "是否計算總筆數(預設不計算,省略 COUNT 查詢)") @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        // 驗證日期範圍
+        if (queryRequest.getStartDate() != null && queryRequest.getEndDate() != null) {
+            if (queryRequest.getStartDate().isAfter(queryRequest.getEndDate())) {
+                return ApiResponse.error("INVALID_DATE_RANGE", "開始日期不可晚於結束日期");
+            }
+        }
+
+        CursorPage<Order> orderPage = orderService.getAllOrdersAdminByCursor(
+                queryRequest.getStatus(),
+                queryRequest.getOrderNumber(),
+                queryRequest.getStartDate(),
+                queryRequest.getEndDate(),
+                cursor,
+                Math.clamp(size, 1, 100),
+                includeTotal
+        );
+
+        List<OrderListItemResponse> responseList = orderPage.content().stream()
+                .map(OrderListItemResponse::from)
+                .collect(Collectors.toList());
+
+        return ApiResponse.success("查詢成功", responseList, orderPage.toMeta());
+    }
+
     /**
      * 查詢訂單詳情
      */
@@ -156,10 +195,18 @@ public class AdminOrderController {
     /**
      * 訂單統計
      */
-    @Operation(summary = "訂單統計", description = "查詢訂單統計資料（總訂單數、總金額、各狀態訂單數）")
+    @Operation(summary = "訂單統計", description = "查詢訂單統計資料（總訂單數、總金額、各狀態訂單數），指定日期區間時依訂單建立日期彙總並附每日明細")
     @GetMapping("/statistics")
-    public ApiResponse<Map<String, Object>> getStatistics() {
-        Map<String, Object> statistics = orderService.getOrderStatistics();
+    public ApiResponse<Map<String, Object>> getStatistics(
+            @Parameter(description = "起始日期 (含, yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "結束日期 (含, yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ApiResponse.error("INVALID_DATE_RANGE", "開始日期不可晚於結束日期");
+        }
+        Map<String, Object> statistics = orderService.getOrderStatistics(startDate, endDate);
         return ApiResponse.success("查詢成功", statistics);
     }
 }
@@ -6,6 +6,7 @@ import com.mimimart.api.dto.product.ProductDetailResponse;
 import com.mimimart.api.dto.product.ProductIdRequest;
 import com.mimimart.api.dto.product.ProductResponse;
 import com.mimimart.api.dto.product.UpdateProductRequest;
+import com.mimimart.application.service.ImageDerivativeService;
 import com.mimimart.application.service.ProductService;
 import com.mimimart.infrastructure.persistence.entity.Product;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 後台商品管理 Controller
@@ -35,6 +35,7 @@ import java.util.stream.Collectors;
 public class AdminProductController {
 
     private final ProductService productService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * 查詢商品列表
@@ -64,9 +65,8 @@ public class AdminProductController {
                 break;
         }
 
-        List<ProductResponse> response = productPage.getContent().stream()
-            .map(ProductResponse::from)
-            .collect(Collectors.toList());
+        List<ProductResponse> response = imageDerivativeService.mapWithDerivatives(productPage.getContent(),
+                Product::getImageUrl, ProductResponse::from);
 
         Map<String, Object> meta = new HashMap<>();
         // 將 0-based 頁碼轉換為 1-based 返回給前端
@@ -195,4 +195,13 @@ public class AdminProductController {
 
         return ResponseEntity.ok(ApiResponse.success("停用成功", response));
     }
+
+    /**
+     * 查詢商品目錄快取統計
+     */
+    @GetMapping("/cache-stats")
+    @Operation(summary = "查詢商品目錄快取統計", description = "查詢前台商品快取的命中、未命中與淘汰次數")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", productService.getCatalogCacheStats()));
+    }
 }
@@ -2,6 +2,7 @@ package com.mimimart.api.controller.admin;
 
 import com.mimimart.api.dto.ApiResponse;
 import com.mimimart.api.dto.product.ImageUploadResponse;
+import com.mimimart.application.service.ImageDerivativeService;
 import com.mimimart.infrastructure.storage.S3StorageService;
 import com.mimimart.shared.validation.FileValidator;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class AdminProductImageController {
 
     private final S3StorageService s3StorageService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * 上傳商品圖片
@@ -36,6 +38,9 @@ public class AdminProductImageController {
         // 上傳到 S3
         String imageUrl = s3StorageService.uploadProductImage(file);
 
+        // 於背景產生縮圖
+        imageDerivativeService.generateAsync(imageUrl);
+
         ImageUploadResponse response = new ImageUploadResponse(imageUrl);
         return ResponseEntity.ok(ApiResponse.success("圖片上傳成功", response));
     }
@@ -48,6 +53,7 @@ public class AdminProductImageController {
     public ResponseEntity<ApiResponse<Void>> deleteImage(
             @RequestParam String imageUrl) {
 
+        imageDerivativeService.deleteDerivatives(imageUrl);
         s3StorageService.deleteProductImage(imageUrl);
         return ResponseEntity.ok(ApiResponse.success("圖片刪除成功"));
     }
@@ -1,6 +1,7 @@
 package com.mimimart.api.controller.shop;
 
 import com.mimimart.application.service.PaymentService;
+import com.mimimart.domain.payment.exception.PaymentCallbackInProgressException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -63,9 +64,13 @@ public class ECPayCallbackController {
             // 委託給 PaymentService 處理
             paymentService.handlePaymentCallback(params);
 
-            // 回傳成功給綠界
+            // 回傳成功給綠界 (含重複回調)
             return "1|OK";
 
+        } catch (PaymentCallbackInProgressException e) {
+            // 相同交易處理中,綠界稍後重送
+            logger.warn(e.getMessage());
+            return "0|處理中";
         } catch (Exception e) {
             logger.error("處理綠界回調時發生錯誤", e);
             return "0|處理失敗: " + e.getMessage();
@@ -3,6 +3,7 @@ package com.mimimart.api.controller.shop;
 import com.mimimart.api.dto.ApiResponse;
 import com.mimimart.api.dto.banner.BannerResponse;
 import com.mimimart.application.service.BannerService;
+import com.mimimart.application.service.ImageDerivativeService;
 import com.mimimart.infrastructure.persistence.entity.BannerEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,7 +18,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 前台輪播圖 API
@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 public class ShopBannerController {
 
     private final BannerService bannerService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * 查詢啟用且已上架的輪播圖 (公開端點)
@@ -49,12 +50,11 @@ public class ShopBannerController {
             )
     })
     public ResponseEntity<ApiResponse<List<BannerResponse>>> getActiveBanners() {
-        log.info("前台查詢啟用且已上架的輪播圖");
+        log.debug("前台查詢啟用且已上架的輪播圖");
 
         List<BannerEntity> banners = bannerService.getActiveBanners();
-        List<BannerResponse> responses = banners.stream()
-                .map(BannerResponse::from)
-                .collect(Collectors.toList());
+        List<BannerResponse> responses = imageDerivativeService.mapWithDerivatives(banners,
+                BannerEntity::getImageUrl, BannerResponse::from);
 
         return ResponseEntity.ok(ApiResponse.success("查詢成功", responses));
     }
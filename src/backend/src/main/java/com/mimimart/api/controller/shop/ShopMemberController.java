@@ -5,9 +5,14 @@ import com.mimimart.api.dto.member.*;
 import com.mimimart.application.service.MemberService;
 import com.mimimart.infrastructure.persistence.entity.Member;
 import com.mimimart.infrastructure.security.CustomUserDetails;
+import com.mimimart.infrastructure.storage.AvatarFileCache;
+import com.mimimart.infrastructure.storage.AvatarFileCache.CachedAvatar;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,6 +21,8 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+
 /**
  * 前台會員資料 Controller
  *
@@ -124,25 +131,52 @@ public class ShopMemberController {
 
     /**
      * 取得頭貼
+     * 由本機磁碟快取串流輸出,客戶端帶 If-None-Match 且頭貼未更換時回應 304
      */
     @GetMapping("/avatar")
     @Operation(summary = "取得頭貼", description = "取得指定會員的頭貼圖片(公開訪問)")
-    public ResponseEntity<byte[]> getAvatar(@RequestParam("memberId") Long memberId) {
-
-        // 取得頭貼資料
-        byte[] avatarData = memberService.getAvatarData(memberId);
+    public ResponseEntity<Resource> getAvatar(
+            @RequestParam("memberId") Long memberId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        // 取得 Content-Type
-        String contentType = memberService.getAvatarContentType(memberId);
-
-        // 設定回應標頭
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(contentType));
-        headers.setContentLength(avatarData.length);
+        // 取得頭貼 S3 Key (頭貼更換時 Key 隨之變更,ETag 由 Key 推導)
+        String s3Key = memberService.getAvatarS3Key(memberId);
+        String eTag = AvatarFileCache.eTagOf(s3Key);
 
         // 設定快取標頭 (快取 1 小時)
-        headers.setCacheControl("public, max-age=3600");
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        // 取得頭貼檔案
+        CachedAvatar avatar = memberService.getAvatar(s3Key);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(avatar.contentType()))
+                .contentLength(avatar.size())
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(new FileSystemResource(avatar.file()));
+    }
 
-        return new ResponseEntity<>(avatarData, headers, HttpStatus.OK);
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -3,8 +3,10 @@ package com.mimimart.api.controller.shop;
 import com.mimimart.api.dto.ApiResponse;
 import com.mimimart.api.dto.product.ProductDetailResponse;
 import com.mimimart.api.dto.product.ProductResponse;
+import com.mimimart.application.service.ImageDerivativeService;
 import com.mimimart.application.service.ProductService;
 import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,7 +21,6 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 前台商品 Controller
@@ -30,7 +31,10 @@ import java.util.stream.Collectors;
 @Tag(name = "前台 - 商品", description = "前台商品查詢 API")
 public class ShopProductController {
 
+    private static final int MAX_SEARCH_PAGE = 100;
+
     private final ProductService productService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * 查詢商品列表
@@ -45,10 +49,10 @@ public class ShopProductController {
             @Parameter(description = "排序方向 (asc, desc)") @RequestParam(defaultValue = "desc") String sortDir) {
 
         // 將前端的 1-based 頁碼轉換為 Spring Data JPA 的 0-based
-        int zeroBasedPage = page - 1;
+        int zeroBasedPage = Math.max(page, 1) - 1;
         // 建立排序
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
-        Pageable pageable = PageRequest.of(zeroBasedPage, size, sort);
+        Pageable pageable = PageRequest.of(zeroBasedPage, Math.clamp(size, 1, 100), sort);
 
         // 查詢商品
         Page<Product> productPage;
@@ -59,9 +63,8 @@ public class ShopProductController {
         }
 
         // 轉換回應
-        List<ProductResponse> response = productPage.getContent().stream()
-            .map(ProductResponse::from)
-            .collect(Collectors.toList());
+        List<ProductResponse> response = imageDerivativeService.mapWithDerivatives(productPage.getContent(),
+                Product::getImageUrl, ProductResponse::from);
 
         // 建立分頁資訊
         Map<String, Object> meta = new HashMap<>();
@@ -74,6 +77,30 @@ public class ShopProductController {
         return ResponseEntity.ok(ApiResponse.success("查詢成功", response, meta));
     }
 
+    /**
+     * 查詢商品列表 (游標分頁)
+     */
+    @GetMapping("/list-cursor")
+    @Operation(summary = "查詢商品列表 (游標分頁)",
+            description = "查詢已上架的商品列表,以上一頁回傳的 nextCursor 取得下一頁,深分頁效能不受頁數影響")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getProductListByCursor(
+            @Parameter(description = "分類 ID (可選)") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "上一頁回傳的游標 (第一頁不帶)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁筆數") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "排序欄位 (createdAt, price, name)") @RequestParam(defaultValue = "createdAt") String sortBy,
+            @Parameter(description = "排序方向 (asc, desc)") @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "是否計算總筆數 (預設不計算,省略 COUNT 查詢)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        Sort.Direction direction = sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        CursorPage<Product> productPage = productService.getPublishedProductsByCursor(
+                categoryId, sortBy, direction, cursor, Math.clamp(size, 1, 100), includeTotal);
+
+        List<ProductResponse> response = imageDerivativeService.mapWithDerivatives(productPage.content(),
+                Product::getImageUrl, ProductResponse::from);
+
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", response, productPage.toMeta()));
+    }
+
     /**
      * 查詢商品詳情
      */
@@ -98,13 +125,14 @@ public class ShopProductController {
             @Parameter(description = "每頁筆數") @RequestParam(defaultValue = "20") int size) {
 
         // 將前端的 1-based 頁碼轉換為 Spring Data JPA 的 0-based
-        int zeroBasedPage = page - 1;
-        Pageable pageable = PageRequest.of(zeroBasedPage, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        // 相關度搜尋只需前幾頁,限制頁碼避免深分頁時保留大量候選結果
+        int zeroBasedPage = Math.clamp(page, 1, MAX_SEARCH_PAGE) - 1;
+        Pageable pageable = PageRequest.of(zeroBasedPage, Math.clamp(size, 1, 100),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Product> productPage = productService.searchProducts(keyword, pageable);
 
-        List<ProductResponse> response = productPage.getContent().stream()
-            .map(ProductResponse::from)
-            .collect(Collectors.toList());
+        List<ProductResponse> response = imageDerivativeService.mapWithDerivatives(productPage.getContent(),
+                Product::getImageUrl, ProductResponse::from);
 
         Map<String, Object> meta = new HashMap<>();
         // 將 0-based 頁碼轉換為 1-based 返回給前端
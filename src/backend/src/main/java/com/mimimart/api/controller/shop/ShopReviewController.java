@@ -17,6 +17,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,6 +31,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ShopReviewController {
 
+    private static final int MAX_BATCH_STATS_SIZE = 100;
+
     private final ReviewService reviewService;
 
     /**
@@ -126,14 +129,23 @@ public class ShopReviewController {
     @Operation(summary = "查詢商品評價統計", description = "取得商品的平均評分、總評價數和評分分布")
     @GetMapping("/stats")
     public ApiResponse<ReviewStatsResponse> getReviewStats(@RequestParam Long productId) {
-        Map<String, Object> stats = reviewService.getReviewStats(productId);
-        Map<Integer, Long> distribution = reviewService.getRatingDistribution(productId);
+        ReviewStatsResponse response = ReviewStatsResponse.from(reviewService.getReviewSummary(productId));
+        return ApiResponse.success("查詢成功", response);
+    }
 
-        ReviewStatsResponse response = ReviewStatsResponse.create(
-                (Long) stats.get("totalReviews"),
-                (Double) stats.get("avgRating"),
-                distribution
-        );
+    /**
+     * 批次查詢商品評價統計
+     */
+    @Operation(summary = "批次查詢商品評價統計", description = "一次取得多個商品的評價統計 (商品列表頁使用,最多 100 個商品)")
+    @GetMapping("/stats/batch")
+    public ApiResponse<Map<Long, ReviewStatsResponse>> getReviewStatsBatch(@RequestParam List<Long> productIds) {
+        if (productIds.size() > MAX_BATCH_STATS_SIZE) {
+            return ApiResponse.error("TOO_MANY_PRODUCTS", "一次最多查詢 " + MAX_BATCH_STATS_SIZE + " 個商品");
+        }
+
+        Map<Long, ReviewStatsResponse> response = new LinkedHashMap<>();
+        reviewService.getReviewSummaries(productIds)
+                .forEach((productId, summary) -> response.put(productId, ReviewStatsResponse.from(summary)));
 
         return ApiResponse.success("查詢成功", response);
     }
@@ -1,12 +1,15 @@
 package com.mimimart.api.dto.banner;
 
+import com.mimimart.api.dto.image.ImageVariantResponse;
 import com.mimimart.infrastructure.persistence.entity.BannerEntity;
 import com.mimimart.infrastructure.persistence.entity.BannerStatus;
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 輪播圖回應 DTO
@@ -67,9 +70,24 @@ public class BannerResponse {
     private LocalDateTime unpublishedAt;
 
     /**
-     * 從 Entity 轉換為 Response DTO
+     * 圖片縮圖 (依寬度由小到大,尚未產生時為空)
+     */
+    private List<ImageVariantResponse> imageVariants;
+
+    /**
+     * 從 Entity 轉換為 Response DTO (不含縮圖)
      */
     public static BannerResponse from(BannerEntity entity) {
+        return from(entity, List.of());
+    }
+
+    /**
+     * 從 Entity 轉換為 Response DTO
+     *
+     * @param entity      輪播圖實體
+     * @param derivatives 圖片衍生檔 (可為 null)
+     */
+    public static BannerResponse from(BannerEntity entity, List<ImageDerivative> derivatives) {
         return new BannerResponse(
                 entity.getId(),
                 entity.getTitle(),
@@ -80,7 +98,8 @@ public class BannerResponse {
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
                 entity.getPublishedAt(),
-                entity.getUnpublishedAt()
+                entity.getUnpublishedAt(),
+                ImageVariantResponse.fromAll(derivatives)
         );
     }
 }
@@ -0,0 +1,49 @@
+package com.mimimart.api.dto.image;
+
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 圖片縮圖回應 DTO (供前台依裝置寬度選用,例如 srcset)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariantResponse {
+
+    /**
+     * 寬度 (px)
+     */
+    private Integer width;
+
+    /**
+     * 高度 (px)
+     */
+    private Integer height;
+
+    /**
+     * 縮圖 URL
+     */
+    private String url;
+
+    /**
+     * 從 Entity 轉換為 Response DTO
+     */
+    public static ImageVariantResponse from(ImageDerivative derivative) {
+        return new ImageVariantResponse(derivative.getWidth(), derivative.getHeight(), derivative.getUrl());
+    }
+
+    /**
+     * 批次轉換 (null 視為尚未產生)
+     */
+    public static List<ImageVariantResponse> fromAll(List<ImageDerivative> derivatives) {
+        if (derivatives == null) {
+            return List.of();
+        }
+        return derivatives.stream().map(ImageVariantResponse::from).toList();
+    }
+}
@@ -1,5 +1,7 @@
 package com.mimimart.api.dto.product;
 
+import com.mimimart.api.dto.image.ImageVariantResponse;
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
 import com.mimimart.infrastructure.persistence.entity.Product;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 商品回應 DTO (列表用)
@@ -26,11 +29,22 @@ public class ProductResponse {
     private LocalDateTime publishedAt;
     private LocalDateTime unpublishedAt;
     private LocalDateTime createdAt;
+    private List<ImageVariantResponse> imageVariants;
 
     /**
-     * 從 Entity 轉換
+     * 從 Entity 轉換 (不含縮圖)
      */
     public static ProductResponse from(Product product) {
+        return from(product, List.of());
+    }
+
+    /**
+     * 從 Entity 轉換
+     *
+     * @param product     商品實體
+     * @param derivatives 商品圖片衍生檔 (可為 null)
+     */
+    public static ProductResponse from(Product product, List<ImageDerivative> derivatives) {
         return new ProductResponse(
             product.getId(),
             product.getName(),
@@ -41,7 +55,8 @@ public class ProductResponse {
             product.getIsPublished(),
             product.getPublishedAt(),
             product.getUnpublishedAt(),
-            product.getCreatedAt()
+            product.getCreatedAt(),
+            ImageVariantResponse.fromAll(derivatives)
         );
     }
 }
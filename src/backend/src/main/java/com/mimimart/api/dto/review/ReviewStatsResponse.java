@@ -1,5 +1,6 @@
 package com.mimimart.api.dto.review;
 
+import com.mimimart.domain.review.model.ReviewSummary;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -39,4 +40,11 @@ public class ReviewStatsResponse {
     public static ReviewStatsResponse create(Long totalReviews, Double avgRating, Map<Integer, Long> distribution) {
         return new ReviewStatsResponse(totalReviews, avgRating, distribution);
     }
+
+    /**
+     * 由評價彙總建立統計回應
+     */
+    public static ReviewStatsResponse from(ReviewSummary summary) {
+        return create(summary.totalReviews(), summary.avgRating(), summary.ratingDistribution());
+    }
 }
@@ -0,0 +1,389 @@
+package com.mimimart.application.service;
+
+import com.mimimart.application.service.DeepseekService.TextGeneration;
+import com.mimimart.application.service.OpenAiImageService.ImageGeneration;
+import com.mimimart.domain.ai.exception.AiJobNotFoundException;
+import com.mimimart.domain.ai.exception.AiJobQueueFullException;
+import com.mimimart.infrastructure.persistence.entity.AiGenerationLog;
+import com.mimimart.shared.valueobject.AiGenerationStatus;
+import com.mimimart.shared.valueobject.AiProvider;
+import com.mimimart.shared.valueobject.GenerationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * AI 生成工作服務
+ *
+ * 後台 AI 生圖/生文案改為背景工作:提交後立即回傳工作 ID (即 AI 生成日誌 ID),由虛擬執行緒執行外部 API 調用,
+ * 不佔用 Tomcat 請求執行緒。同時等待與執行中的工作總數以 max-pending 限制,各提供商的並行數與逾時分別設定。
+ * 工作狀態 (PENDING → RUNNING → SUCCESS / FAILED) 與結果記錄於 ai_generation_log,可輪詢查詢或訂閱完成通知;
+ * 完成通知透過 Redis Pub/Sub 廣播,訂閱者連線的節點不需與執行節點相同。
+ * 狀態轉換皆為條件式更新 (僅由預期的舊狀態轉換),已標記為失敗的工作不會再被執行或覆寫為成功。
+ * 執行節點定期為等待與執行中的工作更新心跳,超過 stale-after 未收到心跳的工作 (節點重啟或中止) 標記為失敗並通知訂閱者。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class AiGenerationJobService implements MessageListener {
+
+    private static final String COMPLETION_CHANNEL = "ai:job:completed";
+
+    private final AiGenerationLogService aiGenerationLogService;
+    private final DeepseekService deepseekService;
+    private final OpenAiImageService openAiImageService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Semaphore pendingPermits;
+    private final Map<AiProvider, Semaphore> providerPermits = new EnumMap<>(AiProvider.class);
+    private final Map<AiProvider, Duration> providerTimeouts = new EnumMap<>(AiProvider.class);
+    private final Duration subscriptionTimeout;
+    private final Duration staleAfter;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<Long, List<Consumer<AiGenerationLog>>> completionListeners = new ConcurrentHashMap<>();
+    private final Set<Long> inFlightJobs = ConcurrentHashMap.newKeySet();
+
+    public AiGenerationJobService(AiGenerationLogService aiGenerationLogService,
+                                  DeepseekService deepseekService,
+                                  OpenAiImageService openAiImageService,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  @Value("${mimimart.ai.jobs.max-pending:50}") int maxPending,
+                                  @Value("${mimimart.ai.jobs.deepseek.max-concurrent:4}") int deepseekMaxConcurrent,
+                                  @Value("${mimimart.ai.jobs.deepseek.timeout-seconds:90}") long deepseekTimeoutSeconds,
+                                  @Value("${mimimart.ai.jobs.openai.max-concurrent:2}") int openAiMaxConcurrent,
+                                  @Value("${mimimart.ai.jobs.openai.timeout-seconds:180}") long openAiTimeoutSeconds,
+                                  @Value("${mimimart.ai.jobs.subscription-timeout-seconds:300}") long subscriptionTimeoutSeconds,
+                                  @Value("${mimimart.ai.jobs.stale-after-seconds:300}") long staleAfterSeconds) {
+        this.aiGenerationLogService = aiGenerationLogService;
+        this.deepseekService = deepseekService;
+        this.openAiImageService = openAiImageService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.pendingPermits = new Semaphore(maxPending);
+        this.providerPermits.put(AiProvider.DEEPSEEK, new Semaphore(deepseekMaxConcurrent));
+        this.providerPermits.put(AiProvider.OPENAI, new Semaphore(openAiMaxConcurrent));
+        this.providerTimeouts.put(AiProvider.DEEPSEEK, Duration.ofSeconds(deepseekTimeoutSeconds));
+        this.providerTimeouts.put(AiProvider.OPENAI, Duration.ofSeconds(openAiTimeoutSeconds));
+        this.subscriptionTimeout = Duration.ofSeconds(subscriptionTimeoutSeconds);
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+    }
+
+    /**
+     * 訂閱工作完成通知頻道
+     */
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(COMPLETION_CHANNEL));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("AI 生成工作執行器關閉逾時,中止執行中的工作");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交文案生成工作 (Deepseek)
+     *
+     * @param context     上下文或提示
+     * @param adminId     管理員 ID
+     * @param apiEndpoint 調用的 API 端點
+     * @return 工作 (狀態 PENDING)
+     * @throws AiJobQueueFullException 當等待中的工作已達上限時
+     */
+    public AiGenerationLog submitDescription(String context, Long adminId, String apiEndpoint) {
+        return submit(adminId, apiEndpoint, GenerationType.TEXT, AiProvider.DEEPSEEK,
+                deepseekService.getModel(), deepseekService.buildUserPrompt(context), () -> {
+                    TextGeneration generation = deepseekService.complete(context);
+                    return new Completion(generation.text(), null, generation.tokensUsed(), generation.cost());
+                });
+    }
+
+    /**
+     * 提交圖片生成工作 (OpenAI)
+     *
+     * @param prompt      圖片描述
+     * @param adminId     管理員 ID
+     * @param apiEndpoint 調用的 API 端點
+     * @return 工作 (狀態 PENDING)
+     * @throws AiJobQueueFullException 當等待中的工作已達上限時
+     */
+    public AiGenerationLog submitImage(String prompt, Long adminId, String apiEndpoint) {
+        return submit(adminId, apiEndpoint, GenerationType.IMAGE, AiProvider.OPENAI,
+                openAiImageService.getModel(), prompt, () -> {
+                    ImageGeneration generation = openAiImageService.generate(prompt);
+                    // 回應內容為 OpenAI 的臨時 URL,DALL-E 不回傳 token 用量
+                    return new Completion(generation.imageUrl(), generation.s3Key(), null, generation.cost());
+                });
+    }
+
+    /**
+     * 查詢工作 (僅限提交的管理員)
+     *
+     * @param jobId   工作 ID
+     * @param adminId 管理員 ID
+     * @return 工作
+     * @throws AiJobNotFoundException 當工作不存在或不屬於該管理員時
+     */
+    public AiGenerationLog getJob(Long jobId, Long adminId) {
+        return aiGenerationLogService.findById(jobId)
+                .filter(job -> job.getAdminId().equals(adminId))
+                .orElseThrow(() -> new AiJobNotFoundException(jobId));
+    }
+
+    /**
+     * 註冊工作完成回呼 (每個回呼最多執行一次;工作已完成時立即執行)
+     *
+     * @param jobId    工作 ID
+     * @param listener 完成回呼,參數為完成的工作
+     * @return 取消註冊的動作 (訂閱逾時或連線中斷時呼叫)
+     */
+    public Runnable onCompletion(Long jobId, Consumer<AiGenerationLog> listener) {
+        AtomicBoolean fired = new AtomicBoolean();
+        Consumer<AiGenerationLog> once = job -> {
+            if (fired.compareAndSet(false, true)) {
+                listener.accept(job);
+            }
+        };
+        completionListeners.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(once);
+        Runnable unregister = () -> completionListeners.computeIfPresent(jobId, (id, listeners) -> {
+            listeners.remove(once);
+            return listeners.isEmpty() ? null : listeners;
+        });
+
+        // 先註冊再查詢,避免查詢後、註冊前完成的工作遺漏通知
+        aiGenerationLogService.findById(jobId)
+                .filter(AiGenerationJobService::isCompleted)
+                .ifPresent(job -> {
+                    unregister.run();
+                    once.accept(job);
+                });
+        return unregister;
+    }
+
+    /**
+     * 接收工作完成通知 (含其他節點執行的工作),通知本節點的訂閱者
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Long jobId;
+        try {
+            jobId = Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid AI job completion message: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+            return;
+        }
+        if (!completionListeners.containsKey(jobId)) {
+            return;
+        }
+        aiGenerationLogService.findById(jobId)
+                .filter(AiGenerationJobService::isCompleted)
+                .ifPresent(this::notifyLocal);
+    }
+
+    /**
+     * 訂閱完成通知的最長等待時間 (SSE 與同步端點使用)
+     */
+    public Duration getSubscriptionTimeout() {
+        return subscriptionTimeout;
+    }
+
+    /**
+     * 更新本節點等待與執行中工作的心跳
+     */
+    @Scheduled(fixedDelayString = "${mimimart.ai.jobs.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        if (inFlightJobs.isEmpty()) {
+            return;
+        }
+        try {
+            aiGenerationLogService.heartbeat(List.copyOf(inFlightJobs));
+        } catch (Exception e) {
+            log.warn("AI 生成工作心跳更新失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 將超過 stale-after 未收到心跳的工作標記為失敗 (執行節點重啟或中止時遺留的工作),並通知訂閱者
+     *
+     * @return 標記筆數
+     */
+    @Scheduled(fixedDelayString = "${mimimart.ai.jobs.stale-sweep-interval-ms:60000}")
+    public int failStaleJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        int failed = 0;
+        for (Long jobId : aiGenerationLogService.findStaleJobIds(cutoff)) {
+            AiGenerationLog job = aiGenerationLogService
+                    .failStaleJob(jobId, cutoff, "AI 生成工作逾時未完成 (服務重啟或中斷)")
+                    .orElse(null);
+            if (job != null) {
+                failed++;
+                publishCompletion(job);
+            }
+        }
+        if (failed > 0) {
+            log.warn("已將 {} 筆逾時未完成的 AI 生成工作標記為失敗", failed);
+        }
+        return failed;
+    }
+
+    /**
+     * 工作是否已完成 (成功或失敗)
+     */
+    public static boolean isCompleted(AiGenerationLog job) {
+        return job.getStatus() == AiGenerationStatus.SUCCESS || job.getStatus() == AiGenerationStatus.FAILED;
+    }
+
+    private AiGenerationLog submit(Long adminId, String apiEndpoint, GenerationType generationType,
+                                   AiProvider provider, String modelName, String prompt,
+                                   Callable<Completion> task) {
+        if (!pendingPermits.tryAcquire()) {
+            throw new AiJobQueueFullException("AI 生成工作過多,請稍後再試");
+        }
+
+        AiGenerationLog job;
+        try {
+            job = aiGenerationLogService.createJob(adminId, apiEndpoint, generationType, provider, modelName, prompt);
+        } catch (RuntimeException e) {
+            pendingPermits.release();
+            throw e;
+        }
+
+        Long jobId = job.getId();
+        inFlightJobs.add(jobId);
+        try {
+            executor.execute(() -> execute(jobId, provider, task));
+        } catch (RejectedExecutionException e) {
+            inFlightJobs.remove(jobId);
+            pendingPermits.release();
+            fail(jobId, "服務關閉中,AI 生成工作未執行");
+            throw new AiJobQueueFullException("服務關閉中,請稍後再試");
+        }
+        return job;
+    }
+
+    private void execute(Long jobId, AiProvider provider, Callable<Completion> task) {
+        Semaphore permits = providerPermits.get(provider);
+        Duration timeout = providerTimeouts.get(provider);
+        AiGenerationLog completed = null;
+        try {
+            permits.acquire();
+            try {
+                if (!aiGenerationLogService.markRunning(jobId)) {
+                    log.warn("AI 生成工作已不在等待中,略過執行 - JobId: {}", jobId);
+                    return;
+                }
+                Completion result = callWithTimeout(task, timeout);
+                completed = aiGenerationLogService.markSuccess(jobId, result.responseContent(), result.s3Key(),
+                        result.tokensUsed(), result.costUsd()).orElse(null);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = fail(jobId, "AI 生成工作已中止");
+        } catch (TimeoutException e) {
+            log.warn("AI 生成工作逾時 - JobId: {}, Provider: {}, Timeout: {}s", jobId, provider, timeout.toSeconds());
+            completed = fail(jobId, "AI 生成逾時 (" + timeout.toSeconds() + " 秒)");
+        } catch (Exception e) {
+            log.error("AI 生成工作失敗 - JobId: {}, Provider: {}, Error: {}", jobId, provider, e.getMessage(), e);
+            completed = fail(jobId, e.getMessage());
+        } finally {
+            inFlightJobs.remove(jobId);
+            pendingPermits.release();
+        }
+
+        if (completed != null) {
+            publishCompletion(completed);
+        }
+    }
+
+    /**
+     * 於獨立虛擬執行緒執行外部調用,逾時時中斷 (虛擬執行緒上的阻塞 Socket I/O 可被中斷)
+     */
+    private Completion callWithTimeout(Callable<Completion> task, Duration timeout) throws Exception {
+        Future<Completion> future = executor.submit(task);
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AiGenerationLog fail(Long jobId, String errorMessage) {
+        try {
+            return aiGenerationLogService.markFailure(jobId, errorMessage).orElse(null);
+        } catch (Exception e) {
+            log.error("AI 生成工作狀態更新失敗 - JobId: {}, Error: {}", jobId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void publishCompletion(AiGenerationLog job) {
+        // 先通知本節點,不依賴訊息回送
+        notifyLocal(job);
+        try {
+            redisTemplate.convertAndSend(COMPLETION_CHANNEL, String.valueOf(job.getId()));
+        } catch (Exception e) {
+            // Redis 不可用時其他節點的訂閱者於逾時後改以輪詢取得結果
+            log.warn("Failed to publish AI job completion: jobId={}", job.getId(), e);
+        }
+    }
+
+    private void notifyLocal(AiGenerationLog job) {
+        List<Consumer<AiGenerationLog>> listeners = completionListeners.remove(job.getId());
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<AiGenerationLog> listener : listeners) {
+            try {
+                listener.accept(job);
+            } catch (Exception e) {
+                log.warn("AI 生成工作完成通知失敗 - JobId: {}, Error: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 外部調用結果
+     *
+     * @param responseContent AI 回應內容
+     * @param s3Key           生成圖片的 S3 Key (僅生圖)
+     * @param tokensUsed      Token 用量
+     * @param costUsd         估算成本 (USD)
+     */
+    private record Completion(String responseContent, String s3Key, Integer tokensUsed, BigDecimal costUsd) {
+    }
+}
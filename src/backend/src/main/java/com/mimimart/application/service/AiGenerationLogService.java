@@ -15,7 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * AI 生成日誌服務
@@ -28,6 +30,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AiGenerationLogService {
 
+    private static final List<AiGenerationStatus> INCOMPLETE_STATUSES =
+            List.of(AiGenerationStatus.PENDING, AiGenerationStatus.RUNNING);
+
     private final AiGenerationLogRepository aiGenerationLogRepository;
 
     /**
@@ -59,6 +64,7 @@ public class AiGenerationLogService {
         entity.setCostUsd(costUsd);
         entity.setStatus(AiGenerationStatus.SUCCESS);
         entity.setCreatedAt(LocalDateTime.now());
+        entity.setCompletedAt(entity.getCreatedAt());
 
         AiGenerationLog saved = aiGenerationLogRepository.save(entity);
         log.info("AI 生成調用記錄成功 - LogId: {}, AdminId: {}, Type: {}, Provider: {}",
@@ -89,6 +95,7 @@ public class AiGenerationLogService {
         entity.setStatus(AiGenerationStatus.FAILED);
         entity.setErrorMessage(errorMessage);
         entity.setCreatedAt(LocalDateTime.now());
+        entity.setCompletedAt(entity.getCreatedAt());
 
         AiGenerationLog saved = aiGenerationLogRepository.save(entity);
         log.warn("AI 生成調用失敗 - LogId: {}, AdminId: {}, Error: {}",
@@ -96,6 +103,129 @@ public class AiGenerationLogService {
         return saved;
     }
 
+    /**
+     * 建立 AI 生成工作 (狀態 PENDING,日誌記錄 ID 即工作 ID)
+     */
+    @Transactional
+    public AiGenerationLog createJob(
+            Long adminId,
+            String apiEndpoint,
+            GenerationType generationType,
+            AiProvider aiProvider,
+            String modelName,
+            String prompt) {
+
+        AiGenerationLog entity = new AiGenerationLog();
+        entity.setAdminId(adminId);
+        entity.setApiEndpoint(apiEndpoint);
+        entity.setGenerationType(generationType);
+        entity.setAiProvider(aiProvider);
+        entity.setModelName(modelName);
+        entity.setPrompt(prompt);
+        entity.setStatus(AiGenerationStatus.PENDING);
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setHeartbeatAt(entity.getCreatedAt());
+
+        AiGenerationLog saved = aiGenerationLogRepository.save(entity);
+        log.info("AI 生成工作已提交 - JobId: {}, AdminId: {}, Type: {}, Provider: {}",
+                saved.getId(), adminId, generationType, aiProvider);
+        return saved;
+    }
+
+    /**
+     * 標記工作開始執行 (僅限狀態仍為 PENDING)
+     *
+     * @return 是否成功標記 (false 表示工作已被標記為失敗,不應執行)
+     */
+    @Transactional
+    public boolean markRunning(Long jobId) {
+        return aiGenerationLogRepository.markRunningIfPending(jobId, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * 標記工作成功並記錄生成結果 (僅限狀態仍為 RUNNING)
+     *
+     * @return 更新後的工作;工作已被標記為失敗等其他狀態時為空
+     */
+    @Transactional
+    public Optional<AiGenerationLog> markSuccess(
+            Long jobId,
+            String responseContent,
+            String s3Key,
+            Integer tokensUsed,
+            BigDecimal costUsd) {
+
+        if (aiGenerationLogRepository.markSuccessIfRunning(
+                jobId, responseContent, s3Key, tokensUsed, costUsd, LocalDateTime.now()) == 0) {
+            log.warn("AI 生成工作已不在執行中,捨棄生成結果 - JobId: {}", jobId);
+            return Optional.empty();
+        }
+        return aiGenerationLogRepository.findById(jobId).map(entity -> {
+            log.info("AI 生成工作成功 - JobId: {}, AdminId: {}, Type: {}, Provider: {}",
+                    jobId, entity.getAdminId(), entity.getGenerationType(), entity.getAiProvider());
+            return entity;
+        });
+    }
+
+    /**
+     * 標記工作失敗 (僅限尚未完成的工作)
+     *
+     * @return 更新後的工作;工作已完成時為空
+     */
+    @Transactional
+    public Optional<AiGenerationLog> markFailure(Long jobId, String errorMessage) {
+        return markFailed(jobId, errorMessage, null);
+    }
+
+    /**
+     * 更新執行節點的心跳時間
+     *
+     * @param jobIds 本節點等待或執行中的工作 ID
+     */
+    @Transactional
+    public void heartbeat(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        aiGenerationLogRepository.touchHeartbeat(jobIds, INCOMPLETE_STATUSES, LocalDateTime.now());
+    }
+
+    /**
+     * 查詢最後心跳早於 cutoff 的未完成工作 ID
+     */
+    public List<Long> findStaleJobIds(LocalDateTime cutoff) {
+        return aiGenerationLogRepository.findStaleJobIds(INCOMPLETE_STATUSES, cutoff);
+    }
+
+    /**
+     * 將逾時的工作標記為失敗 (標記前已重新收到心跳或已完成時不更新)
+     *
+     * @return 更新後的工作;未標記時為空
+     */
+    @Transactional
+    public Optional<AiGenerationLog> failStaleJob(Long jobId, LocalDateTime cutoff, String errorMessage) {
+        return markFailed(jobId, errorMessage, cutoff);
+    }
+
+    private Optional<AiGenerationLog> markFailed(Long jobId, String errorMessage, LocalDateTime heartbeatBefore) {
+        if (aiGenerationLogRepository.markFailedIfIncomplete(
+                jobId, INCOMPLETE_STATUSES, errorMessage, heartbeatBefore, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return aiGenerationLogRepository.findById(jobId).map(entity -> {
+            log.warn("AI 生成工作失敗 - JobId: {}, AdminId: {}, Error: {}",
+                    jobId, entity.getAdminId(), errorMessage);
+            return entity;
+        });
+    }
+
+    /**
+     * 查詢 AI 生成記錄 (工作)
+     */
+    public Optional<AiGenerationLog> findById(Long id) {
+        return aiGenerationLogRepository.findById(id);
+    }
+
     /**
      * 查詢指定管理員的 AI 生成記錄
      */
@@ -12,6 +12,7 @@ import com.mimimart.domain.member.exception.ResetTokenExpiredException;
 import com.mimimart.domain.member.exception.VerificationTokenExpiredException;
 import com.mimimart.infrastructure.persistence.entity.Member;
 import com.mimimart.infrastructure.persistence.repository.MemberRepository;
+import com.mimimart.infrastructure.security.AuthStateCache;
 import com.mimimart.infrastructure.security.JwtUtil;
 import com.mimimart.shared.valueobject.EmailType;
 import com.mimimart.shared.valueobject.MemberStatus;
@@ -39,6 +40,7 @@ public class AuthService {
     private final EmailService emailService;
     private final EmailRateLimitService emailRateLimitService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final AuthStateCache authStateCache;
 
     public AuthService(MemberRepository memberRepository,
                       PasswordEncoder passwordEncoder,
@@ -46,7 +48,8 @@ public class AuthService {
                       RefreshTokenService refreshTokenService,
                       EmailService emailService,
                       EmailRateLimitService emailRateLimitService,
-                      TokenBlacklistService tokenBlacklistService) {
+                      TokenBlacklistService tokenBlacklistService,
+                      AuthStateCache authStateCache) {
         this.memberRepository = memberRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
@@ -54,6 +57,7 @@ public class AuthService {
         this.emailService = emailService;
         this.emailRateLimitService = emailRateLimitService;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.authStateCache = authStateCache;
     }
 
     /**
@@ -153,6 +157,7 @@ public class AuthService {
                 if (jwtUtil.validateToken(accessToken)) {
                     java.util.Date expiresAt = jwtUtil.extractClaims(accessToken).getExpiration();
                     tokenBlacklistService.addToBlacklist(accessToken, expiresAt);
+                    authStateCache.markRevoked(accessToken);
                 }
             } catch (Exception e) {
                 // Token 無效或已過期，忽略錯誤
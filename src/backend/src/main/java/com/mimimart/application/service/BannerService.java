@@ -2,10 +2,12 @@ package com.mimimart.application.service;
 
 import com.mimimart.domain.banner.exception.BannerNotFoundException;
 import com.mimimart.domain.banner.exception.InvalidBannerOrderException;
+import com.mimimart.infrastructure.cache.ActiveBannerCache;
 import com.mimimart.infrastructure.persistence.entity.BannerEntity;
 import com.mimimart.infrastructure.persistence.entity.BannerStatus;
 import com.mimimart.infrastructure.persistence.repository.BannerRepository;
 import com.mimimart.infrastructure.storage.S3StorageService;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,8 @@ public class BannerService {
 
     private final BannerRepository bannerRepository;
     private final S3StorageService s3StorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ActiveBannerCache activeBannerCache;
 
     /**
      * 查詢所有啟用的輪播圖 (前台使用)
@@ -33,12 +37,14 @@ public class BannerService {
      * 2. 已到上架時間 (publishedAt IS NULL OR publishedAt <= now)
      * 3. 未到下架時間 (unpublishedAt IS NULL OR unpublishedAt > now)
      *
+     * 結果由本地快照提供,快照於下一個上架/下架時間點到期,後台異動時失效
+     *
      * @return 啟用且在上架期間的輪播圖列表,按顯示順序排序
      */
-    @Transactional(readOnly = true)
     public List<BannerEntity> getActiveBanners() {
-        log.info("查詢所有啟用且已上架的輪播圖");
-        return bannerRepository.findPublishedBanners(BannerStatus.ACTIVE, LocalDateTime.now());
+        log.debug("查詢所有啟用且已上架的輪播圖");
+        return activeBannerCache.getActiveBanners(
+                () -> bannerRepository.findByStatusOrderByDisplayOrderAsc(BannerStatus.ACTIVE));
     }
 
     /**
@@ -104,8 +110,12 @@ public class BannerService {
         banner.setStatus(BannerStatus.ACTIVE); // 預設啟用
 
         BannerEntity savedBanner = bannerRepository.save(banner);
+        activeBannerCache.evict();
         log.info("輪播圖建立成功 - BannerId: {}, ImageUrl: {}", savedBanner.getId(), imageUrl);
 
+        // 提交後於背景產生縮圖
+        TransactionCallbacks.afterCommit(() -> imageDerivativeService.generateAsync(imageUrl));
+
         return savedBanner;
     }
 
@@ -145,6 +155,7 @@ public class BannerService {
         banner.setUnpublishedAt(unpublishedAt);
 
         BannerEntity updatedBanner = bannerRepository.save(banner);
+        activeBannerCache.evict();
         log.info("輪播圖更新成功 - BannerId: {}", bannerId);
 
         return updatedBanner;
@@ -192,14 +203,21 @@ public class BannerService {
         banner.setUnpublishedAt(unpublishedAt);
 
         BannerEntity updatedBanner = bannerRepository.save(banner);
-
-        // 刪除舊圖片
-        try {
-            s3StorageService.deleteBanner(oldImageUrl);
-            log.info("舊圖片刪除成功 - OldImageUrl: {}", oldImageUrl);
-        } catch (Exception e) {
-            log.warn("舊圖片刪除失敗 (不影響更新操作) - OldImageUrl: {}, Error: {}", oldImageUrl, e.getMessage());
-        }
+        activeBannerCache.evict();
+
+        // 提交後於背景產生新圖片的縮圖
+        TransactionCallbacks.afterCommit(() -> imageDerivativeService.generateAsync(newImageUrl));
+
+        // 提交後刪除舊圖片 (含縮圖),回滾時舊圖片仍被引用
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                imageDerivativeService.deleteDerivatives(oldImageUrl);
+                s3StorageService.deleteBanner(oldImageUrl);
+                log.info("舊圖片刪除成功 - OldImageUrl: {}", oldImageUrl);
+            } catch (Exception e) {
+                log.warn("舊圖片刪除失敗 (不影響更新操作) - OldImageUrl: {}, Error: {}", oldImageUrl, e.getMessage());
+            }
+        });
 
         log.info("輪播圖更新成功 (含圖片替換) - BannerId: {}, NewImageUrl: {}", bannerId, newImageUrl);
         return updatedBanner;
@@ -221,14 +239,18 @@ public class BannerService {
 
         // 刪除資料庫記錄
         bannerRepository.delete(banner);
-
-        // 刪除 S3 圖片
-        try {
-            s3StorageService.deleteBanner(imageUrl);
-            log.info("輪播圖刪除成功 - BannerId: {}, ImageUrl: {}", bannerId, imageUrl);
-        } catch (Exception e) {
-            log.warn("圖片刪除失敗 (資料庫記錄已刪除) - ImageUrl: {}, Error: {}", imageUrl, e.getMessage());
-        }
+        activeBannerCache.evict();
+
+        // 提交後刪除 S3 圖片 (含縮圖)
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                imageDerivativeService.deleteDerivatives(imageUrl);
+                s3StorageService.deleteBanner(imageUrl);
+                log.info("輪播圖刪除成功 - BannerId: {}, ImageUrl: {}", bannerId, imageUrl);
+            } catch (Exception e) {
+                log.warn("圖片刪除失敗 (資料庫記錄已刪除) - ImageUrl: {}, Error: {}", imageUrl, e.getMessage());
+            }
+        });
     }
 
     /**
@@ -246,6 +268,7 @@ public class BannerService {
         banner.activate();
 
         BannerEntity activatedBanner = bannerRepository.save(banner);
+        activeBannerCache.evict();
         log.info("輪播圖啟用成功 - BannerId: {}", bannerId);
 
         return activatedBanner;
@@ -266,6 +289,7 @@ public class BannerService {
         banner.deactivate();
 
         BannerEntity deactivatedBanner = bannerRepository.save(banner);
+        activeBannerCache.evict();
         log.info("輪播圖停用成功 - BannerId: {}", bannerId);
 
         return deactivatedBanner;
@@ -291,6 +315,7 @@ public class BannerService {
         banner.updateOrder(newOrder);
 
         BannerEntity updatedBanner = bannerRepository.save(banner);
+        activeBannerCache.evict();
         log.info("輪播圖順序更新成功 - BannerId: {}, NewOrder: {}", bannerId, newOrder);
 
         return updatedBanner;
@@ -3,18 +3,21 @@ package com.mimimart.application.service;
 import com.mimimart.api.dto.cart.*;
 import com.mimimart.domain.cart.exception.CartFullException;
 import com.mimimart.domain.cart.exception.CartItemNotFoundException;
+import com.mimimart.domain.cart.exception.InvalidQuantityException;
+import com.mimimart.domain.cart.model.Cart;
 import com.mimimart.domain.cart.model.CartItem;
+import com.mimimart.domain.cart.service.CartMergeService;
 import com.mimimart.domain.product.exception.ProductNotFoundException;
-import com.mimimart.infrastructure.persistence.entity.MemberCart;
+import com.mimimart.infrastructure.cache.MemberCartWriteBehindBuffer;
 import com.mimimart.infrastructure.persistence.entity.Product;
-import com.mimimart.infrastructure.persistence.repository.MemberCartRepository;
 import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductWithCategoryName;
 import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.AddResult;
 import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -23,6 +26,7 @@ import java.util.stream.Collectors;
 /**
  * 購物車應用服務 (使用 Redis 儲存購物車項目)
  * 職責: 協調 Redis、資料庫、領域模型
+ * 購物車異動在請求路徑上只寫入 Redis,會員購物車主表由 MemberCartWriteBehindBuffer 延遲批次更新
  *
  * @author MimiMart Development Team
  * @since 1.0.0
@@ -33,12 +37,13 @@ import java.util.stream.Collectors;
 public class CartService {
 
     private final RedisCartItemRepository redisCartItemRepository;
-    private final MemberCartRepository memberCartRepository;
+    private final MemberCartWriteBehindBuffer memberCartWriteBehindBuffer;
     private final ProductRepository productRepository;
+    private final CartMergeService cartMergeService;
 
     /**
      * 查詢會員的購物車摘要(含商品完整資訊)
-     * 流程: Redis → 批次查詢商品 → 組合 DTO
+     * 流程: Redis → 批次查詢商品與分類名稱 (單一查詢,與購物車項目數無關) → 組合 DTO
      */
     public CartSummaryDTO getCart(Long memberId) {
         // 1. 從 Redis 載入購物車項目
@@ -53,18 +58,18 @@ public class CartService {
                     .build();
         }
 
-        // 2. 批次查詢商品資訊 (優化 N+1 查詢)
+        // 2. 批次查詢商品資訊與分類名稱 (優化 N+1 查詢)
         Set<Long> productIds = cartItems.keySet();
-        Map<Long, Product> productMap = productRepository.findAllById(productIds)
+        Map<Long, ProductWithCategoryName> productMap = productRepository.findWithCategoryNameByIdIn(productIds)
                 .stream()
-                .collect(Collectors.toMap(Product::getId, p -> p));
+                .collect(Collectors.toMap(row -> row.product().getId(), row -> row));
 
         // 3. 組合 CartItemDTO (同步最新價格)
         List<CartItemDTO> itemDTOs = cartItems.entrySet().stream()
                 .map(entry -> {
                     Long productId = entry.getKey();
                     CartItemValue value = entry.getValue();
-                    Product product = productMap.get(productId);
+                    ProductWithCategoryName product = productMap.get(productId);
 
                     // 若商品已被刪除,跳過該項目
                     if (product == null) {
@@ -87,61 +92,42 @@ public class CartService {
      * - 若商品已存在,則累加數量
      * - 若商品不存在,則新增項目
      */
-    @Transactional
     public CartItemDTO addToCart(Long memberId, AddToCartRequest request) {
         // 1. 驗證商品是否存在
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ProductNotFoundException(request.getProductId()));
+        ProductWithCategoryName product = findProduct(request.getProductId());
 
-        // 2. 確保會員購物車主表存在
-        MemberCart memberCart = getOrCreateMemberCart(memberId);
+        // 2. 驗證加入數量
+        CartItem.of(request.getProductId(), request.getQuantity());
 
-        // 3. 檢查購物車項目數量上限
-        Long currentItemsCount = redisCartItemRepository.countByMemberId(memberId);
-        boolean isNewItem = !redisCartItemRepository.exists(memberId, request.getProductId());
+        // 3. 原子檢查項目數上限並累加數量 (Lua 腳本,單次 Redis 往返)
+        int maxItemsCount = memberCartWriteBehindBuffer.getMaxItemsCount(memberId);
+        AddResult result = redisCartItemRepository.add(memberId, request.getProductId(), request.getQuantity(),
+                maxItemsCount, CartItem.getMaxQuantityPerItem());
 
-        if (isNewItem && currentItemsCount >= memberCart.getMaxItemsCount()) {
-            throw new CartFullException(memberCart.getMaxItemsCount());
+        if (result.status() == AddResult.Status.CART_FULL) {
+            throw new CartFullException(maxItemsCount);
         }
-
-        // 4. 建立領域模型並驗證數量
-        Integer currentQuantity = redisCartItemRepository.getQuantity(memberId, request.getProductId());
-        Integer newQuantity;
-
-        if (currentQuantity == null) {
-            // 新增項目
-            CartItem.of(request.getProductId(), request.getQuantity()); // 驗證數量
-            newQuantity = request.getQuantity();
-        } else {
-            // 累加數量
-            CartItem existingItem = CartItem.of(request.getProductId(), currentQuantity);
-            CartItem updatedItem = existingItem.addQuantity(request.getQuantity());
-            newQuantity = updatedItem.getQuantity();
+        if (result.status() == AddResult.Status.QUANTITY_EXCEEDED) {
+            throw InvalidQuantityException.exceedsLimit(result.quantity(), CartItem.getMaxQuantityPerItem());
         }
 
-        // 5. 儲存至 Redis
-        redisCartItemRepository.save(memberId, request.getProductId(), newQuantity);
-
-        // 6. 更新主表時間戳
-        memberCart.setUpdatedAt(java.time.LocalDateTime.now());
-        memberCartRepository.save(memberCart);
+        // 4. 標記主表時間戳待更新
+        memberCartWriteBehindBuffer.markDirty(memberId);
 
-        // 7. 回傳 DTO (包含庫存警告)
-        CartItemValue cartItemValue = new CartItemValue(newQuantity, System.currentTimeMillis());
+        // 5. 回傳 DTO (包含庫存警告)
+        CartItemValue cartItemValue = new CartItemValue(result.quantity(), result.addedAt());
         return buildCartItemDTO(product, cartItemValue);
     }
 
     /**
      * 更新購物車項目數量
      */
-    @Transactional
     public CartItemDTO updateQuantity(Long memberId, UpdateCartItemRequest request) {
         Long productId = request.getProductId();
         Integer newQuantity = request.getQuantity();
 
         // 1. 驗證商品是否存在
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
+        ProductWithCategoryName product = findProduct(productId);
 
         // 2. 檢查購物車項目是否存在
         if (!redisCartItemRepository.exists(memberId, productId)) {
@@ -154,10 +140,8 @@ public class CartService {
         // 4. 更新 Redis
         redisCartItemRepository.save(memberId, productId, newQuantity);
 
-        // 5. 更新主表時間戳
-        MemberCart memberCart = getOrCreateMemberCart(memberId);
-        memberCart.setUpdatedAt(java.time.LocalDateTime.now());
-        memberCartRepository.save(memberCart);
+        // 5. 標記主表時間戳待更新
+        memberCartWriteBehindBuffer.markDirty(memberId);
 
         // 6. 回傳 DTO
         CartItemValue cartItemValue = new CartItemValue(newQuantity, System.currentTimeMillis());
@@ -167,7 +151,6 @@ public class CartService {
     /**
      * 移除購物車項目
      */
-    @Transactional
     public void removeItem(Long memberId, RemoveCartItemRequest request) {
         Long productId = request.getProductId();
 
@@ -179,10 +162,8 @@ public class CartService {
         // 2. 從 Redis 刪除
         redisCartItemRepository.delete(memberId, productId);
 
-        // 3. 更新主表時間戳
-        MemberCart memberCart = getOrCreateMemberCart(memberId);
-        memberCart.setUpdatedAt(java.time.LocalDateTime.now());
-        memberCartRepository.save(memberCart);
+        // 3. 標記主表時間戳待更新
+        memberCartWriteBehindBuffer.markDirty(memberId);
 
         log.info("Removed product {} from cart for member {}", productId, memberId);
     }
@@ -190,110 +171,108 @@ public class CartService {
     /**
      * 清空購物車
      */
-    @Transactional
     public void clearCart(Long memberId) {
         // 從 Redis 清空
         redisCartItemRepository.deleteAll(memberId);
 
-        // 更新主表時間戳
-        MemberCart memberCart = getOrCreateMemberCart(memberId);
-        memberCart.setUpdatedAt(java.time.LocalDateTime.now());
-        memberCartRepository.save(memberCart);
+        // 標記主表時間戳待更新
+        memberCartWriteBehindBuffer.markDirty(memberId);
 
         log.info("Cleared cart for member {}", memberId);
     }
 
     /**
      * 合併購物車(登入時將前端 LocalStorage 資料同步至後端)
-     * 策略: 相同商品累加數量,不超過上限
+     * 策略: 相同商品累加數量,不超過上限 (CartMergeService.mergeByAddition)
+     * Redis 往返次數與訪客購物車項目數無關: 讀取會員購物車一次、批次寫入一次
      */
-    @Transactional
     public CartSummaryDTO mergeCart(Long memberId, MergeCartRequest request) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             return getCart(memberId);
         }
 
-        // 1. 確保會員購物車主表存在
-        MemberCart memberCart = getOrCreateMemberCart(memberId);
+        // 1. 取得購物車項目上限
+        int maxItemsCount = memberCartWriteBehindBuffer.getMaxItemsCount(memberId);
 
         // 2. 載入會員現有購物車
         Map<Long, CartItemValue> memberCartItems = redisCartItemRepository.findAllByMemberId(memberId);
+        Cart memberCart = Cart.reconstruct(memberId, memberCartItems.entrySet().stream()
+                .map(entry -> CartItem.fromTimestamp(entry.getKey(), entry.getValue().quantity, entry.getValue().addedAt))
+                .toList());
 
         // 3. 驗證訪客購物車商品是否存在
         Set<Long> guestProductIds = request.getItems().stream()
                 .map(MergeCartRequest.MergeCartItem::getProductId)
                 .collect(Collectors.toSet());
 
-        Map<Long, Product> productMap = productRepository.findAllById(guestProductIds)
+        Set<Long> existingProductIds = productRepository.findAllById(guestProductIds)
                 .stream()
-                .collect(Collectors.toMap(Product::getId, p -> p));
+                .map(Product::getId)
+                .collect(Collectors.toSet());
 
-        // 4. 合併購物車項目
+        // 4. 建立訪客購物車 (略過不存在的商品、不合法的數量與超過項目數上限的新商品)
+        Cart guestCart = Cart.create(memberId);
+        Set<Long> mergedProductIds = new LinkedHashSet<>();
+        int availableSlots = maxItemsCount - memberCart.getItemSize();
         for (MergeCartRequest.MergeCartItem guestItem : request.getItems()) {
             Long productId = guestItem.getProductId();
-            Integer guestQuantity = guestItem.getQuantity();
 
             // 跳過不存在的商品
-            if (!productMap.containsKey(productId)) {
+            if (!existingProductIds.contains(productId)) {
                 log.warn("Product {} not found during cart merge, skipping", productId);
                 continue;
             }
 
+            // 檢查購物車項目數量上限
+            boolean isNewItem = !memberCart.containsProduct(productId) && !guestCart.containsProduct(productId);
+            if (isNewItem && availableSlots <= 0) {
+                log.warn("Cart full, skipping product {} during merge", productId);
+                continue;
+            }
+
             // 驗證數量
             try {
-                CartItem.of(productId, guestQuantity);
+                guestCart.addProduct(productId, guestItem.getQuantity());
             } catch (Exception e) {
                 log.warn("Invalid quantity for product {} during merge, skipping", productId);
                 continue;
             }
 
-            // 合併邏輯: 累加數量
-            CartItemValue memberValue = memberCartItems.get(productId);
-            Integer finalQuantity;
-
-            if (memberValue == null) {
-                // 會員購物車沒有此商品,直接加入
-                finalQuantity = guestQuantity;
-            } else {
-                // 累加數量,但不超過上限
-                int maxQuantity = CartItem.getMaxQuantityPerItem();
-                finalQuantity = Math.min(memberValue.quantity + guestQuantity, maxQuantity);
-            }
-
-            // 檢查購物車項目數量上限
-            Long currentItemsCount = redisCartItemRepository.countByMemberId(memberId);
-            if (memberValue == null && currentItemsCount >= memberCart.getMaxItemsCount()) {
-                log.warn("Cart full, skipping product {} during merge", productId);
-                continue;
+            if (isNewItem) {
+                availableSlots--;
             }
+            mergedProductIds.add(productId);
+        }
 
-            // 儲存至 Redis
-            redisCartItemRepository.save(memberId, productId, finalQuantity);
+        // 5. 合併並批次寫入 Redis (單次往返)
+        cartMergeService.mergeByAddition(memberCart, guestCart);
+        Map<Long, Integer> mergedQuantities = new LinkedHashMap<>();
+        for (Long productId : mergedProductIds) {
+            mergedQuantities.put(productId, memberCart.getQuantity(productId));
         }
+        redisCartItemRepository.saveAll(memberId, mergedQuantities, maxItemsCount);
 
-        // 5. 更新主表時間戳
-        memberCart.setUpdatedAt(java.time.LocalDateTime.now());
-        memberCartRepository.save(memberCart);
+        // 6. 標記主表時間戳待更新
+        memberCartWriteBehindBuffer.markDirty(memberId);
 
-        // 6. 回傳合併後的購物車
+        // 7. 回傳合併後的購物車
         return getCart(memberId);
     }
 
     /**
-     * 取得或建立會員購物車主表
+     * 查詢商品與分類名稱
      */
-    private MemberCart getOrCreateMemberCart(Long memberId) {
-        return memberCartRepository.findByMemberId(memberId)
-                .orElseGet(() -> {
-                    MemberCart newCart = new MemberCart(memberId);
-                    return memberCartRepository.save(newCart);
-                });
+    private ProductWithCategoryName findProduct(Long productId) {
+        return productRepository.findWithCategoryNameByIdIn(List.of(productId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ProductNotFoundException(productId));
     }
 
     /**
-     * 建立 CartItemDTO (包含商品資訊與庫存狀態)
+     * 建立 CartItemDTO (包含商品資訊、分類名稱與庫存狀態)
      */
-    private CartItemDTO buildCartItemDTO(Product product, CartItemValue cartItemValue) {
+    private CartItemDTO buildCartItemDTO(ProductWithCategoryName productWithCategory, CartItemValue cartItemValue) {
+        Product product = productWithCategory.product();
         Integer quantity = cartItemValue.quantity;
         BigDecimal price = product.getPrice();
         BigDecimal totalPrice = price.multiply(BigDecimal.valueOf(quantity));
@@ -308,14 +287,6 @@ public class CartService {
                 java.time.ZoneId.systemDefault()
         );
 
-        // 取得分類名稱 (若需要)
-        String categoryName = null;
-        if (product.getCategoryId() != null) {
-            categoryName = productRepository.findById(product.getId())
-                    .map(p -> p.getCategoryId().toString())
-                    .orElse(null);
-        }
-
         return CartItemDTO.builder()
                 .productId(product.getId())
                 .productName(product.getName())
@@ -323,7 +294,7 @@ public class CartService {
                 .price(price)
                 .totalPrice(totalPrice)
                 .imageUrl(product.getImageUrl())
-                .categoryName(categoryName)
+                .categoryName(productWithCategory.categoryName())
                 .stock(stock)
                 .isOutOfStock(isOutOfStock)
                 .addedAt(addedAt)
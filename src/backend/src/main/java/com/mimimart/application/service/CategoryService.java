@@ -4,6 +4,7 @@ import com.mimimart.domain.product.exception.CategoryAlreadyExistsException;
 import com.mimimart.domain.product.exception.CategoryNotFoundException;
 import com.mimimart.infrastructure.persistence.entity.Category;
 import com.mimimart.infrastructure.persistence.repository.CategoryRepository;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductSearchService productSearchService;
 
     /**
      * 查詢所有分類列表 (未刪除,依排序權重排序)
@@ -67,6 +69,8 @@ public class CategoryService {
             throw new CategoryAlreadyExistsException(name);
         }
 
+        boolean nameChanged = !category.getName().equals(name);
+
         // 更新資訊
         category.setName(name);
         category.setDescription(description);
@@ -74,7 +78,14 @@ public class CategoryService {
             category.setSortOrder(sortOrder);
         }
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+
+        // 分類名稱為搜尋欄位之一,名稱變更後重建搜尋索引
+        if (nameChanged) {
+            TransactionCallbacks.afterCommit(productSearchService::rebuild);
+        }
+
+        return saved;
     }
 
     /**
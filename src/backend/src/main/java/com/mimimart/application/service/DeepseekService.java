@@ -2,8 +2,6 @@ package com.mimimart.application.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mimimart.shared.valueobject.AiProvider;
-import com.mimimart.shared.valueobject.GenerationType;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,20 +23,20 @@ public class DeepseekService {
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
-    private final AiGenerationLogService aiGenerationLogService;
     private final String apiKey;
     private final String apiUrl;
     private final String model;
 
+    private static final String SYSTEM_PROMPT = "你是一個專業的電商文案撰寫專家，擅長撰寫吸引人的輪播圖標題和描述。" +
+            "請根據提供的內容，生成簡潔有力、吸引消費者的輪播圖文案。文案應該突出產品特色，並包含號召行動。";
+
     public DeepseekService(
             @Value("${mimimart.ai.deepseek.api-key}") String apiKey,
             @Value("${mimimart.ai.deepseek.api-url}") String apiUrl,
-            @Value("${mimimart.ai.deepseek.model}") String model,
-            AiGenerationLogService aiGenerationLogService) {
+            @Value("${mimimart.ai.deepseek.model}") String model) {
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
         this.model = model;
-        this.aiGenerationLogService = aiGenerationLogService;
         this.objectMapper = new ObjectMapper();
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(Duration.ofSeconds(30))
@@ -49,107 +47,81 @@ public class DeepseekService {
     }
 
     /**
-     * 生成文字描述
+     * 調用 Deepseek API 生成文字描述 (不記錄日誌,由呼叫端記錄)
      *
-     * @param context     上下文或提示
-     * @param adminId     管理員 ID
-     * @param apiEndpoint 調用的 API 端點
-     * @return 生成的文字
+     * @param context 上下文或提示
+     * @return 生成結果
+     * @throws IOException 當 API 調用失敗時
      */
-    public String generateDescription(String context, Long adminId, String apiEndpoint) {
-        log.info("開始生成描述 - AdminId: {}, Context: {}", adminId, context);
-
-        String systemPrompt = "你是一個專業的電商文案撰寫專家，擅長撰寫吸引人的輪播圖標題和描述。" +
-                "請根據提供的內容，生成簡潔有力、吸引消費者的輪播圖文案。文案應該突出產品特色，並包含號召行動。";
-
-        String userPrompt = "請為以下內容生成一段適合電商輪播圖的文案（50字以內）：\n" + context;
-
-        String fullPrompt = systemPrompt + "\n\n" + userPrompt;
-
-        try {
-            // 建立請求 JSON
-            String requestJson = String.format("""
-                {
-                    "model": "%s",
-                    "messages": [
-                        {"role": "system", "content": "%s"},
-                        {"role": "user", "content": "%s"}
-                    ],
-                    "temperature": 0.7,
-                    "max_tokens": 200
-                }
-                """, model, escapeJson(systemPrompt), escapeJson(userPrompt));
-
-            // 建立 HTTP 請求
-            Request request = new Request.Builder()
-                    .url(apiUrl + "/chat/completions")
-                    .addHeader("Authorization", "Bearer " + apiKey)
-                    .addHeader("Content-Type", "application/json")
-                    .post(RequestBody.create(requestJson, MediaType.parse("application/json")))
-                    .build();
-
-            // 發送請求
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    String errorBody = response.body() != null ? response.body().string() : "Unknown error";
-                    throw new IOException("Deepseek API 調用失敗: " + response.code() + " - " + errorBody);
-                }
-
-                String responseBody = response.body().string();
-                log.info("Deepseek API 回應成功");
-
-                // 解析回應
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-                String generatedText = jsonNode
-                        .path("choices")
-                        .get(0)
-                        .path("message")
-                        .path("content")
-                        .asText();
-
-                // 取得 token 用量
-                JsonNode usageNode = jsonNode.path("usage");
-                int tokensUsed = usageNode.path("total_tokens").asInt(0);
-
-                // 計算成本
-                BigDecimal cost = calculateCost(tokensUsed);
-
-                // 記錄日誌
-                aiGenerationLogService.logSuccess(
-                        adminId,
-                        apiEndpoint,
-                        GenerationType.TEXT,
-                        AiProvider.DEEPSEEK,
-                        model,
-                        userPrompt,
-                        generatedText,
-                        null,  // 文字生成不需要 S3 Key
-                        tokensUsed,
-                        cost
-                );
-
-                log.info("描述生成成功 - Tokens: {}, Cost: ${}", tokensUsed, cost);
-                return generatedText.trim();
+    public TextGeneration complete(String context) throws IOException {
+        String userPrompt = buildUserPrompt(context);
+
+        // 建立請求 JSON
+        String requestJson = String.format("""
+            {
+                "model": "%s",
+                "messages": [
+                    {"role": "system", "content": "%s"},
+                    {"role": "user", "content": "%s"}
+                ],
+                "temperature": 0.7,
+                "max_tokens": 200
+            }
+            """, model, escapeJson(SYSTEM_PROMPT), escapeJson(userPrompt));
+
+        // 建立 HTTP 請求
+        Request request = new Request.Builder()
+                .url(apiUrl + "/chat/completions")
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Content-Type", "application/json")
+                .post(RequestBody.create(requestJson, MediaType.parse("application/json")))
+                .build();
+
+        // 發送請求
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                String errorBody = response.body() != null ? response.body().string() : "Unknown error";
+                throw new IOException("Deepseek API 調用失敗: " + response.code() + " - " + errorBody);
             }
 
-        } catch (Exception e) {
-            log.error("生成描述失敗 - AdminId: {}, Error: {}", adminId, e.getMessage(), e);
-
-            // 記錄失敗日誌
-            aiGenerationLogService.logFailure(
-                    adminId,
-                    apiEndpoint,
-                    GenerationType.TEXT,
-                    AiProvider.DEEPSEEK,
-                    model,
-                    fullPrompt,
-                    e.getMessage()
-            );
-
-            throw new RuntimeException("AI 描述生成失敗: " + e.getMessage(), e);
+            String responseBody = response.body().string();
+            log.info("Deepseek API 回應成功");
+
+            // 解析回應
+            JsonNode jsonNode = objectMapper.readTree(responseBody);
+            String generatedText = jsonNode
+                    .path("choices")
+                    .get(0)
+                    .path("message")
+                    .path("content")
+                    .asText();
+
+            // 取得 token 用量
+            JsonNode usageNode = jsonNode.path("usage");
+            int tokensUsed = usageNode.path("total_tokens").asInt(0);
+
+            // 計算成本
+            BigDecimal cost = calculateCost(tokensUsed);
+
+            log.info("描述生成成功 - Tokens: {}, Cost: ${}", tokensUsed, cost);
+            return new TextGeneration(userPrompt, generatedText.trim(), tokensUsed, cost);
         }
     }
 
+    /**
+     * 取得使用的模型名稱
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * 建立使用者 prompt
+     */
+    public String buildUserPrompt(String context) {
+        return "請為以下內容生成一段適合電商輪播圖的文案（50字以內）：\n" + context;
+    }
+
     /**
      * 轉義 JSON 字串
      */
@@ -174,4 +146,15 @@ public class DeepseekService {
                 .multiply(BigDecimal.valueOf(tokensUsed))
                 .divide(BigDecimal.valueOf(1_000_000), 6, BigDecimal.ROUND_HALF_UP);
     }
+
+    /**
+     * 文字生成結果
+     *
+     * @param prompt     使用者 prompt
+     * @param text       生成的文字
+     * @param tokensUsed Token 用量
+     * @param cost       估算成本 (USD)
+     */
+    public record TextGeneration(String prompt, String text, int tokensUsed, BigDecimal cost) {
+    }
 }
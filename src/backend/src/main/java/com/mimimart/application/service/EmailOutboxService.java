@@ -0,0 +1,135 @@
+package com.mimimart.application.service;
+
+import com.mimimart.infrastructure.persistence.entity.EmailOutbox;
+import com.mimimart.infrastructure.persistence.repository.EmailOutboxRepository;
+import com.mimimart.shared.valueobject.EmailOutboxStatus;
+import com.mimimart.shared.valueobject.EmailType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 郵件發送佇列服務 (Transactional Outbox)
+ *
+ * <p>郵件於呼叫端交易中寫入佇列,交易回滾時不會寄出;
+ * 由 EmailOutboxDispatcher 取出發送,並在此記錄發送結果與重試排程。
+ * 郵件內容含驗證與密碼重設連結,發送成功或最終失敗時清除,不長期保存。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailSendLogService emailSendLogService;
+
+    @Value("${mimimart.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mimimart.email.outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${mimimart.email.outbox.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    @Value("${mimimart.email.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * 寫入待發送郵件
+     *
+     * @param recipientEmail 收件人郵箱
+     * @param emailType      郵件類型
+     * @param subject        郵件主旨
+     * @param htmlContent    郵件 HTML 內容
+     * @return 佇列記錄
+     */
+    @Transactional
+    public EmailOutbox enqueue(String recipientEmail, EmailType emailType, String subject, String htmlContent) {
+        EmailOutbox outbox = new EmailOutbox();
+        outbox.setRecipientEmail(recipientEmail);
+        outbox.setEmailType(emailType);
+        outbox.setSubject(subject);
+        outbox.setHtmlContent(htmlContent);
+        outbox.setStatus(EmailOutboxStatus.PENDING);
+
+        EmailOutbox saved = emailOutboxRepository.save(outbox);
+        log.debug("郵件已加入發送佇列: id={}, 收件人={}, 類型={}", saved.getId(), recipientEmail, emailType);
+        return saved;
+    }
+
+    /**
+     * 取出到期的待發送郵件並標記為發送中
+     * 租約期間內其他節點不會重複取出,租約到期仍未完成時重新發送
+     *
+     * @param limit 最多取出筆數
+     * @return 取出的郵件
+     */
+    @Transactional
+    public List<EmailOutbox> claimDueEmails(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> emails = emailOutboxRepository.lockDueEmails(now, limit);
+        for (EmailOutbox email : emails) {
+            email.setStatus(EmailOutboxStatus.SENDING);
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return emailOutboxRepository.saveAll(emails);
+    }
+
+    /**
+     * 記錄發送成功 (清除郵件內容)
+     *
+     * @param emails 已發送的郵件
+     */
+    @Transactional
+    public void markSent(List<EmailOutbox> emails) {
+        emailOutboxRepository.markSent(emails.stream().map(EmailOutbox::getId).toList(),
+                EmailOutboxStatus.SENT, LocalDateTime.now());
+        for (EmailOutbox email : emails) {
+            emailSendLogService.logEmailSent(null, email.getRecipientEmail(), email.getEmailType(), email.getSubject());
+        }
+    }
+
+    /**
+     * 記錄發送失敗,未超過重試次數時依指數退避排程重試,超過時標記為失敗並清除郵件內容
+     *
+     * @param emails       發送失敗的郵件
+     * @param errorMessage 錯誤訊息
+     */
+    @Transactional
+    public void markFailed(List<EmailOutbox> emails, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : emails) {
+            email.setLastError(errorMessage);
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutboxStatus.FAILED);
+                email.setHtmlContent(null);
+                emailSendLogService.logEmailFailed(null, email.getRecipientEmail(), email.getEmailType(),
+                        email.getSubject(), errorMessage);
+            } else {
+                email.setStatus(EmailOutboxStatus.PENDING);
+                email.setNextAttemptAt(now.plusSeconds(retryDelaySeconds(email.getAttempts())));
+                log.warn("郵件發送失敗,排程重試: id={}, 收件人={}, 第 {} 次, 下次={}",
+                        email.getId(), email.getRecipientEmail(), email.getAttempts(), email.getNextAttemptAt());
+            }
+        }
+        emailOutboxRepository.saveAll(emails);
+    }
+
+    /**
+     * 重試間隔: 基準秒數 × 2^(已嘗試次數 - 1),不超過上限
+     */
+    long retryDelaySeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(retryBaseSeconds << exponent, retryMaxSeconds);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import com.mimimart.infrastructure.persistence.repository.OrderRepository;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 逾期付款處理服務
+ *
+ * 以批次 (chunk) 為單位處理逾期未付款記錄,每批一個交易,交易大小與逾期總數無關
+ * (逾期佇列與定期掃描共用,同一筆付款重複處理時不會重複取消):
+ * 1. 鎖定仍為待付款且已到期的付款記錄 (SKIP LOCKED,正由付款回調處理者留待下次排程)
+ * 2. 單一 UPDATE 將付款標記為逾期
+ * 3. 單一查詢載入並鎖定對應訂單,單一 UPDATE 取消仍可取消者
+ * 4. 合併更新訂單統計計數器、合併歸還庫存預留
+ *
+ * 訂單取消以批次 UPDATE 執行,與 Order.cancel 相同: 僅可取消狀態 (待付款) 轉為已取消並記錄原因。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpiredPaymentService {
+
+    static final String CANCELLATION_REASON = "付款逾期,系統自動取消";
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final OrderStatisticsService orderStatisticsService;
+    private final StockReservationService stockReservationService;
+
+    /**
+     * 處理一批逾期付款
+     *
+     * @param paymentIds 逾期付款記錄 ID
+     * @return 處理結果
+     */
+    @Transactional
+    public ChunkResult expireChunk(List<Long> paymentIds) {
+        // 1. 鎖定仍為待付款且已到期的記錄 (期間已付款或正在處理者略過)
+        Instant now = Instant.now();
+        List<PaymentEntity> payments =
+                paymentRepository.findAllByIdInAndStatusForUpdate(paymentIds, PaymentStatus.PENDING_PAYMENT).stream()
+                        .filter(payment -> !payment.getExpiredAt().isAfter(now))
+                        .toList();
+        if (payments.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+
+        // 2. 批次標記付款逾期
+        paymentRepository.updateStatusByIdIn(payments.stream().map(PaymentEntity::getId).toList(),
+                PaymentStatus.EXPIRED, now);
+
+        // 3. 批次載入並鎖定訂單,篩選可取消者
+        List<Long> orderIds = payments.stream().map(PaymentEntity::getOrderId).distinct().toList();
+        List<OrderEntity> cancellable = orderRepository.findAllByIdInForUpdate(orderIds).stream()
+                .filter(order -> order.getStatus().isCancellable())
+                .toList();
+        if (cancellable.size() < orderIds.size()) {
+            log.warn("部分訂單狀態異常,無法取消: expected={}, cancellable={}", orderIds.size(), cancellable.size());
+        }
+        if (cancellable.isEmpty()) {
+            return new ChunkResult(payments.size(), 0);
+        }
+
+        // 4. 統計計數器 (以轉換前狀態計算) 與批次取消
+        List<Long> cancellableIds = cancellable.stream().map(OrderEntity::getId).toList();
+        orderStatisticsService.recordTransitions(cancellable, OrderStatus.CANCELLED);
+        orderRepository.cancelAllByIdIn(cancellableIds, OrderStatus.PAYMENT_PENDING, OrderStatus.CANCELLED,
+                CANCELLATION_REASON, LocalDateTime.now());
+
+        // 5. 釋放庫存預留
+        stockReservationService.releaseAll(cancellableIds);
+
+        return new ChunkResult(payments.size(), cancellableIds.size());
+    }
+
+    /**
+     * 批次處理結果
+     *
+     * @param expired   標記為逾期的付款數
+     * @param cancelled 取消的訂單數
+     */
+    public record ChunkResult(int expired, int cancelled) {
+    }
+}
@@ -0,0 +1,271 @@
+package com.mimimart.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
+import com.mimimart.infrastructure.persistence.repository.ImageDerivativeRepository;
+import com.mimimart.infrastructure.storage.ImageResizer;
+import com.mimimart.infrastructure.storage.ImageResizer.Rendition;
+import com.mimimart.infrastructure.storage.S3StorageService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 圖片衍生檔服務
+ *
+ * 輪播圖與商品圖片上傳後,於背景產生多種寬度的縮圖並存放於原圖旁 (例: banners/banner-1.jpg → banners/banner-1-w640.jpg),
+ * 前台依裝置寬度選用較小的圖片。產生工作由虛擬執行緒執行,同時進行的數量以 Semaphore 限制,不佔用請求執行緒。
+ * 衍生檔查詢以原圖 URL 批次查詢並於本地快取 (原圖 URL 每次上傳皆不同,衍生檔產生後不再變更)。
+ * 同一張原圖跨節點只由一個工作產生 (以 Redis 分散式鎖宣告),避免重複上傳與違反 uk_source_url_width。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    private static final String CLAIM_KEY_PREFIX = "image:derivatives:claim:";
+
+    private final ImageDerivativeRepository imageDerivativeRepository;
+    private final S3StorageService s3StorageService;
+    private final RedisDistributedLock distributedLock;
+    private final Duration claimTtl;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final Semaphore workerPermits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Cache<String, List<ImageDerivative>> derivativeCache;
+
+    public ImageDerivativeService(ImageDerivativeRepository imageDerivativeRepository,
+                                  S3StorageService s3StorageService,
+                                  RedisDistributedLock distributedLock,
+                                  @Value("${mimimart.image.derivatives.claim-ttl-seconds:300}") long claimTtlSeconds,
+                                  @Value("${mimimart.image.derivatives.widths:320,640,1024,1600}") List<Integer> widths,
+                                  @Value("${mimimart.image.derivatives.jpeg-quality:0.8}") float jpegQuality,
+                                  @Value("${mimimart.image.derivatives.max-pixels:40000000}") long maxPixels,
+                                  @Value("${mimimart.image.derivatives.workers:2}") int workers,
+                                  @Value("${mimimart.image.derivatives.cache.ttl-seconds:60}") long cacheTtlSeconds,
+                                  @Value("${mimimart.image.derivatives.cache.max-size:10000}") long cacheMaxSize) {
+        this.imageDerivativeRepository = imageDerivativeRepository;
+        this.s3StorageService = s3StorageService;
+        this.distributedLock = distributedLock;
+        this.claimTtl = Duration.ofSeconds(claimTtlSeconds);
+        this.widths = List.copyOf(widths);
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.workerPermits = new Semaphore(workers);
+        this.derivativeCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("圖片衍生檔產生器關閉逾時,未完成的圖片將僅提供原圖");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 於背景產生衍生檔 (不等待完成)
+     *
+     * @param sourceUrl 原圖 URL
+     */
+    public void generateAsync(String sourceUrl) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                workerPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                generate(sourceUrl);
+            } catch (Exception e) {
+                log.warn("圖片衍生檔產生失敗,前台將使用原圖 - SourceUrl: {}, Error: {}", sourceUrl, e.getMessage(), e);
+            } finally {
+                workerPermits.release();
+            }
+        });
+    }
+
+    /**
+     * 產生衍生檔 (已產生過或其他工作正在產生則略過)
+     *
+     * @param sourceUrl 原圖 URL
+     * @return 衍生檔列表;其他工作正在產生時為空
+     * @throws Exception 當下載、縮放或上傳失敗時
+     */
+    List<ImageDerivative> generate(String sourceUrl) throws Exception {
+        String claimKey = CLAIM_KEY_PREFIX + sourceUrl;
+        String claimToken = claim(claimKey);
+        if (claimToken == null) {
+            log.debug("圖片衍生檔已由其他工作產生中,略過 - SourceUrl: {}", sourceUrl);
+            return List.of();
+        }
+        try {
+            List<ImageDerivative> existing = imageDerivativeRepository.findBySourceUrl(sourceUrl);
+            if (!existing.isEmpty()) {
+                return existing;
+            }
+            return createDerivatives(sourceUrl);
+        } finally {
+            if (!claimToken.isEmpty()) {
+                distributedLock.unlock(claimKey, claimToken);
+            }
+        }
+    }
+
+    /**
+     * 宣告產生工作
+     *
+     * @return 持有者 Token;已被其他工作宣告時為 null;Redis 不可用時為空字串 (不宣告直接產生,重複時由唯一鍵攔截)
+     */
+    private String claim(String claimKey) {
+        try {
+            return distributedLock.tryLock(claimKey, claimTtl);
+        } catch (Exception e) {
+            log.warn("圖片衍生檔產生宣告失敗,直接產生 - Key: {}, Error: {}", claimKey, e.getMessage());
+            return "";
+        }
+    }
+
+    private List<ImageDerivative> createDerivatives(String sourceUrl) throws Exception {
+        byte[] imageData = s3StorageService.downloadPublicImage(sourceUrl);
+        List<Rendition> renditions = ImageResizer.resize(imageData, widths, jpegQuality, maxPixels);
+
+        String baseKey = stripExtension(s3StorageService.getPublicS3Key(sourceUrl));
+        List<ImageDerivative> derivatives = new ArrayList<>();
+        for (Rendition rendition : renditions) {
+            String s3Key = baseKey + "-w" + rendition.width() + rendition.fileExtension();
+            ImageDerivative derivative = new ImageDerivative();
+            derivative.setSourceUrl(sourceUrl);
+            derivative.setWidth(rendition.width());
+            derivative.setHeight(rendition.height());
+            derivative.setUrl(s3StorageService.uploadPublicImage(s3Key, rendition.data(), rendition.contentType()));
+            derivative.setContentType(rendition.contentType());
+            derivative.setSizeBytes((long) rendition.data().length);
+            derivatives.add(derivative);
+        }
+
+        List<ImageDerivative> saved;
+        try {
+            saved = imageDerivativeRepository.saveAll(derivatives);
+        } catch (DataIntegrityViolationException e) {
+            // 宣告過期或 Redis 不可用時其他工作已先寫入;S3 Key 由原圖與寬度決定,
+            // 雙方上傳的是同一組物件 (內容相同),不刪除以免刪掉已記錄的衍生檔,沿用已寫入的記錄
+            log.info("圖片衍生檔已由其他工作寫入,沿用既有記錄 - SourceUrl: {}", sourceUrl);
+            derivativeCache.invalidate(sourceUrl);
+            return imageDerivativeRepository.findBySourceUrl(sourceUrl);
+        }
+        derivativeCache.invalidate(sourceUrl);
+        log.info("圖片衍生檔產生完成 - SourceUrl: {}, Widths: {}, OriginalSize: {} bytes, DerivativeSizes: {}",
+                sourceUrl, renditions.stream().map(Rendition::width).toList(), imageData.length,
+                renditions.stream().map(rendition -> rendition.data().length).toList());
+        return saved;
+    }
+
+    /**
+     * 查詢原圖的衍生檔 (依寬度由小到大)
+     *
+     * @param sourceUrl 原圖 URL
+     * @return 衍生檔列表;尚未產生時為空
+     */
+    public List<ImageDerivative> findDerivatives(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank()) {
+            return List.of();
+        }
+        return findDerivatives(List.of(sourceUrl)).getOrDefault(sourceUrl, List.of());
+    }
+
+    /**
+     * 批次查詢多張原圖的衍生檔 (單次查詢,避免列表逐筆查詢)
+     *
+     * @param sourceUrls 原圖 URL
+     * @return 原圖 URL → 衍生檔列表 (依寬度由小到大)
+     */
+    public Map<String, List<ImageDerivative>> findDerivatives(Collection<String> sourceUrls) {
+        Set<String> keys = sourceUrls.stream()
+                .filter(url -> url != null && !url.isBlank())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return derivativeCache.getAll(keys, missing -> {
+            Map<String, List<ImageDerivative>> loaded = imageDerivativeRepository
+                    .findBySourceUrlInOrderByWidthAsc(missing.stream().map(String.class::cast).toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(ImageDerivative::getSourceUrl));
+            Map<String, List<ImageDerivative>> result = new HashMap<>();
+            for (String url : missing) {
+                result.put(url, List.copyOf(loaded.getOrDefault(url, List.of())));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 將列表轉換為回應並附上各項圖片的衍生檔 (單次批次查詢)
+     *
+     * @param items    來源列表
+     * @param imageUrl 取得原圖 URL
+     * @param mapper   以來源與衍生檔 (可能為 null) 建立回應
+     * @return 回應列表,順序與來源相同
+     */
+    public <T, R> List<R> mapWithDerivatives(List<T> items, Function<T, String> imageUrl,
+                                             BiFunction<T, List<ImageDerivative>, R> mapper) {
+        Map<String, List<ImageDerivative>> derivatives = findDerivatives(items.stream().map(imageUrl).toList());
+        return items.stream()
+                .map(item -> mapper.apply(item, derivatives.get(imageUrl.apply(item))))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 刪除原圖的所有衍生檔 (原圖刪除或替換時呼叫)
+     * 呼叫端應於原圖異動的交易提交後呼叫;以獨立交易執行,提交後回呼中呼叫時刪除記錄仍會提交
+     *
+     * @param sourceUrl 原圖 URL
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deleteDerivatives(String sourceUrl) {
+        for (ImageDerivative derivative : imageDerivativeRepository.findBySourceUrl(sourceUrl)) {
+            try {
+                s3StorageService.deletePublicImage(derivative.getUrl());
+            } catch (Exception e) {
+                log.warn("圖片衍生檔刪除失敗 - Url: {}, Error: {}", derivative.getUrl(), e.getMessage());
+            }
+        }
+        imageDerivativeRepository.deleteBySourceUrl(sourceUrl);
+        derivativeCache.invalidate(sourceUrl);
+    }
+
+    private static String stripExtension(String s3Key) {
+        int dot = s3Key.lastIndexOf('.');
+        int slash = s3Key.lastIndexOf('/');
+        return dot > slash ? s3Key.substring(0, dot) : s3Key;
+    }
+}
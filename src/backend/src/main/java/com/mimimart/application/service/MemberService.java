@@ -4,6 +4,8 @@ import com.mimimart.domain.member.exception.*;
 import com.mimimart.infrastructure.persistence.entity.Member;
 import com.mimimart.infrastructure.persistence.repository.MemberRepository;
 import com.mimimart.infrastructure.persistence.specification.MemberSpecification;
+import com.mimimart.infrastructure.storage.AvatarFileCache;
+import com.mimimart.infrastructure.storage.AvatarFileCache.CachedAvatar;
 import com.mimimart.infrastructure.storage.S3StorageService;
 import com.mimimart.shared.validation.FileValidator;
 import com.mimimart.shared.valueobject.MemberStatus;
@@ -31,14 +33,17 @@ public class MemberService {
     private final MemberRepository memberRepository;
     private final PasswordEncoder passwordEncoder;
     private final S3StorageService s3StorageService;
+    private final AvatarFileCache avatarFileCache;
 
     public MemberService(
             MemberRepository memberRepository,
             PasswordEncoder passwordEncoder,
-            S3StorageService s3StorageService) {
+            S3StorageService s3StorageService,
+            AvatarFileCache avatarFileCache) {
         this.memberRepository = memberRepository;
         this.passwordEncoder = passwordEncoder;
         this.s3StorageService = s3StorageService;
+        this.avatarFileCache = avatarFileCache;
     }
 
     /**
@@ -112,6 +117,7 @@ public class MemberService {
         if (member.getAvatarS3Key() != null && !member.getAvatarS3Key().isEmpty()) {
             try {
                 s3StorageService.deleteAvatar(member.getAvatarS3Key());
+                avatarFileCache.invalidate(member.getAvatarS3Key());
                 log.info("已刪除舊頭貼 - MemberId: {}, S3 Key: {}", memberId, member.getAvatarS3Key());
             } catch (Exception e) {
                 log.warn("刪除舊頭貼失敗,繼續上傳新頭貼 - MemberId: {}, Error: {}", memberId, e.getMessage());
@@ -130,12 +136,12 @@ public class MemberService {
     }
 
     /**
-     * 取得會員頭貼資料 (公開訪問)
+     * 取得會員頭貼的 S3 Key (公開訪問)
      *
      * @param memberId 頭貼所屬會員 ID
-     * @return 頭貼的位元組陣列
+     * @return 頭貼 S3 Key
      */
-    public byte[] getAvatarData(Long memberId) {
+    public String getAvatarS3Key(Long memberId) {
         // 查詢會員
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new MemberNotFoundException("會員不存在"));
@@ -144,32 +150,22 @@ public class MemberService {
         if (member.getAvatarS3Key() == null || member.getAvatarS3Key().isEmpty()) {
             throw new AvatarNotFoundException("該會員尚未上傳頭貼");
         }
-
-        // 從 S3 下載頭貼
-        try {
-            return s3StorageService.downloadAvatar(member.getAvatarS3Key());
-        } catch (Exception e) {
-            log.error("下載頭貼失敗 - MemberId: {}, S3 Key: {}, Error: {}",
-                    memberId, member.getAvatarS3Key(), e.getMessage(), e);
-            throw new AvatarNotFoundException("頭貼下載失敗");
-        }
+        return member.getAvatarS3Key();
     }
 
     /**
-     * 取得會員頭貼的 Content-Type
+     * 取得頭貼檔案 (經本機磁碟快取,未命中時由 S3 下載)
      *
-     * @param memberId 會員 ID
-     * @return Content-Type
+     * @param s3Key 頭貼 S3 Key
+     * @return 快取的頭貼檔案 (含 Content-Type 與 ETag)
      */
-    public String getAvatarContentType(Long memberId) {
-        Member member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new MemberNotFoundException("會員不存在"));
-
-        if (member.getAvatarS3Key() == null || member.getAvatarS3Key().isEmpty()) {
-            throw new AvatarNotFoundException("該會員尚未上傳頭貼");
+    public CachedAvatar getAvatar(String s3Key) {
+        try {
+            return avatarFileCache.get(s3Key);
+        } catch (Exception e) {
+            log.error("下載頭貼失敗 - S3 Key: {}, Error: {}", s3Key, e.getMessage(), e);
+            throw new AvatarNotFoundException("頭貼下載失敗");
         }
-
-        return s3StorageService.getContentType(member.getAvatarS3Key());
     }
 
     // ==================== 管理員專用方法 ====================
@@ -1,17 +1,22 @@
 package com.mimimart.application.service;
 
 import com.mimimart.api.dto.order.CreateOrderRequest;
+import com.mimimart.domain.order.exception.InvalidOrderStatusTransitionException;
 import com.mimimart.domain.order.exception.OrderNotFoundException;
 import com.mimimart.domain.order.exception.UnauthorizedOrderAccessException;
 import com.mimimart.domain.order.model.*;
 import com.mimimart.domain.order.service.OrderFactory;
+import com.mimimart.domain.payment.model.Payment;
 import com.mimimart.infrastructure.persistence.entity.OrderEntity;
 import com.mimimart.infrastructure.persistence.mapper.OrderMapper;
+import com.mimimart.infrastructure.persistence.repository.KeysetQuery;
 import com.mimimart.infrastructure.persistence.repository.OrderRepository;
 import com.mimimart.infrastructure.persistence.repository.OrderSpecification;
+import com.mimimart.shared.pagination.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,11 +36,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderService {
 
+    /**
+     * 後台訂單游標分頁排序鍵: (created_at, id)
+     */
+    private static final KeysetQuery.SortKey<OrderEntity, LocalDateTime> ORDER_CURSOR_SORT_KEY =
+            KeysetQuery.SortKey.of("createdAt", OrderEntity::getCreatedAt, LocalDateTime::parse);
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final OrderFactory orderFactory;
     private final PaymentService paymentService;
     private final ShipmentService shipmentService;
+    private final StockReservationService stockReservationService;
+    private final OrderStatisticsService orderStatisticsService;
 
     /**
      * 前台:建立訂單(從前端傳入的項目列表)
@@ -56,7 +69,7 @@ public class OrderService {
         OrderEntity savedEntity = orderRepository.save(entity);
 
         // 3. 同步建立付款記錄（在同一事務中，確保原子性）
-        paymentService.createPayment(
+        Payment payment = paymentService.createPayment(
                 savedEntity.getOrderNumber(),
                 savedEntity.getTotalAmount()
         );
@@ -68,7 +81,13 @@ public class OrderService {
                 shippingFee
         );
 
-        // 5. 返回領域模型
+        // 5. 預留庫存至付款期限（縮短商品資料列鎖定時間；庫存不足時整筆訂單回滾）
+        stockReservationService.reserve(savedEntity.getId(), order.getItems(), payment.getExpiredAt());
+
+        // 6. 累計訂單統計（最後執行，計數器資料列僅鎖定至提交）
+        orderStatisticsService.recordCreated(savedEntity);
+
+        // 7. 返回領域模型
         return orderMapper.toDomain(savedEntity);
     }
 
@@ -134,15 +153,14 @@ public class OrderService {
         // 領域模型處理取消邏輯(會驗證狀態)
         order.cancel("會員自行取消");
 
-        // 更新實體
-        entity.setStatus(order.getStatus());
-        entity.setCancellationReason(order.getCancellationReason());
-        entity.setUpdatedAt(order.getUpdatedAt());
-
-        orderRepository.save(entity);
+        // 條件式更新實體 (並行取消或逾期處理時只有一方成功)
+        applyCancellation(entity, order);
 
         // 同步取消付款記錄
         paymentService.cancelPaymentByOrderNumber(orderNumber);
+
+        // 釋放庫存預留
+        stockReservationService.release(entity.getId());
     }
 
     /**
@@ -171,6 +189,38 @@ public class OrderService {
         return entityPage.map(orderMapper::toDomain);
     }
 
+    /**
+     * 後台:游標分頁查詢訂單(依建立時間降序)
+     * 以上一頁最後一筆的 (created_at, id) 作為起點,深分頁不需 OFFSET 掃描
+     *
+     * @param status       訂單狀態(可選)
+     * @param orderNumber  訂單編號(模糊搜尋,可選)
+     * @param startDate    開始日期(可選)
+     * @param endDate      結束日期(可選)
+     * @param cursor       上一頁回傳的游標(第一頁為 null)
+     * @param size         每頁筆數
+     * @param includeTotal 是否計算總筆數(false 時省略 COUNT 查詢)
+     * @return 訂單游標分頁(領域模型)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getAllOrdersAdminByCursor(
+            OrderStatus status,
+            String orderNumber,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String cursor,
+            int size,
+            boolean includeTotal
+    ) {
+        Specification<OrderEntity> spec = OrderSpecification.withFilters(
+                status, orderNumber, startDate, endDate
+        );
+
+        return KeysetQuery.fetch(orderRepository, spec, ORDER_CURSOR_SORT_KEY, Sort.Direction.DESC,
+                OrderEntity::getId, cursor, size, includeTotal)
+                .map(orderMapper::toDomain);
+    }
+
     /**
      * 後台:查詢訂單詳情
      *
@@ -203,10 +253,12 @@ public class OrderService {
         order.ship();
 
         // 更新實體
+        OrderStatus previousStatus = entity.getStatus();
         entity.setStatus(order.getStatus());
         entity.setUpdatedAt(order.getUpdatedAt());
 
         orderRepository.save(entity);
+        orderStatisticsService.recordTransition(entity, previousStatus);
     }
 
     /**
@@ -226,15 +278,14 @@ public class OrderService {
         // 領域模型處理取消邏輯(會驗證狀態)
         order.cancel(reason);
 
-        // 更新實體
-        entity.setStatus(order.getStatus());
-        entity.setCancellationReason(order.getCancellationReason());
-        entity.setUpdatedAt(order.getUpdatedAt());
-
-        orderRepository.save(entity);
+        // 條件式更新實體 (並行取消或逾期處理時只有一方成功)
+        applyCancellation(entity, order);
 
         // 同步取消付款記錄
         paymentService.cancelPaymentByOrderNumber(orderNumber);
+
+        // 釋放庫存預留
+        stockReservationService.release(entity.getId());
     }
 
     /**
@@ -254,10 +305,12 @@ public class OrderService {
         order.complete();
 
         // 更新實體
+        OrderStatus previousStatus = entity.getStatus();
         entity.setStatus(order.getStatus());
         entity.setUpdatedAt(order.getUpdatedAt());
 
         orderRepository.save(entity);
+        orderStatisticsService.recordTransition(entity, previousStatus);
     }
 
     /**
@@ -284,43 +337,24 @@ public class OrderService {
         order.complete();
 
         // 更新實體
+        OrderStatus previousStatus = entity.getStatus();
         entity.setStatus(order.getStatus());
         entity.setUpdatedAt(order.getUpdatedAt());
 
         orderRepository.save(entity);
+        orderStatisticsService.recordTransition(entity, previousStatus);
     }
 
     /**
      * 後台:訂單統計
      *
-     * @return 訂單統計資料（總訂單數、總金額、各狀態訂單數）
+     * @param from 起始日期 (含,可為 null)
+     * @param to   結束日期 (含,可為 null)
+     * @return 訂單統計資料（總訂單數、總金額、各狀態訂單數，指定日期區間時含每日明細）
      */
     @Transactional(readOnly = true)
-    public java.util.Map<String, Object> getOrderStatistics() {
-        List<OrderEntity> allOrders = orderRepository.findAll();
-
-        // 計算總訂單數
-        long totalOrders = allOrders.size();
-
-        // 計算總金額
-        java.math.BigDecimal totalAmount = allOrders.stream()
-                .map(OrderEntity::getTotalAmount)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-        // 計算各狀態訂單數
-        java.util.Map<String, Long> statusDistribution = allOrders.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        entity -> entity.getStatus().name(),
-                        java.util.stream.Collectors.counting()
-                ));
-
-        // 封裝結果
-        java.util.Map<String, Object> statistics = new java.util.HashMap<>();
-        statistics.put("totalOrders", totalOrders);
-        statistics.put("totalAmount", totalAmount);
-        statistics.put("statusDistribution", statusDistribution);
-
-        return statistics;
+    public java.util.Map<String, Object> getOrderStatistics(java.time.LocalDate from, java.time.LocalDate to) {
+        return orderStatisticsService.getStatistics(from, to);
     }
 
     /**
@@ -342,4 +376,25 @@ public class OrderService {
 
         return stats;
     }
+
+    /**
+     * 以條件式 UPDATE 將待付款訂單改為已取消,並累計統計
+     * 會員取消、後台取消與逾期付款批次可能同時處理同一筆訂單,只有實際轉換狀態的一方
+     * 會累計統計並釋放庫存,其餘拋出狀態轉換異常並回滾
+     *
+     * @throws InvalidOrderStatusTransitionException 訂單已被並行的其他操作變更狀態
+     */
+    private void applyCancellation(OrderEntity entity, Order order) {
+        OrderStatus previousStatus = entity.getStatus();
+        int updated = orderRepository.cancelAllByIdIn(List.of(entity.getId()), previousStatus, order.getStatus(),
+                order.getCancellationReason(), order.getUpdatedAt());
+        if (updated == 0) {
+            throw new InvalidOrderStatusTransitionException("訂單狀態已變更,無法取消: " + entity.getOrderNumber());
+        }
+
+        entity.setStatus(order.getStatus());
+        entity.setCancellationReason(order.getCancellationReason());
+        entity.setUpdatedAt(order.getUpdatedAt());
+        orderStatisticsService.recordTransition(entity, previousStatus);
+    }
 }
@@ -0,0 +1,252 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.infrastructure.persistence.entity.OrderDailyStatistics;
+import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import com.mimimart.infrastructure.persistence.repository.OrderDailyStatisticsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 訂單統計服務
+ * 以訂單建立日期 × 狀態的累計計數器 (order_daily_statistics) 提供後台統計,
+ * 查詢成本與訂單總數無關
+ *
+ * 計數器於訂單建立與狀態轉換時,在呼叫端的交易內增減 (與訂單異動同時提交或回滾);
+ * 每次增減隨機寫入其中一筆分片,並行交易不會集中等待當日同一狀態的資料列鎖。
+ * 排程定期由 orders 表校正直接修改資料庫等造成的偏差:在同一快照中彙總訂單表與計數器,
+ * 僅將差額累加至分片 0。差額與快照之後提交的即時增減可交換,校正期間不需暫停訂單交易
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class OrderStatisticsService {
+
+    private final OrderDailyStatisticsRepository orderDailyStatisticsRepository;
+    private final int shardCount;
+
+    public OrderStatisticsService(OrderDailyStatisticsRepository orderDailyStatisticsRepository,
+                                  @Value("${mimimart.order.statistics-shards:8}") int shardCount) {
+        this.orderDailyStatisticsRepository = orderDailyStatisticsRepository;
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    /**
+     * 記錄新建訂單
+     * 呼叫端應於交易的最後執行,縮短計數器資料列的鎖定時間
+     *
+     * @param order 已儲存的訂單實體
+     */
+    @Transactional
+    public void recordCreated(OrderEntity order) {
+        orderDailyStatisticsRepository.increment(statDate(order), order.getStatus().name(), nextShard(),
+                1, order.getTotalAmount());
+    }
+
+    /**
+     * 記錄訂單狀態轉換 (由舊狀態移至新狀態)
+     *
+     * @param order      已更新狀態的訂單實體 (需含建立時間與金額)
+     * @param fromStatus 轉換前的狀態
+     */
+    @Transactional
+    public void recordTransition(OrderEntity order, OrderStatus fromStatus) {
+        OrderStatus toStatus = order.getStatus();
+        if (fromStatus == toStatus) {
+            return;
+        }
+        LocalDate statDate = statDate(order);
+        BigDecimal amount = order.getTotalAmount();
+        int shard = nextShard();
+
+        // 依固定順序更新兩筆計數器,避免並行的相反轉換互相死結
+        if (fromStatus.compareTo(toStatus) < 0) {
+            orderDailyStatisticsRepository.increment(statDate, fromStatus.name(), shard, -1, amount.negate());
+            orderDailyStatisticsRepository.increment(statDate, toStatus.name(), shard, 1, amount);
+        } else {
+            orderDailyStatisticsRepository.increment(statDate, toStatus.name(), shard, 1, amount);
+            orderDailyStatisticsRepository.increment(statDate, fromStatus.name(), shard, -1, amount.negate());
+        }
+    }
+
+    /**
+     * 批次記錄多筆訂單轉換至同一新狀態
+     * 相同建立日期與狀態的增減合併為一次更新,全部計數器依 (日期, 狀態) 固定順序更新,
+     * 與並行的其他批次及單筆轉換維持相同加鎖順序
+     *
+     * @param orders   轉換前的訂單實體 (狀態為舊狀態,需含建立時間與金額)
+     * @param toStatus 轉換後的狀態
+     */
+    @Transactional
+    public void recordTransitions(Collection<OrderEntity> orders, OrderStatus toStatus) {
+        Map<StatKey, Delta> deltas = new TreeMap<>();
+        for (OrderEntity order : orders) {
+            OrderStatus fromStatus = order.getStatus();
+            if (fromStatus == toStatus) {
+                continue;
+            }
+            LocalDate statDate = statDate(order);
+            BigDecimal amount = order.getTotalAmount();
+            deltas.computeIfAbsent(new StatKey(statDate, fromStatus), key -> new Delta()).add(-1, amount.negate());
+            deltas.computeIfAbsent(new StatKey(statDate, toStatus), key -> new Delta()).add(1, amount);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int shard = nextShard();
+        deltas.forEach((key, delta) -> orderDailyStatisticsRepository.increment(
+                key.statDate(), key.status().name(), shard, delta.count, delta.amount));
+    }
+
+    /**
+     * 查詢訂單統計
+     * 未指定日期區間時彙總全部期間;指定區間時另附每日明細
+     *
+     * @param from 起始日期 (含,可為 null)
+     * @param to   結束日期 (含,可為 null)
+     * @return 統計資料 (totalOrders、totalAmount、statusDistribution,指定區間時含 daily)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStatistics(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            Rollup total = new Rollup();
+            orderDailyStatisticsRepository.sumByStatus()
+                    .forEach(row -> total.add(row.getStatus(), row.getOrderCount(), row.getTotalAmount()));
+            return total.toMap();
+        }
+
+        List<OrderDailyStatistics> rows = orderDailyStatisticsRepository.findByStatDateBetweenOrderByStatDateAsc(
+                from != null ? from : LocalDate.of(1970, 1, 1),
+                to != null ? to : LocalDate.of(9999, 12, 31));
+
+        Rollup total = new Rollup();
+        Map<LocalDate, Rollup> daily = new LinkedHashMap<>();
+        for (OrderDailyStatistics row : rows) {
+            total.add(row.getStatus(), row.getOrderCount(), row.getTotalAmount());
+            daily.computeIfAbsent(row.getStatDate(), date -> new Rollup())
+                    .add(row.getStatus(), row.getOrderCount(), row.getTotalAmount());
+        }
+
+        List<Map<String, Object>> dailyList = new ArrayList<>(daily.size());
+        daily.forEach((date, rollup) -> {
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", date);
+            day.putAll(rollup.toMap());
+            dailyList.add(day);
+        });
+
+        Map<String, Object> statistics = total.toMap();
+        statistics.put("daily", dailyList);
+        return statistics;
+    }
+
+    /**
+     * 由訂單表校正全部統計
+     *
+     * 先取得重建鎖 (僅與其他校正互斥,不影響計數器更新),之後的一般查詢建立一致性快照:
+     * 訂單表彙總與計數器彙總來自同一快照,而訂單異動與計數器增減在同一交易提交,
+     * 兩者的差額即為偏差。差額以累加方式寫入分片 0,與快照之後提交的即時增減互不覆蓋;
+     * 彙總查詢不加鎖,只有寫入差額時短暫鎖定有偏差的計數器資料列
+     *
+     * @return 校正的計數器筆數 (日期 × 狀態)
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int rebuild() {
+        orderDailyStatisticsRepository.lockForRebuild();
+
+        Map<StatKey, Delta> deltas = new TreeMap<>();
+        for (OrderDailyStatisticsRepository.DailyTotal total : orderDailyStatisticsRepository.sumOrdersByDateAndStatus()) {
+            deltas.computeIfAbsent(new StatKey(total.getStatDate(), total.getStatus()), key -> new Delta())
+                    .add(total.getOrderCount(), total.getTotalAmount());
+        }
+        for (OrderDailyStatisticsRepository.DailyCounter counter : orderDailyStatisticsRepository.sumCountersByDateAndStatus()) {
+            deltas.computeIfAbsent(new StatKey(counter.getStatDate(), OrderStatus.valueOf(counter.getStatus())),
+                    key -> new Delta()).add(-counter.getOrderCount(), counter.getTotalAmount().negate());
+        }
+        deltas.values().removeIf(Delta::isZero);
+
+        // 依 (日期, 狀態) 順序寫入,與並行的狀態轉換維持相同加鎖順序
+        deltas.forEach((key, delta) -> orderDailyStatisticsRepository.increment(
+                key.statDate(), key.status().name(), 0, delta.count, delta.amount));
+        if (deltas.isEmpty()) {
+            log.info("訂單統計校正完成: 無偏差");
+        } else {
+            log.warn("訂單統計校正完成: 修正 {} 筆計數器 {}", deltas.size(), deltas.keySet());
+        }
+        return deltas.size();
+    }
+
+    private static LocalDate statDate(OrderEntity order) {
+        return order.getCreatedAt().toLocalDate();
+    }
+
+    private int nextShard() {
+        return shardCount == 1 ? 0 : ThreadLocalRandom.current().nextInt(shardCount);
+    }
+
+    /**
+     * 計數器鍵 (依日期、狀態排序)
+     */
+    private record StatKey(LocalDate statDate, OrderStatus status) implements Comparable<StatKey> {
+        @Override
+        public int compareTo(StatKey other) {
+            int compared = statDate.compareTo(other.statDate);
+            return compared != 0 ? compared : status.compareTo(other.status);
+        }
+    }
+
+    /**
+     * 計數器增減量
+     */
+    private static final class Delta {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(long countDelta, BigDecimal amountDelta) {
+            count += countDelta;
+            amount = amount.add(amountDelta);
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+
+    /**
+     * 統計彙總 (訂單數、金額、各狀態訂單數)
+     */
+    private static final class Rollup {
+        private long totalOrders;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private final Map<String, Long> statusDistribution = new LinkedHashMap<>();
+
+        void add(String status, Long orderCount, BigDecimal amount) {
+            if (orderCount == null || orderCount == 0) {
+                return;
+            }
+            totalOrders += orderCount;
+            totalAmount = totalAmount.add(amount);
+            statusDistribution.merge(status, orderCount, Long::sum);
+        }
+
+        Map<String, Object> toMap() {
+            // 各分片增減後合計為 0 的狀態不列出
+            statusDistribution.values().removeIf(count -> count == 0);
+            Map<String, Object> map = new HashMap<>();
+            map.put("totalOrders", totalOrders);
+            map.put("totalAmount", totalAmount);
+            map.put("statusDistribution", statusDistribution);
+            return map;
+        }
+    }
+}
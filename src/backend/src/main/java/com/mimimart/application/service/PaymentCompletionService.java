@@ -0,0 +1,94 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.order.model.Order;
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.domain.payment.exception.InvalidPaymentStatusException;
+import com.mimimart.domain.payment.exception.PaymentNotFoundException;
+import com.mimimart.domain.payment.model.Payment;
+import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import com.mimimart.infrastructure.persistence.mapper.OrderMapper;
+import com.mimimart.infrastructure.persistence.mapper.PaymentMapper;
+import com.mimimart.infrastructure.persistence.repository.OrderRepository;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * 付款完成服務 (付款回調的資料庫交易部分)
+ *
+ * 付款狀態以條件式 UPDATE (status = PENDING_PAYMENT) 轉為已付款,並行的重複回調只有一筆更新成功,
+ * 其餘在同一資料列鎖上等待後判定為重複,不會重複更新訂單與庫存。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentCompletionService {
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentMapper paymentMapper;
+    private final OrderMapper orderMapper;
+    private final OrderStatisticsService orderStatisticsService;
+    private final StockReservationService stockReservationService;
+
+    /**
+     * 標記付款完成並更新訂單狀態
+     *
+     * @param paymentNumber  付款編號 (綠界 MerchantTradeNo)
+     * @param tradeNo        綠界交易編號
+     * @param callbackAmount 綠界回傳的交易金額
+     * @return true 表示本次完成付款;false 表示付款已完成 (重複回調)
+     */
+    @Transactional
+    public boolean complete(String paymentNumber, String tradeNo, BigDecimal callbackAmount) {
+        // 1. 查詢付款記錄
+        PaymentEntity paymentEntity = paymentRepository.findByPaymentNumber(paymentNumber)
+                .orElseThrow(() -> new PaymentNotFoundException(paymentNumber));
+        if (paymentEntity.getStatus() == PaymentStatus.PAID) {
+            log.info("付款記錄已處理,忽略重複回調: paymentNumber={}", paymentNumber);
+            return false;
+        }
+
+        // 2. 執行領域邏輯(包含狀態驗證與金額驗證)
+        Payment payment = paymentMapper.toDomain(paymentEntity);
+        payment.markAsPaid(tradeNo, callbackAmount);
+
+        // 3. 條件式更新付款狀態 (並行的重複回調只有一筆成功)
+        if (paymentRepository.markPaidIfPending(payment.getId(), tradeNo, payment.getPaidAt(),
+                PaymentStatus.PENDING_PAYMENT, PaymentStatus.PAID) == 0) {
+            PaymentStatus currentStatus = paymentRepository.findStatusById(payment.getId()).orElse(null);
+            if (currentStatus == PaymentStatus.PAID) {
+                log.info("付款記錄已由並行回調處理,忽略重複回調: paymentNumber={}", paymentNumber);
+                return false;
+            }
+            throw new InvalidPaymentStatusException("標記為已付款", currentStatus);
+        }
+
+        // 4. 更新訂單狀態
+        OrderEntity orderEntity = orderRepository.findById(payment.getOrderId())
+                .orElseThrow(() -> new RuntimeException("訂單不存在"));
+
+        OrderStatus previousStatus = orderEntity.getStatus();
+        Order order = orderMapper.toDomain(orderEntity);
+        order.markAsPaid();
+
+        orderEntity = orderMapper.toEntity(order);
+        orderRepository.save(orderEntity);
+        orderStatisticsService.recordTransition(orderEntity, previousStatus);
+
+        // 5. 確認庫存預留
+        stockReservationService.confirm(orderEntity.getId());
+
+        log.info("付款處理完成: paymentNumber={}, orderId={}", paymentNumber, orderEntity.getId());
+        return true;
+    }
+}
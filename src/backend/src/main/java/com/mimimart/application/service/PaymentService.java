@@ -1,18 +1,23 @@
 package com.mimimart.application.service;
 
 import com.mimimart.domain.order.model.Money;
-import com.mimimart.domain.order.model.Order;
+import com.mimimart.domain.payment.exception.PaymentCallbackInProgressException;
 import com.mimimart.domain.payment.exception.PaymentNotFoundException;
 import com.mimimart.domain.payment.exception.UnauthorizedPaymentAccessException;
 import com.mimimart.domain.payment.model.Payment;
+import com.mimimart.domain.payment.model.PaymentNumber;
 import com.mimimart.infrastructure.payment.ecpay.ECPayService;
 import com.mimimart.infrastructure.persistence.entity.OrderEntity;
 import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
 import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
-import com.mimimart.infrastructure.persistence.mapper.OrderMapper;
 import com.mimimart.infrastructure.persistence.mapper.PaymentMapper;
 import com.mimimart.infrastructure.persistence.repository.OrderRepository;
 import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentCallbackRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentCallbackRepository.ClaimResult;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentExpiryQueue;
+import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +25,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
@@ -38,8 +45,13 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentMapper paymentMapper;
-    private final OrderMapper orderMapper;
     private final ECPayService ecPayService;
+    private final PaymentCompletionService paymentCompletionService;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final RedisPaymentExpiryQueue redisPaymentExpiryQueue;
+    private final RedisPaymentCallbackRepository redisPaymentCallbackRepository;
+    private final Duration callbackProcessingTtl;
+    private final Duration callbackDoneTtl;
 
     @Value("${mimimart.payment.expiration-minutes:30}")
     private int expirationMinutes;
@@ -47,13 +59,23 @@ public class PaymentService {
     public PaymentService(PaymentRepository paymentRepository,
                           OrderRepository orderRepository,
                           PaymentMapper paymentMapper,
-                          OrderMapper orderMapper,
-                          ECPayService ecPayService) {
+                          ECPayService ecPayService,
+                          PaymentCompletionService paymentCompletionService,
+                          SnowflakeIdGenerator snowflakeIdGenerator,
+                          RedisPaymentExpiryQueue redisPaymentExpiryQueue,
+                          RedisPaymentCallbackRepository redisPaymentCallbackRepository,
+                          @Value("${mimimart.payment.callback.processing-ttl-seconds:30}") long callbackProcessingTtlSeconds,
+                          @Value("${mimimart.payment.callback.done-ttl-hours:168}") long callbackDoneTtlHours) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.paymentMapper = paymentMapper;
-        this.orderMapper = orderMapper;
         this.ecPayService = ecPayService;
+        this.paymentCompletionService = paymentCompletionService;
+        this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.redisPaymentExpiryQueue = redisPaymentExpiryQueue;
+        this.redisPaymentCallbackRepository = redisPaymentCallbackRepository;
+        this.callbackProcessingTtl = Duration.ofSeconds(callbackProcessingTtlSeconds);
+        this.callbackDoneTtl = Duration.ofHours(callbackDoneTtlHours);
     }
 
     /**
@@ -82,6 +104,7 @@ public class PaymentService {
         // 3. 使用領域模型建立付款記錄
         Payment payment = Payment.create(
                 orderEntity.getId(),
+                PaymentNumber.fromSnowflakeId(snowflakeIdGenerator.nextId()),
                 Money.of(totalAmount),
                 "ECPAY_Credit", // 預設使用綠界信用卡
                 expirationMinutes
@@ -94,12 +117,30 @@ public class PaymentService {
         // 5. 更新領域模型 ID(儲存後才有 ID)
         payment = paymentMapper.toDomain(paymentEntity);
 
+        // 6. 交易提交後排入逾期佇列 (期限到達時由排程立即處理)
+        scheduleExpiry(payment);
+
         logger.info("付款記錄建立成功: paymentNumber={}, expiredAt={}",
                 payment.getPaymentNumber().getValue(), payment.getExpiredAt());
 
         return payment;
     }
 
+    /**
+     * 排入付款逾期佇列 (失敗時由定期掃描補處理)
+     */
+    private void scheduleExpiry(Payment payment) {
+        Long paymentId = payment.getId();
+        Instant expiredAt = payment.getExpiredAt();
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                redisPaymentExpiryQueue.schedule(paymentId, expiredAt);
+            } catch (Exception e) {
+                logger.warn("排入付款逾期佇列失敗,將由定期掃描處理: paymentId={}", paymentId, e);
+            }
+        });
+    }
+
     /**
      * 查詢付款詳情
      *
@@ -148,10 +189,12 @@ public class PaymentService {
 
     /**
      * 處理付款回調(綠界通知)
+     * 以綠界交易編號作為冪等鍵,重送的回調在 Redis 判定為已完成後直接返回,不觸及資料庫;
+     * Redis 不可用時仍由資料庫條件式更新確保只處理一次
      *
      * @param callbackParams 綠界回調參數
+     * @throws PaymentCallbackInProgressException 相同交易的回調正由其他請求處理中
      */
-    @Transactional
     public void handlePaymentCallback(Map<String, String> callbackParams) {
         // 1. 驗證簽名
         if (!ecPayService.verifyCallback(callbackParams)) {
@@ -172,40 +215,63 @@ public class PaymentService {
             return;
         }
 
-        // 4. 查詢付款記錄
-        PaymentEntity paymentEntity = paymentRepository
-                .findByPaymentNumber(callbackInfo.getMerchantTradeNo())
-                .orElseThrow(() -> new PaymentNotFoundException(callbackInfo.getMerchantTradeNo()));
-
-        // 5. 轉換為領域模型
-        Payment payment = paymentMapper.toDomain(paymentEntity);
-
-        // 6. 冪等性檢查 - 如果已付款則直接返回
-        if (payment.isPaid()) {
-            logger.info("付款記錄已處理,忽略重複回調: paymentNumber={}", callbackInfo.getMerchantTradeNo());
+        // 4. 冪等性檢查 - 取得交易編號的處理權
+        String tradeNo = callbackInfo.getTradeNo();
+        ClaimResult claim = claimCallback(tradeNo);
+        if (claim == ClaimResult.DONE) {
+            logger.info("付款回調已處理,忽略重複回調: tradeNo={}", tradeNo);
             return;
         }
+        if (claim == ClaimResult.PROCESSING) {
+            throw new PaymentCallbackInProgressException(tradeNo);
+        }
 
-        // 7. 執行領域邏輯(包含狀態驗證與金額驗證)
-        BigDecimal callbackAmount = new BigDecimal(callbackInfo.getTradeAmt());
-        payment.markAsPaid(callbackInfo.getTradeNo(), callbackAmount);
-
-        // 8. 將領域模型轉換回 JPA 實體並儲存
-        paymentEntity = paymentMapper.toEntity(payment);
-        paymentRepository.save(paymentEntity);
+        // 5. 資料庫交易 (條件式更新付款、更新訂單、確認庫存預留)
+        try {
+            paymentCompletionService.complete(callbackInfo.getMerchantTradeNo(), tradeNo,
+                    new BigDecimal(callbackInfo.getTradeAmt()));
+        } catch (RuntimeException e) {
+            releaseCallback(tradeNo);
+            throw e;
+        }
 
-        // 9. 更新訂單狀態
-        OrderEntity orderEntity = orderRepository.findById(payment.getOrderId())
-                .orElseThrow(() -> new RuntimeException("訂單不存在"));
+        // 6. 記錄已完成 (本次完成或資料庫判定為重複皆是)
+        markCallbackDone(tradeNo);
+    }
 
-        Order order = orderMapper.toDomain(orderEntity);
-        order.markAsPaid();
+    private ClaimResult claimCallback(String tradeNo) {
+        if (tradeNo == null) {
+            return ClaimResult.CLAIMED;
+        }
+        try {
+            return redisPaymentCallbackRepository.claim(tradeNo, callbackProcessingTtl);
+        } catch (Exception e) {
+            logger.warn("付款回調冪等鍵讀取失敗,改由資料庫判定: tradeNo={}", tradeNo, e);
+            return ClaimResult.CLAIMED;
+        }
+    }
 
-        orderEntity = orderMapper.toEntity(order);
-        orderRepository.save(orderEntity);
+    private void markCallbackDone(String tradeNo) {
+        if (tradeNo == null) {
+            return;
+        }
+        try {
+            redisPaymentCallbackRepository.markDone(tradeNo, callbackDoneTtl);
+        } catch (Exception e) {
+            logger.warn("付款回調冪等鍵寫入失敗: tradeNo={}", tradeNo, e);
+        }
+    }
 
-        logger.info("付款處理完成: paymentNumber={}, orderId={}",
-                payment.getPaymentNumber().getValue(), orderEntity.getId());
+    private void releaseCallback(String tradeNo) {
+        if (tradeNo == null) {
+            return;
+        }
+        try {
+            redisPaymentCallbackRepository.release(tradeNo);
+        } catch (Exception e) {
+            // 處理中狀態到期後自動釋放
+            logger.warn("付款回調冪等鍵釋放失敗: tradeNo={}", tradeNo, e);
+        }
     }
 
     /**
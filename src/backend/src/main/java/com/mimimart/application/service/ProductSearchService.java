@@ -0,0 +1,45 @@
+package com.mimimart.application.service;
+
+import com.mimimart.infrastructure.persistence.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 商品搜尋服務介面
+ *
+ * <p>透過 {@code mimimart.search.engine} 切換實作:
+ * <ul>
+ *   <li><b>inverted-index</b> (預設): 內嵌倒排索引,依相關度排序</li>
+ *   <li><b>database</b>: 資料庫 LIKE 查詢</li>
+ * </ul>
+ */
+public interface ProductSearchService {
+
+    /**
+     * 搜尋前台可見的商品
+     *
+     * @param keyword  搜尋關鍵字
+     * @param pageable 分頁參數
+     * @return 商品分頁
+     */
+    Page<Product> search(String keyword, Pageable pageable);
+
+    /**
+     * 新增或更新商品索引 (交易提交後生效)
+     *
+     * @param product 商品
+     */
+    void index(Product product);
+
+    /**
+     * 移除商品索引 (交易提交後生效)
+     *
+     * @param productId 商品 ID
+     */
+    void remove(Long productId);
+
+    /**
+     * 重建全部索引
+     */
+    void rebuild();
+}
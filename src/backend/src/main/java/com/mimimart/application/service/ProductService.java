@@ -4,17 +4,27 @@ import com.mimimart.domain.product.exception.CategoryNotFoundException;
 import com.mimimart.domain.product.exception.InvalidPriceException;
 import com.mimimart.domain.product.exception.ProductAlreadyExistsException;
 import com.mimimart.domain.product.exception.ProductNotFoundException;
+import com.mimimart.infrastructure.cache.ProductCatalogCache;
 import com.mimimart.infrastructure.persistence.entity.Product;
 import com.mimimart.infrastructure.persistence.repository.CategoryRepository;
+import com.mimimart.infrastructure.persistence.repository.KeysetQuery;
 import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductSpecification;
+import com.mimimart.shared.exception.DomainException;
+import com.mimimart.shared.pagination.CursorPage;
 import com.mimimart.shared.valueobject.Price;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * 商品應用服務
@@ -24,44 +34,74 @@ import java.math.BigDecimal;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    /**
+     * 游標分頁支援的排序鍵: (created_at, id)、(price, id)、(name, id)
+     */
+    private static final Map<String, KeysetQuery.SortKey<Product, ?>> CURSOR_SORT_KEYS = Map.of(
+            "createdAt", KeysetQuery.SortKey.of("createdAt", Product::getCreatedAt, LocalDateTime::parse),
+            "price", new KeysetQuery.SortKey<>("price", Product::getPrice, BigDecimal::new, BigDecimal::toPlainString),
+            "name", KeysetQuery.SortKey.of("name", Product::getName, value -> value)
+    );
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchService productSearchService;
+    private final StockReservationService stockReservationService;
 
     /**
-     * 前台: 查詢商品列表 (已上架且未刪除)
-     * 會自動過濾未在上架期間內的商品
+     * 前台: 查詢商品列表 (前台可見)
+     * 上架期間過濾於資料庫查詢中完成
      */
     public Page<Product> getPublishedProducts(Pageable pageable) {
-        Page<Product> products = productRepository.findAllByIsPublishedTrueAndIsDeletedFalse(pageable);
-        // 過濾不在上架期間的商品
-        return products.map(p -> p.isInPublishPeriod() ? p : null)
-                .map(p -> p);  // 移除 null 值
+        return productCatalogCache.getPublishedPage(pageable,
+                () -> productRepository.findLiveProducts(LocalDateTime.now(), pageable));
     }
 
     /**
      * 前台: 根據分類查詢商品列表
-     * 會自動過濾未在上架期間內的商品
+     * 上架期間過濾於資料庫查詢中完成
      */
     public Page<Product> getPublishedProductsByCategory(Long categoryId, Pageable pageable) {
         // 驗證分類是否存在
         categoryRepository.findByIdAndDeletedAtIsNull(categoryId)
             .orElseThrow(() -> new CategoryNotFoundException(categoryId));
 
-        Page<Product> products = productRepository.findAllByCategoryIdAndIsPublishedTrueAndIsDeletedFalse(categoryId, pageable);
-        // 過濾不在上架期間的商品
-        return products.map(p -> p.isInPublishPeriod() ? p : null)
-                .map(p -> p);  // 移除 null 值
+        return productCatalogCache.getPublishedPageByCategory(categoryId, pageable,
+                () -> productRepository.findLiveProductsByCategory(categoryId, LocalDateTime.now(), pageable));
+    }
+
+    /**
+     * 前台: 游標分頁查詢商品列表 (前台可見)
+     * 以上一頁最後一筆的 (排序鍵, id) 作為起點,深分頁不需 OFFSET 掃描
+     *
+     * @param categoryId   分類 ID (可選)
+     * @param sortBy       排序欄位 (createdAt, price, name)
+     * @param direction    排序方向
+     * @param cursor       上一頁回傳的游標 (第一頁為 null)
+     * @param size         每頁筆數
+     * @param includeTotal 是否計算總筆數 (false 時省略 COUNT 查詢)
+     */
+    public CursorPage<Product> getPublishedProductsByCursor(Long categoryId, String sortBy, Sort.Direction direction,
+                                                            String cursor, int size, boolean includeTotal) {
+        KeysetQuery.SortKey<Product, ?> sortKey = CURSOR_SORT_KEYS.get(sortBy);
+        if (sortKey == null) {
+            throw new DomainException("INVALID_SORT_FIELD", "不支援的排序欄位: " + sortBy);
+        }
+        if (categoryId != null) {
+            categoryRepository.findByIdAndDeletedAtIsNull(categoryId)
+                .orElseThrow(() -> new CategoryNotFoundException(categoryId));
+        }
+
+        return KeysetQuery.fetch(productRepository, ProductSpecification.live(categoryId, LocalDateTime.now()),
+                sortKey, direction, Product::getId, cursor, size, includeTotal);
     }
 
     /**
-     * 前台: 搜尋商品
-     * 會自動過濾未在上架期間內的商品
+     * 前台: 搜尋商品 (依相關度排序)
      */
     public Page<Product> searchProducts(String keyword, Pageable pageable) {
-        Page<Product> products = productRepository.searchByKeyword(keyword, pageable);
-        // 過濾不在上架期間的商品
-        return products.map(p -> p.isInPublishPeriod() ? p : null)
-                .map(p -> p);  // 移除 null 值
+        return productSearchService.search(keyword, pageable);
     }
 
     /**
@@ -69,7 +109,8 @@ public class ProductService {
      * 會檢查是否在上架期間內
      */
     public Product getPublishedProductById(Long id) {
-        Product product = productRepository.findByIdAndIsPublishedTrueAndIsDeletedFalse(id)
+        Product product = productCatalogCache.getPublishedProduct(id,
+                () -> productRepository.findByIdAndIsPublishedTrueAndIsDeletedFalse(id))
             .orElseThrow(() -> new ProductNotFoundException(id));
 
         // 檢查是否在上架期間內
@@ -111,7 +152,7 @@ public class ProductService {
     @Transactional
     public Product createProduct(String name, String description, BigDecimal price, Integer stock,
                                  String imageUrl, Long categoryId,
-                                 java.time.LocalDateTime publishedAt, java.time.LocalDateTime unpublishedAt) {
+                                 LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
         // 驗證價格
         Price priceObj = Price.of(price);
 
@@ -137,7 +178,9 @@ public class ProductService {
         product.setIsPublished(true);  // 預設已上架
         product.setIsDeleted(false);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(saved, saved.getCategoryId());
+        return saved;
     }
 
     /**
@@ -146,7 +189,7 @@ public class ProductService {
     @Transactional
     public Product updateProduct(Long id, String name, String description, BigDecimal price, Integer stock,
                                 String imageUrl, Long categoryId,
-                                java.time.LocalDateTime publishedAt, java.time.LocalDateTime unpublishedAt) {
+                                LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
         // 檢查商品是否存在
         Product product = getProductById(id);
 
@@ -162,6 +205,9 @@ public class ProductService {
         categoryRepository.findByIdAndDeletedAtIsNull(categoryId)
             .orElseThrow(() -> new CategoryNotFoundException(categoryId));
 
+        Long previousCategoryId = product.getCategoryId();
+        boolean stockChanged = !Objects.equals(product.getStock(), stock);
+
         // 更新商品資訊
         product.setName(name);
         product.setDescription(description);
@@ -172,7 +218,12 @@ public class ProductService {
         product.setPublishedAt(publishedAt);
         product.setUnpublishedAt(unpublishedAt);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(saved, previousCategoryId, categoryId);
+        if (stockChanged) {
+            stockReservationService.resyncAvailableStock(id);
+        }
+        return saved;
     }
 
     /**
@@ -183,6 +234,7 @@ public class ProductService {
         Product product = getProductById(id);
         product.markAsDeleted();
         productRepository.save(product);
+        onProductChanged(product, product.getCategoryId());
     }
 
     /**
@@ -198,7 +250,9 @@ public class ProductService {
             throw new InvalidPriceException(e.getMessage());
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(product, product.getCategoryId());
+        return saved;
     }
 
     /**
@@ -208,7 +262,9 @@ public class ProductService {
     public Product unpublishProduct(Long id) {
         Product product = getProductById(id);
         product.unpublish();
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(product, product.getCategoryId());
+        return saved;
     }
 
     /**
@@ -224,7 +280,9 @@ public class ProductService {
             throw new InvalidPriceException(e.getMessage());
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(product, product.getCategoryId());
+        return saved;
     }
 
     /**
@@ -234,6 +292,54 @@ public class ProductService {
     public Product deactivateProduct(Long id) {
         Product product = getProductById(id);
         product.deactivate();
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        onProductChanged(product, product.getCategoryId());
+        return saved;
+    }
+
+    /**
+     * 排程: 依上架期間翻轉前台可見旗標
+     * 進入上架期間的商品標記為可見,離開上架期間 (或狀態不符) 的商品標記為不可見
+     *
+     * @return 翻轉的商品數量
+     */
+    @Transactional
+    public int refreshLiveStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> toGoLive = productRepository.findProductsToGoLive(now);
+        List<Product> toGoOffline = productRepository.findProductsToGoOffline(now);
+
+        if (!toGoLive.isEmpty()) {
+            productRepository.updateLiveStatus(toGoLive.stream().map(Product::getId).toList(), true);
+        }
+        if (!toGoOffline.isEmpty()) {
+            productRepository.updateLiveStatus(toGoOffline.stream().map(Product::getId).toList(), false);
+        }
+
+        // 失效受影響商品的前台快取
+        toGoLive.forEach(p -> productCatalogCache.evictProduct(p.getId(), p.getCategoryId()));
+        toGoOffline.forEach(p -> productCatalogCache.evictProduct(p.getId(), p.getCategoryId()));
+
+        return toGoLive.size() + toGoOffline.size();
+    }
+
+    /**
+     * 商品異動後同步前台快取與搜尋索引
+     * 搜尋索引保留上架期間資訊並於查詢時過濾,因此僅依啟用/上架/刪除狀態決定是否索引
+     */
+    private void onProductChanged(Product product, Long... categoryIds) {
+        productCatalogCache.evictProduct(product.getId(), categoryIds);
+        if (product.getIsActive() && product.getIsPublished() && !product.getIsDeleted()) {
+            productSearchService.index(product);
+        } else {
+            productSearchService.remove(product.getId());
+        }
+    }
+
+    /**
+     * 後台: 查詢商品目錄快取統計
+     */
+    public Map<String, Object> getCatalogCacheStats() {
+        return productCatalogCache.getStats();
     }
 }
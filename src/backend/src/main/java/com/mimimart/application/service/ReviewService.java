@@ -7,24 +7,31 @@ import com.mimimart.domain.review.exception.ReviewNotFoundException;
 import com.mimimart.domain.review.exception.UnauthorizedReviewException;
 import com.mimimart.domain.review.model.Rating;
 import com.mimimart.domain.review.model.Review;
+import com.mimimart.domain.review.model.ReviewSummary;
 import com.mimimart.domain.review.service.ReviewEligibilityService;
+import com.mimimart.infrastructure.cache.ReviewSummaryCache;
 import com.mimimart.infrastructure.persistence.entity.ProductReview;
+import com.mimimart.infrastructure.persistence.entity.ProductReviewSummary;
 import com.mimimart.infrastructure.persistence.mapper.ReviewMapper;
 import com.mimimart.infrastructure.persistence.repository.MemberRepository;
 import com.mimimart.infrastructure.persistence.repository.ProductRepository;
 import com.mimimart.infrastructure.persistence.repository.ProductReviewRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductReviewSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 評價應用服務
+ * 商品評價統計由 product_review_summaries 彙總表提供 (評價異動時於同一交易內增減),
+ * 並經 Redis 快取,列表頁可批次查詢
  */
 @Service
 @RequiredArgsConstructor
@@ -36,6 +43,8 @@ public class ReviewService {
     private final MemberRepository memberRepository;
     private final ReviewEligibilityService eligibilityService;
     private final ReviewMapper reviewMapper;
+    private final ProductReviewSummaryRepository reviewSummaryRepository;
+    private final ReviewSummaryCache reviewSummaryCache;
 
     /**
      * 前台：新增評價
@@ -81,6 +90,11 @@ public class ReviewService {
         ProductReview entity = reviewMapper.toEntity(review);
         ProductReview saved = reviewRepository.save(entity);
 
+        // 7. 累加評價彙總
+        if (Boolean.TRUE.equals(saved.getIsVisible())) {
+            adjustSummary(productId, saved.getRating(), 1);
+        }
+
         return reviewMapper.toDomain(saved);
     }
 
@@ -95,14 +109,15 @@ public class ReviewService {
      */
     @Transactional
     public Review updateReview(Long memberId, Long reviewId, Integer ratingValue, String content) {
-        // 1. 查詢評價
-        ProductReview entity = reviewRepository.findById(reviewId)
+        // 1. 查詢評價（鎖定資料列，避免並行異動重複計入彙總）
+        ProductReview entity = reviewRepository.findByIdForUpdate(reviewId)
             .orElseThrow(() -> new ReviewNotFoundException(reviewId));
 
         // 2. 驗證擁有權
         if (!entity.getMemberId().equals(memberId)) {
             throw new UnauthorizedReviewException("無權修改此評價");
         }
+        int previousRating = entity.getRating();
 
         // 3. 轉換為領域模型並更新
         Review review = reviewMapper.toDomain(entity);
@@ -113,6 +128,12 @@ public class ReviewService {
         ProductReview updated = reviewMapper.toEntity(review);
         ProductReview saved = reviewRepository.save(updated);
 
+        // 5. 評分變更時移轉評價彙總
+        if (Boolean.TRUE.equals(saved.getIsVisible()) && saved.getRating() != previousRating) {
+            adjustSummary(saved.getProductId(), previousRating, -1);
+            adjustSummary(saved.getProductId(), saved.getRating(), 1);
+        }
+
         return reviewMapper.toDomain(saved);
     }
 
@@ -124,8 +145,8 @@ public class ReviewService {
      */
     @Transactional
     public void deleteReview(Long memberId, Long reviewId) {
-        // 1. 查詢評價
-        ProductReview entity = reviewRepository.findById(reviewId)
+        // 1. 查詢評價（鎖定資料列，避免並行異動重複計入彙總）
+        ProductReview entity = reviewRepository.findByIdForUpdate(reviewId)
             .orElseThrow(() -> new ReviewNotFoundException(reviewId));
 
         // 2. 驗證擁有權
@@ -135,6 +156,11 @@ public class ReviewService {
 
         // 3. 刪除（物理刪除）
         reviewRepository.delete(entity);
+
+        // 4. 扣除評價彙總
+        if (Boolean.TRUE.equals(entity.getIsVisible())) {
+            adjustSummary(entity.getProductId(), entity.getRating(), -1);
+        }
     }
 
     /**
@@ -162,44 +188,24 @@ public class ReviewService {
     }
 
     /**
-     * 前台：取得商品評價統計
+     * 前台：取得商品評價統計（評價數、平均評分、評分分布）
      *
      * @param productId 商品ID
-     * @return Map 包含 totalReviews 和 avgRating
+     * @return 評價彙總
      */
-    public Map<String, Object> getReviewStats(Long productId) {
-        Object[] stats = reviewRepository.getReviewStats(productId);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("totalReviews", ((Number) stats[0]).longValue());
-        result.put("avgRating", ((Number) stats[1]).doubleValue());
-
-        return result;
+    public ReviewSummary getReviewSummary(Long productId) {
+        return getReviewSummaries(List.of(productId)).get(productId);
     }
 
     /**
-     * 前台：取得商品評分分布
+     * 前台：批次取得多個商品的評價統計（列表頁使用）
      *
-     * @param productId 商品ID
-     * @return Map<評分, 數量>
+     * @param productIds 商品ID
+     * @return Map<商品ID, 評價彙總>（依傳入順序，未有評價的商品為空彙總）
      */
-    public Map<Integer, Long> getRatingDistribution(Long productId) {
-        List<Object[]> distribution = reviewRepository.getRatingDistribution(productId);
-
-        Map<Integer, Long> result = new HashMap<>();
-        // 初始化所有評分為 0
-        for (int i = 1; i <= 5; i++) {
-            result.put(i, 0L);
-        }
-
-        // 填入實際數據
-        for (Object[] row : distribution) {
-            Integer rating = (Integer) row[0];
-            Long count = ((Number) row[1]).longValue();
-            result.put(rating, count);
-        }
-
-        return result;
+    public Map<Long, ReviewSummary> getReviewSummaries(Collection<Long> productIds) {
+        return reviewSummaryCache.getAll(productIds, ids -> reviewSummaryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ProductReviewSummary::getProductId, ReviewService::toSummary)));
     }
 
     /**
@@ -234,8 +240,9 @@ public class ReviewService {
      */
     @Transactional
     public Review hideReview(Long reviewId) {
-        ProductReview entity = reviewRepository.findById(reviewId)
+        ProductReview entity = reviewRepository.findByIdForUpdate(reviewId)
             .orElseThrow(() -> new ReviewNotFoundException(reviewId));
+        boolean wasVisible = Boolean.TRUE.equals(entity.getIsVisible());
 
         Review review = reviewMapper.toDomain(entity);
         review.hide();
@@ -243,6 +250,10 @@ public class ReviewService {
         ProductReview updated = reviewMapper.toEntity(review);
         ProductReview saved = reviewRepository.save(updated);
 
+        if (wasVisible) {
+            adjustSummary(saved.getProductId(), saved.getRating(), -1);
+        }
+
         return reviewMapper.toDomain(saved);
     }
 
@@ -254,8 +265,9 @@ public class ReviewService {
      */
     @Transactional
     public Review showReview(Long reviewId) {
-        ProductReview entity = reviewRepository.findById(reviewId)
+        ProductReview entity = reviewRepository.findByIdForUpdate(reviewId)
             .orElseThrow(() -> new ReviewNotFoundException(reviewId));
+        boolean wasVisible = Boolean.TRUE.equals(entity.getIsVisible());
 
         Review review = reviewMapper.toDomain(entity);
         review.show();
@@ -263,6 +275,10 @@ public class ReviewService {
         ProductReview updated = reviewMapper.toEntity(review);
         ProductReview saved = reviewRepository.save(updated);
 
+        if (!wasVisible) {
+            adjustSummary(saved.getProductId(), saved.getRating(), 1);
+        }
+
         return reviewMapper.toDomain(saved);
     }
 
@@ -292,4 +308,19 @@ public class ReviewService {
 
         return eligibilityService.isEligibleForReview(memberId, orderItemId);
     }
+
+    /**
+     * 增減評價彙總並於交易提交後失效快取
+     */
+    private void adjustSummary(Long productId, int rating, int delta) {
+        reviewSummaryRepository.applyDelta(productId, rating, delta);
+        reviewSummaryCache.evict(productId);
+    }
+
+    private static ReviewSummary toSummary(ProductReviewSummary entity) {
+        return new ReviewSummary(entity.getReviewCount(), entity.getRatingSum(), new long[] {
+                entity.getRating1(), entity.getRating2(), entity.getRating3(),
+                entity.getRating4(), entity.getRating5()
+        });
+    }
 }
@@ -0,0 +1,245 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.cart.exception.InsufficientStockException;
+import com.mimimart.domain.order.model.OrderItem;
+import com.mimimart.infrastructure.cache.ProductCatalogCache;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.entity.StockReservation;
+import com.mimimart.infrastructure.persistence.entity.StockReservationStatus;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisStockRepository;
+import com.mimimart.infrastructure.persistence.repository.StockReservationRepository;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 庫存預留應用服務
+ *
+ * 建立訂單時預留庫存,付款完成後確認,訂單取消或付款逾期時釋放:
+ * 1. Redis Lua 原子扣減可售數量,庫存不足的請求直接拒絕,不觸及資料庫
+ * 2. 通過閘門的請求以條件式 UPDATE (stock >= 數量) 扣減 products.stock,資料庫為唯一可信來源
+ * 3. 交易回滾時歸還 Redis 可售數量;資料庫扣減失敗時清除 Redis 值,下次從資料庫重新載入
+ *
+ * 多商品依商品 ID 排序後扣減,固定加鎖順序避免死結。
+ * Redis 不可用時退回僅以資料庫條件式 UPDATE 扣減。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private static final int MAX_LOAD_ATTEMPTS = 2;
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final RedisStockRepository redisStockRepository;
+    private final ProductCatalogCache productCatalogCache;
+
+    /**
+     * 預留訂單商品庫存
+     *
+     * @param orderId   訂單 ID
+     * @param items     訂單項目
+     * @param expiresAt 預留到期時間 (付款期限)
+     * @throws InsufficientStockException 任一商品庫存不足
+     */
+    @Transactional
+    public void reserve(Long orderId, List<OrderItem> items, Instant expiresAt) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        // 1. Redis 閘門
+        Map<Long, Long> remaining = reserveInRedis(quantities);
+        if (remaining != null) {
+            TransactionCallbacks.afterRollback(() -> releaseInRedis(quantities));
+        }
+
+        // 2. 資料庫條件式扣減 (依商品 ID 順序)
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                // Redis 可售數量高於資料庫,回滾後清除以便重新載入
+                TransactionCallbacks.afterRollback(() -> evictInRedis(productId));
+                int available = productRepository.findById(productId).map(Product::getStock).orElse(0);
+                throw new InsufficientStockException(productId, quantity, available);
+            }
+            stockReservationRepository.save(StockReservation.reserve(orderId, productId, quantity, expiresAt));
+        });
+
+        // 3. 售完的商品失效前台快取 (其餘扣減不失效,前台顯示的庫存可能延遲至快取 TTL,見 ProductCatalogCache)
+        if (remaining != null) {
+            remaining.forEach((productId, left) -> {
+                if (left <= 0) {
+                    evictCatalog(productId);
+                }
+            });
+        }
+
+        log.info("Stock reserved: orderId={}, items={}", orderId, quantities);
+    }
+
+    /**
+     * 確認訂單庫存預留 (付款完成)
+     *
+     * @param orderId 訂單 ID
+     */
+    @Transactional
+    public void confirm(Long orderId) {
+        List<StockReservation> reservations =
+                stockReservationRepository.findByOrderIdAndStatus(orderId, StockReservationStatus.RESERVED);
+        Instant now = Instant.now();
+        for (StockReservation reservation : reservations) {
+            // 條件式更新,已被並行釋放的預留不會改為確認
+            if (stockReservationRepository.updateStatusIfMatch(reservation.getId(),
+                    StockReservationStatus.RESERVED, StockReservationStatus.CONFIRMED, now) == 1) {
+                reservation.setStatus(StockReservationStatus.CONFIRMED);
+                reservation.setUpdatedAt(now);
+            }
+        }
+    }
+
+    /**
+     * 釋放訂單庫存預留並歸還庫存 (訂單取消、付款逾期)
+     * 僅處理尚未確認的預留,重複呼叫不會重複歸還
+     *
+     * @param orderId 訂單 ID
+     */
+    @Transactional
+    public void release(Long orderId) {
+        Map<Long, Integer> quantities = releaseReservations(
+                stockReservationRepository.findByOrderIdAndStatus(orderId, StockReservationStatus.RESERVED));
+        if (!quantities.isEmpty()) {
+            log.info("Stock released: orderId={}, items={}", orderId, quantities);
+        }
+    }
+
+    /**
+     * 批次釋放多筆訂單的庫存預留 (逾期付款批次處理)
+     * 同一商品跨訂單合併為一次歸還,依商品 ID 順序更新,與並行的其他批次維持相同加鎖順序
+     *
+     * @param orderIds 訂單 ID
+     */
+    @Transactional
+    public void releaseAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> quantities = releaseReservations(
+                stockReservationRepository.findByOrderIdInAndStatus(orderIds, StockReservationStatus.RESERVED));
+        if (!quantities.isEmpty()) {
+            log.info("Stock released: orders={}, items={}", orderIds.size(), quantities);
+        }
+    }
+
+    /**
+     * 商品庫存由後台直接調整後,清除 Redis 可售數量 (交易提交後執行)
+     *
+     * @param productId 商品 ID
+     */
+    public void resyncAvailableStock(Long productId) {
+        TransactionCallbacks.afterCommit(() -> evictInRedis(productId));
+    }
+
+    /**
+     * 將預留標記為已釋放並依商品合併歸還庫存
+     * 以條件式 UPDATE (status = RESERVED) 逐筆取得預留,只歸還本交易實際釋放的數量;
+     * 並行的取消、逾期處理讀到同一批預留時,後執行者等待前者提交後更新 0 筆,不會重複歸還
+     *
+     * @return 各商品歸還數量 (依商品 ID 排序)
+     */
+    private Map<Long, Integer> releaseReservations(List<StockReservation> reservations) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        if (reservations.isEmpty()) {
+            return quantities;
+        }
+
+        Instant now = Instant.now();
+        List<StockReservation> ordered = reservations.stream()
+                .sorted(Comparator.comparing(StockReservation::getId))
+                .toList();
+        for (StockReservation reservation : ordered) {
+            if (stockReservationRepository.updateStatusIfMatch(reservation.getId(),
+                    StockReservationStatus.RESERVED, StockReservationStatus.RELEASED, now) == 0) {
+                continue;
+            }
+            reservation.setStatus(StockReservationStatus.RELEASED);
+            reservation.setUpdatedAt(now);
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            return quantities;
+        }
+        quantities.forEach(productRepository::incrementStock);
+
+        TransactionCallbacks.afterCommit(() -> releaseInRedis(quantities));
+        quantities.keySet().forEach(this::evictCatalog);
+        return quantities;
+    }
+
+    /**
+     * Redis 原子扣減,Key 不存在時從資料庫載入後重試
+     *
+     * @return 各商品扣減後數量;Redis 不可用時回傳 null
+     * @throws InsufficientStockException Redis 可售數量不足
+     */
+    private Map<Long, Long> reserveInRedis(Map<Long, Integer> quantities) {
+        try {
+            for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+                RedisStockRepository.ReserveResult result = redisStockRepository.tryReserve(quantities);
+                switch (result.status()) {
+                    case RESERVED -> {
+                        return result.remaining();
+                    }
+                    case INSUFFICIENT -> throw new InsufficientStockException(
+                            result.productId(), quantities.get(result.productId()), result.availableStock());
+                    case MISSING -> productRepository.findAllById(quantities.keySet())
+                            .forEach(product -> redisStockRepository.loadIfAbsent(product.getId(), product.getStock()));
+                }
+            }
+            log.warn("Available stock not loaded into Redis, falling back to database: products={}", quantities.keySet());
+            return null;
+        } catch (InsufficientStockException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Failed to reserve stock in Redis, falling back to database: products={}", quantities.keySet(), e);
+            return null;
+        }
+    }
+
+    private void releaseInRedis(Map<Long, Integer> quantities) {
+        try {
+            redisStockRepository.release(quantities);
+        } catch (Exception e) {
+            // 無法歸還時清除 Key,避免 Redis 可售數量持續低於資料庫
+            log.warn("Failed to release stock in Redis: products={}", quantities.keySet(), e);
+            quantities.keySet().forEach(this::evictInRedis);
+        }
+    }
+
+    private void evictInRedis(Long productId) {
+        try {
+            redisStockRepository.evict(productId);
+        } catch (Exception e) {
+            log.warn("Failed to evict available stock from Redis: productId={}", productId, e);
+        }
+    }
+
+    private void evictCatalog(Long productId) {
+        productRepository.findById(productId)
+                .ifPresent(product -> productCatalogCache.evictProduct(productId, product.getCategoryId()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.mimimart.application.service;
 
+import com.mimimart.infrastructure.cache.TokenBlacklistBloomFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -17,6 +18,7 @@ import java.util.concurrent.TimeUnit;
  * Token 黑名單服務
  * 使用 Redis 管理已登出的 Access Token 黑名單
  * 當用戶登出時，將 Token 加入黑名單，防止該 Token 被繼續使用
+ * 查詢前先經本地布隆過濾器判斷，僅在可能命中時查詢 Redis
  *
  * @author MimiMart Development Team
  * @since 1.0.0
@@ -27,6 +29,7 @@ import java.util.concurrent.TimeUnit;
 public class TokenBlacklistService {
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final TokenBlacklistBloomFilter tokenBlacklistBloomFilter;
 
     /**
      * Redis key 前綴：auth:blacklist:token
@@ -42,13 +45,15 @@ public class TokenBlacklistService {
      */
     public void addToBlacklist(String token, Date expiresAt) {
         String key = buildKey(token);
-        String value = LocalDateTime.now().toString(); // 儲存登出時間戳記
+        // 儲存登出時間戳記與 Token 指紋 (供各節點重建布隆過濾器)
+        String value = LocalDateTime.now() + "|" + tokenBlacklistBloomFilter.fingerprint(token);
 
         // 計算 TTL（秒數）
         long ttlSeconds = calculateTTL(expiresAt);
 
         if (ttlSeconds > 0) {
             redisTemplate.opsForValue().set(key, value, ttlSeconds, TimeUnit.SECONDS);
+            tokenBlacklistBloomFilter.add(token);
             log.info("Token 已加入黑名單，TTL: {} 秒", ttlSeconds);
         } else {
             log.warn("Token 已過期，無需加入黑名單");
@@ -62,6 +67,10 @@ public class TokenBlacklistService {
      * @return true 如果 Token 在黑名單中
      */
     public boolean isBlacklisted(String token) {
+        // 布隆過濾器判定不存在時一定不在黑名單中
+        if (!tokenBlacklistBloomFilter.mightContain(token)) {
+            return false;
+        }
         String key = buildKey(token);
         Boolean exists = redisTemplate.hasKey(key);
         return exists != null && exists;
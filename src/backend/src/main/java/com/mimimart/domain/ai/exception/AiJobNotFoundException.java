@@ -0,0 +1,13 @@
+package com.mimimart.domain.ai.exception;
+
+import com.mimimart.shared.exception.DomainException;
+
+/**
+ * AI 生成工作不存在異常
+ */
+public class AiJobNotFoundException extends DomainException {
+
+    public AiJobNotFoundException(Long jobId) {
+        super("AI_JOB_NOT_FOUND", String.format("AI 生成工作不存在: ID=%d", jobId));
+    }
+}
@@ -0,0 +1,13 @@
+package com.mimimart.domain.ai.exception;
+
+import com.mimimart.shared.exception.DomainException;
+
+/**
+ * AI 生成工作佇列已滿異常
+ */
+public class AiJobQueueFullException extends DomainException {
+
+    public AiJobQueueFullException(String message) {
+        super("AI_JOB_QUEUE_FULL", message);
+    }
+}
@@ -1,7 +1,5 @@
 package com.mimimart.domain.order.model;
 
-import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
-
 import java.util.Objects;
 
 /**
@@ -13,16 +11,12 @@ import java.util.Objects;
  * - 全域唯一：即使分散式部署也不會重複
  * - 趨勢遞增：基於時間戳，大致有序
  * - 高效能：純記憶體計算，無需查詢資料庫
+ *
+ * ID 由 SnowflakeIdGenerator 生成 (各節點以 Redis 租約取得不同的工作機器 ID)
  */
 public class OrderNumber {
     private static final String PREFIX = "ORD";
 
-    /**
-     * 雪花算法生成器（工作機器 ID = 0）
-     * 注意：若部署多台機器，需為每台機器配置不同的 workerId
-     */
-    private static final SnowflakeIdGenerator ID_GENERATOR = new SnowflakeIdGenerator(0);
-
     private final String value;
 
     private OrderNumber(String value) {
@@ -30,10 +24,9 @@ public class OrderNumber {
     }
 
     /**
-     * 生成新的訂單編號
+     * 以雪花算法 ID 建立新的訂單編號
      */
-    public static OrderNumber generate() {
-        long snowflakeId = ID_GENERATOR.nextId();
+    public static OrderNumber fromSnowflakeId(long snowflakeId) {
         return new OrderNumber(PREFIX + snowflakeId);
     }
 
@@ -6,6 +6,7 @@ import com.mimimart.domain.order.model.*;
 import com.mimimart.domain.product.exception.ProductNotFoundException;
 import com.mimimart.infrastructure.persistence.entity.Product;
 import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -23,6 +24,7 @@ import java.util.stream.Collectors;
 public class OrderFactory {
 
     private final ProductRepository productRepository;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
 
     /**
      * 從項目列表建立訂單
@@ -57,7 +59,7 @@ public class OrderFactory {
                 .reduce(Money.zero(), Money::add);
 
         // 生成訂單編號
-        OrderNumber orderNumber = OrderNumber.generate();
+        OrderNumber orderNumber = OrderNumber.fromSnowflakeId(snowflakeIdGenerator.nextId());
 
         // 建立訂單
         return Order.builder()
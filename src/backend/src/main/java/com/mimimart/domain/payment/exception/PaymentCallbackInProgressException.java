@@ -0,0 +1,17 @@
+package com.mimimart.domain.payment.exception;
+
+import com.mimimart.shared.exception.DomainException;
+
+/**
+ * 付款回調處理中異常
+ * 相同綠界交易編號的回調正由其他請求處理時拋出,綠界稍後重送時再回應處理結果
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+public class PaymentCallbackInProgressException extends DomainException {
+
+    public PaymentCallbackInProgressException(String tradeNo) {
+        super("付款回調處理中: " + tradeNo);
+    }
+}
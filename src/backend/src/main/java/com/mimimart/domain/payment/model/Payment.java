@@ -57,16 +57,19 @@ public class Payment {
      * 工廠方法:建立新的付款記錄
      *
      * @param orderId 訂單 ID
+     * @param paymentNumber 付款編號
      * @param amount 付款金額
      * @param paymentMethod 付款方式
      * @param expirationMinutes 付款期限(分鐘)
      * @return 新付款領域模型
      */
     public static Payment create(Long orderId,
+                                  PaymentNumber paymentNumber,
                                   Money amount,
                                   String paymentMethod,
                                   int expirationMinutes) {
         Objects.requireNonNull(orderId, "訂單 ID 不能為 null");
+        Objects.requireNonNull(paymentNumber, "付款編號不能為 null");
         Objects.requireNonNull(amount, "付款金額不能為 null");
         Objects.requireNonNull(paymentMethod, "付款方式不能為 null");
 
@@ -76,7 +79,7 @@ public class Payment {
 
         Payment payment = new Payment();
         payment.orderId = orderId;
-        payment.paymentNumber = PaymentNumber.generate();
+        payment.paymentNumber = paymentNumber;
         payment.paymentMethod = paymentMethod;
         payment.amount = amount;
         payment.status = PaymentStatus.PENDING_PAYMENT;
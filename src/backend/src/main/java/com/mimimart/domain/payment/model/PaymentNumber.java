@@ -1,9 +1,6 @@
 package com.mimimart.domain.payment.model;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * 付款編號值對象 (Value Object)
@@ -11,7 +8,9 @@ import java.util.Random;
  *
  * 設計理念:
  * - 不可變對象
- * - 封裝生成規則 (PAY + yyyyMMddHHmmss + 隨機3碼)
+ * - 封裝生成規則 (PAY + 13 碼 36 進位雪花算法 ID,共 16 碼)
+ * - 符合綠界 MerchantTradeNo 限制 (英數字,最長 20 碼)
+ * - 雪花算法 ID 以固定寬度編碼,字串排序即時間順序
  * - 型別安全,避免將 String 誤用為付款編號
  *
  * @author MimiMart Development Team
@@ -20,8 +19,8 @@ import java.util.Random;
 public class PaymentNumber {
 
     private static final String PREFIX = "PAY";
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-    private static final Random RANDOM = new Random();
+    private static final int ID_LENGTH = 13;
+    private static final int MAX_LENGTH = 20;
 
     private final String value;
 
@@ -47,15 +46,21 @@ public class PaymentNumber {
     }
 
     /**
-     * 生成新的付款編號
-     * 格式: PAY + yyyyMMddHHmmss + 隨機3碼
+     * 以雪花算法 ID 建立新的付款編號
+     * 格式: PAY + 13 碼 36 進位 (大寫英數字,左補 0)
      *
+     * @param snowflakeId 雪花算法 ID (非負數)
      * @return 新的 PaymentNumber 值對象
      */
-    public static PaymentNumber generate() {
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        int randomNum = RANDOM.nextInt(1000);
-        String value = String.format("%s%s%03d", PREFIX, timestamp, randomNum);
+    public static PaymentNumber fromSnowflakeId(long snowflakeId) {
+        if (snowflakeId < 0) {
+            throw new IllegalArgumentException("雪花算法 ID 不能為負數: " + snowflakeId);
+        }
+        String id = Long.toString(snowflakeId, 36).toUpperCase();
+        String value = PREFIX + "0".repeat(ID_LENGTH - id.length()) + id;
+        if (value.length() > MAX_LENGTH) {
+            throw new IllegalStateException("付款編號超過 " + MAX_LENGTH + " 碼: " + value);
+        }
         return new PaymentNumber(value);
     }
 
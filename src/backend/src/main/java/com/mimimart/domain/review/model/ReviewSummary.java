@@ -0,0 +1,49 @@
+package com.mimimart.domain.review.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 商品評價彙總值對象 (僅統計可見評價)
+ *
+ * @param totalReviews 評價數
+ * @param ratingSum    評分總和
+ * @param ratingCounts 1~5 星評價數 (索引 0 為 1 星)
+ */
+public record ReviewSummary(long totalReviews, long ratingSum, long[] ratingCounts) {
+
+    private static final int MAX_RATING = 5;
+
+    public ReviewSummary {
+        if (ratingCounts.length != MAX_RATING) {
+            throw new IllegalArgumentException("ratingCounts 必須包含 1~5 星共 5 筆");
+        }
+    }
+
+    /**
+     * 尚無評價的彙總
+     */
+    public static ReviewSummary empty() {
+        return new ReviewSummary(0, 0, new long[MAX_RATING]);
+    }
+
+    /**
+     * 平均評分 (無評價時為 0)
+     */
+    public double avgRating() {
+        return totalReviews == 0 ? 0.0 : (double) ratingSum / totalReviews;
+    }
+
+    /**
+     * 評分分布 (1 星至 5 星)
+     *
+     * @return Map<評分, 數量>
+     */
+    public Map<Integer, Long> ratingDistribution() {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int rating = 1; rating <= MAX_RATING; rating++) {
+            distribution.put(rating, ratingCounts[rating - 1]);
+        }
+        return distribution;
+    }
+}
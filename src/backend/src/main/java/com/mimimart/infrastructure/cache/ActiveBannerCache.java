@@ -0,0 +1,192 @@
+package com.mimimart.infrastructure.cache;
+
+import com.mimimart.infrastructure.persistence.entity.BannerEntity;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 前台啟用輪播圖快照 (本地記憶體)
+ *
+ * 快照為啟用且在上架期間內的輪播圖列表,有效期限為所有啟用輪播圖中下一個上架/下架時間點
+ * (最長不超過 max-ttl-seconds),到期後下一次讀取重新載入,排程上下架不需後台寫入即可生效。
+ * 後台異動輪播圖時於交易提交後透過 Pub/Sub 通知所有節點丟棄快照。
+ * 快照中的 BannerEntity 為已脫離持久化上下文的唯讀物件,呼叫端不可修改。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ActiveBannerCache implements MessageListener {
+
+    private static final String INVALIDATION_CHANNEL = "banner:active:invalidate";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration maxTtl;
+    private final Clock clock;
+
+    private final Object loadLock = new Object();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    @Autowired
+    public ActiveBannerCache(RedisTemplate<String, String> redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             @Value("${mimimart.banner.active-cache.max-ttl-seconds:600}") long maxTtlSeconds) {
+        this(redisTemplate, listenerContainer, Duration.ofSeconds(maxTtlSeconds), Clock.systemDefaultZone());
+    }
+
+    ActiveBannerCache(RedisTemplate<String, String> redisTemplate,
+                      RedisMessageListenerContainer listenerContainer,
+                      Duration maxTtl, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * 訂閱失效通知頻道
+     */
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 取得啟用且在上架期間內的輪播圖 (快照有效時不查詢資料庫)
+     *
+     * @param loader 載入所有啟用輪播圖 (含尚未上架與已下架者,依顯示順序排序)
+     * @return 輪播圖列表,按顯示順序排序
+     */
+    public List<BannerEntity> getActiveBanners(Supplier<List<BannerEntity>> loader) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        // 讀寫交易中可能讀到未提交的異動,直接查詢且不保存快照
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return buildSnapshot(loader.get(), now).banners();
+        }
+
+        Snapshot current = snapshot;
+        if (current != null && now.isBefore(current.validUntil())) {
+            hits.increment();
+            return current.banners();
+        }
+
+        // 同時未命中時只載入一次
+        synchronized (loadLock) {
+            now = LocalDateTime.now(clock);
+            current = snapshot;
+            if (current != null && now.isBefore(current.validUntil())) {
+                hits.increment();
+                return current.banners();
+            }
+
+            long loadGeneration = generation.get();
+            Snapshot loaded = buildSnapshot(loader.get(), now);
+            loads.increment();
+            // 載入期間收到失效通知時不保存 (可能為異動前的資料),下次讀取重新載入
+            if (generation.get() == loadGeneration) {
+                snapshot = loaded;
+            }
+            log.debug("Loaded active banner snapshot: count={}, validUntil={}",
+                    loaded.banners().size(), loaded.validUntil());
+            return loaded.banners();
+        }
+    }
+
+    /**
+     * 輪播圖異動後失效快照 (交易提交後通知所有節點,回滾時僅清除本節點)
+     */
+    public void evict() {
+        TransactionCallbacks.afterCommit(this::publishInvalidation);
+        TransactionCallbacks.afterRollback(this::evictLocal);
+    }
+
+    /**
+     * 接收其他節點 (含本節點) 的失效通知,丟棄本地快照
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocal();
+    }
+
+    /**
+     * 取得快取統計 (命中/載入次數)
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    private void publishInvalidation() {
+        // 先清除本節點,不依賴訊息回送
+        evictLocal();
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, "evict");
+        } catch (Exception e) {
+            // Redis 不可用時其他節點於快照到期 (最長 max-ttl) 後重新載入
+            log.warn("Failed to publish active banner invalidation", e);
+        }
+    }
+
+    private void evictLocal() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * 篩選上架期間內的輪播圖,並以下一個上架/下架時間點作為快照有效期限
+     */
+    private Snapshot buildSnapshot(List<BannerEntity> activeBanners, LocalDateTime now) {
+        LocalDateTime validUntil = now.plus(maxTtl);
+        for (BannerEntity banner : activeBanners) {
+            if (banner.getPublishedAt() != null && banner.getPublishedAt().isAfter(now)
+                    && banner.getPublishedAt().isBefore(validUntil)) {
+                validUntil = banner.getPublishedAt();
+            }
+            if (banner.getUnpublishedAt() != null && banner.getUnpublishedAt().isAfter(now)
+                    && banner.getUnpublishedAt().isBefore(validUntil)) {
+                validUntil = banner.getUnpublishedAt();
+            }
+        }
+        List<BannerEntity> published = activeBanners.stream()
+                .filter(banner -> banner.isPublishedAt(now))
+                .toList();
+        return new Snapshot(published, validUntil);
+    }
+
+    /**
+     * 輪播圖快照
+     *
+     * @param banners    上架期間內的輪播圖 (唯讀)
+     * @param validUntil 有效期限 (不含)
+     */
+    private record Snapshot(List<BannerEntity> banners, LocalDateTime validUntil) {
+    }
+}
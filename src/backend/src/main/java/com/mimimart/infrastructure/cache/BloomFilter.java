@@ -0,0 +1,106 @@
+package com.mimimart.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆過濾器 (記憶體內,執行緒安全)
+ *
+ * 以兩個 64 位元雜湊值進行雙重雜湊 (h1 + i * h2) 產生 k 個位元位置,
+ * 新增與查詢皆不配置物件。可能誤判為存在,但不會誤判為不存在。
+ */
+public class BloomFilter {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 預期元素數量
+     * @param falsePositiveRate  可接受的誤判率 (0 ~ 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * 新增元素 (以兩個雜湊值表示)
+     */
+    public void put(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 計算字串的 64 位元雜湊值 (每次處理 4 個字元的 MurmurHash3 式混合,不配置物件)
+     *
+     * @param value 字串
+     * @param seed  種子 (不同種子產生彼此獨立的雜湊值)
+     */
+    public static long hash64(CharSequence value, long seed) {
+        int length = value.length();
+        long h = seed ^ (length * C2);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48;
+            h ^= mixBlock(k);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long k = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            k |= (long) value.charAt(i) << shift;
+        }
+        h ^= mixBlock(k);
+        return mix64(h);
+    }
+
+    /**
+     * MurmurHash3 fmix64 最終混合 (可由單一雜湊值衍生第二個獨立雜湊值)
+     */
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mixBlock(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+}
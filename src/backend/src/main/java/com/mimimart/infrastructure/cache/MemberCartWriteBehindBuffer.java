@@ -0,0 +1,117 @@
+package com.mimimart.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mimimart.infrastructure.persistence.entity.MemberCart;
+import com.mimimart.infrastructure.persistence.repository.MemberCartRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 會員購物車主表延遲寫入緩衝 (Write-Behind)
+ *
+ * 購物車異動只在記憶體中標記會員 ID,由排程定期以批次 UPDATE 更新 member_carts.updated_at,
+ * 主表不存在時一併建立,讓購物車操作在請求路徑上只存取 Redis。
+ * 另以本地快取提供購物車項目上限 (max_items_count),避免每次加入商品都查詢資料庫。
+ *
+ * 節點異常終止時最多遺失一個刷新間隔內的時間戳更新 (購物車項目本身存於 Redis,不受影響)。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class MemberCartWriteBehindBuffer {
+
+    private static final int DEFAULT_MAX_ITEMS_COUNT = 100;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final MemberCartRepository memberCartRepository;
+    private final Set<Long> dirtyMemberIds = ConcurrentHashMap.newKeySet();
+    private final Cache<Long, Integer> maxItemsCounts;
+
+    public MemberCartWriteBehindBuffer(MemberCartRepository memberCartRepository,
+                                       @Value("${mimimart.cart.metadata-cache.ttl-seconds:600}") long ttlSeconds,
+                                       @Value("${mimimart.cart.metadata-cache.max-size:100000}") long maxSize) {
+        this.memberCartRepository = memberCartRepository;
+        this.maxItemsCounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * 標記會員購物車已異動 (下次刷新時更新主表時間戳)
+     *
+     * @param memberId 會員 ID
+     */
+    public void markDirty(Long memberId) {
+        dirtyMemberIds.add(memberId);
+    }
+
+    /**
+     * 取得會員購物車項目上限 (主表尚未建立時使用預設值)
+     *
+     * @param memberId 會員 ID
+     * @return 購物車項目上限
+     */
+    public int getMaxItemsCount(Long memberId) {
+        return maxItemsCounts.get(memberId, id -> memberCartRepository.findByMemberId(id)
+                .map(MemberCart::getMaxItemsCount)
+                .orElse(DEFAULT_MAX_ITEMS_COUNT));
+    }
+
+    /**
+     * 批次刷新已異動的購物車主表 (由 CartScheduledTasks 定期呼叫)
+     * 寫入失敗時保留標記,下次刷新重試
+     *
+     * @return 刷新的會員數
+     */
+    @Transactional
+    public int flush() {
+        List<Long> memberIds = new ArrayList<>();
+        for (Long memberId : dirtyMemberIds) {
+            // 逐一移除後才寫入,刷新期間再次標記的會員留待下次刷新
+            if (dirtyMemberIds.remove(memberId)) {
+                memberIds.add(memberId);
+            }
+        }
+        if (memberIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (int from = 0; from < memberIds.size(); from += FLUSH_BATCH_SIZE) {
+                flushBatch(memberIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, memberIds.size())), now);
+            }
+        } catch (RuntimeException e) {
+            dirtyMemberIds.addAll(memberIds);
+            throw e;
+        }
+        log.debug("Flushed member cart timestamps: count={}", memberIds.size());
+        return memberIds.size();
+    }
+
+    private void flushBatch(List<Long> memberIds, LocalDateTime now) {
+        int updated = memberCartRepository.touchByMemberIds(memberIds, now);
+        if (updated < memberIds.size()) {
+            // 主表尚未建立的會員一併建立
+            Set<Long> missing = new HashSet<>(memberIds);
+            memberCartRepository.findMemberIdsByMemberIdIn(memberIds).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                memberCartRepository.saveAll(missing.stream().map(MemberCart::new).toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.mimimart.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 前台商品目錄快取 (本地 Caffeine + Redis 兩層)
+ *
+ * 讀取順序: 本地快取 → Redis → 資料庫 (read-through)
+ * Redis Key:
+ * - 商品詳情: catalog:product:detail:{productId}
+ * - 商品列表: catalog:product:list:{scope}:{page}:{size}:{sort}
+ * - 列表索引: catalog:product:list-keys:{scope} (Set,記錄該範圍下已快取的列表 Key)
+ * - 版本: catalog:product:version:detail:{productId}、catalog:product:version:list:{scope} (每次失效遞增)
+ * scope 為 all (全部商品) 或 cat{categoryId} (分類商品)
+ *
+ * 失效方式: 商品寫入交易提交後遞增對應版本並刪除 Redis Key,
+ * 並透過 Pub/Sub 通知所有節點清除本地快取。
+ * 回寫: 查詢資料庫前讀取版本,僅在版本未變時寫入 Redis (Lua 比對);本地快取另以失效世代比對,
+ * 載入期間發生失效時 (可能讀到異動提交前的資料) 不回寫,避免過期資料保留至 TTL 到期。
+ * 庫存 (stock) 僅於售完時失效,其餘扣減不失效快取,前台顯示的庫存最長延遲 Redis TTL;
+ * 下單時以 Redis 庫存閘門與資料庫條件式扣減判定,不依賴快取中的庫存。
+ * 快取中的 Product 為已脫離持久化上下文的唯讀物件,呼叫端不可修改。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ProductCatalogCache implements MessageListener {
+
+    private static final String DETAIL_KEY_PREFIX = "catalog:product:detail:";
+    private static final String LIST_KEY_PREFIX = "catalog:product:list:";
+    private static final String LIST_INDEX_KEY_PREFIX = "catalog:product:list-keys:";
+    private static final String DETAIL_VERSION_KEY_PREFIX = "catalog:product:version:detail:";
+    private static final String LIST_VERSION_KEY_PREFIX = "catalog:product:version:list:";
+    private static final String INVALIDATION_CHANNEL = "catalog:product:invalidate";
+    private static final String SCOPE_ALL = "all";
+    private static final String SCOPE_CATEGORY_PREFIX = "cat";
+
+    /**
+     * 條件回寫: KEYS = {快取 Key, 版本 Key[, 列表索引 Key]},ARGV = {讀取時版本, 值, TTL 秒數}
+     */
+    private static final RedisScript<Long> WRITE_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>("""
+            local version = redis.call('GET', KEYS[2]) or ''
+            if version ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+            if #KEYS == 3 then
+                redis.call('SADD', KEYS[3], KEYS[1])
+                redis.call('EXPIRE', KEYS[3], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final long redisTtlSeconds;
+    private final Cache<String, Object> localCache;
+    private final AtomicLong localGeneration = new AtomicLong();
+
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductCatalogCache(RedisTemplate<String, String> redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               ObjectMapper objectMapper,
+                               @Value("${mimimart.catalog-cache.local-ttl-seconds:30}") long localTtlSeconds,
+                               @Value("${mimimart.catalog-cache.local-max-size:10000}") long localMaxSize,
+                               @Value("${mimimart.catalog-cache.redis-ttl-seconds:600}") long redisTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.redisTtlSeconds = redisTtlSeconds;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 訂閱失效通知頻道
+     */
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 查詢商品列表 (全部分類)
+     */
+    public Page<Product> getPublishedPage(Pageable pageable, Supplier<Page<Product>> loader) {
+        return getPage(SCOPE_ALL, pageable, loader);
+    }
+
+    /**
+     * 查詢商品列表 (指定分類)
+     */
+    public Page<Product> getPublishedPageByCategory(Long categoryId, Pageable pageable, Supplier<Page<Product>> loader) {
+        return getPage(categoryScope(categoryId), pageable, loader);
+    }
+
+    /**
+     * 查詢商品詳情 (僅快取存在的商品)
+     */
+    public Optional<Product> getPublishedProduct(Long productId, Supplier<Optional<Product>> loader) {
+        String key = DETAIL_KEY_PREFIX + productId;
+
+        Object local = localCache.getIfPresent(key);
+        if (local != null) {
+            return Optional.of((Product) local);
+        }
+
+        Product cached = readFromRedis(key, Product.class);
+        if (cached != null) {
+            localCache.put(key, cached);
+            return Optional.of(cached);
+        }
+
+        String versionKey = DETAIL_VERSION_KEY_PREFIX + productId;
+        long generation = localGeneration.get();
+        String version = readVersion(versionKey);
+        Optional<Product> loaded = loader.get();
+        loaded.ifPresent(product -> writeBack(key, product, versionKey, version, null, generation));
+        return loaded;
+    }
+
+    /**
+     * 商品異動後失效快取 (交易提交後執行)
+     * 清除該商品詳情、全部商品列表,以及所屬分類 (含異動前分類) 的列表
+     *
+     * @param productId   商品 ID
+     * @param categoryIds 受影響的分類 ID (可含 null)
+     */
+    public void evictProduct(Long productId, Long... categoryIds) {
+        Set<String> scopes = new LinkedHashSet<>();
+        scopes.add(SCOPE_ALL);
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                scopes.add(categoryScope(categoryId));
+            }
+        }
+        TransactionCallbacks.afterCommit(() -> evict(productId, scopes));
+    }
+
+    /**
+     * 取得快取統計 (命中/未命中/淘汰)
+     */
+    public Map<String, Object> getStats() {
+        CacheStats local = localCache.stats();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localHits", local.hitCount());
+        stats.put("localMisses", local.missCount());
+        stats.put("localEvictions", local.evictionCount());
+        stats.put("localSize", localCache.estimatedSize());
+        stats.put("redisHits", redisHits.sum());
+        stats.put("redisMisses", redisMisses.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * 接收其他節點 (含本節點) 的失效通知,清除本地快取
+     * 訊息格式: {productId}|{scope1},{scope2}
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 2);
+        if (parts.length != 2) {
+            log.warn("Invalid catalog invalidation message: {}", body);
+            return;
+        }
+        evictLocal(parts[0], Arrays.asList(parts[1].split(",")));
+    }
+
+    private Page<Product> getPage(String scope, Pageable pageable, Supplier<Page<Product>> loader) {
+        String key = LIST_KEY_PREFIX + scope + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize()
+                + ":" + pageable.getSort().toString().replace(" ", "");
+
+        Object local = localCache.getIfPresent(key);
+        if (local != null) {
+            return toPage((CachedPage) local, pageable);
+        }
+
+        CachedPage cached = readFromRedis(key, CachedPage.class);
+        if (cached != null) {
+            localCache.put(key, cached);
+            return toPage(cached, pageable);
+        }
+
+        String versionKey = LIST_VERSION_KEY_PREFIX + scope;
+        long generation = localGeneration.get();
+        String version = readVersion(versionKey);
+        Page<Product> loaded = loader.get();
+        CachedPage snapshot = new CachedPage(new ArrayList<>(loaded.getContent()), loaded.getTotalElements());
+        writeBack(key, snapshot, versionKey, version, LIST_INDEX_KEY_PREFIX + scope, generation);
+        return loaded;
+    }
+
+    private Page<Product> toPage(CachedPage cached, Pageable pageable) {
+        return new PageImpl<>(cached.content(), pageable, cached.totalElements());
+    }
+
+    private void evict(Long productId, Set<String> scopes) {
+        invalidations.increment();
+        try {
+            // 先遞增版本再刪除,刪除前仍在載入的讀取不會回寫
+            bumpVersion(DETAIL_VERSION_KEY_PREFIX + productId);
+            scopes.forEach(scope -> bumpVersion(LIST_VERSION_KEY_PREFIX + scope));
+
+            List<String> keys = new ArrayList<>();
+            keys.add(DETAIL_KEY_PREFIX + productId);
+            for (String scope : scopes) {
+                String indexKey = LIST_INDEX_KEY_PREFIX + scope;
+                Set<String> listKeys = redisTemplate.opsForSet().members(indexKey);
+                if (listKeys != null) {
+                    keys.addAll(listKeys);
+                }
+                keys.add(indexKey);
+            }
+            redisTemplate.delete(keys);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, productId + "|" + String.join(",", scopes));
+        } catch (Exception e) {
+            // Redis 不可用時至少清除本節點,其他節點依本地 TTL 自然過期
+            log.warn("Failed to evict catalog cache from Redis: productId={}", productId, e);
+            evictLocal(String.valueOf(productId), scopes);
+        }
+        log.debug("Evicted catalog cache: productId={}, scopes={}", productId, scopes);
+    }
+
+    private void evictLocal(String productId, Collection<String> scopes) {
+        localGeneration.incrementAndGet();
+        localCache.invalidate(DETAIL_KEY_PREFIX + productId);
+        List<String> prefixes = scopes.stream()
+                .map(scope -> LIST_KEY_PREFIX + scope + ":")
+                .toList();
+        localCache.asMap().keySet().removeIf(key -> prefixes.stream().anyMatch(key::startsWith));
+    }
+
+    private <T> T readFromRedis(String key, Class<T> type) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            if (json == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.warn("Failed to read catalog cache: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 讀取快取版本
+     *
+     * @return 版本 (不存在時為空字串);Redis 不可用時為 null
+     */
+    private String readVersion(String versionKey) {
+        try {
+            return Objects.toString(redisTemplate.opsForValue().get(versionKey), "");
+        } catch (Exception e) {
+            log.warn("Failed to read catalog cache version: key={}", versionKey, e);
+            return null;
+        }
+    }
+
+    private void bumpVersion(String versionKey) {
+        redisTemplate.opsForValue().increment(versionKey);
+        redisTemplate.expire(versionKey, Duration.ofSeconds(redisTtlSeconds));
+    }
+
+    /**
+     * 回寫載入結果: 版本未變時寫入 Redis,本節點未收到失效時寫入本地快取
+     *
+     * @param version    載入前讀取的版本 (Redis 不可用時為 null,僅寫入本地快取)
+     * @param indexKey   列表索引 Key (詳情為 null)
+     * @param generation 載入前的本地失效世代
+     */
+    private void writeBack(String key, Object value, String versionKey, String version, String indexKey,
+                           long generation) {
+        if (version != null && !writeToRedis(key, value, versionKey, version, indexKey)) {
+            log.debug("Catalog cache invalidated during load, skip write-back: key={}", key);
+            return;
+        }
+        if (localGeneration.get() == generation) {
+            localCache.put(key, value);
+        }
+    }
+
+    /**
+     * 版本未變時寫入 Redis
+     *
+     * @return false 表示載入期間已失效 (未寫入);序列化或寫入失敗時視為未失效
+     */
+    private boolean writeToRedis(String key, Object value, String versionKey, String version, String indexKey) {
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            List<String> keys = indexKey != null ? List.of(key, versionKey, indexKey) : List.of(key, versionKey);
+            Long written = redisTemplate.execute(WRITE_IF_UNCHANGED_SCRIPT, keys,
+                    version, json, String.valueOf(redisTtlSeconds));
+            return Long.valueOf(1L).equals(written);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize catalog cache: key={}", key, e);
+        } catch (Exception e) {
+            log.warn("Failed to write catalog cache: key={}", key, e);
+        }
+        return true;
+    }
+
+    private static String categoryScope(Long categoryId) {
+        return SCOPE_CATEGORY_PREFIX + categoryId;
+    }
+
+    /**
+     * 快取中的商品列表分頁
+     */
+    public record CachedPage(List<Product> content, long totalElements) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.mimimart.infrastructure.cache;
+
+import com.mimimart.domain.review.model.ReviewSummary;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 商品評價彙總快取 (Redis)
+ *
+ * Redis Key: review:summary:{productId}
+ * 值格式: {評價數},{評分總和},{1星},{2星},{3星},{4星},{5星}
+ * 版本 Key: review:summary:version:{productId} (每次失效遞增)
+ *
+ * 讀取: 以 MGET 批次查詢彙總與版本,未命中的商品交由載入函式一次查詢資料庫後回寫
+ * 失效: 評價異動的交易提交後刪除彙總並遞增版本
+ * 回寫僅在版本與讀取時相同時生效:載入期間 (可能讀到異動提交前的資料) 發生失效時不回寫,
+ * 避免過期的彙總被寫回並保留至 TTL 到期
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ReviewSummaryCache {
+
+    private static final String KEY_PREFIX = "review:summary:";
+    private static final String VERSION_KEY_PREFIX = "review:summary:version:";
+
+    /**
+     * 條件回寫: KEYS 為成對的 {彙總 Key, 版本 Key},ARGV[1] 為 TTL 秒數,其後為成對的 {讀取時版本, 彙總值}
+     */
+    private static final RedisScript<Long> WRITE_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>("""
+            local written = 0
+            for i = 1, #KEYS, 2 do
+                local version = redis.call('GET', KEYS[i + 1]) or ''
+                if version == ARGV[i + 1] then
+                    redis.call('SET', KEYS[i], ARGV[i + 2], 'EX', ARGV[1])
+                    written = written + 1
+                end
+            end
+            return written
+            """, Long.class);
+
+    /**
+     * 失效: 刪除彙總並遞增版本 (版本存活時間與彙總相同,涵蓋載入中的讀取)
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            local version = redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            return version
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration ttl;
+
+    public ReviewSummaryCache(RedisTemplate<String, String> redisTemplate,
+                              @Value("${mimimart.review-summary-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * 批次查詢商品評價彙總 (read-through)
+     *
+     * @param productIds 商品ID
+     * @param loader     載入未命中商品的彙總 (不存在的商品可不回傳)
+     * @return 商品ID → 評價彙總 (依傳入順序,未有評價的商品為空彙總)
+     */
+    public Map<Long, ReviewSummary> getAll(Collection<Long> productIds,
+                                           Function<Collection<Long>, Map<Long, ReviewSummary>> loader) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<Long, ReviewSummary> result = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        // 前半為彙總,後半為版本 (載入前讀取,回寫時比對)
+        List<String> cached = readFromRedis(ids);
+        Map<Long, String> missVersions = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            ReviewSummary summary = cached != null ? decode(cached.get(i)) : null;
+            if (summary != null) {
+                result.put(ids.get(i), summary);
+            } else {
+                result.put(ids.get(i), null);
+                missVersions.put(ids.get(i), cached != null ? Objects.toString(cached.get(ids.size() + i), "") : null);
+            }
+        }
+
+        if (!missVersions.isEmpty()) {
+            Map<Long, ReviewSummary> loaded = loader.apply(new ArrayList<>(missVersions.keySet()));
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(ttl.toSeconds()));
+            missVersions.forEach((productId, version) -> {
+                ReviewSummary summary = loaded.getOrDefault(productId, ReviewSummary.empty());
+                result.put(productId, summary);
+                if (version != null) {
+                    keys.add(KEY_PREFIX + productId);
+                    keys.add(VERSION_KEY_PREFIX + productId);
+                    args.add(version);
+                    args.add(encode(summary));
+                }
+            });
+            // Redis 不可用時不回寫
+            if (!keys.isEmpty()) {
+                writeToRedis(keys, args);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 評價異動後失效快取 (交易提交後執行)
+     *
+     * @param productId 商品ID
+     */
+    public void evict(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                redisTemplate.execute(EVICT_SCRIPT, List.of(KEY_PREFIX + productId, VERSION_KEY_PREFIX + productId),
+                        String.valueOf(ttl.toSeconds()));
+            } catch (Exception e) {
+                // 依 TTL 自然過期
+                log.warn("Failed to evict review summary cache: productId={}", productId, e);
+            }
+        });
+    }
+
+    private List<String> readFromRedis(List<Long> ids) {
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(KEY_PREFIX + id));
+        ids.forEach(id -> keys.add(VERSION_KEY_PREFIX + id));
+        try {
+            return redisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            log.warn("Failed to read review summary cache", e);
+            return null;
+        }
+    }
+
+    private void writeToRedis(List<String> keys, List<String> args) {
+        try {
+            // 以單一腳本一次回寫所有未命中商品,避免逐筆往返
+            redisTemplate.execute(WRITE_IF_UNCHANGED_SCRIPT, keys, args.toArray());
+        } catch (Exception e) {
+            log.warn("Failed to write review summary cache", e);
+        }
+    }
+
+    static String encode(ReviewSummary summary) {
+        StringBuilder value = new StringBuilder()
+                .append(summary.totalReviews()).append(',')
+                .append(summary.ratingSum());
+        for (long count : summary.ratingCounts()) {
+            value.append(',').append(count);
+        }
+        return value.toString();
+    }
+
+    static ReviewSummary decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 7) {
+            return null;
+        }
+        long[] ratingCounts = new long[5];
+        for (int i = 0; i < 5; i++) {
+            ratingCounts[i] = Long.parseLong(parts[i + 2]);
+        }
+        return new ReviewSummary(Long.parseLong(parts[0]), Long.parseLong(parts[1]), ratingCounts);
+    }
+}
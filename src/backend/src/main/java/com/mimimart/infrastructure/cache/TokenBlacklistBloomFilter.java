@@ -0,0 +1,190 @@
+package com.mimimart.infrastructure.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token 黑名單布隆過濾器 (本節點記憶體內)
+ *
+ * 作為 Redis 黑名單 (auth:blacklist:token:*) 的前置過濾,
+ * 過濾器判定不存在時即可略過 Redis 查詢;判定可能存在時才查詢 Redis 確認。
+ *
+ * 同步方式:
+ * - 登出時由 TokenBlacklistService 新增,並透過 Pub/Sub 通知所有節點
+ * - 排程定期掃描 Redis 黑名單重建過濾器 (補上遺漏的通知並移除已過期的 Token)
+ *
+ * Redis 黑名單值格式: {登出時間}|{指紋},指紋為 Token 的兩個 64 位元雜湊值 (十六進位)。
+ * 尚未完成首次同步,或 Redis 中仍有不含指紋的舊格式資料時,一律查詢 Redis。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class TokenBlacklistBloomFilter implements MessageListener {
+
+    private static final String BLACKLIST_KEY_PATTERN = "auth:blacklist:token:*";
+    private static final String ADDED_CHANNEL = "auth:blacklist:added";
+    private static final long SEED_1 = 0x9e3779b97f4a7c15L;
+    private static final long SEED_2 = 0xc2b2ae3d27d4eb4fL;
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private volatile boolean ready;
+    private volatile long lastCount;
+
+    public TokenBlacklistBloomFilter(RedisTemplate<String, String> redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     @Value("${mimimart.auth.blacklist-filter.expected-insertions:100000}") long expectedInsertions,
+                                     @Value("${mimimart.auth.blacklist-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * 訂閱黑名單新增通知頻道
+     */
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADDED_CHANNEL));
+    }
+
+    /**
+     * Token 是否可能在黑名單中
+     *
+     * @return false 表示一定不在黑名單中,可略過 Redis 查詢
+     */
+    public boolean mightContain(String token) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = BloomFilter.hash64(token, SEED_1);
+        return filter.mightContain(h1, BloomFilter.mix64(h1 ^ SEED_2));
+    }
+
+    /**
+     * 計算 Token 指紋 (寫入 Redis 黑名單值,供其他節點重建過濾器)
+     */
+    public String fingerprint(String token) {
+        long h1 = BloomFilter.hash64(token, SEED_1);
+        return Long.toHexString(h1) + ":" + Long.toHexString(BloomFilter.mix64(h1 ^ SEED_2));
+    }
+
+    /**
+     * 新增 Token 至本節點過濾器並通知其他節點 (須於寫入 Redis 黑名單後呼叫)
+     */
+    public void add(String token) {
+        String fingerprint = fingerprint(token);
+        putFingerprint(fingerprint);
+        try {
+            redisTemplate.convertAndSend(ADDED_CHANNEL, fingerprint);
+        } catch (Exception e) {
+            // 其他節點將於下次定期重建時補上
+            log.warn("Failed to publish blacklist filter update", e);
+        }
+    }
+
+    /**
+     * 接收其他節點 (含本節點) 的黑名單新增通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String fingerprint = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!putFingerprint(fingerprint)) {
+            log.warn("Invalid blacklist filter message: {}", fingerprint);
+        }
+    }
+
+    /**
+     * 定期掃描 Redis 黑名單重建過濾器
+     */
+    @Scheduled(fixedDelayString = "${mimimart.auth.blacklist-filter.sync-interval-ms:60000}")
+    public void rebuild() {
+        // 容量至少為上次筆數的兩倍,黑名單成長時維持誤判率
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, lastCount * 2), falsePositiveRate);
+        // 重建期間收到的通知同時寫入新過濾器,避免交換時遺漏
+        rebuilding = next;
+        try {
+            int count = 0;
+            boolean complete = true;
+            List<String> keys = new ArrayList<>(SCAN_BATCH_SIZE);
+            ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_KEY_PATTERN).count(SCAN_BATCH_SIZE).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == SCAN_BATCH_SIZE || !cursor.hasNext()) {
+                        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+                        if (values != null) {
+                            for (String value : values) {
+                                if (value == null) {
+                                    continue;
+                                }
+                                int separator = value.lastIndexOf('|');
+                                if (separator < 0 || !putFingerprint(next, value.substring(separator + 1))) {
+                                    complete = false;
+                                }
+                                count++;
+                            }
+                        }
+                        keys.clear();
+                    }
+                }
+            }
+            filter = next;
+            ready = complete;
+            lastCount = count;
+            log.debug("Rebuilt token blacklist filter: count={}, complete={}", count, complete);
+        } catch (Exception e) {
+            // 保留現有過濾器 (仍持續接收 Pub/Sub 通知)
+            log.warn("Failed to rebuild token blacklist filter", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private boolean putFingerprint(String fingerprint) {
+        // 先讀取重建中的過濾器再讀取現行過濾器,確保交換前後皆不遺漏
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            putFingerprint(pending, fingerprint);
+        }
+        return putFingerprint(filter, fingerprint);
+    }
+
+    private static boolean putFingerprint(BloomFilter target, String fingerprint) {
+        int separator = fingerprint.indexOf(':');
+        if (separator < 0) {
+            return false;
+        }
+        try {
+            target.put(Long.parseUnsignedLong(fingerprint, 0, separator, 16),
+                    Long.parseUnsignedLong(fingerprint, separator + 1, fingerprint.length(), 16));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mimimart.infrastructure.config;
+
+import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 雪花算法 ID 生成器配置
+ * 工作機器 ID 於啟動時由 SnowflakeWorkerIdLease 指派
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Configuration
+public class SnowflakeConfiguration {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator() {
+        return new SnowflakeIdGenerator();
+    }
+}
@@ -0,0 +1,153 @@
+package com.mimimart.infrastructure.email;
+
+import com.mimimart.application.service.EmailOutboxService;
+import com.mimimart.infrastructure.email.sender.EmailSender;
+import com.mimimart.infrastructure.persistence.entity.EmailOutbox;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 郵件發送佇列派送器
+ *
+ * <p>從 email_outbox 取出到期郵件,依 {@link EmailSender#maxBatchSize()} 分批,
+ * 交由虛擬執行緒發送,同時進行的發送數以 Semaphore 限制。
+ * 郵件寫入佇列並提交後立即喚醒,另以固定間隔輪詢處理重試與其他節點寫入的郵件。
+ *
+ * @author MimiMart Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailSender emailSender;
+    private final int batchSize;
+    private final Semaphore workerPermits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    public EmailOutboxDispatcher(EmailOutboxService emailOutboxService,
+                                 EmailSender emailSender,
+                                 @Value("${mimimart.email.outbox.workers:4}") int workers,
+                                 @Value("${mimimart.email.outbox.batch-size:50}") int batchSize) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailSender = emailSender;
+        this.batchSize = batchSize;
+        this.workerPermits = new Semaphore(workers);
+    }
+
+    /**
+     * 喚醒派送 (已在派送中時,本輪結束後再執行一輪)
+     */
+    public void wakeUp() {
+        wakeRequested.set(true);
+        if (!executor.isShutdown() && draining.compareAndSet(false, true)) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * 定時輪詢 (重試到期的郵件、其他節點寫入的郵件)
+     */
+    @Scheduled(fixedDelayString = "${mimimart.email.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // 未完成的郵件租約到期後由其他節點或下次啟動重新發送
+            log.warn("郵件派送器關閉逾時,未完成的郵件將於租約到期後重新發送");
+            executor.shutdownNow();
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (wakeRequested.getAndSet(false)) {
+                drain();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("郵件發送佇列派送失敗", e);
+        } finally {
+            draining.set(false);
+            if (wakeRequested.get() && !executor.isShutdown() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drainLoop);
+            }
+        }
+    }
+
+    /**
+     * 取出所有到期郵件並分批派送
+     */
+    void drain() throws InterruptedException {
+        List<EmailOutbox> due;
+        do {
+            due = emailOutboxService.claimDueEmails(batchSize);
+            for (List<EmailOutbox> chunk : partition(due, Math.max(1, emailSender.maxBatchSize()))) {
+                workerPermits.acquire();
+                executor.execute(() -> {
+                    try {
+                        dispatch(chunk);
+                    } finally {
+                        workerPermits.release();
+                    }
+                });
+            }
+        } while (due.size() == batchSize);
+    }
+
+    /**
+     * 發送一批郵件並記錄結果
+     */
+    void dispatch(List<EmailOutbox> chunk) {
+        try {
+            if (chunk.size() == 1) {
+                EmailOutbox email = chunk.get(0);
+                emailSender.send(email.getRecipientEmail(), email.getSubject(), email.getHtmlContent());
+            } else {
+                emailSender.sendBatch(chunk.stream()
+                        .map(email -> new EmailSender.EmailMessage(
+                                email.getRecipientEmail(), email.getSubject(), email.getHtmlContent()))
+                        .toList());
+            }
+        } catch (Exception e) {
+            log.warn("郵件發送失敗: count={}, error={}", chunk.size(), e.getMessage());
+            emailOutboxService.markFailed(chunk, e.getMessage());
+            return;
+        }
+
+        try {
+            emailOutboxService.markSent(chunk);
+        } catch (Exception e) {
+            // 已寄出但狀態未更新,租約到期後會重新發送 (至少一次)
+            log.error("郵件已發送但更新佇列狀態失敗: ids={}",
+                    chunk.stream().map(EmailOutbox::getId).toList(), e);
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            chunks.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return chunks;
+    }
+}
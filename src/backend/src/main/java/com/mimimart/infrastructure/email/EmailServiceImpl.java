@@ -1,12 +1,10 @@
 package com.mimimart.infrastructure.email;
 
+import com.mimimart.application.service.EmailOutboxService;
 import com.mimimart.application.service.EmailQuotaService;
-import com.mimimart.application.service.EmailRateLimitService;
-import com.mimimart.application.service.EmailSendLogService;
 import com.mimimart.application.service.EmailService;
-import com.mimimart.infrastructure.email.sender.EmailSender;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
 import com.mimimart.shared.valueobject.EmailType;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,8 +15,10 @@ import org.thymeleaf.context.Context;
 /**
  * 郵件服務實作
  *
- * <p>採用策略模式委派給 {@link EmailSender} 處理實際的郵件發送，
- * 支援多種發送方式（SMTP、AWS SES 等）的動態切換。
+ * <p>於請求執行緒中檢查配額並套用範本,寫入郵件發送佇列後立即返回，
+ * 實際發送由 {@link EmailOutboxDispatcher} 在背景委派給
+ * {@link com.mimimart.infrastructure.email.sender.EmailSender} 處理，
+ * 郵件服務商延遲或故障時不會阻塞註冊、密碼重設等請求。
  *
  * @author MimiMart Team
  * @since 1.0.0
@@ -28,11 +28,10 @@ import org.thymeleaf.context.Context;
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final EmailSender emailSender;
     private final TemplateEngine templateEngine;
     private final EmailQuotaService emailQuotaService;
-    private final EmailRateLimitService emailRateLimitService;
-    private final EmailSendLogService emailSendLogService;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
 
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
@@ -44,24 +43,14 @@ public class EmailServiceImpl implements EmailService {
         // 檢查月度配額
         emailQuotaService.checkAndIncrementQuota();
 
-        try {
-            Context context = new Context();
-            context.setVariable("memberName", memberName);
-            context.setVariable("frontendUrl", frontendUrl);
+        Context context = new Context();
+        context.setVariable("memberName", memberName);
+        context.setVariable("frontendUrl", frontendUrl);
 
-            String htmlContent = templateEngine.process("email/welcome", context);
+        String htmlContent = templateEngine.process("email/welcome", context);
 
-            sendHtmlEmail(email, subject, htmlContent);
-
-            // 記錄發送成功
-            emailSendLogService.logEmailSent(null, email, EmailType.WELCOME, subject);
-            log.info("歡迎郵件已發送至: {}", email);
-        } catch (MessagingException e) {
-            // 記錄發送失敗
-            emailSendLogService.logEmailFailed(null, email, EmailType.WELCOME, subject, e.getMessage());
-            log.error("發送歡迎郵件失敗: {}", email, e);
-            throw new RuntimeException("發送歡迎郵件失敗", e);
-        }
+        enqueue(email, EmailType.WELCOME, subject, htmlContent);
+        log.info("歡迎郵件已加入發送佇列: {}", email);
     }
 
     @Override
@@ -73,27 +62,17 @@ public class EmailServiceImpl implements EmailService {
 
         // 註：會員頻率限制在 AuthService 層檢查，因為這裡沒有 memberId
 
-        try {
-            String verificationUrl = frontendUrl + "/verify-email?token=" + verificationToken;
-
-            Context context = new Context();
-            context.setVariable("memberName", memberName);
-            context.setVariable("verificationUrl", verificationUrl);
-            context.setVariable("token", verificationToken);
+        String verificationUrl = frontendUrl + "/verify-email?token=" + verificationToken;
 
-            String htmlContent = templateEngine.process("email/verification", context);
+        Context context = new Context();
+        context.setVariable("memberName", memberName);
+        context.setVariable("verificationUrl", verificationUrl);
+        context.setVariable("token", verificationToken);
 
-            sendHtmlEmail(email, subject, htmlContent);
+        String htmlContent = templateEngine.process("email/verification", context);
 
-            // 記錄發送成功
-            emailSendLogService.logEmailSent(null, email, EmailType.VERIFICATION, subject);
-            log.info("驗證郵件已發送至: {}", email);
-        } catch (MessagingException e) {
-            // 記錄發送失敗
-            emailSendLogService.logEmailFailed(null, email, EmailType.VERIFICATION, subject, e.getMessage());
-            log.error("發送驗證郵件失敗: {}", email, e);
-            throw new RuntimeException("發送驗證郵件失敗", e);
-        }
+        enqueue(email, EmailType.VERIFICATION, subject, htmlContent);
+        log.info("驗證郵件已加入發送佇列: {}", email);
     }
 
     @Override
@@ -105,38 +84,29 @@ public class EmailServiceImpl implements EmailService {
 
         // 註：會員頻率限制在 AuthService 層檢查，因為這裡沒有 memberId
 
-        try {
-            String resetUrl = frontendUrl + "/reset-password?token=" + resetToken;
-
-            Context context = new Context();
-            context.setVariable("memberName", memberName);
-            context.setVariable("resetUrl", resetUrl);
-            context.setVariable("token", resetToken);
+        String resetUrl = frontendUrl + "/reset-password?token=" + resetToken;
 
-            String htmlContent = templateEngine.process("email/password-reset", context);
+        Context context = new Context();
+        context.setVariable("memberName", memberName);
+        context.setVariable("resetUrl", resetUrl);
+        context.setVariable("token", resetToken);
 
-            sendHtmlEmail(email, subject, htmlContent);
+        String htmlContent = templateEngine.process("email/password-reset", context);
 
-            // 記錄發送成功
-            emailSendLogService.logEmailSent(null, email, EmailType.PASSWORD_RESET, subject);
-            log.info("密碼重設郵件已發送至: {}", email);
-        } catch (MessagingException e) {
-            // 記錄發送失敗
-            emailSendLogService.logEmailFailed(null, email, EmailType.PASSWORD_RESET, subject, e.getMessage());
-            log.error("發送密碼重設郵件失敗: {}", email, e);
-            throw new RuntimeException("發送密碼重設郵件失敗", e);
-        }
+        enqueue(email, EmailType.PASSWORD_RESET, subject, htmlContent);
+        log.info("密碼重設郵件已加入發送佇列: {}", email);
     }
 
     /**
-     * 發送 HTML 格式郵件（委派給策略實作）
+     * 寫入郵件發送佇列，並於交易提交後喚醒派送器
      *
      * @param to 收件人
+     * @param emailType 郵件類型
      * @param subject 主旨
      * @param htmlContent HTML 內容
-     * @throws MessagingException 郵件發送例外
      */
-    private void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
-        emailSender.send(to, subject, htmlContent);
+    private void enqueue(String to, EmailType emailType, String subject, String htmlContent) {
+        emailOutboxService.enqueue(to, emailType, subject, htmlContent);
+        TransactionCallbacks.afterCommit(emailOutboxDispatcher::wakeUp);
     }
 }
@@ -2,6 +2,8 @@ package com.mimimart.infrastructure.email.sender;
 
 import jakarta.mail.MessagingException;
 
+import java.util.List;
+
 /**
  * 郵件發送策略介面
  *
@@ -25,4 +27,35 @@ public interface EmailSender {
      * @throws MessagingException 當郵件發送失敗時拋出
      */
     void send(String to, String subject, String htmlContent) throws MessagingException;
+
+    /**
+     * 單次批次發送的最大郵件數 (1 表示不支援批次)
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * 批次發送 HTML 格式郵件 (全部成功或全部失敗)
+     *
+     * <p>預設逐封發送，支援批次 API 的實作應覆寫此方法與 {@link #maxBatchSize()}。
+     *
+     * @param messages 郵件列表 (不超過 {@link #maxBatchSize()} 封)
+     * @throws MessagingException 當郵件發送失敗時拋出
+     */
+    default void sendBatch(List<EmailMessage> messages) throws MessagingException {
+        for (EmailMessage message : messages) {
+            send(message.to(), message.subject(), message.htmlContent());
+        }
+    }
+
+    /**
+     * 待發送郵件
+     *
+     * @param to 收件人郵件地址
+     * @param subject 郵件主旨
+     * @param htmlContent HTML 格式的郵件內容
+     */
+    record EmailMessage(String to, String subject, String htmlContent) {
+    }
 }
@@ -2,6 +2,7 @@ package com.mimimart.infrastructure.email.sender;
 
 import com.resend.Resend;
 import com.resend.core.exception.ResendException;
+import com.resend.services.batch.model.CreateBatchEmailsResponse;
 import com.resend.services.emails.model.CreateEmailOptions;
 import com.resend.services.emails.model.CreateEmailResponse;
 import jakarta.annotation.PostConstruct;
@@ -11,6 +12,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Resend 郵件發送實作
  *
@@ -33,6 +36,11 @@ import org.springframework.stereotype.Component;
 @ConditionalOnProperty(name = "mimimart.email.provider", havingValue = "resend")
 public class ResendEmailSender implements EmailSender {
 
+    /**
+     * Resend Batch API 單次上限
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Value("${mimimart.email.resend.api-key}")
     private String apiKey;
 
@@ -80,4 +88,40 @@ public class ResendEmailSender implements EmailSender {
             throw new MessagingException("Resend 郵件發送失敗", e);
         }
     }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public void sendBatch(List<EmailMessage> messages) throws MessagingException {
+        log.debug("使用 Resend Batch API 發送郵件: count={}", messages.size());
+
+        try {
+            String fromAddressWithName = String.format("%s <%s>", fromName, fromAddress);
+
+            List<CreateEmailOptions> batch = messages.stream()
+                .map(message -> CreateEmailOptions.builder()
+                    .from(fromAddressWithName)
+                    .to(message.to())
+                    .subject(message.subject())
+                    .html(message.htmlContent())
+                    .build())
+                .toList();
+
+            CreateBatchEmailsResponse response = resendClient.batch().send(batch);
+
+            log.info("Resend 批次郵件發送成功: count={}, ids={}",
+                messages.size(), response.getData() != null ? response.getData().size() : 0);
+
+        } catch (ResendException e) {
+            log.error("Resend 批次郵件發送失敗: count={}, error={}",
+                messages.size(), e.getMessage(), e);
+            throw new MessagingException("Resend 批次郵件發送失敗: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Resend 批次郵件發送發生未預期錯誤: count={}", messages.size(), e);
+            throw new MessagingException("Resend 批次郵件發送失敗", e);
+        }
+    }
 }
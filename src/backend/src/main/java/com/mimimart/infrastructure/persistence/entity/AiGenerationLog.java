@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_admin_id", columnList = "admin_id"),
     @Index(name = "idx_api_endpoint", columnList = "api_endpoint"),
     @Index(name = "idx_type_provider", columnList = "generation_type, ai_provider"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_status_heartbeat_at", columnList = "status, heartbeat_at")
 })
 @Getter
 @Setter
@@ -77,6 +78,15 @@ public class AiGenerationLog {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -158,18 +158,22 @@ public class BannerEntity {
      * 4. 若 unpublishedAt 不為 NULL，檢查當前時間是否 < unpublishedAt
      */
     public boolean isPublished() {
-        LocalDateTime now = LocalDateTime.now();
+        return isPublishedAt(LocalDateTime.now());
+    }
 
+    /**
+     * 檢查輪播圖在指定時間是否在上架期間內 (與前台查詢條件一致)
+     * publishedAt IS NULL OR publishedAt <= time,且 unpublishedAt IS NULL OR unpublishedAt > time
+     *
+     * @param time 檢查時間
+     */
+    public boolean isPublishedAt(LocalDateTime time) {
         // 檢查是否已到上架時間
-        if (publishedAt != null && now.isBefore(publishedAt)) {
-            return false;
-        }
-
-        // 檢查是否已超過下架時間
-        if (unpublishedAt != null && now.isAfter(unpublishedAt)) {
+        if (publishedAt != null && time.isBefore(publishedAt)) {
             return false;
         }
 
-        return true;
+        // 檢查是否已到下架時間
+        return unpublishedAt == null || time.isBefore(unpublishedAt);
     }
 }
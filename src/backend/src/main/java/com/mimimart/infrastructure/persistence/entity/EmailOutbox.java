@@ -0,0 +1,83 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+import com.mimimart.shared.valueobject.EmailOutboxStatus;
+import com.mimimart.shared.valueobject.EmailType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 郵件發送佇列 Entity
+ * 對應 email_outbox 資料表
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_status_next_attempt_at", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_email", nullable = false, length = 255)
+    private String recipientEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "email_type", nullable = false, length = 50)
+    private EmailType emailType;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    /**
+     * 郵件 HTML 內容 (含驗證與密碼重設連結,發送成功或最終失敗後清除為 null)
+     */
+    @Column(name = "html_content", columnDefinition = "MEDIUMTEXT")
+    private String htmlContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
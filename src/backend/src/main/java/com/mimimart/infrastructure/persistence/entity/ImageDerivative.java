@@ -0,0 +1,51 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 圖片衍生檔 JPA Entity
+ * 對應資料表: image_derivatives
+ * 輪播圖與商品圖片的縮圖,每個寬度一筆,由 ImageDerivativeService 於背景產生
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "image_derivatives")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ImageDerivative {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_url", nullable = false, length = 500)
+    private String sourceUrl;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private Integer height;
+
+    @Column(name = "url", nullable = false, length = 500)
+    private String url;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,53 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單每日統計 JPA Entity
+ * 對應資料表: order_daily_statistics
+ * 依訂單建立日期與狀態累計訂單數與金額,由 OrderStatisticsService 於訂單狀態轉換時維護
+ * 同一日期與狀態分散為多筆分片,查詢時需彙總所有分片
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "order_daily_statistics", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stat_date_status_shard", columnNames = {"stat_date", "status", "shard"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class OrderDailyStatistics {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+}
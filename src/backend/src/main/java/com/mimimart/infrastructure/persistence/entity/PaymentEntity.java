@@ -21,7 +21,7 @@ import java.time.Instant;
 @Entity
 @Table(name = "payments", indexes = {
     @Index(name = "idx_order_id", columnList = "order_id"),
-    @Index(name = "idx_payment_number", columnList = "payment_number"),
+    @Index(name = "idx_payment_number", columnList = "payment_number", unique = true),
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_expired_at", columnList = "expired_at"),
     @Index(name = "idx_created_at", columnList = "created_at")
@@ -85,6 +85,13 @@ public class Product {
     @Column(name = "unpublished_at")
     private LocalDateTime unpublishedAt;
 
+    /**
+     * 前台可見旗標 (已啟用、已上架、未刪除且在上架期間內)
+     * 寫入時自動計算,上架期間邊界由排程翻轉
+     */
+    @Column(name = "is_live", nullable = false)
+    private Boolean isLive = false;
+
     /**
      * 軟刪除標記 (true=已刪除, false=未刪除)
      */
@@ -110,6 +117,7 @@ public class Product {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        refreshLiveStatus();
     }
 
     /**
@@ -118,6 +126,7 @@ public class Product {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        refreshLiveStatus();
     }
 
     /**
@@ -144,6 +153,13 @@ public class Product {
         return isActive && isPublished && !isDeleted && isInPublishPeriod();
     }
 
+    /**
+     * 重新計算前台可見旗標
+     */
+    public void refreshLiveStatus() {
+        this.isLive = isAvailable();
+    }
+
     /**
      * 上架商品
      */
@@ -0,0 +1,54 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品評價彙總 JPA Entity
+ * 對應資料表: product_review_summaries
+ * 僅統計可見評價,由 ReviewService 於評價異動時以累加方式維護
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "product_review_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ProductReviewSummary {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private Long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private Long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private Long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private Long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private Long rating5;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+}
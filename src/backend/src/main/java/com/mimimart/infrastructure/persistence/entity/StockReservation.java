@@ -0,0 +1,71 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * 庫存預留 JPA Entity
+ * 對應資料表: stock_reservations
+ * 建立訂單時扣除 products.stock 並記錄預留,付款完成後確認,取消或逾期時釋放歸還
+ * 零約束設計:資料完整性由應用程式層驗證
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+    @Index(name = "idx_order_id_status", columnList = "order_id, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockReservationStatus status;
+
+    /**
+     * 預留到期時間 (與付款期限一致)
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public static StockReservation reserve(Long orderId, Long productId, Integer quantity, Instant expiresAt) {
+        StockReservation reservation = new StockReservation();
+        reservation.setOrderId(orderId);
+        reservation.setProductId(productId);
+        reservation.setQuantity(quantity);
+        reservation.setStatus(StockReservationStatus.RESERVED);
+        reservation.setExpiresAt(expiresAt);
+        reservation.setUpdatedAt(Instant.now());
+        return reservation;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mimimart.infrastructure.persistence.entity;
+
+/**
+ * 庫存預留狀態枚舉
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+public enum StockReservationStatus {
+    /**
+     * 已預留 (等待付款)
+     */
+    RESERVED,
+
+    /**
+     * 已確認 (付款完成,庫存正式扣除)
+     */
+    CONFIRMED,
+
+    /**
+     * 已釋放 (訂單取消或付款逾期,庫存已歸還)
+     */
+    RELEASED
+}
@@ -1,7 +1,10 @@
 package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.Admin;
+import com.mimimart.shared.valueobject.AdminStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -20,6 +23,12 @@ public interface AdminRepository extends JpaRepository<Admin, Long> {
      */
     Optional<Admin> findByEmail(String email);
 
+    /**
+     * 查詢管理員狀態 (僅讀取單一欄位,供認證過濾器檢查帳號狀態)
+     */
+    @Query("SELECT e.status FROM Admin e WHERE e.id = :id")
+    Optional<AdminStatus> findStatusById(@Param("id") Long id);
+
     /**
      * 根據 Username 查詢管理員
      */
@@ -1,16 +1,20 @@
 package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.AiGenerationLog;
+import com.mimimart.shared.valueobject.AiGenerationStatus;
 import com.mimimart.shared.valueobject.AiProvider;
 import com.mimimart.shared.valueobject.GenerationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -56,4 +60,74 @@ public interface AiGenerationLogRepository extends JpaRepository<AiGenerationLog
         @Param("type") GenerationType generationType,
         @Param("provider") AiProvider aiProvider
     );
+
+    /**
+     * 將等待中的工作標記為執行中 (僅限狀態仍為 PENDING)
+     *
+     * @return 更新筆數 (0 表示工作已被標記為失敗等其他狀態)
+     */
+    @Modifying
+    @Query("UPDATE AiGenerationLog a SET a.status = com.mimimart.shared.valueobject.AiGenerationStatus.RUNNING, " +
+           "a.startedAt = :now, a.heartbeatAt = :now " +
+           "WHERE a.id = :id AND a.status = com.mimimart.shared.valueobject.AiGenerationStatus.PENDING")
+    int markRunningIfPending(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 將執行中的工作標記為成功並記錄結果 (僅限狀態仍為 RUNNING)
+     *
+     * @return 更新筆數
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AiGenerationLog a SET a.status = com.mimimart.shared.valueobject.AiGenerationStatus.SUCCESS, " +
+           "a.responseContent = :responseContent, a.s3Key = :s3Key, a.tokensUsed = :tokensUsed, " +
+           "a.costUsd = :costUsd, a.completedAt = :now " +
+           "WHERE a.id = :id AND a.status = com.mimimart.shared.valueobject.AiGenerationStatus.RUNNING")
+    int markSuccessIfRunning(
+        @Param("id") Long id,
+        @Param("responseContent") String responseContent,
+        @Param("s3Key") String s3Key,
+        @Param("tokensUsed") Integer tokensUsed,
+        @Param("costUsd") BigDecimal costUsd,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * 將未完成的工作標記為失敗 (僅限狀態為 statuses 之一;指定 heartbeatBefore 時另需最後心跳早於該時間)
+     *
+     * @return 更新筆數
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AiGenerationLog a SET a.status = com.mimimart.shared.valueobject.AiGenerationStatus.FAILED, " +
+           "a.errorMessage = :errorMessage, a.completedAt = :now " +
+           "WHERE a.id = :id AND a.status IN :statuses " +
+           "AND (:heartbeatBefore IS NULL OR a.heartbeatAt < :heartbeatBefore)")
+    int markFailedIfIncomplete(
+        @Param("id") Long id,
+        @Param("statuses") Collection<AiGenerationStatus> statuses,
+        @Param("errorMessage") String errorMessage,
+        @Param("heartbeatBefore") LocalDateTime heartbeatBefore,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * 更新執行節點的心跳時間 (僅限未完成的工作)
+     *
+     * @return 更新筆數
+     */
+    @Modifying
+    @Query("UPDATE AiGenerationLog a SET a.heartbeatAt = :now WHERE a.id IN :ids AND a.status IN :statuses")
+    int touchHeartbeat(
+        @Param("ids") Collection<Long> ids,
+        @Param("statuses") Collection<AiGenerationStatus> statuses,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * 查詢最後心跳早於 cutoff 的未完成工作 ID (執行節點重啟或異常中止)
+     */
+    @Query("SELECT a.id FROM AiGenerationLog a WHERE a.status IN :statuses AND a.heartbeatAt < :cutoff")
+    List<Long> findStaleJobIds(
+        @Param("statuses") Collection<AiGenerationStatus> statuses,
+        @Param("cutoff") LocalDateTime cutoff
+    );
 }
@@ -0,0 +1,149 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
+
+/**
+ * 購物車項目值二進位編碼
+ *
+ * 格式 (版本 1): [0x01][quantity varint][addedAt - EPOCH_MILLIS varint]
+ * 一般購物車項目約 8 位元組 (舊字串格式 "{quantity}|{addedAt}" 約 15 位元組)。
+ *
+ * 舊格式以 ASCII 數字開頭,與版本位元組不衝突,解碼時自動辨識;
+ * 由 RedisCartItemRepository 於讀取時改寫為新格式。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+final class CartItemCodec {
+
+    /** 目前格式版本 */
+    static final byte VERSION_1 = 1;
+
+    /** 時間戳基準點 (2024-01-01T00:00:00Z),縮短 varint 長度 */
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final byte LEGACY_SEPARATOR = '|';
+
+    private CartItemCodec() {
+    }
+
+    /**
+     * 編碼購物車項目值
+     */
+    static byte[] encode(int quantity, long addedAt) {
+        long timestamp = timestampDelta(addedAt);
+        byte[] value = new byte[1 + varintSize(quantity) + varintSize(timestamp)];
+        value[0] = VERSION_1;
+        int offset = writeVarint(value, 1, quantity);
+        writeVarint(value, offset, timestamp);
+        return value;
+    }
+
+    /**
+     * 編碼加入時間 (供 Lua 腳本直接附加於數量之後)
+     */
+    static byte[] encodeTimestamp(long addedAt) {
+        long timestamp = timestampDelta(addedAt);
+        byte[] value = new byte[varintSize(timestamp)];
+        writeVarint(value, 0, timestamp);
+        return value;
+    }
+
+    /**
+     * 解碼購物車項目值 (支援舊字串格式)
+     *
+     * @return 解碼結果,格式錯誤時回傳 null
+     */
+    static CartItemValue decode(byte[] value) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        if (value[0] != VERSION_1) {
+            return decodeLegacy(value);
+        }
+
+        long quantity = 0;
+        long timestamp = 0;
+        int shift = 0;
+        int i = 1;
+        boolean quantityDone = false;
+        for (; i < value.length; i++) {
+            byte b = value[i];
+            long bits = (long) (b & 0x7F) << shift;
+            if (quantityDone) {
+                timestamp |= bits;
+            } else {
+                quantity |= bits;
+            }
+            if (b >= 0) {
+                if (quantityDone) {
+                    return new CartItemValue((int) quantity, EPOCH_MILLIS + timestamp);
+                }
+                quantityDone = true;
+                shift = 0;
+            } else {
+                shift += 7;
+                if (shift > 63) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否為舊字串格式
+     */
+    static boolean isLegacy(byte[] value) {
+        return value != null && value.length > 0 && value[0] != VERSION_1;
+    }
+
+    /**
+     * 解碼舊字串格式 "{quantity}|{addedAt}" (直接解析位元組,不配置字串與陣列)
+     */
+    private static CartItemValue decodeLegacy(byte[] value) {
+        long quantity = 0;
+        long addedAt = 0;
+        int separator = -1;
+        for (int i = 0; i < value.length; i++) {
+            byte b = value[i];
+            if (b == LEGACY_SEPARATOR && separator < 0 && i > 0) {
+                separator = i;
+            } else if (b >= '0' && b <= '9') {
+                if (separator < 0) {
+                    quantity = quantity * 10 + (b - '0');
+                } else {
+                    addedAt = addedAt * 10 + (b - '0');
+                }
+            } else {
+                return null;
+            }
+        }
+        if (separator < 0 || separator == value.length - 1 || quantity > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new CartItemValue((int) quantity, addedAt);
+    }
+
+    private static long timestampDelta(long addedAt) {
+        return Math.max(0, addedAt - EPOCH_MILLIS);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarint(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+}
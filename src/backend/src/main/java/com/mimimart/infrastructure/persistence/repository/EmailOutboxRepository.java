@@ -0,0 +1,44 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.EmailOutbox;
+import com.mimimart.shared.valueobject.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 郵件發送佇列 Repository
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * 鎖定可發送的郵件 (等待發送,或發送中但租約已到期)
+     * 使用 SKIP LOCKED,多個節點同時取出時互不阻塞且不重複
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> lockDueEmails(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 批次標記為發送成功 (同時清除郵件內容)
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = null, " +
+           "e.htmlContent = null, " +
+           "e.updatedAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("status") EmailOutboxStatus status,
+                 @Param("sentAt") LocalDateTime sentAt);
+}
@@ -0,0 +1,47 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 圖片衍生檔 Repository
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public interface ImageDerivativeRepository extends JpaRepository<ImageDerivative, Long> {
+
+    /**
+     * 批次查詢多張原圖的衍生檔 (依寬度由小到大)
+     *
+     * @param sourceUrls 原圖 URL
+     * @return 衍生檔列表
+     */
+    List<ImageDerivative> findBySourceUrlInOrderByWidthAsc(Collection<String> sourceUrls);
+
+    /**
+     * 查詢原圖的衍生檔
+     *
+     * @param sourceUrl 原圖 URL
+     * @return 衍生檔列表
+     */
+    List<ImageDerivative> findBySourceUrl(String sourceUrl);
+
+    /**
+     * 刪除原圖的所有衍生檔記錄
+     *
+     * @param sourceUrl 原圖 URL
+     * @return 刪除筆數
+     */
+    @Modifying
+    @Query("DELETE FROM ImageDerivative d WHERE d.sourceUrl = :sourceUrl")
+    int deleteBySourceUrl(@Param("sourceUrl") String sourceUrl);
+}
@@ -0,0 +1,112 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.shared.exception.InvalidCursorException;
+import com.mimimart.shared.pagination.CursorPage;
+import com.mimimart.shared.pagination.KeysetCursor;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游標分頁 (Keyset / Seek) 查詢
+ *
+ * 以 (排序鍵, id) 作為複合排序,下一頁條件為
+ * 排序鍵 > 上一頁最後值 OR (排序鍵 = 上一頁最後值 AND id > 上一頁最後 id) (降冪時方向相反),
+ * 搭配 (排序鍵, id) 索引時查詢成本與頁數無關,不需 OFFSET 掃描。
+ * 每次多取一筆判斷是否有下一頁,總筆數僅在呼叫端要求時才以 COUNT 查詢。
+ */
+public final class KeysetQuery {
+
+    private KeysetQuery() {
+    }
+
+    /**
+     * 排序鍵定義
+     *
+     * @param property  實體屬性名稱 (不可為 null 的欄位)
+     * @param extractor 由實體取得排序鍵值
+     * @param parser    由游標字串還原排序鍵值
+     * @param formatter 將排序鍵值轉為游標字串
+     */
+    public record SortKey<T, K extends Comparable<? super K>>(
+            String property,
+            Function<T, K> extractor,
+            Function<String, K> parser,
+            Function<K, String> formatter) {
+
+        public static <T, K extends Comparable<? super K>> SortKey<T, K> of(
+                String property, Function<T, K> extractor, Function<String, K> parser) {
+            return new SortKey<>(property, extractor, parser, String::valueOf);
+        }
+    }
+
+    /**
+     * 執行游標分頁查詢
+     *
+     * @param repository   支援 Specification 的 Repository
+     * @param filter       篩選條件 (不含游標條件)
+     * @param sortKey      排序鍵
+     * @param direction    排序方向
+     * @param idExtractor  由實體取得 ID
+     * @param cursorToken  上一頁回傳的游標 (第一頁為 null)
+     * @param size         每頁筆數
+     * @param includeTotal 是否計算總筆數
+     * @throws InvalidCursorException 游標格式錯誤或與排序條件不一致
+     */
+    public static <T, K extends Comparable<? super K>> CursorPage<T> fetch(
+            JpaSpecificationExecutor<T> repository,
+            Specification<T> filter,
+            SortKey<T, K> sortKey,
+            Sort.Direction direction,
+            Function<T, Long> idExtractor,
+            String cursorToken,
+            int size,
+            boolean includeTotal) {
+
+        Specification<T> spec = filter;
+        if (cursorToken != null && !cursorToken.isBlank()) {
+            KeysetCursor cursor = KeysetCursor.decode(cursorToken, sortKey.property(), direction);
+            K lastValue;
+            try {
+                lastValue = sortKey.parser().apply(cursor.lastValue());
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException("分頁游標格式錯誤");
+            }
+            spec = spec.and(after(sortKey.property(), lastValue, cursor.lastId(), direction));
+        }
+
+        Sort sort = Sort.by(direction, sortKey.property()).and(Sort.by(direction, "id"));
+        List<T> rows = repository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            T last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(sortKey.property(), direction, idExtractor.apply(last),
+                    sortKey.formatter().apply(sortKey.extractor().apply(last))).encode();
+        }
+
+        Long totalItems = includeTotal ? repository.count(filter) : null;
+        return new CursorPage<>(List.copyOf(rows), size, nextCursor, totalItems);
+    }
+
+    private static <T, K extends Comparable<? super K>> Specification<T> after(
+            String property, K lastValue, long lastId, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Path<K> key = root.get(property);
+            Path<Long> id = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(
+                        cb.greaterThan(key, lastValue),
+                        cb.and(cb.equal(key, lastValue), cb.greaterThan(id, lastId)));
+            }
+            return cb.or(
+                    cb.lessThan(key, lastValue),
+                    cb.and(cb.equal(key, lastValue), cb.lessThan(id, lastId)));
+        };
+    }
+}
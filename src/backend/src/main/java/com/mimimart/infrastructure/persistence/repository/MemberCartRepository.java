@@ -2,8 +2,14 @@ package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.MemberCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,4 +40,22 @@ public interface MemberCartRepository extends JpaRepository<MemberCart, Long> {
      * @param memberId 會員 ID
      */
     void deleteByMemberId(Long memberId);
+
+    /**
+     * 批次更新購物車時間戳
+     * @param memberIds 會員 ID 列表
+     * @param updatedAt 更新時間
+     * @return 更新筆數
+     */
+    @Modifying
+    @Query("UPDATE MemberCart c SET c.updatedAt = :updatedAt WHERE c.memberId IN :memberIds")
+    int touchByMemberIds(@Param("memberIds") Collection<Long> memberIds, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 查詢已建立購物車的會員 ID
+     * @param memberIds 會員 ID 列表
+     * @return 已建立購物車的會員 ID
+     */
+    @Query("SELECT c.memberId FROM MemberCart c WHERE c.memberId IN :memberIds")
+    List<Long> findMemberIdsByMemberIdIn(@Param("memberIds") Collection<Long> memberIds);
 }
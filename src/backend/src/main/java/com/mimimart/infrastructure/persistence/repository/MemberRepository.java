@@ -1,8 +1,11 @@
 package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.Member;
+import com.mimimart.shared.valueobject.MemberStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -21,6 +24,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, JpaSpecif
      */
     Optional<Member> findByEmail(String email);
 
+    /**
+     * 查詢會員狀態 (僅讀取單一欄位,供認證過濾器檢查帳號狀態)
+     */
+    @Query("SELECT e.status FROM Member e WHERE e.id = :id")
+    Optional<MemberStatus> findStatusById(@Param("id") Long id);
+
     /**
      * 根據驗證 Token 查詢會員
      */
@@ -0,0 +1,116 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.infrastructure.persistence.entity.OrderDailyStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 訂單每日統計 Repository
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public interface OrderDailyStatisticsRepository extends JpaRepository<OrderDailyStatistics, Long> {
+
+    /**
+     * 累加指定日期、狀態與分片的計數器 (不存在時建立)
+     *
+     * @param statDate    訂單建立日期
+     * @param status      訂單狀態
+     * @param shard       計數器分片
+     * @param countDelta  訂單數增減
+     * @param amountDelta 金額增減
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_daily_statistics (stat_date, status, shard, order_count, total_amount) " +
+                   "VALUES (:statDate, :status, :shard, :countDelta, :amountDelta) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + :countDelta, " +
+                   "total_amount = total_amount + :amountDelta",
+           nativeQuery = true)
+    int increment(@Param("statDate") LocalDate statDate,
+                  @Param("status") String status,
+                  @Param("shard") int shard,
+                  @Param("countDelta") long countDelta,
+                  @Param("amountDelta") BigDecimal amountDelta);
+
+    /**
+     * 取得統計重建鎖 (校正前呼叫,多個校正依序執行;計數器更新不取得此鎖)
+     */
+    @Query(value = "SELECT id FROM order_statistics_lock WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Integer lockForRebuild();
+
+    /**
+     * 查詢日期區間內的每日統計 (依日期排序)
+     */
+    List<OrderDailyStatistics> findByStatDateBetweenOrderByStatDateAsc(LocalDate from, LocalDate to);
+
+    /**
+     * 彙總全部期間各狀態的訂單數與金額
+     */
+    @Query("SELECT s.status AS status, SUM(s.orderCount) AS orderCount, SUM(s.totalAmount) AS totalAmount " +
+           "FROM OrderDailyStatistics s GROUP BY s.status")
+    List<StatusTotal> sumByStatus();
+
+    /**
+     * 由訂單表計算每日各狀態的訂單數與金額
+     * 一般查詢 (不加鎖的一致性讀取),不會與正在修改訂單的交易互相等待
+     */
+    @Query("SELECT extract(date FROM o.createdAt) AS statDate, o.status AS status, " +
+           "COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount " +
+           "FROM OrderEntity o GROUP BY extract(date FROM o.createdAt), o.status")
+    List<DailyTotal> sumOrdersByDateAndStatus();
+
+    /**
+     * 彙總各分片的每日各狀態計數 (一致性讀取,與 sumOrdersByDateAndStatus 於同一交易比對)
+     */
+    @Query("SELECT s.statDate AS statDate, s.status AS status, " +
+           "SUM(s.orderCount) AS orderCount, SUM(s.totalAmount) AS totalAmount " +
+           "FROM OrderDailyStatistics s GROUP BY s.statDate, s.status")
+    List<DailyCounter> sumCountersByDateAndStatus();
+
+    /**
+     * 每日狀態彙總投影
+     */
+    interface DailyTotal {
+        LocalDate getStatDate();
+
+        OrderStatus getStatus();
+
+        Long getOrderCount();
+
+        BigDecimal getTotalAmount();
+    }
+
+    /**
+     * 每日狀態計數器彙總投影
+     */
+    interface DailyCounter {
+        LocalDate getStatDate();
+
+        String getStatus();
+
+        Long getOrderCount();
+
+        BigDecimal getTotalAmount();
+    }
+
+    /**
+     * 狀態彙總投影
+     */
+    interface StatusTotal {
+        String getStatus();
+
+        Long getOrderCount();
+
+        BigDecimal getTotalAmount();
+    }
+}
@@ -1,12 +1,18 @@
 package com.mimimart.infrastructure.persistence.repository;
 
+import com.mimimart.domain.order.model.OrderStatus;
 import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +43,25 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long>, JpaSp
      * 檢查訂單編號是否已存在
      */
     boolean existsByOrderNumber(String orderNumber);
+
+    /**
+     * 批次查詢訂單並鎖定資料列 (依 ID 順序加鎖)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OrderEntity o WHERE o.id IN :ids ORDER BY o.id")
+    List<OrderEntity> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批次取消訂單 (僅更新仍為指定狀態者)
+     *
+     * @return 更新筆數
+     */
+    @Modifying
+    @Query("UPDATE OrderEntity o SET o.status = :cancelled, o.cancellationReason = :reason, o.updatedAt = :updatedAt " +
+           "WHERE o.id IN :ids AND o.status = :fromStatus")
+    int cancelAllByIdIn(@Param("ids") Collection<Long> ids,
+                        @Param("fromStatus") OrderStatus fromStatus,
+                        @Param("cancelled") OrderStatus cancelled,
+                        @Param("reason") String reason,
+                        @Param("updatedAt") LocalDateTime updatedAt);
 }
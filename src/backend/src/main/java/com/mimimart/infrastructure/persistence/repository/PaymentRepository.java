@@ -2,10 +2,19 @@ package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
 import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +46,54 @@ public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
      * 查詢逾期未付款的記錄
      */
     List<PaymentEntity> findByStatusAndExpiredAtBefore(PaymentStatus status, Instant expiredAt);
+
+    /**
+     * 查詢付款狀態 (不經持久化內容快取)
+     */
+    @Query("SELECT p.status FROM PaymentEntity p WHERE p.id = :id")
+    Optional<PaymentStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * 付款回調: 條件式標記為已付款 (僅在仍為待付款時更新,並行的重複回調只有一筆成功)
+     *
+     * @return 更新筆數 (0 表示狀態已變更)
+     */
+    @Modifying
+    @Query("UPDATE PaymentEntity p SET p.status = :paid, p.externalTransactionId = :externalTransactionId, " +
+           "p.paidAt = :paidAt, p.updatedAt = :paidAt WHERE p.id = :id AND p.status = :pending")
+    int markPaidIfPending(@Param("id") Long id,
+                          @Param("externalTransactionId") String externalTransactionId,
+                          @Param("paidAt") Instant paidAt,
+                          @Param("pending") PaymentStatus pending,
+                          @Param("paid") PaymentStatus paid);
+
+    /**
+     * 排程: 以 ID 游標分頁查詢逾期未付款的記錄 ID (依 ID 排序)
+     *
+     * @param afterId 上一頁最後一筆 ID (第一頁傳 0)
+     */
+    @Query("SELECT p.id FROM PaymentEntity p WHERE p.status = :status AND p.expiredAt < :expiredAt " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByStatusAndExpiredAtBefore(@Param("status") PaymentStatus status,
+                                                 @Param("expiredAt") Instant expiredAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    /**
+     * 排程: 鎖定仍為指定狀態的付款記錄 (SKIP LOCKED,略過正由付款回調處理中的資料列)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM PaymentEntity p WHERE p.id IN :ids AND p.status = :status ORDER BY p.id")
+    List<PaymentEntity> findAllByIdInAndStatusForUpdate(@Param("ids") Collection<Long> ids,
+                                                        @Param("status") PaymentStatus status);
+
+    /**
+     * 排程: 批次更新付款狀態
+     */
+    @Modifying
+    @Query("UPDATE PaymentEntity p SET p.status = :status, p.updatedAt = :updatedAt WHERE p.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") PaymentStatus status,
+                           @Param("updatedAt") Instant updatedAt);
 }
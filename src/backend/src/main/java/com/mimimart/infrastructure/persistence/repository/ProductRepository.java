@@ -4,27 +4,41 @@ import com.mimimart.infrastructure.persistence.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * 商品 Repository
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     /**
-     * 前台: 查詢已上架且未刪除的商品列表 (分頁)
+     * 前台: 查詢前台可見的商品列表 (分頁)
+     * is_live 由排程維護,並以當前時間再次檢查上架期間,避免排程間隔內顯示已到期商品
      */
-    Page<Product> findAllByIsPublishedTrueAndIsDeletedFalse(Pageable pageable);
+    @Query("SELECT p FROM Product p WHERE p.isLive = true " +
+           "AND (p.publishedAt IS NULL OR p.publishedAt <= :now) " +
+           "AND (p.unpublishedAt IS NULL OR p.unpublishedAt > :now)")
+    Page<Product> findLiveProducts(@Param("now") LocalDateTime now, Pageable pageable);
 
     /**
-     * 前台: 根據分類查詢已上架且未刪除的商品列表 (分頁)
+     * 前台: 根據分類查詢前台可見的商品列表 (分頁)
      */
-    Page<Product> findAllByCategoryIdAndIsPublishedTrueAndIsDeletedFalse(Long categoryId, Pageable pageable);
+    @Query("SELECT p FROM Product p WHERE p.isLive = true AND p.categoryId = :categoryId " +
+           "AND (p.publishedAt IS NULL OR p.publishedAt <= :now) " +
+           "AND (p.unpublishedAt IS NULL OR p.unpublishedAt > :now)")
+    Page<Product> findLiveProductsByCategory(@Param("categoryId") Long categoryId,
+                                             @Param("now") LocalDateTime now,
+                                             Pageable pageable);
 
     /**
      * 前台: 根據 ID 查詢已上架且未刪除的商品
@@ -32,10 +46,51 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByIdAndIsPublishedTrueAndIsDeletedFalse(Long id);
 
     /**
-     * 前台: 搜尋商品 (名稱模糊查詢,已上架且未刪除)
+     * 前台: 搜尋商品 (名稱模糊查詢,僅前台可見且在上架期間內)
      */
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% AND p.isPublished = true AND p.isDeleted = false")
-    Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% AND p.isLive = true " +
+           "AND (p.publishedAt IS NULL OR p.publishedAt <= :now) " +
+           "AND (p.unpublishedAt IS NULL OR p.unpublishedAt > :now)")
+    Page<Product> searchByKeyword(@Param("keyword") String keyword,
+                                  @Param("now") LocalDateTime now,
+                                  Pageable pageable);
+
+    /**
+     * 搜尋索引: 查詢已啟用、已上架且未刪除的商品 (不限上架期間)
+     */
+    Page<Product> findAllByIsActiveTrueAndIsPublishedTrueAndIsDeletedFalse(Pageable pageable);
+
+    /**
+     * 批次查詢商品與分類名稱 (單一查詢,供購物車等多商品頁面使用)
+     */
+    @Query("SELECT new com.mimimart.infrastructure.persistence.repository.ProductWithCategoryName(p, c.name) " +
+           "FROM Product p LEFT JOIN Category c ON c.id = p.categoryId AND c.deletedAt IS NULL " +
+           "WHERE p.id IN :ids")
+    List<ProductWithCategoryName> findWithCategoryNameByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 排程: 查詢已進入上架期間但尚未標記為可見的商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.isLive = false " +
+           "AND p.isActive = true AND p.isPublished = true AND p.isDeleted = false " +
+           "AND (p.publishedAt IS NULL OR p.publishedAt <= :now) " +
+           "AND (p.unpublishedAt IS NULL OR p.unpublishedAt > :now)")
+    List<Product> findProductsToGoLive(@Param("now") LocalDateTime now);
+
+    /**
+     * 排程: 查詢已標記為可見但已不符合上架條件的商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.isLive = true " +
+           "AND (p.isActive = false OR p.isPublished = false OR p.isDeleted = true " +
+           "OR p.publishedAt > :now OR p.unpublishedAt <= :now)")
+    List<Product> findProductsToGoOffline(@Param("now") LocalDateTime now);
+
+    /**
+     * 排程: 批次更新前台可見旗標
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.isLive = :live WHERE p.id IN :ids")
+    int updateLiveStatus(@Param("ids") Collection<Long> ids, @Param("live") boolean live);
 
     /**
      * 後台: 查詢所有商品 (分頁)
@@ -56,4 +111,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * 檢查商品名稱是否已存在 (未刪除)
      */
     boolean existsByNameAndIsDeletedFalse(String name);
+
+    /**
+     * 庫存預留: 條件式扣減庫存 (庫存不足時不更新)
+     *
+     * @return 更新筆數 (0 表示庫存不足)
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * 庫存預留: 歸還庫存
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
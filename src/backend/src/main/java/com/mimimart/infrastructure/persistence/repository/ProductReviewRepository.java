@@ -1,10 +1,12 @@
 package com.mimimart.infrastructure.persistence.repository;
 
 import com.mimimart.infrastructure.persistence.entity.ProductReview;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -47,21 +49,11 @@ public interface ProductReviewRepository extends
     List<ProductReview> findByMemberIdAndProductId(Long memberId, Long productId);
 
     /**
-     * 查詢商品評價統計
-     * 回傳: [評價數量, 平均評分]
+     * 根據 ID 查詢評價並鎖定資料列（評價異動時使用，確保評價彙總增減一致）
      */
-    @Query("SELECT COUNT(r), COALESCE(AVG(r.rating), 0.0) FROM ProductReview r " +
-           "WHERE r.productId = :productId AND r.isVisible = true")
-    Object[] getReviewStats(@Param("productId") Long productId);
-
-    /**
-     * 查詢商品評分分布
-     * 回傳: List<[rating, count]>
-     */
-    @Query("SELECT r.rating, COUNT(r) FROM ProductReview r " +
-           "WHERE r.productId = :productId AND r.isVisible = true " +
-           "GROUP BY r.rating ORDER BY r.rating DESC")
-    List<Object[]> getRatingDistribution(@Param("productId") Long productId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ProductReview r WHERE r.id = :id")
+    Optional<ProductReview> findByIdForUpdate(@Param("id") Long id);
 
     /**
      * 計算商品的總評價數（含隱藏）
@@ -0,0 +1,45 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.ProductReviewSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 商品評價彙總 Repository
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public interface ProductReviewSummaryRepository extends JpaRepository<ProductReviewSummary, Long> {
+
+    /**
+     * 累加單一評分的增減 (不存在時建立)
+     * rating 為 1~5,delta 為 +1 (新增/顯示) 或 -1 (刪除/隱藏)
+     *
+     * @param productId 商品ID
+     * @param rating    評分
+     * @param delta     評價數增減
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_review_summaries " +
+                   "(product_id, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) " +
+                   "VALUES (:productId, :delta, :rating * :delta, " +
+                   "IF(:rating = 1, :delta, 0), IF(:rating = 2, :delta, 0), IF(:rating = 3, :delta, 0), " +
+                   "IF(:rating = 4, :delta, 0), IF(:rating = 5, :delta, 0)) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "review_count = review_count + :delta, " +
+                   "rating_sum = rating_sum + :rating * :delta, " +
+                   "rating_1 = rating_1 + IF(:rating = 1, :delta, 0), " +
+                   "rating_2 = rating_2 + IF(:rating = 2, :delta, 0), " +
+                   "rating_3 = rating_3 + IF(:rating = 3, :delta, 0), " +
+                   "rating_4 = rating_4 + IF(:rating = 4, :delta, 0), " +
+                   "rating_5 = rating_5 + IF(:rating = 5, :delta, 0)",
+           nativeQuery = true)
+    int applyDelta(@Param("productId") Long productId,
+                   @Param("rating") int rating,
+                   @Param("delta") int delta);
+}
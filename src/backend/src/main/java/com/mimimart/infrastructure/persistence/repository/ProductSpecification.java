@@ -0,0 +1,44 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品動態查詢規格
+ * 用於前台商品列表的游標分頁
+ */
+public class ProductSpecification {
+
+    /**
+     * 前台可見商品 (與 ProductRepository.findLiveProducts 條件一致)
+     *
+     * @param categoryId 分類 ID (可選)
+     * @param now        判斷上架期間的時間
+     * @return Specification
+     */
+    public static Specification<Product> live(Long categoryId, LocalDateTime now) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(criteriaBuilder.isTrue(root.get("isLive")));
+
+            if (categoryId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("categoryId"), categoryId));
+            }
+
+            // 上架期間
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.isNull(root.get("publishedAt")),
+                    criteriaBuilder.lessThanOrEqualTo(root.get("publishedAt"), now)));
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.isNull(root.get("unpublishedAt")),
+                    criteriaBuilder.greaterThan(root.get("unpublishedAt"), now)));
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.Product;
+
+/**
+ * 商品與分類名稱查詢結果 (JPQL 建構式投影)
+ *
+ * @param product      商品
+ * @param categoryName 分類名稱 (未分類或分類已刪除時為 null)
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+public record ProductWithCategoryName(Product product, String categoryName) {
+}
@@ -2,11 +2,17 @@ package com.mimimart.infrastructure.persistence.repository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -14,7 +20,8 @@ import java.util.concurrent.TimeUnit;
  * Redis 購物車項目 Repository
  * 使用 Redis Hash 儲存購物車項目
  * Key: cart:{memberId}
- * Field: {productId} → Value: {quantity}|{addedAt_timestamp}
+ * Field: {productId} (十進位字串,Redis 小型 Hash 內部即以整數儲存)
+ * Value: 二進位編碼 (見 CartItemCodec);舊字串格式 {quantity}|{addedAt_timestamp} 於讀取時改寫
  *
  * @author MimiMart Development Team
  * @since 1.0.0
@@ -24,85 +31,258 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class RedisCartItemRepository {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<byte[], byte[]> binaryRedisTemplate;
 
     private static final String CART_KEY_PREFIX = "cart:";
     private static final long CART_TTL_DAYS = 7;
-    private static final String FIELD_SEPARATOR = "|";
+
+    /**
+     * 原子加入購物車項目 (檢查項目數上限、累加數量、寫入並更新 TTL)
+     * KEYS[1] = 購物車 Key
+     * ARGV = {productId, 增加數量, 項目數上限, 單項數量上限, 加入時間 (varint 編碼), TTL 秒數}
+     * 購物車已滿回傳 {-1, 目前項目數},累加後超過上限回傳 {-2, 累加後數量},
+     * 成功回傳 {1, 新數量, 是否為新項目}
+     */
+    private static final RedisScript<List> ADD_SCRIPT = new DefaultRedisScript<>("""
+            local function decodeQuantity(value)
+                if string.byte(value, 1) ~= 1 then
+                    return tonumber(string.match(value, '^(%d+)|')) or 1
+                end
+                local quantity, multiplier = 0, 1
+                for i = 2, #value do
+                    local b = string.byte(value, i)
+                    quantity = quantity + (b % 128) * multiplier
+                    if b < 128 then
+                        return quantity
+                    end
+                    multiplier = multiplier * 128
+                end
+                return 1
+            end
+            local function varint(n)
+                local bytes = {}
+                while n >= 128 do
+                    bytes[#bytes + 1] = n % 128 + 128
+                    n = math.floor(n / 128)
+                end
+                bytes[#bytes + 1] = n
+                return string.char(unpack(bytes))
+            end
+            local current = redis.call('HGET', KEYS[1], ARGV[1])
+            local quantity = tonumber(ARGV[2])
+            local isNew = 1
+            if current then
+                isNew = 0
+                quantity = quantity + decodeQuantity(current)
+                if quantity > tonumber(ARGV[4]) then
+                    return {-2, quantity}
+                end
+            else
+                local count = redis.call('HLEN', KEYS[1])
+                if count >= tonumber(ARGV[3]) then
+                    return {-1, count}
+                end
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], string.char(1) .. varint(quantity) .. ARGV[5])
+            redis.call('EXPIRE', KEYS[1], ARGV[6])
+            return {1, quantity, isNew}
+            """, List.class);
+
+    /**
+     * 批次寫入購物車項目 (合併購物車使用)
+     * KEYS[1] = 購物車 Key
+     * ARGV = {項目數上限, TTL 秒數, productId, 值, productId, 值, ...}
+     * 已存在的項目直接覆寫,新項目僅在項目數未達上限時寫入;回傳寫入筆數
+     */
+    private static final RedisScript<Long> SAVE_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local maxItems = tonumber(ARGV[1])
+            local count = redis.call('HLEN', KEYS[1])
+            local written = 0
+            for i = 3, #ARGV, 2 do
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    written = written + 1
+                elseif count < maxItems then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    count = count + 1
+                    written = written + 1
+                end
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return written
+            """, Long.class);
+
+    /**
+     * 舊格式改寫 (僅在值未被並行修改時寫入)
+     * KEYS[1] = 購物車 Key
+     * ARGV = {productId, 舊值, 新值, ...} 三個一組
+     */
+    private static final RedisScript<Long> MIGRATE_SCRIPT = new DefaultRedisScript<>("""
+            local migrated = 0
+            for i = 1, #ARGV, 3 do
+                if redis.call('HGET', KEYS[1], ARGV[i]) == ARGV[i + 1] then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 2])
+                    migrated = migrated + 1
+                end
+            end
+            return migrated
+            """, Long.class);
 
     /**
      * 取得購物車 Redis Key
      */
-    private String getCartKey(Long memberId) {
-        return CART_KEY_PREFIX + memberId;
+    private byte[] getCartKey(Long memberId) {
+        return (CART_KEY_PREFIX + memberId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 取得購物車項目 Field
+     */
+    private static byte[] getField(Long productId) {
+        return String.valueOf(productId).getBytes(StandardCharsets.UTF_8);
     }
 
     /**
-     * 編碼值: quantity|timestamp
+     * 解析購物車項目 Field (十進位位元組,不配置字串)
      */
-    private String encodeValue(Integer quantity, Long addedAt) {
-        return quantity + FIELD_SEPARATOR + addedAt;
+    private static long parseField(byte[] field) {
+        long productId = 0;
+        for (byte b : field) {
+            productId = productId * 10 + (b - '0');
+        }
+        return productId;
     }
 
     /**
      * 解碼值: {quantity, timestamp}
      */
-    private CartItemValue decodeValue(String value) {
-        String[] parts = value.split("\\" + FIELD_SEPARATOR);
-        if (parts.length != 2) {
-            log.warn("Invalid cart item value format: {}", value);
+    private CartItemValue decodeValue(byte[] value) {
+        CartItemValue decoded = CartItemCodec.decode(value);
+        if (decoded == null) {
+            log.warn("Invalid cart item value format: {}", new String(value, StandardCharsets.ISO_8859_1));
             // 容錯處理:若格式錯誤,回傳預設值
             return new CartItemValue(1, Instant.now().toEpochMilli());
         }
-        return new CartItemValue(
-            Integer.parseInt(parts[0]),
-            Long.parseLong(parts[1])
-        );
+        return decoded;
+    }
+
+    private HashOperations<byte[], byte[], byte[]> hashOps() {
+        return binaryRedisTemplate.opsForHash();
     }
 
     /**
      * 新增或更新購物車項目
      */
     public void save(Long memberId, Long productId, Integer quantity) {
-        String key = getCartKey(memberId);
-        Long addedAt = Instant.now().toEpochMilli();
-        String value = encodeValue(quantity, addedAt);
+        byte[] key = getCartKey(memberId);
+        long addedAt = Instant.now().toEpochMilli();
 
-        redisTemplate.opsForHash().put(key, String.valueOf(productId), value);
+        hashOps().put(key, getField(productId), CartItemCodec.encode(quantity, addedAt));
         // 更新 TTL
-        redisTemplate.expire(key, CART_TTL_DAYS, TimeUnit.DAYS);
+        binaryRedisTemplate.expire(key, CART_TTL_DAYS, TimeUnit.DAYS);
 
         log.debug("Saved cart item: memberId={}, productId={}, quantity={}", memberId, productId, quantity);
     }
 
+    /**
+     * 原子加入購物車項目 (單次 Redis 往返)
+     * 商品已存在時累加數量,不存在時於項目數未達上限時新增;
+     * 檢查與寫入在同一腳本內執行,並行加入不會超過項目數上限
+     *
+     * @param memberId       會員 ID
+     * @param productId      商品 ID
+     * @param quantity       增加數量
+     * @param maxItemsCount  購物車項目數上限
+     * @param maxQuantity    單項數量上限
+     * @return 加入結果
+     */
+    public AddResult add(Long memberId, Long productId, int quantity, int maxItemsCount, int maxQuantity) {
+        long addedAt = Instant.now().toEpochMilli();
+        List<?> result = binaryRedisTemplate.execute(ADD_SCRIPT, List.of(getCartKey(memberId)),
+                getField(productId), ascii(quantity), ascii(maxItemsCount), ascii(maxQuantity),
+                CartItemCodec.encodeTimestamp(addedAt), ascii(TimeUnit.DAYS.toSeconds(CART_TTL_DAYS)));
+
+        long code = ((Number) result.get(0)).longValue();
+        int value = ((Number) result.get(1)).intValue();
+        if (code == -1) {
+            return new AddResult(AddResult.Status.CART_FULL, value, false, addedAt);
+        }
+        if (code == -2) {
+            return new AddResult(AddResult.Status.QUANTITY_EXCEEDED, value, false, addedAt);
+        }
+
+        boolean newItem = ((Number) result.get(2)).longValue() == 1;
+        log.debug("Added cart item: memberId={}, productId={}, quantity={}, newItem={}",
+                memberId, productId, value, newItem);
+        return new AddResult(AddResult.Status.ADDED, value, newItem, addedAt);
+    }
+
+    /**
+     * 批次寫入購物車項目 (單次 Redis 往返)
+     * 已存在的項目直接覆寫數量;新項目依傳入順序寫入,項目數達上限後略過
+     *
+     * @param memberId      會員 ID
+     * @param quantities    商品 ID → 數量 (依寫入優先順序)
+     * @param maxItemsCount 購物車項目數上限
+     * @return 實際寫入筆數
+     */
+    public int saveAll(Long memberId, Map<Long, Integer> quantities, int maxItemsCount) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        long addedAt = Instant.now().toEpochMilli();
+        List<byte[]> args = new ArrayList<>(2 + quantities.size() * 2);
+        args.add(ascii(maxItemsCount));
+        args.add(ascii(TimeUnit.DAYS.toSeconds(CART_TTL_DAYS)));
+        quantities.forEach((productId, quantity) -> {
+            args.add(getField(productId));
+            args.add(CartItemCodec.encode(quantity, addedAt));
+        });
+
+        Long written = binaryRedisTemplate.execute(SAVE_ALL_SCRIPT, List.of(getCartKey(memberId)), args.toArray());
+        log.debug("Saved {} of {} cart items: memberId={}", written, quantities.size(), memberId);
+        return written == null ? 0 : written.intValue();
+    }
+
     /**
      * 取得購物車項目數量
      */
     public Integer getQuantity(Long memberId, Long productId) {
-        String key = getCartKey(memberId);
-        Object value = redisTemplate.opsForHash().get(key, String.valueOf(productId));
+        byte[] value = hashOps().get(getCartKey(memberId), getField(productId));
 
         if (value == null) {
             return null;
         }
 
-        CartItemValue cartItemValue = decodeValue(value.toString());
-        return cartItemValue.quantity;
+        return decodeValue(value).quantity;
     }
 
     /**
-     * 取得購物車所有項目
+     * 取得購物車所有項目 (舊字串格式的項目一併改寫為二進位格式)
      * @return Map<productId, CartItemValue>
      */
     public Map<Long, CartItemValue> findAllByMemberId(Long memberId) {
-        String key = getCartKey(memberId);
-        Map<Object, Object> rawEntries = redisTemplate.opsForHash().entries(key);
-
-        Map<Long, CartItemValue> result = new HashMap<>();
-        for (Map.Entry<Object, Object> entry : rawEntries.entrySet()) {
-            Long productId = Long.parseLong(entry.getKey().toString());
-            CartItemValue value = decodeValue(entry.getValue().toString());
-            result.put(productId, value);
+        byte[] key = getCartKey(memberId);
+        Map<byte[], byte[]> rawEntries = hashOps().entries(key);
+
+        Map<Long, CartItemValue> result = new HashMap<>(rawEntries.size() * 4 / 3 + 1);
+        List<byte[]> migrations = null;
+        for (Map.Entry<byte[], byte[]> entry : rawEntries.entrySet()) {
+            CartItemValue value = decodeValue(entry.getValue());
+            result.put(parseField(entry.getKey()), value);
+
+            if (CartItemCodec.isLegacy(entry.getValue())) {
+                if (migrations == null) {
+                    migrations = new ArrayList<>();
+                }
+                migrations.add(entry.getKey());
+                migrations.add(entry.getValue());
+                migrations.add(CartItemCodec.encode(value.quantity, value.addedAt));
+            }
+        }
+
+        if (migrations != null) {
+            migrate(memberId, key, migrations);
         }
 
         log.debug("Found {} cart items for memberId={}", result.size(), memberId);
@@ -113,8 +293,7 @@ public class RedisCartItemRepository {
      * 刪除購物車項目
      */
     public void delete(Long memberId, Long productId) {
-        String key = getCartKey(memberId);
-        redisTemplate.opsForHash().delete(key, String.valueOf(productId));
+        hashOps().delete(getCartKey(memberId), (Object) getField(productId));
 
         log.debug("Deleted cart item: memberId={}, productId={}", memberId, productId);
     }
@@ -123,8 +302,7 @@ public class RedisCartItemRepository {
      * 清空購物車
      */
     public void deleteAll(Long memberId) {
-        String key = getCartKey(memberId);
-        redisTemplate.delete(key);
+        binaryRedisTemplate.delete(getCartKey(memberId));
 
         log.debug("Cleared cart for memberId={}", memberId);
     }
@@ -133,28 +311,57 @@ public class RedisCartItemRepository {
      * 取得購物車項目數量
      */
     public Long countByMemberId(Long memberId) {
-        String key = getCartKey(memberId);
-        return redisTemplate.opsForHash().size(key);
+        return hashOps().size(getCartKey(memberId));
     }
 
     /**
      * 檢查購物車項目是否存在
      */
     public boolean exists(Long memberId, Long productId) {
-        String key = getCartKey(memberId);
-        return Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(key, String.valueOf(productId)));
+        return Boolean.TRUE.equals(hashOps().hasKey(getCartKey(memberId), getField(productId)));
+    }
+
+    /**
+     * 改寫舊字串格式項目 (失敗不影響本次讀取,下次讀取時重試)
+     */
+    private void migrate(Long memberId, byte[] key, List<byte[]> migrations) {
+        try {
+            Long migrated = binaryRedisTemplate.execute(MIGRATE_SCRIPT, List.of(key), migrations.toArray());
+            log.debug("Migrated {} legacy cart items for memberId={}", migrated, memberId);
+        } catch (Exception e) {
+            log.warn("Failed to migrate legacy cart items for memberId={}", memberId, e);
+        }
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
     }
 
     /**
      * 購物車項目值物件
      */
     public static class CartItemValue {
-        public final Integer quantity;
-        public final Long addedAt;
+        public final int quantity;
+        public final long addedAt;
 
-        public CartItemValue(Integer quantity, Long addedAt) {
+        public CartItemValue(int quantity, long addedAt) {
             this.quantity = quantity;
             this.addedAt = addedAt;
         }
     }
+
+    /**
+     * 加入購物車結果
+     *
+     * @param status   結果狀態
+     * @param quantity 成功時為新數量;購物車已滿時為目前項目數;超過上限時為累加後數量
+     * @param newItem  是否為新加入的項目
+     * @param addedAt  寫入時間 (毫秒級 timestamp)
+     */
+    public record AddResult(Status status, int quantity, boolean newItem, long addedAt) {
+
+        public enum Status {
+            ADDED, CART_FULL, QUANTITY_EXCEEDED
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis 付款回調冪等鍵 Repository
+ * 以綠界交易編號 (TradeNo) 記錄回調處理狀態,綠界重送的回調在 Redis 即可判定為重複,不觸及資料庫。
+ * 資料庫的條件式 UPDATE (status = PENDING_PAYMENT) 仍為最終防線,Redis 不可用時不影響正確性。
+ *
+ * Key: payment:callback:{tradeNo} → Value: PROCESSING (處理中,短存活時間) / DONE (已完成)
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public class RedisPaymentCallbackRepository {
+
+    private static final String CALLBACK_KEY_PREFIX = "payment:callback:";
+    private static final String PROCESSING = "PROCESSING";
+    private static final String DONE = "DONE";
+
+    /**
+     * 取得處理權 (SET NX);已存在時回傳現有狀態
+     * ARGV[1]: 處理中狀態存活秒數
+     */
+    private static final RedisScript<String> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], 'PROCESSING', 'NX', 'EX', ARGV[1]) then
+                return 'CLAIMED'
+            end
+            return redis.call('GET', KEYS[1]) or 'CLAIMED'
+            """, String.class);
+
+    /**
+     * 釋放處理權 (僅在仍為處理中時刪除,不影響已完成的記錄)
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == 'PROCESSING' then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisPaymentCallbackRepository(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 取得回調處理權
+     *
+     * @param tradeNo       綠界交易編號
+     * @param processingTtl 處理中狀態存活時間 (處理節點異常終止時自動釋放)
+     * @return 取得結果
+     */
+    public ClaimResult claim(String tradeNo, Duration processingTtl) {
+        String state = redisTemplate.execute(CLAIM_SCRIPT, List.of(getCallbackKey(tradeNo)),
+                String.valueOf(processingTtl.toSeconds()));
+        if (DONE.equals(state)) {
+            return ClaimResult.DONE;
+        }
+        return PROCESSING.equals(state) ? ClaimResult.PROCESSING : ClaimResult.CLAIMED;
+    }
+
+    /**
+     * 標記回調已處理完成
+     *
+     * @param tradeNo 綠界交易編號
+     * @param doneTtl 完成記錄保留時間 (需涵蓋綠界重送期間)
+     */
+    public void markDone(String tradeNo, Duration doneTtl) {
+        redisTemplate.opsForValue().set(getCallbackKey(tradeNo), DONE, doneTtl);
+    }
+
+    /**
+     * 釋放處理權 (處理失敗時呼叫,讓綠界重送的回調重新處理)
+     *
+     * @param tradeNo 綠界交易編號
+     */
+    public void release(String tradeNo) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(getCallbackKey(tradeNo)));
+    }
+
+    private String getCallbackKey(String tradeNo) {
+        return CALLBACK_KEY_PREFIX + tradeNo;
+    }
+
+    /**
+     * 取得處理權結果
+     */
+    public enum ClaimResult {
+        /** 取得處理權 */
+        CLAIMED,
+        /** 其他請求處理中 */
+        PROCESSING,
+        /** 已處理完成 */
+        DONE
+    }
+}
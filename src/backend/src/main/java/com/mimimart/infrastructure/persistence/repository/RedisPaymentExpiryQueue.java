@@ -0,0 +1,86 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Redis 付款逾期延遲佇列
+ * 建立付款時以付款期限為分數加入 Sorted Set,輪詢時原子取出已到期的付款 ID,
+ * 讓逾期處理在期限後一個輪詢間隔內執行,而不需掃描 payments 資料表。
+ * 多個節點可同時輪詢,每筆付款只會被其中一個節點取出。
+ *
+ * Key: payment:expiry:queue → Sorted Set (member: 付款 ID, score: 付款期限毫秒)
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public class RedisPaymentExpiryQueue {
+
+    private static final String QUEUE_KEY = "payment:expiry:queue";
+
+    /**
+     * 原子取出已到期的付款 ID (查詢後立即移除)
+     * ARGV[1]: 目前時間毫秒, ARGV[2]: 單次最多取出筆數
+     */
+    private static final RedisScript<List> POLL_SCRIPT = new DefaultRedisScript<>("""
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #due > 0 then
+                redis.call('ZREM', KEYS[1], unpack(due))
+            end
+            return due
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisPaymentExpiryQueue(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 排入付款逾期時間 (重複排入時以新的期限為準)
+     *
+     * @param paymentId 付款 ID
+     * @param expiredAt 付款期限
+     */
+    public void schedule(Long paymentId, Instant expiredAt) {
+        redisTemplate.opsForZSet().add(QUEUE_KEY, paymentId.toString(), expiredAt.toEpochMilli());
+    }
+
+    /**
+     * 重新排入 (處理失敗時於指定時間後重試)
+     *
+     * @param paymentIds 付款 ID
+     * @param retryAt    重試時間
+     */
+    public void reschedule(Collection<Long> paymentIds, Instant retryAt) {
+        paymentIds.forEach(paymentId -> schedule(paymentId, retryAt));
+    }
+
+    /**
+     * 取出已到期的付款 ID
+     *
+     * @param now   目前時間
+     * @param limit 最多取出筆數
+     * @return 已到期的付款 ID (依期限排序)
+     */
+    public List<Long> pollDue(Instant now, int limit) {
+        List<?> due = redisTemplate.execute(POLL_SCRIPT, List.of(QUEUE_KEY),
+                String.valueOf(now.toEpochMilli()), String.valueOf(limit));
+        if (due == null || due.isEmpty()) {
+            return List.of();
+        }
+        List<Long> paymentIds = new ArrayList<>(due.size());
+        for (Object paymentId : due) {
+            paymentIds.add(Long.valueOf(paymentId.toString()));
+        }
+        return paymentIds;
+    }
+}
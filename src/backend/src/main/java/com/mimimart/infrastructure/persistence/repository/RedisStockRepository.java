@@ -0,0 +1,175 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 可售庫存 Repository
+ * 作為資料庫庫存扣減前的原子閘門:熱門商品搶購時,庫存不足的請求在 Redis 即被拒絕,
+ * 只有可能成功的請求才會對 products 資料列進行條件式 UPDATE,避免資料列鎖堆積。
+ * 資料庫 (products.stock) 為唯一可信來源,Redis 值遺失或偏差時從資料庫重新載入。
+ *
+ * Key: stock:available:{productId} → Value: 可售數量
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Repository
+public class RedisStockRepository {
+
+    private static final String STOCK_KEY_PREFIX = "stock:available:";
+
+    /**
+     * 多商品原子扣減
+     * 任一 Key 不存在回傳 {-1, 索引},任一商品不足回傳 {0, 索引, 可售數量},
+     * 全部足夠時一併扣減並回傳 {1, 扣減後數量...}
+     */
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            for i, key in ipairs(KEYS) do
+                local stock = redis.call('GET', key)
+                if not stock then
+                    return {-1, i}
+                end
+                if tonumber(stock) < tonumber(ARGV[i]) then
+                    return {0, i, tonumber(stock)}
+                end
+            end
+            local result = {1}
+            for i, key in ipairs(KEYS) do
+                result[i + 1] = redis.call('DECRBY', key, ARGV[i])
+            end
+            return result
+            """, List.class);
+
+    /**
+     * 多商品歸還 (僅歸還 Key 仍存在者,不存在時下次從資料庫載入)
+     * 回傳歸還後數量,Key 不存在時為 -1
+     */
+    private static final RedisScript<List> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                if redis.call('EXISTS', key) == 1 then
+                    result[i] = redis.call('INCRBY', key, ARGV[i])
+                else
+                    result[i] = -1
+                end
+            end
+            return result
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long ttlSeconds;
+
+    public RedisStockRepository(RedisTemplate<String, String> redisTemplate,
+                                @Value("${mimimart.stock.redis-ttl-seconds:600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * 原子扣減多個商品的可售數量 (全部成功或全部不扣)
+     *
+     * @param quantities 商品 ID → 扣減數量
+     * @return 扣減結果
+     */
+    public ReserveResult tryReserve(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<String> keys = productIds.stream().map(this::getStockKey).toList();
+        Object[] args = productIds.stream().map(id -> String.valueOf(quantities.get(id))).toArray();
+
+        List<?> result = redisTemplate.execute(RESERVE_SCRIPT, keys, args);
+        long code = ((Number) result.get(0)).longValue();
+        if (code == -1) {
+            return ReserveResult.missing(productIds.get(((Number) result.get(1)).intValue() - 1));
+        }
+        if (code == 0) {
+            Long productId = productIds.get(((Number) result.get(1)).intValue() - 1);
+            return ReserveResult.insufficient(productId, ((Number) result.get(2)).intValue());
+        }
+
+        Map<Long, Long> remaining = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            remaining.put(productIds.get(i), ((Number) result.get(i + 1)).longValue());
+        }
+        return ReserveResult.reserved(remaining);
+    }
+
+    /**
+     * 歸還多個商品的可售數量
+     *
+     * @param quantities 商品 ID → 歸還數量
+     * @return 商品 ID → 歸還後數量 (Key 不存在者不包含)
+     */
+    public Map<Long, Long> release(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<String> keys = productIds.stream().map(this::getStockKey).toList();
+        Object[] args = productIds.stream().map(id -> String.valueOf(quantities.get(id))).toArray();
+
+        List<?> result = redisTemplate.execute(RELEASE_SCRIPT, keys, args);
+        Map<Long, Long> restored = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            long value = ((Number) result.get(i)).longValue();
+            if (value >= 0) {
+                restored.put(productIds.get(i), value);
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * 從資料庫載入可售數量 (Key 已存在時不覆蓋)
+     */
+    public void loadIfAbsent(Long productId, int stock) {
+        redisTemplate.opsForValue().setIfAbsent(getStockKey(productId), String.valueOf(stock), ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 刪除可售數量,下次扣減時從資料庫重新載入
+     */
+    public void evict(Long productId) {
+        redisTemplate.delete(getStockKey(productId));
+        log.debug("Evicted available stock: productId={}", productId);
+    }
+
+    private String getStockKey(Long productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+
+    /**
+     * 扣減結果
+     *
+     * @param status         結果狀態
+     * @param productId      Key 不存在或庫存不足的商品 ID
+     * @param availableStock 庫存不足時的可售數量
+     * @param remaining      扣減成功時各商品扣減後數量
+     */
+    public record ReserveResult(Status status, Long productId, Integer availableStock, Map<Long, Long> remaining) {
+
+        public enum Status {
+            RESERVED, INSUFFICIENT, MISSING
+        }
+
+        static ReserveResult reserved(Map<Long, Long> remaining) {
+            return new ReserveResult(Status.RESERVED, null, null, remaining);
+        }
+
+        static ReserveResult insufficient(Long productId, int availableStock) {
+            return new ReserveResult(Status.INSUFFICIENT, productId, availableStock, Map.of());
+        }
+
+        static ReserveResult missing(Long productId) {
+            return new ReserveResult(Status.MISSING, productId, null, Map.of());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.StockReservation;
+import com.mimimart.infrastructure.persistence.entity.StockReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 庫存預留 Repository
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * 查詢訂單指定狀態的庫存預留
+     */
+    List<StockReservation> findByOrderIdAndStatus(Long orderId, StockReservationStatus status);
+
+    /**
+     * 批次查詢多筆訂單指定狀態的庫存預留
+     */
+    List<StockReservation> findByOrderIdInAndStatus(Collection<Long> orderIds, StockReservationStatus status);
+
+    /**
+     * 條件式更新預留狀態 (僅在目前狀態為 expected 時更新)
+     * 並行的釋放/確認之間只有一方能更新成功,藉此判斷是否由本交易取得該筆預留
+     *
+     * @return 更新筆數 (0 表示已被其他交易處理)
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.updatedAt = :updatedAt " +
+           "WHERE r.id = :id AND r.status = :expected")
+    int updateStatusIfMatch(
+        @Param("id") Long id,
+        @Param("expected") StockReservationStatus expected,
+        @Param("status") StockReservationStatus status,
+        @Param("updatedAt") Instant updatedAt
+    );
+}
@@ -0,0 +1,48 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.infrastructure.cache.MemberCartWriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 購物車定時任務
+ * 定期將購物車異動批次寫入會員購物車主表
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Component
+public class CartScheduledTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartScheduledTasks.class);
+
+    private final MemberCartWriteBehindBuffer memberCartWriteBehindBuffer;
+
+    public CartScheduledTasks(MemberCartWriteBehindBuffer memberCartWriteBehindBuffer) {
+        this.memberCartWriteBehindBuffer = memberCartWriteBehindBuffer;
+    }
+
+    /**
+     * 刷新購物車主表時間戳
+     * 預設每 5 秒執行
+     */
+    @Scheduled(fixedDelayString = "${mimimart.cart.write-behind.flush-interval-ms:5000}")
+    public void flushMemberCarts() {
+        try {
+            memberCartWriteBehindBuffer.flush();
+        } catch (Exception e) {
+            logger.error("購物車主表刷新發生異常", e);
+        }
+    }
+
+    /**
+     * 關閉前寫入尚未刷新的異動
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushMemberCarts();
+    }
+}
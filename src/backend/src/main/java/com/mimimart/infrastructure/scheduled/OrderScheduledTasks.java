@@ -0,0 +1,66 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.application.service.OrderStatisticsService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 訂單定時任務
+ * 定期由訂單表校正訂單統計計數器的偏差
+ * 以 Redis 分散式鎖確保同一時間只有一個節點執行
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Component
+public class OrderScheduledTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderScheduledTasks.class);
+
+    static final String LOCK_KEY = "order:statistics-rebuild:lock";
+
+    private final OrderStatisticsService orderStatisticsService;
+    private final RedisDistributedLock redisDistributedLock;
+    private final Duration lockTtl;
+
+    public OrderScheduledTasks(OrderStatisticsService orderStatisticsService,
+                               RedisDistributedLock redisDistributedLock,
+                               @Value("${mimimart.order.statistics-rebuild-lock-ttl-seconds:3600}") long lockTtlSeconds) {
+        this.orderStatisticsService = orderStatisticsService;
+        this.redisDistributedLock = redisDistributedLock;
+        this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
+    }
+
+    /**
+     * 校正訂單統計
+     * 預設每日凌晨 3:30 執行
+     */
+    @Scheduled(cron = "${mimimart.order.statistics-rebuild-cron:0 30 3 * * ?}")
+    public void rebuildStatistics() {
+        String token;
+        try {
+            token = redisDistributedLock.tryLock(LOCK_KEY, lockTtl);
+        } catch (Exception e) {
+            logger.error("取得訂單統計校正鎖失敗", e);
+            return;
+        }
+        if (token == null) {
+            logger.debug("其他節點正在執行訂單統計校正,略過");
+            return;
+        }
+
+        try {
+            orderStatisticsService.rebuild();
+        } catch (Exception e) {
+            logger.error("訂單統計校正發生異常", e);
+        } finally {
+            redisDistributedLock.unlock(LOCK_KEY, token);
+        }
+    }
+}
@@ -1,25 +1,38 @@
 package com.mimimart.infrastructure.scheduled;
 
-import com.mimimart.domain.order.model.Order;
-import com.mimimart.infrastructure.persistence.entity.OrderEntity;
-import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
+import com.mimimart.application.service.ExpiredPaymentService;
+import com.mimimart.application.service.ExpiredPaymentService.ChunkResult;
 import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
-import com.mimimart.infrastructure.persistence.mapper.OrderMapper;
-import com.mimimart.infrastructure.persistence.repository.OrderRepository;
 import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentExpiryQueue;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 付款定時任務
  * 自動處理逾期未付款的訂單
  *
+ * 主要路徑: 建立付款時排入 Redis 逾期佇列,以短間隔輪詢取出已到期的付款並立即處理,
+ * 逾期處理在期限後一個輪詢間隔內完成。處理失敗的付款延後重新排入佇列。
+ *
+ * 安全網: 定期掃描 payments 資料表,補處理未排入佇列 (Redis 不可用、佇列資料遺失) 的逾期付款。
+ * 逾期記錄以 ID 游標分頁讀取,每頁切成多批交由虛擬執行緒並行處理 (每批一個交易),
+ * 同時進行的批次數以 Semaphore 限制,避免佔滿資料庫連線池。
+ * 以 Redis 分散式鎖確保同一時間只有一個節點執行;每頁處理前續約,鎖遺失時停止本輪。
+ *
  * @author MimiMart Development Team
  * @since 1.0.0
  */
@@ -28,82 +41,161 @@ public class PaymentScheduledTasks {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentScheduledTasks.class);
 
-    private final PaymentRepository paymentRepository;
-    private final OrderRepository orderRepository;
-    private final OrderMapper orderMapper;
+    static final String LOCK_KEY = "payment:expired-sweep:lock";
+    static final Duration RETRY_DELAY = Duration.ofSeconds(30);
 
-    public PaymentScheduledTasks(PaymentRepository paymentRepository,
-                                 OrderRepository orderRepository,
-                                 OrderMapper orderMapper) {
+    private final ExpiredPaymentService expiredPaymentService;
+    private final PaymentRepository paymentRepository;
+    private final RedisPaymentExpiryQueue redisPaymentExpiryQueue;
+    private final RedisDistributedLock redisDistributedLock;
+    private final int chunkSize;
+    private final int workers;
+    private final Duration lockTtl;
+
+    public PaymentScheduledTasks(ExpiredPaymentService expiredPaymentService,
+                                 PaymentRepository paymentRepository,
+                                 RedisPaymentExpiryQueue redisPaymentExpiryQueue,
+                                 RedisDistributedLock redisDistributedLock,
+                                 @Value("${mimimart.payment.expired-sweep.chunk-size:200}") int chunkSize,
+                                 @Value("${mimimart.payment.expired-sweep.workers:4}") int workers,
+                                 @Value("${mimimart.payment.expired-sweep.lock-ttl-seconds:300}") long lockTtlSeconds) {
+        this.expiredPaymentService = expiredPaymentService;
         this.paymentRepository = paymentRepository;
-        this.orderRepository = orderRepository;
-        this.orderMapper = orderMapper;
+        this.redisPaymentExpiryQueue = redisPaymentExpiryQueue;
+        this.redisDistributedLock = redisDistributedLock;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
     }
 
     /**
-     * 處理逾期付款
-     * 每 5 分鐘執行一次
+     * 處理逾期佇列中已到期的付款
+     * 每 500 毫秒輪詢一次 (多節點同時輪詢時,每筆付款只由一個節點取出)
      */
-    @Scheduled(cron = "${mimimart.payment.expired-check-cron:0 */5 * * * ?}")
-    @Transactional
-    public void handleExpiredPayments() {
-        logger.info("開始執行逾期付款檢查");
-
-        try {
-            // 查詢所有逾期的待付款記錄
-            List<PaymentEntity> expiredPayments = paymentRepository.findByStatusAndExpiredAtBefore(
-                    PaymentStatus.PENDING_PAYMENT,
-                    Instant.now()
-            );
-
-            if (expiredPayments.isEmpty()) {
-                logger.info("沒有逾期的付款記錄");
+    @Scheduled(fixedDelayString = "${mimimart.payment.expiry-queue.poll-interval-ms:500}")
+    public void expireDuePayments() {
+        List<Long> due;
+        do {
+            try {
+                due = redisPaymentExpiryQueue.pollDue(Instant.now(), chunkSize);
+            } catch (Exception e) {
+                logger.warn("讀取付款逾期佇列失敗,由定期掃描處理: {}", e.getMessage());
+                return;
+            }
+            if (due.isEmpty()) {
                 return;
             }
 
-            logger.info("找到 {} 筆逾期付款記錄", expiredPayments.size());
-
-            int successCount = 0;
-            int failureCount = 0;
-
-            for (PaymentEntity payment : expiredPayments) {
-                try {
-                    // 更新付款狀態為逾期
-                    payment.setStatus(PaymentStatus.EXPIRED);
-                    payment.setUpdatedAt(Instant.now());
-                    paymentRepository.save(payment);
-
-                    // 更新訂單狀態為已取消
-                    OrderEntity orderEntity = orderRepository.findById(payment.getOrderId()).orElse(null);
-                    if (orderEntity != null && orderEntity.getStatus().isCancellable()) {
-                        // 轉換為領域模型並執行業務邏輯
-                        Order order = orderMapper.toDomain(orderEntity);
-                        order.cancel("付款逾期,系統自動取消");
-
-                        // 轉換回實體並儲存
-                        orderEntity = orderMapper.toEntity(order);
-                        orderRepository.save(orderEntity);
-
-                        logger.info("逾期付款處理成功: paymentNumber={}, orderId={}",
-                                payment.getPaymentNumber(), orderEntity.getId());
-                        successCount++;
-                    } else {
-                        logger.warn("訂單狀態異常,無法取消: orderId={}, status={}",
-                                payment.getOrderId(), orderEntity != null ? orderEntity.getStatus() : "NULL");
-                        failureCount++;
-                    }
-
-                } catch (Exception e) {
-                    logger.error("處理逾期付款失敗: paymentNumber={}, error={}",
-                            payment.getPaymentNumber(), e.getMessage(), e);
-                    failureCount++;
-                }
+            try {
+                ChunkResult result = expiredPaymentService.expireChunk(due);
+                logger.info("逾期佇列處理完成: 到期={}, 逾期={}, 取消訂單={}",
+                        due.size(), result.expired(), result.cancelled());
+            } catch (Exception e) {
+                logger.error("處理逾期佇列失敗,延後重試: ids={}", due, e);
+                rescheduleQuietly(due);
+                return;
             }
+        } while (due.size() == chunkSize);
+    }
 
-            logger.info("逾期付款檢查完成: 成功={}, 失敗={}", successCount, failureCount);
+    /**
+     * 定期掃描逾期付款 (安全網)
+     * 每 5 分鐘執行一次
+     */
+    @Scheduled(cron = "${mimimart.payment.expired-check-cron:0 */5 * * * ?}")
+    public void handleExpiredPayments() {
+        String token;
+        try {
+            token = redisDistributedLock.tryLock(LOCK_KEY, lockTtl);
+        } catch (Exception e) {
+            logger.error("取得逾期付款檢查鎖失敗", e);
+            return;
+        }
+        if (token == null) {
+            logger.debug("其他節點正在執行逾期付款檢查,略過");
+            return;
+        }
 
+        try {
+            logger.info("開始執行逾期付款檢查");
+            sweep(token, Instant.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("逾期付款檢查被中斷");
         } catch (Exception e) {
             logger.error("逾期付款檢查發生異常", e);
+        } finally {
+            redisDistributedLock.unlock(LOCK_KEY, token);
+        }
+    }
+
+    private void rescheduleQuietly(List<Long> paymentIds) {
+        try {
+            redisPaymentExpiryQueue.reschedule(paymentIds, Instant.now().plus(RETRY_DELAY));
+        } catch (Exception e) {
+            // 仍由定期掃描補處理
+            logger.warn("重新排入付款逾期佇列失敗: ids={}", paymentIds, e);
+        }
+    }
+
+    /**
+     * 分頁讀取逾期付款並分批並行處理
+     *
+     * @param token 分散式鎖 Token
+     * @param now   本輪逾期判定時間 (固定,避免處理中持續產生新頁)
+     */
+    void sweep(String token, Instant now) throws InterruptedException {
+        long startedAt = System.nanoTime();
+        AtomicInteger expired = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        Semaphore workerPermits = new Semaphore(workers);
+        int pageSize = chunkSize * workers;
+        int found = 0;
+
+        // 關閉執行器時等待全部批次完成
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long afterId = 0L;
+            List<Long> page;
+            do {
+                if (afterId > 0 && !redisDistributedLock.renew(LOCK_KEY, token, lockTtl)) {
+                    logger.warn("逾期付款檢查鎖已遺失,停止本輪 (剩餘記錄於下次排程處理)");
+                    break;
+                }
+                page = paymentRepository.findIdsByStatusAndExpiredAtBefore(
+                        PaymentStatus.PENDING_PAYMENT, now, afterId, PageRequest.of(0, pageSize));
+                found += page.size();
+
+                for (int i = 0; i < page.size(); i += chunkSize) {
+                    List<Long> chunk = page.subList(i, Math.min(i + chunkSize, page.size()));
+                    workerPermits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            ChunkResult result = expiredPaymentService.expireChunk(chunk);
+                            expired.addAndGet(result.expired());
+                            cancelled.addAndGet(result.cancelled());
+                        } catch (Exception e) {
+                            // 本批交易已回滾,下次排程重新處理
+                            failedChunks.incrementAndGet();
+                            logger.error("處理逾期付款批次失敗: ids={}..{}, error={}",
+                                    chunk.get(0), chunk.get(chunk.size() - 1), e.getMessage(), e);
+                        } finally {
+                            workerPermits.release();
+                        }
+                    });
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1);
+                }
+            } while (page.size() == pageSize);
+        }
+
+        if (found == 0) {
+            logger.info("沒有逾期的付款記錄");
+            return;
         }
+        logger.info("逾期付款檢查完成: 找到={}, 逾期={}, 取消訂單={}, 失敗批次={}, 耗時={}ms",
+                found, expired.get(), cancelled.get(), failedChunks.get(),
+                (System.nanoTime() - startedAt) / 1_000_000);
     }
 }
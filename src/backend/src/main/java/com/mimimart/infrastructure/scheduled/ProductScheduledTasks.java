@@ -0,0 +1,69 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.application.service.ProductService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 商品定時任務
+ * 依上架/下架時間翻轉商品前台可見旗標 (is_live)
+ * 以 Redis 分散式鎖確保同一時間只有一個節點執行
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Component
+public class ProductScheduledTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductScheduledTasks.class);
+
+    static final String LOCK_KEY = "product:live-refresh:lock";
+
+    private final ProductService productService;
+    private final RedisDistributedLock redisDistributedLock;
+    private final Duration lockTtl;
+
+    public ProductScheduledTasks(ProductService productService,
+                                 RedisDistributedLock redisDistributedLock,
+                                 @Value("${mimimart.product.live-refresh-lock-ttl-seconds:300}") long lockTtlSeconds) {
+        this.productService = productService;
+        this.redisDistributedLock = redisDistributedLock;
+        this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
+    }
+
+    /**
+     * 刷新商品前台可見狀態
+     * 預設每分鐘執行一次
+     */
+    @Scheduled(fixedDelayString = "${mimimart.product.live-refresh-interval-ms:60000}")
+    public void refreshLiveStatus() {
+        String token;
+        try {
+            token = redisDistributedLock.tryLock(LOCK_KEY, lockTtl);
+        } catch (Exception e) {
+            logger.error("取得商品前台可見狀態更新鎖失敗", e);
+            return;
+        }
+        if (token == null) {
+            logger.debug("其他節點正在更新商品前台可見狀態,略過");
+            return;
+        }
+
+        try {
+            int flipped = productService.refreshLiveStatus();
+            if (flipped > 0) {
+                logger.info("商品前台可見狀態已更新: {} 筆", flipped);
+            }
+        } catch (Exception e) {
+            logger.error("商品前台可見狀態更新發生異常", e);
+        } finally {
+            redisDistributedLock.unlock(LOCK_KEY, token);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mimimart.infrastructure.search;
+
+import com.mimimart.application.service.ProductSearchService;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 資料庫商品搜尋服務 (名稱 LIKE 模糊查詢)
+ * 無需維護索引,適用於商品量少或除錯時使用
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mimimart.search.engine", havingValue = "database")
+public class DatabaseProductSearchService implements ProductSearchService {
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public Page<Product> search(String keyword, Pageable pageable) {
+        return productRepository.searchByKeyword(keyword, LocalDateTime.now(), pageable);
+    }
+
+    @Override
+    public void index(Product product) {
+        // 資料庫查詢不需維護索引
+    }
+
+    @Override
+    public void remove(Long productId) {
+        // 資料庫查詢不需維護索引
+    }
+
+    @Override
+    public void rebuild() {
+        // 資料庫查詢不需維護索引
+    }
+}
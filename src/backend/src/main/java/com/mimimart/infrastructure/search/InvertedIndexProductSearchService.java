@@ -0,0 +1,234 @@
+package com.mimimart.infrastructure.search;
+
+import com.mimimart.application.service.ProductSearchService;
+import com.mimimart.infrastructure.persistence.entity.Category;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.repository.CategoryRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.utils.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 倒排索引商品搜尋服務 (預設實作)
+ *
+ * <p>啟動時從資料庫載入已上架商品建立索引,之後由商品寫入操作在交易提交後增量更新,
+ * 並透過 Pub/Sub 通知其他節點從資料庫重新載入該商品。索引建立於每個節點的記憶體中,
+ * 重建時以新索引整體替換,不阻塞查詢;定期重建以修正遺漏的通知 (例如 Redis 中斷期間)。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mimimart.search.engine", havingValue = "inverted-index", matchIfMissing = true)
+public class InvertedIndexProductSearchService implements ProductSearchService, MessageListener {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String CHANGED_CHANNEL = "product:search:changed";
+    private static final int MAX_SEARCH_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** 本節點識別碼,略過自己發布的異動通知 */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile ProductInvertedIndex index = new ProductInvertedIndex();
+    private volatile ProductInvertedIndex rebuilding;
+
+    /**
+     * 訂閱商品異動通知頻道
+     */
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public Page<Product> search(String keyword, Pageable pageable) {
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        for (int attempt = 1; ; attempt++) {
+            ProductInvertedIndex.SearchResult result = index.search(
+                    keyword, LocalDateTime.now(), offset, pageable.getPageSize());
+            if (result.productIds().isEmpty()) {
+                return new PageImpl<>(List.of(), pageable, result.totalHits());
+            }
+
+            // 依相關度順序回填商品資料
+            Map<Long, Product> productMap = productRepository.findAllById(result.productIds()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            List<Product> products = new ArrayList<>(result.productIds().size());
+            List<Long> staleIds = new ArrayList<>();
+            for (Long productId : result.productIds()) {
+                Product product = productMap.get(productId);
+                if (product != null && product.isAvailable()) {
+                    products.add(product);
+                } else {
+                    staleIds.add(productId);
+                }
+            }
+            if (staleIds.isEmpty()) {
+                return new PageImpl<>(products, pageable, result.totalHits());
+            }
+
+            // 索引落後於資料庫: 移除已不可售的商品後重新查詢,避免分頁筆數與總數不一致
+            log.debug("搜尋索引包含不可售商品,移除後重新查詢: {}", staleIds);
+            staleIds.stream()
+                    .filter(productId -> !isIndexable(productMap.get(productId)))
+                    .forEach(this::removeLocal);
+            if (attempt >= MAX_SEARCH_ATTEMPTS) {
+                return new PageImpl<>(products, pageable, result.totalHits() - staleIds.size());
+            }
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        // 於交易內擷取欄位值,提交後再寫入索引
+        long productId = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        LocalDateTime publishedAt = product.getPublishedAt();
+        LocalDateTime unpublishedAt = product.getUnpublishedAt();
+        String categoryName = categoryRepository.findById(product.getCategoryId())
+                .map(Category::getName)
+                .orElse(null);
+
+        TransactionCallbacks.afterCommit(() -> {
+            putLocal(productId, name, categoryName, description, publishedAt, unpublishedAt);
+            publishChange(productId);
+        });
+    }
+
+    @Override
+    public void remove(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            removeLocal(productId);
+            publishChange(productId);
+        });
+    }
+
+    /**
+     * 接收其他節點的商品異動通知,從資料庫重新載入該商品
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            reload(Long.parseLong(body.substring(separator + 1)));
+        } catch (Exception e) {
+            // 遺漏的異動由定期重建修正
+            log.warn("Failed to apply product search change: {}", body, e);
+        }
+    }
+
+    /**
+     * 定期重建索引,修正遺漏的異動通知
+     */
+    @Scheduled(cron = "${mimimart.search.rebuild-cron:0 0 4 * * ?}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Override
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        Map<Long, String> categoryNames = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+
+        ProductInvertedIndex newIndex = new ProductInvertedIndex();
+        // 重建期間的異動同時寫入新索引,避免替換後遺失
+        rebuilding = newIndex;
+        Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+        Page<Product> page;
+        do {
+            page = productRepository.findAllByIsActiveTrueAndIsPublishedTrueAndIsDeletedFalse(pageable);
+            for (Product product : page.getContent()) {
+                newIndex.put(product.getId(), product.getName(), categoryNames.get(product.getCategoryId()),
+                        product.getDescription(), product.getPublishedAt(), product.getUnpublishedAt());
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+
+        this.index = newIndex;
+        rebuilding = null;
+        log.info("商品搜尋索引重建完成: {} 筆, 耗時 {} ms", newIndex.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private void reload(long productId) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (!isIndexable(product)) {
+            removeLocal(productId);
+            return;
+        }
+        String categoryName = categoryRepository.findById(product.getCategoryId())
+                .map(Category::getName)
+                .orElse(null);
+        putLocal(productId, product.getName(), categoryName, product.getDescription(),
+                product.getPublishedAt(), product.getUnpublishedAt());
+    }
+
+    private void publishChange(long productId) {
+        try {
+            redisTemplate.convertAndSend(CHANGED_CHANNEL, nodeId + "|" + productId);
+        } catch (Exception e) {
+            // Redis 不可用時其他節點於下次定期重建時修正
+            log.warn("Failed to publish product search change: productId={}", productId, e);
+        }
+    }
+
+    private void putLocal(long productId, String name, String categoryName, String description,
+                          LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
+        index.put(productId, name, categoryName, description, publishedAt, unpublishedAt);
+        ProductInvertedIndex pending = rebuilding;
+        if (pending != null) {
+            pending.put(productId, name, categoryName, description, publishedAt, unpublishedAt);
+        }
+    }
+
+    private void removeLocal(long productId) {
+        index.remove(productId);
+        ProductInvertedIndex pending = rebuilding;
+        if (pending != null) {
+            pending.remove(productId);
+        }
+    }
+
+    /**
+     * 是否應在索引中 (上架期間於查詢時過濾,不影響是否索引)
+     */
+    private static boolean isIndexable(Product product) {
+        return product != null && product.getIsActive() && product.getIsPublished() && !product.getIsDeleted();
+    }
+}
@@ -0,0 +1,214 @@
+package com.mimimart.infrastructure.search;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品倒排索引 (記憶體內)
+ *
+ * 結構: 詞彙 → (商品 ID → 加權詞頻)
+ * 欄位權重: 商品名稱 3、分類名稱 2、商品描述 1;商品名稱英數詞的片段 (子字串) 1,完整詞排序優先於部分命中
+ * 查詢語意: 所有查詢詞彙皆須命中 (AND),以 BM25 詞頻飽和公式計算相關度
+ * 上架期間於查詢時依傳入時間過濾
+ *
+ * 執行緒安全: 讀寫鎖保護,查詢可並行
+ */
+public class ProductInvertedIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float NAME_WORD_PART_WEIGHT = 1.0f;
+    private static final double K1 = 1.2;
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 新增或更新商品索引
+     */
+    public void put(long productId, String name, String categoryName, String description,
+                    LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addField(termWeights, name, NAME_WEIGHT);
+        for (String part : ProductTokenizer.tokenizeWordPartsForIndex(name)) {
+            termWeights.merge(part, NAME_WORD_PART_WEIGHT, Float::sum);
+        }
+        addField(termWeights, categoryName, CATEGORY_WEIGHT);
+        addField(termWeights, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            documents.put(productId, new Document(termWeights.keySet(), publishedAt, unpublishedAt));
+            termWeights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除商品索引
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的商品數量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 搜尋商品
+     *
+     * @param keyword 搜尋關鍵字
+     * @param now     判斷上架期間的時間
+     * @param offset  略過筆數
+     * @param limit   回傳筆數
+     * @return 依相關度排序的商品 ID 與命中總數
+     */
+    public SearchResult search(String keyword, LocalDateTime now, int offset, int limit) {
+        Set<String> terms = ProductTokenizer.tokenizeForQuery(keyword);
+        if (terms.isEmpty()) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            // 依倒排列表長度排序,從最短的列表開始取交集
+            List<Map<Long, Float>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Float> list = postings.get(term);
+                if (list == null) {
+                    return SearchResult.EMPTY;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            double documentCount = documents.size();
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                double df = lists.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            // 以 long 計算避免溢位,初始容量設上限,實際大小由命中數決定
+            long window = (long) offset + limit;
+            PriorityQueue<ScoredId> top = new PriorityQueue<>(
+                    (int) Math.clamp(window, 1, MAX_INITIAL_CAPACITY), ScoredId.ORDER);
+            long totalHits = 0;
+
+            candidates:
+            for (Map.Entry<Long, Float> entry : lists.get(0).entrySet()) {
+                Long productId = entry.getKey();
+                double score = idf[0] * saturate(entry.getValue());
+                for (int i = 1; i < lists.size(); i++) {
+                    Float weight = lists.get(i).get(productId);
+                    if (weight == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * saturate(weight);
+                }
+                if (!documents.get(productId).isInPublishPeriod(now)) {
+                    continue;
+                }
+
+                totalHits++;
+                if (window <= 0) {
+                    continue;
+                }
+                ScoredId scored = new ScoredId(productId, score);
+                if (top.size() < window) {
+                    top.offer(scored);
+                } else if (ScoredId.ORDER.compare(scored, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(scored);
+                }
+            }
+
+            List<ScoredId> ranked = new ArrayList<>(top);
+            ranked.sort(ScoredId.ORDER.reversed());
+            List<Long> productIds = ranked.stream()
+                    .skip(offset)
+                    .map(ScoredId::productId)
+                    .toList();
+            return new SearchResult(productIds, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long productId) {
+        Document existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<Long, Float> list = postings.get(term);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float weight) {
+        for (String token : ProductTokenizer.tokenizeForIndex(text)) {
+            termWeights.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static double saturate(float weight) {
+        return weight * (K1 + 1) / (weight + K1);
+    }
+
+    /**
+     * 已索引的商品
+     */
+    private record Document(Set<String> terms, LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
+
+        boolean isInPublishPeriod(LocalDateTime now) {
+            return (publishedAt == null || !now.isBefore(publishedAt))
+                    && (unpublishedAt == null || now.isBefore(unpublishedAt));
+        }
+    }
+
+    /**
+     * 相關度分數 (同分時較新的商品 ID 優先)
+     */
+    private record ScoredId(long productId, double score) {
+        static final Comparator<ScoredId> ORDER = Comparator.comparingDouble(ScoredId::score)
+                .thenComparingLong(ScoredId::productId);
+    }
+
+    /**
+     * 搜尋結果
+     *
+     * @param productIds 本頁商品 ID (依相關度排序)
+     * @param totalHits  命中總數
+     */
+    public record SearchResult(List<Long> productIds, long totalHits) {
+        static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+    }
+}
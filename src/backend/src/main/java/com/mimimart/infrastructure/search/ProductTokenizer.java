@@ -0,0 +1,128 @@
+package com.mimimart.infrastructure.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 商品搜尋分詞器
+ *
+ * 規則:
+ * - 先做 NFKC 正規化並轉小寫 (全形英數轉半形)
+ * - 中日韓文字: 連續片段切成二元組 (bigram),索引時另外保留單字以支援單字查詢
+ * - 英文與數字: 以連續字母數字為一個詞;商品名稱另索引詞內的子字串 (見 tokenizeWordPartsForIndex),
+ *   使 "phone"、"iph"、"15" 可命中 "iPhone15",與原本名稱 LIKE %關鍵字% 的查詢結果一致
+ * - 其他符號視為分隔字元
+ */
+public final class ProductTokenizer {
+
+    /**
+     * 索引所有子字串的英數詞最大長度 (子字串數量為長度平方級;更長的詞僅索引前綴)
+     */
+    private static final int MAX_SUBSTRING_WORD_LENGTH = 24;
+
+    private ProductTokenizer() {
+    }
+
+    /**
+     * 索引用分詞 (含中文單字)
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查詢用分詞 (中文片段長度大於 1 時僅使用二元組),回傳不重複詞彙
+     */
+    public static Set<String> tokenizeForQuery(String text) {
+        return new LinkedHashSet<>(tokenize(text, false));
+    }
+
+    /**
+     * 索引用英數詞片段: 每個英文與數字詞的所有子字串 (不含整個詞本身,整個詞由 tokenizeForIndex 產生)
+     * 查詢詞不需拆分即可命中詞內任意位置,如 "phone"、"iph"、"15" 皆為 "iphone15" 的片段
+     */
+    public static List<String> tokenizeWordPartsForIndex(String text) {
+        List<String> parts = new ArrayList<>();
+        for (String token : tokenize(text, false)) {
+            if (isCjk(token.codePointAt(0))) {
+                continue;
+            }
+            int[] codePoints = token.codePoints().toArray();
+            int length = codePoints.length;
+            // 過長的詞 (如型號、序號) 僅索引前綴
+            int lastStart = length <= MAX_SUBSTRING_WORD_LENGTH ? length - 1 : 0;
+            for (int start = 0; start <= lastStart; start++) {
+                for (int end = start + 1; end <= length; end++) {
+                    if (end - start < length) {
+                        parts.add(new String(codePoints, start, end - start));
+                    }
+                }
+            }
+        }
+        return parts;
+    }
+
+    private static List<String> tokenize(String text, boolean includeCjkUnigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjkRun = new StringBuilder();
+
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, includeCjkUnigrams);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, includeCjkUnigrams);
+            }
+            i += Character.charCount(codePoint);
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, includeCjkUnigrams);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (!word.isEmpty()) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder run, List<String> tokens, boolean includeUnigrams) {
+        if (run.isEmpty()) {
+            return;
+        }
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || includeUnigrams) {
+            for (int codePoint : codePoints) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+        run.setLength(0);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mimimart.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mimimart.application.service.TokenBlacklistService;
+import com.mimimart.infrastructure.persistence.repository.AdminRepository;
+import com.mimimart.infrastructure.persistence.repository.MemberRepository;
+import com.mimimart.shared.valueobject.AdminStatus;
+import com.mimimart.shared.valueobject.MemberStatus;
+import com.mimimart.shared.valueobject.UserType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 認證狀態本地快取
+ *
+ * 快取 Access Token 撤銷狀態 (Redis 黑名單) 與帳號啟用狀態 (資料庫),
+ * 讓 JWT 認證過濾器在熱路徑上不需每次查詢 Redis 與資料庫。
+ *
+ * 一致性: 本節點登出立即生效;其他節點的登出與帳號狀態異動
+ * 最遲於 mimimart.auth.state-cache.ttl-seconds 秒後生效。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Component
+public class AuthStateCache {
+
+    private final TokenBlacklistService tokenBlacklistService;
+    private final MemberRepository memberRepository;
+    private final AdminRepository adminRepository;
+    private final Cache<String, Boolean> revokedTokens;
+    private final Cache<PrincipalKey, Boolean> activePrincipals;
+
+    public AuthStateCache(TokenBlacklistService tokenBlacklistService,
+                          MemberRepository memberRepository,
+                          AdminRepository adminRepository,
+                          @Value("${mimimart.auth.state-cache.ttl-seconds:30}") long ttlSeconds,
+                          @Value("${mimimart.auth.state-cache.max-size:50000}") long maxSize) {
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.memberRepository = memberRepository;
+        this.adminRepository = adminRepository;
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.activePrincipals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * 檢查 Token 是否已撤銷 (登出)
+     *
+     * @param token JWT Token
+     * @return true 如果 Token 在黑名單中
+     */
+    public boolean isRevoked(String token) {
+        return revokedTokens.get(token, tokenBlacklistService::isBlacklisted);
+    }
+
+    /**
+     * 標記 Token 已撤銷 (本節點登出後呼叫,立即生效)
+     *
+     * @param token JWT Token
+     */
+    public void markRevoked(String token) {
+        revokedTokens.put(token, Boolean.TRUE);
+    }
+
+    /**
+     * 檢查帳號是否存在且為啟用狀態
+     *
+     * @param userType 用戶類型
+     * @param userId   用戶 ID
+     * @return true 如果帳號為啟用狀態
+     */
+    public boolean isActive(UserType userType, Long userId) {
+        return activePrincipals.get(new PrincipalKey(userType, userId), this::loadActive);
+    }
+
+    private boolean loadActive(PrincipalKey key) {
+        if (key.userType() == UserType.ADMIN) {
+            return adminRepository.findStatusById(key.userId())
+                    .map(status -> status == AdminStatus.ACTIVE)
+                    .orElse(false);
+        }
+        return memberRepository.findStatusById(key.userId())
+                .map(status -> status == MemberStatus.ACTIVE)
+                .orElse(false);
+    }
+
+    private record PrincipalKey(UserType userType, Long userId) {
+    }
+}
@@ -1,24 +1,29 @@
 package com.mimimart.infrastructure.security;
 
 import com.mimimart.shared.valueobject.UserType;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * JWT 認證過濾器
  * 負責從請求中提取 JWT Token 並驗證
  * 支援前台會員與後台管理員的雙用戶類型
  *
+ * 用戶身分直接由 Token Claims (userId / email / userType / role) 建立,
+ * 不再每次請求查詢資料庫;撤銷與帳號狀態由 {@link AuthStateCache} 本地快取判斷
+ *
  * @author MimiMart Development Team
  * @since 1.0.0
  */
@@ -26,15 +31,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService customUserDetailsService;
-    private final com.mimimart.application.service.TokenBlacklistService tokenBlacklistService;
+    private final AuthStateCache authStateCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil,
-                                   CustomUserDetailsService customUserDetailsService,
-                                   com.mimimart.application.service.TokenBlacklistService tokenBlacklistService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, AuthStateCache authStateCache) {
         this.jwtUtil = jwtUtil;
-        this.customUserDetailsService = customUserDetailsService;
-        this.tokenBlacklistService = tokenBlacklistService;
+        this.authStateCache = authStateCache;
     }
 
     @Override
@@ -46,25 +47,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 從 Header 提取 JWT Token
             String token = extractTokenFromRequest(request);
 
-            if (token != null && jwtUtil.validateToken(token)) {
+            if (token != null) {
+                // 驗證簽章並解析 Claims (僅解析一次)
+                Claims claims = jwtUtil.parseClaims(token);
+                if (claims == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
                 // 檢查 Token 是否在黑名單中
-                if (tokenBlacklistService.isBlacklisted(token)) {
+                if (authStateCache.isRevoked(token)) {
                     logger.warn("Token 已在黑名單中，拒絕請求");
                     // 不設定 Authentication，讓 Spring Security 處理為未認證
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // 從 Token 提取 Email 和 UserType
-                String email = jwtUtil.extractEmail(token);
-                UserType userType = jwtUtil.extractUserType(token);
+                // 從 Claims 建立用戶詳情
+                CustomUserDetails userDetails = buildUserDetails(claims);
 
                 // 根據請求路徑驗證 userType 匹配
                 String requestPath = request.getRequestURI();
-                validateUserTypeForPath(requestPath, userType);
+                validateUserTypeForPath(requestPath, userDetails.getUserType());
 
-                // 載入用戶詳情
-                UserDetails userDetails = customUserDetailsService.loadUserByUsernameAndType(email, userType);
+                // 檢查帳號是否存在且為啟用狀態
+                if (!authStateCache.isActive(userDetails.getUserType(), userDetails.getUserId())) {
+                    logger.warn("帳號不存在或已停用，拒絕請求: " + userDetails.getUserId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
                 // 建立 Authentication 物件
                 UsernamePasswordAuthenticationToken authentication =
@@ -87,6 +98,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 從 Access Token Claims 建立用戶詳情
+     *
+     * @param claims Token Claims
+     * @return CustomUserDetails (不含密碼)
+     * @throws SecurityException 如果 Token 不含用戶 ID (例如 Refresh Token)
+     */
+    private CustomUserDetails buildUserDetails(Claims claims) {
+        Long userId = jwtUtil.extractUserId(claims);
+        UserType userType = jwtUtil.extractUserType(claims);
+        String role = userType == UserType.ADMIN ? "ROLE_ADMIN" : "ROLE_MEMBER";
+
+        return new CustomUserDetails(
+                userId,
+                claims.getSubject(),
+                null,
+                Collections.singletonList(new SimpleGrantedAuthority(role)),
+                userType
+        );
+    }
+
     /**
      * 驗證 UserType 與請求路徑是否匹配
      *
@@ -134,6 +134,20 @@ public class JwtUtil {
                 .getPayload();
     }
 
+    /**
+     * 驗證 Token 並提取 Claims (僅解析一次簽章)
+     *
+     * @param token JWT Token
+     * @return Claims,Token 無效或過期時回傳 null
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return extractClaims(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * 從 Token 提取 Email
      *
@@ -151,7 +165,16 @@ public class JwtUtil {
      * @return 用戶 ID
      */
     public Long extractUserId(String token) {
-        Claims claims = extractClaims(token);
+        return extractUserId(extractClaims(token));
+    }
+
+    /**
+     * 從已解析的 Claims 提取用戶 ID
+     *
+     * @param claims Token Claims
+     * @return 用戶 ID
+     */
+    public Long extractUserId(Claims claims) {
         Object userIdObj = claims.get("userId");
 
         if (userIdObj instanceof Integer) {
@@ -170,7 +193,16 @@ public class JwtUtil {
      * @return 用戶類型
      */
     public UserType extractUserType(String token) {
-        Claims claims = extractClaims(token);
+        return extractUserType(extractClaims(token));
+    }
+
+    /**
+     * 從已解析的 Claims 提取用戶類型
+     *
+     * @param claims Token Claims
+     * @return 用戶類型
+     */
+    public UserType extractUserType(Claims claims) {
         String userType = (String) claims.get("userType");
 
         if (userType == null) {
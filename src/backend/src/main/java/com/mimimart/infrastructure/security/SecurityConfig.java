@@ -1,5 +1,6 @@
 package com.mimimart.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -75,6 +76,9 @@ public class SecurityConfig {
 
             // 授權規則
             .authorizeHttpRequests(auth -> auth
+                // 非同步回應 (DeferredResult / SSE) 的 ASYNC dispatch: 原始請求已完成授權,JWT 過濾器不會重新執行
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // 公開端點: 前台會員認證 (註冊、登入、Email 驗證、密碼重設、Refresh Token)
                 .requestMatchers("/api/shop/auth/**").permitAll()
 
@@ -0,0 +1,248 @@
+package com.mimimart.infrastructure.storage;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 會員頭貼本機磁碟快取 (S3 前置)
+ *
+ * 頭貼由 S3 直接串流寫入本機檔案,回應時由檔案串流 (支援時以 sendfile 零複製) 輸出,
+ * 不在記憶體中保留完整內容。以檔案大小為權重的 LRU 限制磁碟用量,
+ * 同一頭貼同時未命中時只下載一次 (其他請求等待同一個下載結果)。
+ *
+ * 頭貼 S3 Key 於每次上傳時產生新值 (含時間戳),內容不會變更,因此以 Key 推導 ETag,
+ * 條件式請求 (If-None-Match) 不需讀取檔案或查詢 S3。
+ * 被淘汰的檔案延遲刪除,避免仍在輸出中的回應讀取失敗。
+ *
+ * 每個執行個體於設定的目錄下建立專屬子目錄 (instance-*) 並以檔案鎖標示使用中,
+ * 啟動時只清除未被鎖定 (已結束的執行個體) 的子目錄,不影響目錄中的其他檔案或共用同一目錄的其他執行個體。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class AvatarFileCache {
+
+    private static final long DELETE_GRACE_SECONDS = 60;
+    private static final String INSTANCE_PREFIX = "instance-";
+    private static final String FILE_PREFIX = "avatar-";
+    private static final String LOCK_FILE = ".lock";
+
+    private final S3StorageService s3StorageService;
+    private final Path rootDirectory;
+    private volatile Path directory;
+    private FileChannel lockChannel;
+    private final AsyncCache<String, CachedAvatar> cache;
+    private final ExecutorService downloadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService deleteExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("avatar-cache-cleaner").daemon().factory());
+
+    public AvatarFileCache(S3StorageService s3StorageService,
+                           @Value("${mimimart.avatar.cache.directory:${java.io.tmpdir}/mimimart-avatar-cache}") String directory,
+                           @Value("${mimimart.avatar.cache.max-size-mb:256}") long maxSizeMb) {
+        this.s3StorageService = s3StorageService;
+        this.rootDirectory = Path.of(directory);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMb * 1024 * 1024)
+                .weigher((String s3Key, CachedAvatar avatar) -> (int) Math.min(Integer.MAX_VALUE, avatar.size()))
+                .removalListener((String s3Key, CachedAvatar avatar, RemovalCause cause) -> {
+                    if (avatar != null) {
+                        scheduleDelete(avatar.file());
+                    }
+                })
+                .executor(downloadExecutor)
+                .buildAsync();
+    }
+
+    /**
+     * 清除已結束執行個體留下的子目錄,並建立本執行個體的專屬子目錄
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        Files.createDirectories(rootDirectory);
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(rootDirectory, INSTANCE_PREFIX + "*")) {
+            for (Path instance : instances) {
+                if (Files.isDirectory(instance)) {
+                    deleteIfAbandoned(instance);
+                }
+            }
+        }
+
+        Path instance = Files.createTempDirectory(rootDirectory, INSTANCE_PREFIX);
+        lockChannel = FileChannel.open(instance.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        lockChannel.lock();
+        directory = instance;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        downloadExecutor.shutdownNow();
+        deleteExecutor.shutdownNow();
+        if (directory != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                log.debug("Failed to release avatar cache lock: {}", directory);
+            }
+            deleteInstance(directory);
+        }
+    }
+
+    /**
+     * 本執行個體的快取子目錄
+     */
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 由 S3 Key 推導 ETag (Key 不變則內容不變)
+     */
+    public static String eTagOf(String s3Key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(s3Key.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 取得頭貼檔案 (未命中時由 S3 下載,同一 Key 同時只下載一次)
+     *
+     * @param s3Key 頭貼 S3 Key
+     * @return 快取的頭貼檔案
+     * @throws RuntimeException S3 下載失敗
+     */
+    public CachedAvatar get(String s3Key) {
+        CachedAvatar avatar = join(cache.get(s3Key, (key, executor) ->
+                CompletableFuture.supplyAsync(() -> download(key), executor)));
+        if (Files.exists(avatar.file())) {
+            return avatar;
+        }
+        // 檔案已被外部刪除,重新下載
+        cache.synchronous().invalidate(s3Key);
+        return join(cache.get(s3Key, (key, executor) ->
+                CompletableFuture.supplyAsync(() -> download(key), executor)));
+    }
+
+    /**
+     * 移除頭貼快取 (頭貼更換或刪除時呼叫)
+     */
+    public void invalidate(String s3Key) {
+        cache.synchronous().invalidate(s3Key);
+    }
+
+    private CachedAvatar download(String s3Key) {
+        Path file = directory.resolve(FILE_PREFIX + UUID.randomUUID());
+        try {
+            String contentType = s3StorageService.downloadAvatarToFile(s3Key, file);
+            return new CachedAvatar(file, Files.size(file), contentType, eTagOf(s3Key));
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new CompletionException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private void scheduleDelete(Path file) {
+        try {
+            deleteExecutor.schedule(() -> deleteQuietly(file), DELETE_GRACE_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // 關閉中,下次啟動時清除
+            log.debug("Avatar cache cleaner unavailable: {}", file);
+        }
+    }
+
+    /**
+     * 子目錄的檔案鎖未被持有時 (執行個體已結束) 刪除該子目錄
+     */
+    private static void deleteIfAbandoned(Path instance) {
+        try (FileChannel channel = FileChannel.open(instance.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return;
+            }
+            deleteInstance(instance);
+        } catch (OverlappingFileLockException e) {
+            // 同一 JVM 內的其他執行個體使用中
+        } catch (IOException e) {
+            log.warn("Failed to clean up avatar cache directory: {}", instance, e);
+        }
+    }
+
+    /**
+     * 刪除子目錄中的快取檔案、鎖定檔與子目錄本身 (僅限本快取建立的檔案)
+     */
+    private static void deleteInstance(Path instance) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(instance, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list avatar cache directory: {}", instance, e);
+        }
+        deleteQuietly(instance.resolve(LOCK_FILE));
+        deleteQuietly(instance);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached avatar file: {}", file, e);
+        }
+    }
+
+    private static CachedAvatar join(CompletableFuture<CachedAvatar> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 快取的頭貼檔案
+     *
+     * @param file        本機檔案路徑
+     * @param size        檔案大小 (bytes)
+     * @param contentType Content-Type
+     * @param eTag        ETag (含引號)
+     */
+    public record CachedAvatar(Path file, long size, String contentType, String eTag) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.mimimart.infrastructure.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 圖片縮放工具
+ * 依指定寬度產生等比例縮圖:不透明圖片輸出 JPEG,含透明通道的圖片輸出 PNG。
+ * 只產生小於原圖寬度的尺寸 (不放大);由大至小逐級縮小,每級最多縮小一半以維持畫質。
+ * 解碼前先讀取圖檔標頭的寬高,超過像素上限時拒絕處理 (避免小檔案宣告超大尺寸耗盡記憶體)。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    /**
+     * 產生多種寬度的縮圖
+     *
+     * @param imageData   原圖資料
+     * @param widths      目標寬度 (px)
+     * @param jpegQuality JPEG 品質 (0~1)
+     * @param maxPixels   原圖像素上限 (寬 x 高)
+     * @return 縮圖列表 (依寬度由小到大);原圖寬度不大於任何目標寬度時為空
+     * @throws IOException 當圖片無法解碼或編碼,或尺寸超過像素上限時
+     */
+    public static List<Rendition> resize(byte[] imageData, Collection<Integer> widths, float jpegQuality,
+                                         long maxPixels) throws IOException {
+        BufferedImage original = read(imageData, maxPixels);
+        boolean hasAlpha = original.getColorModel().hasAlpha();
+
+        List<Integer> targetWidths = widths.stream()
+                .filter(width -> width > 0 && width < original.getWidth())
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+
+        List<Rendition> renditions = new ArrayList<>();
+        BufferedImage current = original;
+        for (int width : targetWidths) {
+            int height = Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth()));
+            current = scale(current, width, height, hasAlpha);
+            byte[] encoded = hasAlpha ? encodePng(current) : encodeJpeg(current, jpegQuality);
+            renditions.add(0, new Rendition(width, height, encoded,
+                    hasAlpha ? "image/png" : "image/jpeg", hasAlpha ? ".png" : ".jpg"));
+        }
+        return renditions;
+    }
+
+    /**
+     * 解碼圖片 (先讀取標頭寬高檢查像素上限,通過後才配置像素記憶體)
+     */
+    private static BufferedImage read(byte[] imageData, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("不支援的圖片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException(String.format("圖片尺寸過大: %dx%d (上限 %d 像素)",
+                            reader.getWidth(0), reader.getHeight(0), maxPixels));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean hasAlpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            current = draw(current, currentWidth, currentHeight, hasAlpha);
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean hasAlpha) {
+        BufferedImage target = new BufferedImage(width, height,
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 縮圖
+     *
+     * @param width         寬度 (px)
+     * @param height        高度 (px)
+     * @param data          圖片資料
+     * @param contentType   Content-Type
+     * @param fileExtension 副檔名 (含 .)
+     */
+    public record Rendition(int width, int height, byte[] data, String contentType, String fileExtension) {
+    }
+}
@@ -1,25 +1,37 @@
 package com.mimimart.infrastructure.storage;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletionException;
 
 /**
  * S3 儲存服務
  * 處理檔案上傳、下載、刪除等操作
+ * 上傳使用非同步客戶端,大檔以 Multipart Upload 分段並行上傳
  *
  * @author MimiMart Development Team
  * @since 1.0.0
@@ -29,31 +41,127 @@ import java.time.format.DateTimeFormatter;
 public class S3StorageService {
 
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final String bucketName;
     private final String publicBucketName;
     private final String publicBaseUrl;
 
+    @Autowired
     public S3StorageService(
             @Value("${aws.region}") String region,
             @Value("${aws.s3.bucket-name}") String bucketName,
             @Value("${aws.s3.public-bucket-name}") String publicBucketName,
             @Value("${aws.s3.public-base-url}") String publicBaseUrl,
+            @Value("${aws.s3.endpoint:}") String endpoint,
+            @Value("${aws.s3.multipart.threshold-mb:8}") long multipartThresholdMb,
+            @Value("${aws.s3.multipart.part-size-mb:8}") long partSizeMb,
+            @Value("${aws.s3.multipart.buffer-size-mb:64}") long bufferSizeMb,
             @Value("${aws.credentials.access-key-id}") String accessKeyId,
             @Value("${aws.credentials.secret-access-key}") String secretAccessKey) {
 
+        this(buildClient(region, endpoint, accessKeyId, secretAccessKey),
+                buildAsyncClient(region, endpoint, accessKeyId, secretAccessKey,
+                        multipartThresholdMb, partSizeMb, bufferSizeMb),
+                bucketName, publicBucketName, publicBaseUrl);
+
+        log.info("S3StorageService 已初始化 - Region: {}, Bucket: {}, Public Bucket: {}, Public Base URL: {}, "
+                        + "Multipart Threshold: {} MB, Part Size: {} MB",
+                region, bucketName, publicBucketName, publicBaseUrl, multipartThresholdMb, partSizeMb);
+    }
+
+    S3StorageService(S3Client s3Client, S3AsyncClient s3AsyncClient,
+                     String bucketName, String publicBucketName, String publicBaseUrl) {
+        this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
         this.bucketName = bucketName;
         this.publicBucketName = publicBucketName;
         this.publicBaseUrl = publicBaseUrl;
+    }
+
+    /**
+     * 初始化同步 S3 客戶端 (下載、刪除、查詢)
+     */
+    private static S3Client buildClient(String region, String endpoint, String accessKeyId, String secretAccessKey) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials(accessKeyId, secretAccessKey));
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return builder.build();
+    }
 
-        // 初始化 S3 客戶端
-        AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
-        this.s3Client = S3Client.builder()
+    /**
+     * 初始化非同步 S3 客戶端 (上傳)
+     * 超過門檻的檔案自動以 Multipart Upload 分段並行上傳,
+     * 讀入記憶體的資料量以緩衝區大小為上限,不隨檔案大小或同時上傳數增加
+     */
+    private static S3AsyncClient buildAsyncClient(String region, String endpoint, String accessKeyId,
+                                                  String secretAccessKey, long multipartThresholdMb,
+                                                  long partSizeMb, long bufferSizeMb) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
+                .credentialsProvider(credentials(accessKeyId, secretAccessKey))
+                .multipartEnabled(true)
+                .multipartConfiguration(multipart -> multipart
+                        .thresholdInBytes(multipartThresholdMb * 1024 * 1024)
+                        .minimumPartSizeInBytes(partSizeMb * 1024 * 1024)
+                        .apiCallBufferSizeInBytes(bufferSizeMb * 1024 * 1024));
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return builder.build();
+    }
+
+    private static StaticCredentialsProvider credentials(String accessKeyId, String secretAccessKey) {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3AsyncClient.close();
+        s3Client.close();
+    }
+
+    /**
+     * 上傳物件 (非同步客戶端,大檔自動分段並行上傳)
+     *
+     * @throws S3Exception 當 S3 回應錯誤時
+     */
+    private void putObject(String bucket, String s3Key, String contentType, long contentLength,
+                           AsyncRequestBody requestBody) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(s3Key)
+                .contentType(contentType)
+                .contentLength(contentLength)
                 .build();
+        try {
+            s3AsyncClient.putObject(putObjectRequest, requestBody).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SdkException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        log.info("S3StorageService 已初始化 - Region: {}, Bucket: {}, Public Bucket: {}, Public Base URL: {}",
-                region, bucketName, publicBucketName, publicBaseUrl);
+    /**
+     * 由上傳檔案的暫存檔上傳 (不將整個檔案讀入記憶體)
+     * transferTo(Path) 會將上傳內容以串流複製到暫存檔 (非移動,多一次本機磁碟寫入);
+     * 以檔案作為來源時,各分段直接讀取檔案的對應區段並行上傳,且請求簽章與重試可重複讀取內容。
+     * 不使用 fromInputStream 直接串流:輸入串流只能讀取一次,無法分段並行,且在 HTTP 端點簽章時需讀取內容兩次
+     *
+     * @throws IOException 當寫入暫存檔失敗時
+     */
+    private void putObject(String bucket, String s3Key, MultipartFile file) throws IOException {
+        Path tempFile = Files.createTempFile("mimimart-upload-", ".tmp");
+        try {
+            file.transferTo(tempFile);
+            putObject(bucket, s3Key, file.getContentType(), Files.size(tempFile), AsyncRequestBody.fromFile(tempFile));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
 
     // ===== 會員頭貼相關方法 =====
@@ -74,14 +182,7 @@ public class S3StorageService {
             String s3Key = String.format("avatars/%d/%s_%s", memberId, timestamp, safeFilename);
 
             // 上傳到 S3 私有 bucket
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            putObject(bucketName, s3Key, file);
 
             log.info("頭貼上傳成功 - MemberId: {}, S3 Key: {}", memberId, s3Key);
             return s3Key;
@@ -135,6 +236,34 @@ public class S3StorageService {
         }
     }
 
+    /**
+     * 從 S3 下載頭貼並直接寫入檔案 (不經過記憶體緩衝)
+     *
+     * @param s3Key  S3 物件的 key
+     * @param target 目標檔案路徑 (不可已存在)
+     * @return 物件的 Content-Type
+     * @throws RuntimeException 當下載失敗時
+     */
+    public String downloadAvatarToFile(String s3Key, Path target) {
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .build();
+
+            GetObjectResponse response = s3Client.getObject(getObjectRequest, ResponseTransformer.toFile(target));
+            log.info("頭貼下載成功 - S3 Key: {}", s3Key);
+            return response.contentType() != null ? response.contentType() : "application/octet-stream";
+
+        } catch (NoSuchKeyException e) {
+            log.error("S3 物件不存在 - S3 Key: {}", s3Key);
+            throw new RuntimeException("頭貼不存在", e);
+        } catch (S3Exception e) {
+            log.error("S3 下載失敗 - S3 Key: {}, Error: {}", s3Key, e.getMessage(), e);
+            throw new RuntimeException("頭貼下載失敗: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
     /**
      * 從 S3 刪除頭貼
      *
@@ -228,14 +357,7 @@ public class S3StorageService {
             String s3Key = String.format("ai-generated/ai-%s%s", timestamp, fileExtension);
 
             // 上傳到 S3 私有 bucket
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
-                    .contentType(contentType)
-                    .contentLength((long) imageData.length)
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(imageData));
+            putObject(bucketName, s3Key, contentType, imageData.length, AsyncRequestBody.fromBytesUnsafe(imageData));
 
             log.info("AI 圖片上傳成功 - S3 Key: {}, Size: {} bytes", s3Key, imageData.length);
             return s3Key;
@@ -332,14 +454,7 @@ public class S3StorageService {
             String s3Key = String.format("banners/banner-%s%s", timestamp, extension);
 
             // 上傳到公開 Bucket
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(publicBucketName)
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            putObject(publicBucketName, s3Key, file);
 
             // 生成公開 URL (使用自訂域名)
             String publicUrl = String.format("%s/%s", publicBaseUrl, s3Key);
@@ -373,14 +488,7 @@ public class S3StorageService {
             String s3Key = String.format("products/product-%s%s", timestamp, extension);
 
             // 上傳到公開 Bucket
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(publicBucketName)
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            putObject(publicBucketName, s3Key, file);
 
             // 生成公開 URL (使用自訂域名)
             String publicUrl = String.format("%s/%s", publicBaseUrl, s3Key);
@@ -456,6 +564,87 @@ public class S3StorageService {
         }
     }
 
+    // ===== 圖片衍生檔相關方法 =====
+
+    /**
+     * 從 S3 公開 Bucket 下載圖片
+     *
+     * @param imageUrl 圖片的完整 URL
+     * @return 檔案內容的位元組陣列
+     * @throws RuntimeException 當下載失敗時
+     */
+    public byte[] downloadPublicImage(String imageUrl) {
+        String s3Key = extractS3KeyFromUrl(imageUrl);
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(publicBucketName)
+                    .key(s3Key)
+                    .build();
+
+            return s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+
+        } catch (NoSuchKeyException e) {
+            log.error("S3 公開圖片不存在 - S3 Key: {}", s3Key);
+            throw new RuntimeException("圖片不存在", e);
+        } catch (S3Exception e) {
+            log.error("S3 下載公開圖片失敗 - S3 Key: {}, Error: {}", s3Key, e.getMessage(), e);
+            throw new RuntimeException("圖片下載失敗: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
+    /**
+     * 上傳圖片到 S3 公開 Bucket
+     *
+     * @param s3Key       S3 物件的 key
+     * @param imageData   圖片資料
+     * @param contentType Content-Type
+     * @return S3 物件的 URL (完整路徑)
+     * @throws RuntimeException 當上傳失敗時
+     */
+    public String uploadPublicImage(String s3Key, byte[] imageData, String contentType) {
+        try {
+            putObject(publicBucketName, s3Key, contentType, imageData.length, AsyncRequestBody.fromBytesUnsafe(imageData));
+            return String.format("%s/%s", publicBaseUrl, s3Key);
+
+        } catch (S3Exception e) {
+            log.error("S3 上傳公開圖片失敗 - S3 Key: {}, Error: {}", s3Key, e.getMessage(), e);
+            throw new RuntimeException("圖片上傳失敗: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
+    /**
+     * 從 S3 公開 Bucket 刪除圖片 (不存在時視為成功)
+     *
+     * @param imageUrl 圖片的完整 URL
+     */
+    public void deletePublicImage(String imageUrl) {
+        String s3Key = extractS3KeyFromUrl(imageUrl);
+        try {
+            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                    .bucket(publicBucketName)
+                    .key(s3Key)
+                    .build();
+
+            s3Client.deleteObject(deleteObjectRequest);
+
+        } catch (S3Exception e) {
+            if (e.statusCode() != 404) {
+                log.error("S3 刪除公開圖片失敗 - S3 Key: {}, Error: {}", s3Key, e.getMessage(), e);
+                throw new RuntimeException("圖片刪除失敗: " + e.awsErrorDetails().errorMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 取得公開圖片 URL 對應的 S3 Key
+     *
+     * @param imageUrl 圖片的完整 URL
+     * @return S3 Key
+     */
+    public String getPublicS3Key(String imageUrl) {
+        return extractS3KeyFromUrl(imageUrl);
+    }
+
     /**
      * 從 S3 URL 提取 S3 Key
      *
@@ -0,0 +1,84 @@
+package com.mimimart.infrastructure.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis 分散式鎖 (跨節點互斥的排程任務使用)
+ *
+ * 以 SET NX EX 取得鎖,值為本次持有者的隨機 Token;續約與釋放皆以 Lua 比對 Token,
+ * 鎖過期後被其他節點取得時,原持有者不會誤刪或延長他人的鎖。
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class RedisDistributedLock {
+
+    /**
+     * 續約 (僅在鎖仍屬於持有者時延長)
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('EXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 釋放 (僅在鎖仍屬於持有者時刪除)
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisDistributedLock(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 嘗試取得鎖
+     *
+     * @param key 鎖的 Redis Key
+     * @param ttl 鎖存活時間 (持有者異常終止時自動釋放)
+     * @return 持有者 Token;鎖已被其他持有者取得時回傳 null
+     */
+    public String tryLock(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, ttl)) ? token : null;
+    }
+
+    /**
+     * 延長鎖的存活時間
+     *
+     * @return false 表示鎖已過期或被其他持有者取得
+     */
+    public boolean renew(String key, String token, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(key), token, String.valueOf(ttl.toSeconds()));
+        return renewed != null && renewed == 1L;
+    }
+
+    /**
+     * 釋放鎖 (失敗時等待鎖自動過期)
+     */
+    public void unlock(String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        } catch (Exception e) {
+            log.warn("Failed to release distributed lock: key={}", key, e);
+        }
+    }
+}
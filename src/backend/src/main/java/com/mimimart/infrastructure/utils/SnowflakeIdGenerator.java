@@ -1,5 +1,9 @@
 package com.mimimart.infrastructure.utils;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
 /**
  * 雪花算法 ID 生成器
  * 生成 64 位元全域唯一 ID
@@ -9,8 +13,8 @@ package com.mimimart.infrastructure.utils;
  * 特點：
  * - 趨勢遞增：基於時間戳，大致有序
  * - 高效能：單機每毫秒可生成 4096 個 ID
- * - 全域唯一：即使分散式部署也不會重複
- * - 無需資料庫：純記憶體計算
+ * - 全域唯一：各節點以 Redis 租約取得不同的工作機器 ID (見 SnowflakeWorkerIdLease),租約過期後拒絕生成
+ * - 無需資料庫：純記憶體計算，以 CAS 更新狀態，多執行緒不需競爭同一把鎖
  */
 public class SnowflakeIdGenerator {
 
@@ -50,19 +54,30 @@ public class SnowflakeIdGenerator {
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
 
     /**
-     * 工作機器 ID (0-1023)
+     * 同一毫秒序列號用盡或時鐘回撥時,最多可借用的未來毫秒數
+     */
+    private static final long DEFAULT_MAX_BORROW_MILLIS = 5L;
+
+    /**
+     * 上次生成 ID 的狀態: (時間戳 - EPOCH) << 12 | 序列號
+     * 以單一 CAS 同時更新時間戳與序列號,不需加鎖
      */
-    private final long workerId;
+    private final AtomicLong state = new AtomicLong();
 
     /**
-     * 序列號 (0-4095)
+     * 工作機器 ID 指派 (尚未指派或已撤銷時為 null)
      */
-    private long sequence = 0L;
+    private volatile Assignment assignment;
+
+    private final long maxBorrowMillis;
+    private final LongSupplier clock;
 
     /**
-     * 上次生成 ID 的時間戳
+     * 建構子 (工作機器 ID 稍後由 {@link #assignWorkerId(long)} 指派)
      */
-    private long lastTimestamp = -1L;
+    public SnowflakeIdGenerator() {
+        this(DEFAULT_MAX_BORROW_MILLIS, System::currentTimeMillis);
+    }
 
     /**
      * 建構子
@@ -70,64 +85,123 @@ public class SnowflakeIdGenerator {
      * @param workerId 工作機器 ID (0-1023)
      */
     public SnowflakeIdGenerator(long workerId) {
+        this();
+        assignWorkerId(workerId);
+    }
+
+    SnowflakeIdGenerator(long maxBorrowMillis, LongSupplier clock) {
+        this.maxBorrowMillis = maxBorrowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 指派固定的工作機器 ID (不受租約限制,用於設定檔指定 ID 的單機環境)
+     *
+     * @param workerId 工作機器 ID (0-1023)
+     */
+    public void assignWorkerId(long workerId) {
+        assignWorkerId(workerId, Long.MAX_VALUE);
+    }
+
+    /**
+     * 指派租用的工作機器 ID (取得租約後呼叫;租約遺失改用其他 ID 時可再次呼叫)
+     * 超過租約有效期限後拒絕生成 ID,避免租約已被其他節點取得時產生重複 ID
+     *
+     * @param workerId         工作機器 ID (0-1023)
+     * @param validUntilMillis 租約有效期限 (epoch 毫秒)
+     */
+    public void assignWorkerId(long workerId, long validUntilMillis) {
         if (workerId < 0 || workerId > MAX_WORKER_ID) {
             throw new IllegalArgumentException(
                     String.format("Worker ID 必須在 0 到 %d 之間", MAX_WORKER_ID));
         }
-        this.workerId = workerId;
+        this.assignment = new Assignment(workerId, validUntilMillis);
     }
 
     /**
-     * 生成下一個 ID（執行緒安全）
+     * 延長目前工作機器 ID 的租約有效期限 (續約成功後呼叫)
      *
-     * @return 64 位元全域唯一 ID
+     * @param workerId         續約的工作機器 ID
+     * @param validUntilMillis 新的租約有效期限 (epoch 毫秒)
      */
-    public synchronized long nextId() {
-        long timestamp = currentTimeMillis();
-
-        // 時鐘回撥檢查
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("時鐘回撥錯誤：拒絕生成 ID %d 毫秒", lastTimestamp - timestamp));
-        }
-
-        // 同一毫秒內
-        if (timestamp == lastTimestamp) {
-            // 序列號自增
-            sequence = (sequence + 1) & MAX_SEQUENCE;
-            // 序列號溢位，等待下一毫秒
-            if (sequence == 0) {
-                timestamp = waitNextMillis(lastTimestamp);
-            }
-        } else {
-            // 新的毫秒，序列號重置
-            sequence = 0L;
+    public void extendLease(long workerId, long validUntilMillis) {
+        Assignment current = assignment;
+        if (current != null && current.workerId() == workerId && validUntilMillis > current.validUntilMillis()) {
+            this.assignment = new Assignment(workerId, validUntilMillis);
         }
+    }
 
-        lastTimestamp = timestamp;
+    /**
+     * 撤銷工作機器 ID (租約遺失時呼叫,重新指派前拒絕生成 ID)
+     */
+    public void revokeWorkerId() {
+        this.assignment = null;
+    }
 
-        // 組合 ID
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
-                | (workerId << WORKER_ID_SHIFT)
-                | sequence;
+    /**
+     * 取得目前的工作機器 ID
+     *
+     * @return 工作機器 ID,尚未指派或已撤銷時為 -1
+     */
+    public long getWorkerId() {
+        Assignment current = assignment;
+        return current != null ? current.workerId() : -1L;
     }
 
     /**
-     * 等待下一毫秒
+     * 生成下一個 ID（執行緒安全,無鎖）
+     *
+     * 時鐘回撥或同一毫秒序列號用盡時,借用下一毫秒繼續遞增 (最多 maxBorrowMillis 毫秒),
+     * 超過時等待時鐘追上,不拋出例外。
+     *
+     * @return 64 位元全域唯一 ID
+     * @throws IllegalStateException 尚未指派工作機器 ID 或租約已過期
      */
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = currentTimeMillis();
-        while (timestamp <= lastTimestamp) {
-            timestamp = currentTimeMillis();
+    public long nextId() {
+        Assignment lease = assignment;
+        if (lease == null) {
+            throw new IllegalStateException("尚未指派 Worker ID");
+        }
+        if (clock.getAsLong() >= lease.validUntilMillis()) {
+            throw new IllegalStateException("Worker ID 租約已過期,暫停生成 ID: workerId=" + lease.workerId());
+        }
+        long worker = lease.workerId();
+
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long next;
+            if (now > (current >>> SEQUENCE_BITS)) {
+                // 新的毫秒，序列號重置
+                next = now << SEQUENCE_BITS;
+            } else {
+                // 同一毫秒或時鐘回撥：序列號自增，溢位時進位至下一毫秒
+                next = current + 1;
+                long borrowed = (next >>> SEQUENCE_BITS) - now;
+                if (borrowed > maxBorrowMillis) {
+                    waitForClock(borrowed - maxBorrowMillis);
+                    continue;
+                }
+            }
+
+            if (state.compareAndSet(current, next)) {
+                // 組合 ID
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT)
+                        | (worker << WORKER_ID_SHIFT)
+                        | (next & MAX_SEQUENCE);
+            }
         }
-        return timestamp;
     }
 
     /**
-     * 獲取當前時間戳（毫秒）
+     * 等待時鐘前進 (短暫落後時自旋,落後較多時讓出 CPU)
      */
-    private long currentTimeMillis() {
-        return System.currentTimeMillis();
+    private static void waitForClock(long behindMillis) {
+        if (behindMillis > 1) {
+            LockSupport.parkNanos(Math.min(behindMillis, 10L) * 1_000_000L);
+        } else {
+            Thread.onSpinWait();
+        }
     }
 
     /**
@@ -142,4 +216,13 @@ public class SnowflakeIdGenerator {
         long sequence = id & MAX_SEQUENCE;
         return String.format("時間戳=%d, 工作機器ID=%d, 序列號=%d", timestamp, workerId, sequence);
     }
+
+    /**
+     * 工作機器 ID 指派
+     *
+     * @param workerId         工作機器 ID
+     * @param validUntilMillis 租約有效期限 (epoch 毫秒,固定 ID 為 Long.MAX_VALUE)
+     */
+    private record Assignment(long workerId, long validUntilMillis) {
+    }
 }
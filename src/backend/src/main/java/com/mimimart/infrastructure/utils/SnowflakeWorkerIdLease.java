@@ -0,0 +1,204 @@
+package com.mimimart.infrastructure.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法工作機器 ID 租約
+ *
+ * 啟動時以 Redis SET NX 取得未被使用的工作機器 ID (0-1023) 並指派給 SnowflakeIdGenerator,
+ * 定期續約;續約失敗 (租約已過期被其他節點取得) 時立即撤銷原 ID 並改用其他可用 ID。關閉時釋放租約。
+ * 租約有效期限以最後一次成功續約的請求時間加上 TTL 計算 (扣除時鐘誤差保留),
+ * Redis 無法連線超過期限時 SnowflakeIdGenerator 拒絕生成 ID,直到重新取得租約。
+ * 設定 mimimart.snowflake.worker-id 時直接使用該 ID,不使用租約 (單機開發環境)。
+ *
+ * Redis Key: snowflake:worker:{workerId} → 節點識別碼
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class SnowflakeWorkerIdLease {
+
+    private static final String WORKER_KEY_PREFIX = "snowflake:worker:";
+    private static final int WORKER_ID_COUNT = 1024;
+
+    /**
+     * 續約 (僅在租約仍屬於本節點時延長)
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('EXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 釋放 (僅在租約仍屬於本節點時刪除)
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final long configuredWorkerId;
+    private final long leaseTtlSeconds;
+    private final String nodeToken = UUID.randomUUID().toString();
+
+    private final LongSupplier clock;
+
+    private volatile boolean leasing;
+    private volatile long leasedWorkerId = -1L;
+    private volatile long lastRenewedAtMillis;
+
+    @Autowired
+    public SnowflakeWorkerIdLease(RedisTemplate<String, String> redisTemplate,
+                                  SnowflakeIdGenerator snowflakeIdGenerator,
+                                  @Value("${mimimart.snowflake.worker-id:-1}") long configuredWorkerId,
+                                  @Value("${mimimart.snowflake.lease-ttl-seconds:60}") long leaseTtlSeconds) {
+        this(redisTemplate, snowflakeIdGenerator, configuredWorkerId, leaseTtlSeconds, System::currentTimeMillis);
+    }
+
+    SnowflakeWorkerIdLease(RedisTemplate<String, String> redisTemplate,
+                           SnowflakeIdGenerator snowflakeIdGenerator,
+                           long configuredWorkerId,
+                           long leaseTtlSeconds,
+                           LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.configuredWorkerId = configuredWorkerId;
+        this.leaseTtlSeconds = leaseTtlSeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * 啟動時取得工作機器 ID (無可用 ID 時啟動失敗,避免產生重複 ID)
+     */
+    @PostConstruct
+    public void acquire() {
+        if (configuredWorkerId >= 0) {
+            snowflakeIdGenerator.assignWorkerId(configuredWorkerId);
+            log.info("Snowflake worker ID configured: {}", configuredWorkerId);
+            return;
+        }
+
+        leasing = true;
+        long requestedAt = clock.getAsLong();
+        long workerId = tryLease(ThreadLocalRandom.current().nextInt(WORKER_ID_COUNT));
+        if (workerId < 0) {
+            throw new IllegalStateException("無可用的雪花算法工作機器 ID (0-" + (WORKER_ID_COUNT - 1) + " 皆已被租用)");
+        }
+        assign(workerId, requestedAt);
+    }
+
+    /**
+     * 定期續約;租約遺失時撤銷原 ID 並重新取得,無可用 ID 時暫停生成 ID 直到取得新租約
+     */
+    @Scheduled(fixedDelayString = "${mimimart.snowflake.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        if (!leasing) {
+            return;
+        }
+        long workerId = leasedWorkerId;
+        // 以送出請求前的時間計算有效期限,Redis 端的 TTL 不會早於此期限到期
+        long requestedAt = clock.getAsLong();
+        try {
+            if (workerId >= 0) {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(workerKey(workerId)),
+                        nodeToken, String.valueOf(leaseTtlSeconds));
+                if (renewed != null && renewed == 1) {
+                    lastRenewedAtMillis = requestedAt;
+                    snowflakeIdGenerator.extendLease(workerId, validUntil(requestedAt));
+                    return;
+                }
+
+                // 租約已被其他節點取得,立即停止使用原 ID
+                log.warn("Snowflake worker ID lease lost: workerId={}", workerId);
+                snowflakeIdGenerator.revokeWorkerId();
+                leasedWorkerId = -1L;
+            }
+
+            long next = tryLease(workerId >= 0 ? workerId : ThreadLocalRandom.current().nextInt(WORKER_ID_COUNT));
+            if (next < 0) {
+                log.error("No Snowflake worker ID available, ID generation suspended until a lease is acquired");
+                return;
+            }
+            assign(next, requestedAt);
+        } catch (Exception e) {
+            // Redis 暫時無法連線: 最後一次續約的有效期限內仍可生成 ID,逾期後由 SnowflakeIdGenerator 拒絕
+            log.warn("Failed to renew Snowflake worker ID lease: workerId={}, lastRenewedAt={}",
+                    workerId, lastRenewedAtMillis, e);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        long workerId = leasedWorkerId;
+        if (workerId < 0) {
+            return;
+        }
+        // 先停止生成,避免釋放後仍以該 ID 生成
+        snowflakeIdGenerator.revokeWorkerId();
+        leasedWorkerId = -1L;
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(workerKey(workerId)), nodeToken);
+            log.info("Released Snowflake worker ID lease: workerId={}", workerId);
+        } catch (Exception e) {
+            log.warn("Failed to release Snowflake worker ID lease: workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * 由指定 ID 開始依序嘗試租用
+     *
+     * @return 租用到的工作機器 ID,全部已被租用時回傳 -1
+     */
+    private long tryLease(long preferredWorkerId) {
+        Duration ttl = Duration.ofSeconds(leaseTtlSeconds);
+        for (int i = 0; i < WORKER_ID_COUNT; i++) {
+            long workerId = (preferredWorkerId + i) % WORKER_ID_COUNT;
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(workerKey(workerId), nodeToken, ttl))) {
+                return workerId;
+            }
+        }
+        return -1L;
+    }
+
+    private void assign(long workerId, long requestedAt) {
+        lastRenewedAtMillis = requestedAt;
+        snowflakeIdGenerator.assignWorkerId(workerId, validUntil(requestedAt));
+        leasedWorkerId = workerId;
+        log.info("Leased Snowflake worker ID: {}", workerId);
+    }
+
+    /**
+     * 租約有效期限: 請求時間 + TTL,保留 1/10 TTL 吸收節點與 Redis 間的時鐘誤差
+     */
+    private long validUntil(long requestedAt) {
+        long ttlMillis = leaseTtlSeconds * 1000L;
+        return requestedAt + ttlMillis - ttlMillis / 10;
+    }
+
+    private static String workerKey(long workerId) {
+        return WORKER_KEY_PREFIX + workerId;
+    }
+}
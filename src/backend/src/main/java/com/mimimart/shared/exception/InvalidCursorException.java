@@ -0,0 +1,12 @@
+package com.mimimart.shared.exception;
+
+/**
+ * 無效分頁游標異常
+ * 游標格式錯誤,或與本次查詢的排序條件不一致
+ */
+public class InvalidCursorException extends DomainException {
+
+    public InvalidCursorException(String message) {
+        super("INVALID_CURSOR", message);
+    }
+}
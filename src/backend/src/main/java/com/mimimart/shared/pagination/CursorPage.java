@@ -0,0 +1,43 @@
+package com.mimimart.shared.pagination;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 游標分頁結果
+ *
+ * @param content    本頁資料
+ * @param pageSize   每頁筆數
+ * @param nextCursor 下一頁游標 (無下一頁時為 null)
+ * @param totalItems 總筆數 (未要求計算總數時為 null,省略 COUNT 查詢)
+ */
+public record CursorPage<T>(List<T> content, int pageSize, String nextCursor, Long totalItems) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 轉換資料內容,保留分頁資訊
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPage<>(mapped, pageSize, nextCursor, totalItems);
+    }
+
+    /**
+     * 建立回應用的分頁資訊 (meta)
+     */
+    public Map<String, Object> toMeta() {
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("nextCursor", nextCursor);
+        meta.put("hasNext", hasNext());
+        meta.put("pageSize", pageSize);
+        if (totalItems != null) {
+            meta.put("totalItems", totalItems);
+        }
+        return meta;
+    }
+}
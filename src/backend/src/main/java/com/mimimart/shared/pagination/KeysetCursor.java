@@ -0,0 +1,57 @@
+package com.mimimart.shared.pagination;
+
+import com.mimimart.shared.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游標分頁 (Keyset Pagination) 的延續游標
+ * 記錄上一頁最後一筆的排序鍵值與 ID,下一頁以 (排序鍵, id) 作為查詢起點
+ *
+ * 對外以 Base64 URL 編碼的不透明字串傳遞,內容格式: {排序欄位}|{方向}|{id}|{排序鍵值}
+ *
+ * @param property  排序欄位
+ * @param direction 排序方向
+ * @param lastId    上一頁最後一筆的 ID
+ * @param lastValue 上一頁最後一筆的排序鍵值 (字串形式)
+ */
+public record KeysetCursor(String property, Sort.Direction direction, long lastId, String lastValue) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 編碼為不透明游標字串
+     */
+    public String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解碼游標字串,並檢查是否與本次查詢的排序條件一致
+     *
+     * @throws InvalidCursorException 游標格式錯誤或排序條件不一致
+     */
+    public static KeysetCursor decode(String token, String property, Sort.Direction direction) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\" + SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("分頁游標格式錯誤");
+        }
+        if (parts.length != 4) {
+            throw new InvalidCursorException("分頁游標格式錯誤");
+        }
+        if (!parts[0].equals(property) || !parts[1].equals(direction.name())) {
+            throw new InvalidCursorException("分頁游標與排序條件不一致,請從第一頁重新查詢");
+        }
+        try {
+            return new KeysetCursor(property, direction, Long.parseLong(parts[2]), parts[3]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("分頁游標格式錯誤");
+        }
+    }
+}
@@ -7,6 +7,16 @@ package com.mimimart.shared.valueobject;
  * @since 1.0.0
  */
 public enum AiGenerationStatus {
+    /**
+     * 已提交,等待執行
+     */
+    PENDING,
+
+    /**
+     * 生成中
+     */
+    RUNNING,
+
     /**
      * 生成成功
      */
@@ -0,0 +1,29 @@
+package com.mimimart.shared.valueobject;
+
+/**
+ * 郵件發送佇列狀態枚舉
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+public enum EmailOutboxStatus {
+    /**
+     * 等待發送 (含等待重試)
+     */
+    PENDING,
+
+    /**
+     * 發送中 (已被工作執行緒取出,租約到期未完成時重新發送)
+     */
+    SENDING,
+
+    /**
+     * 發送成功
+     */
+    SENT,
+
+    /**
+     * 超過重試次數,放棄發送
+     */
+    FAILED
+}
@@ -0,0 +1,25 @@
+-- V26: 新增商品前台可見旗標 (is_live) 與上架期間索引
+-- 用途: 將上架期間過濾下推至資料庫,前台列表改為單一索引掃描
+-- is_live = 已啟用 AND 已上架 AND 未刪除 AND 在上架期間內
+-- 由應用程式寫入時計算,並由排程於 published_at / unpublished_at 到期時翻轉
+
+ALTER TABLE products
+    ADD COLUMN is_live TINYINT(1) NOT NULL DEFAULT 0 COMMENT '前台可見 (1=可見, 0=不可見,排程維護)';
+
+-- 回填既有資料
+UPDATE products
+SET is_live = 1
+WHERE is_active = 1
+  AND is_published = 1
+  AND is_deleted = 0
+  AND (published_at IS NULL OR published_at <= NOW())
+  AND (unpublished_at IS NULL OR unpublished_at > NOW());
+
+-- 複合索引: 前台商品列表 (依建立時間排序)
+CREATE INDEX idx_products_live_created_at ON products (is_live, created_at, id);
+
+-- 複合索引: 前台分類商品列表 (依建立時間排序)
+CREATE INDEX idx_products_live_category_created_at ON products (is_live, category_id, created_at, id);
+
+-- 複合索引: 上架期間查詢與排程邊界掃描
+CREATE INDEX idx_products_publish_window ON products (is_published, is_deleted, published_at, unpublished_at);
@@ -0,0 +1,13 @@
+-- V27: 新增游標分頁 (Keyset Pagination) 索引
+-- 用途: 前台商品列表依價格 / 名稱排序、後台訂單列表依建立時間排序時,
+--       以 (排序鍵, id) 作為查詢起點,避免 OFFSET 掃描
+-- 依建立時間排序的前台商品列表沿用 V26 的 idx_products_live_created_at
+
+-- 複合索引: 前台商品列表 (依價格排序)
+CREATE INDEX idx_products_live_price ON products (is_live, price, id);
+
+-- 複合索引: 前台商品列表 (依名稱排序)
+CREATE INDEX idx_products_live_name ON products (is_live, name, id);
+
+-- 複合索引: 後台訂單列表 (依建立時間排序)
+CREATE INDEX idx_orders_created_at ON orders (created_at, id);
@@ -0,0 +1,18 @@
+-- V28: 建立庫存預留表
+-- 建立訂單時以條件式 UPDATE 扣除 products.stock 並記錄預留,
+-- 付款完成後確認,訂單取消或付款逾期時釋放並歸還庫存
+-- 零約束設計:不使用外鍵,資料完整性由應用程式層驗證
+
+CREATE TABLE stock_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL COMMENT '訂單 ID',
+    product_id BIGINT NOT NULL COMMENT '商品 ID',
+    quantity INT NOT NULL COMMENT '預留數量',
+    status VARCHAR(20) NOT NULL COMMENT '預留狀態 (RESERVED, CONFIRMED, RELEASED)',
+    expires_at TIMESTAMP NOT NULL COMMENT '預留到期時間 (與付款期限一致)',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
+    updated_at TIMESTAMP NULL COMMENT '更新時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='庫存預留表';
+
+-- 訂單預留查詢 (確認 / 釋放)
+CREATE INDEX idx_order_id_status ON stock_reservations(order_id, status);
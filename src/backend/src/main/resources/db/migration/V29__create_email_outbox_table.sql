@@ -0,0 +1,21 @@
+-- V29: 建立郵件發送佇列表 (Transactional Outbox)
+-- 業務交易中寫入待發送郵件,由背景工作執行緒批次取出發送,
+-- 郵件服務商延遲或故障時不阻塞註冊、密碼重設等請求,失敗時依退避時間重試
+
+CREATE TABLE email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient_email VARCHAR(255) NOT NULL COMMENT '收件人郵箱',
+    email_type VARCHAR(50) NOT NULL COMMENT '郵件類型（WELCOME, VERIFICATION, PASSWORD_RESET）',
+    subject VARCHAR(500) NOT NULL COMMENT '郵件主旨',
+    html_content MEDIUMTEXT NOT NULL COMMENT '郵件 HTML 內容',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '發送狀態（PENDING, SENDING, SENT, FAILED）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已嘗試發送次數',
+    next_attempt_at DATETIME(6) NOT NULL COMMENT '下次可發送時間（SENDING 狀態時為租約到期時間）',
+    last_error TEXT COMMENT '最後一次發送錯誤訊息',
+    sent_at DATETIME(6) COMMENT '發送成功時間',
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '建立時間',
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6) COMMENT '更新時間',
+
+    INDEX idx_status_next_attempt_at (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='郵件發送佇列表';
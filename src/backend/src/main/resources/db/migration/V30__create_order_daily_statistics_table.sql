@@ -0,0 +1,22 @@
+-- V30: 建立訂單每日統計表
+-- 依訂單建立日期與狀態累計訂單數與金額,於訂單建立與狀態轉換時在同一交易內增減,
+-- 後台統計改為彙總本表,不再載入全部訂單
+-- 排程定期由 orders 重建,校正可能的偏差
+
+CREATE TABLE order_daily_statistics (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    stat_date DATE NOT NULL COMMENT '訂單建立日期',
+    status VARCHAR(20) NOT NULL COMMENT '訂單狀態',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '訂單數',
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '訂單總金額',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='訂單每日統計表';
+
+-- 累計計數器的唯一鍵 (INSERT ... ON DUPLICATE KEY UPDATE)
+CREATE UNIQUE INDEX uk_stat_date_status ON order_daily_statistics(stat_date, status);
+
+-- 回填既有訂單
+INSERT INTO order_daily_statistics (stat_date, status, order_count, total_amount)
+SELECT DATE(created_at), status, COUNT(*), SUM(total_amount)
+FROM orders
+GROUP BY DATE(created_at), status;
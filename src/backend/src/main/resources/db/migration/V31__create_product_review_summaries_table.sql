@@ -0,0 +1,29 @@
+-- V31: 建立商品評價彙總表
+-- 每個商品一筆,記錄可見評價的數量、評分總和與 1~5 星分布,
+-- 於新增/修改/刪除/隱藏/顯示評價時在同一交易內增減,商品頁不再即時彙總 product_reviews
+
+CREATE TABLE product_review_summaries (
+    product_id BIGINT PRIMARY KEY COMMENT '商品ID',
+    review_count BIGINT NOT NULL DEFAULT 0 COMMENT '可見評價數',
+    rating_sum BIGINT NOT NULL DEFAULT 0 COMMENT '可見評價評分總和',
+    rating_1 BIGINT NOT NULL DEFAULT 0 COMMENT '1 星評價數',
+    rating_2 BIGINT NOT NULL DEFAULT 0 COMMENT '2 星評價數',
+    rating_3 BIGINT NOT NULL DEFAULT 0 COMMENT '3 星評價數',
+    rating_4 BIGINT NOT NULL DEFAULT 0 COMMENT '4 星評價數',
+    rating_5 BIGINT NOT NULL DEFAULT 0 COMMENT '5 星評價數',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='商品評價彙總表';
+
+-- 回填既有評價
+INSERT INTO product_review_summaries (product_id, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)
+SELECT product_id,
+       COUNT(*),
+       SUM(rating),
+       SUM(rating = 1),
+       SUM(rating = 2),
+       SUM(rating = 3),
+       SUM(rating = 4),
+       SUM(rating = 5)
+FROM product_reviews
+WHERE is_visible = TRUE
+GROUP BY product_id;
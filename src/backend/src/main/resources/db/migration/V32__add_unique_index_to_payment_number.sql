@@ -0,0 +1,18 @@
+-- 將付款編號索引改為唯一索引
+-- 付款編號改由雪花算法生成 (PAY + 13 碼 36 進位),在資料庫層級保證唯一性
+
+-- 舊格式 (PAY + 秒級時間戳 + 隨機3碼) 可能已產生重複編號: 保留最早的一筆,其餘加上 ID 後綴
+UPDATE payments p
+JOIN (
+    SELECT payment_number, MIN(id) AS keep_id
+    FROM payments
+    GROUP BY payment_number
+    HAVING COUNT(*) > 1
+) d ON p.payment_number = d.payment_number AND p.id <> d.keep_id
+SET p.payment_number = CONCAT(p.payment_number, '-', p.id);
+
+-- 刪除舊的普通索引
+ALTER TABLE payments DROP INDEX idx_payment_number;
+
+-- 建立唯一索引
+CREATE UNIQUE INDEX idx_payment_number ON payments(payment_number);
@@ -0,0 +1,16 @@
+-- V33: 建立圖片衍生檔表
+-- 輪播圖與商品圖片上傳後,背景產生多種寬度的縮圖並存放於原圖旁,
+-- 每個寬度一筆,以原圖 URL 查詢,供前台依裝置寬度選用較小的圖片
+
+CREATE TABLE image_derivatives (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '衍生檔ID',
+    source_url VARCHAR(500) NOT NULL COMMENT '原圖 URL',
+    width INT NOT NULL COMMENT '寬度(px)',
+    height INT NOT NULL COMMENT '高度(px)',
+    url VARCHAR(500) NOT NULL COMMENT '衍生檔 URL',
+    content_type VARCHAR(50) NOT NULL COMMENT 'Content-Type',
+    size_bytes BIGINT NOT NULL COMMENT '檔案大小(bytes)',
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '建立時間',
+
+    UNIQUE KEY uk_source_url_width (source_url, width)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='圖片衍生檔表';
@@ -0,0 +1,5 @@
+-- AI 生成改為背景工作: 日誌記錄即工作狀態 (PENDING → RUNNING → SUCCESS / FAILED)
+ALTER TABLE ai_generation_log
+    MODIFY COLUMN status VARCHAR(20) NOT NULL COMMENT '狀態: PENDING, RUNNING, SUCCESS, FAILED',
+    ADD COLUMN completed_at DATETIME NULL COMMENT '完成時間 (成功或失敗)' AFTER created_at,
+    ADD INDEX idx_status_created_at (status, created_at) COMMENT '逾時工作清理';
@@ -0,0 +1,16 @@
+-- V35: 訂單統計計數器分片
+-- 同一 (日期, 狀態) 的計數分散至多筆分片資料列,並行建立訂單時不再競爭同一列的鎖;
+-- 查詢時彙總所有分片 (個別分片的計數可能為負,僅總和有意義)
+ALTER TABLE order_daily_statistics
+    ADD COLUMN shard TINYINT NOT NULL DEFAULT 0 COMMENT '計數器分片' AFTER status;
+
+CREATE UNIQUE INDEX uk_stat_date_status_shard ON order_daily_statistics(stat_date, status, shard);
+DROP INDEX uk_stat_date_status ON order_daily_statistics;
+
+-- 統計重建鎖: 計數器更新前取得共享鎖,重建時取得排他鎖,
+-- 等待進行中的更新提交並暫停新的更新,避免重建與即時累加互相覆蓋
+CREATE TABLE order_statistics_lock (
+    id INT PRIMARY KEY COMMENT '固定為 1'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='訂單統計重建鎖';
+
+INSERT INTO order_statistics_lock (id) VALUES (1);
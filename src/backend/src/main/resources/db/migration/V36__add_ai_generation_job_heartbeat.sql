@@ -0,0 +1,9 @@
+-- AI 生成工作改以執行節點心跳判斷逾時: 排隊中的工作不因建立時間較早而被誤判為逾時
+ALTER TABLE ai_generation_log
+    ADD COLUMN started_at DATETIME NULL COMMENT '開始執行時間' AFTER created_at,
+    ADD COLUMN heartbeat_at DATETIME NULL COMMENT '執行節點最後心跳時間 (PENDING/RUNNING)' AFTER started_at,
+    DROP INDEX idx_status_created_at,
+    ADD INDEX idx_status_heartbeat_at (status, heartbeat_at) COMMENT '逾時工作清理';
+
+-- 既有未完成的工作以建立時間作為最後心跳
+UPDATE ai_generation_log SET heartbeat_at = created_at WHERE status IN ('PENDING', 'RUNNING');
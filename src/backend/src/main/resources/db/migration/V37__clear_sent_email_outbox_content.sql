@@ -0,0 +1,5 @@
+-- 郵件內容含驗證與密碼重設連結,發送成功或最終失敗後不再需要,清除避免長期保存
+ALTER TABLE email_outbox
+    MODIFY COLUMN html_content MEDIUMTEXT NULL COMMENT '郵件 HTML 內容（發送成功或最終失敗後清除）';
+
+UPDATE email_outbox SET html_content = NULL WHERE status IN ('SENT', 'FAILED');
@@ -0,0 +1,299 @@
+package com.mimimart.application.service;
+
+import com.mimimart.application.service.DeepseekService.TextGeneration;
+import com.mimimart.domain.ai.exception.AiJobNotFoundException;
+import com.mimimart.domain.ai.exception.AiJobQueueFullException;
+import com.mimimart.infrastructure.persistence.entity.AiGenerationLog;
+import com.mimimart.shared.valueobject.AiGenerationStatus;
+import com.mimimart.shared.valueobject.AiProvider;
+import com.mimimart.shared.valueobject.GenerationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AI 生成工作服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("AI 生成工作服務單元測試")
+class AiGenerationJobServiceTest {
+
+    private static final Long ADMIN_ID = 1L;
+    private static final String ENDPOINT = "/api/admin/banner/ai/generate-description";
+
+    @Mock
+    private AiGenerationLogService aiGenerationLogService;
+
+    @Mock
+    private DeepseekService deepseekService;
+
+    @Mock
+    private OpenAiImageService openAiImageService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, AiGenerationLog> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private AiGenerationJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        when(deepseekService.getModel()).thenReturn("deepseek-chat");
+        when(deepseekService.buildUserPrompt(anyString())).thenAnswer(invocation -> "prompt: " + invocation.getArgument(0));
+        when(aiGenerationLogService.createJob(anyLong(), anyString(), any(), any(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    AiGenerationLog job = new AiGenerationLog();
+                    job.setId(nextId.getAndIncrement());
+                    job.setAdminId(invocation.getArgument(0));
+                    job.setGenerationType(invocation.getArgument(2));
+                    job.setAiProvider(invocation.getArgument(3));
+                    job.setStatus(AiGenerationStatus.PENDING);
+                    jobs.put(job.getId(), job);
+                    return job;
+                });
+        when(aiGenerationLogService.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))));
+        when(aiGenerationLogService.markRunning(anyLong())).thenReturn(true);
+        when(aiGenerationLogService.markSuccess(anyLong(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))).map(job -> {
+                    job.setResponseContent(invocation.getArgument(1));
+                    job.setStatus(AiGenerationStatus.SUCCESS);
+                    return job;
+                }));
+        when(aiGenerationLogService.markFailure(anyLong(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))).map(job -> {
+                    job.setErrorMessage(invocation.getArgument(1));
+                    job.setStatus(AiGenerationStatus.FAILED);
+                    return job;
+                }));
+        jobService = newJobService(10, 1, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        jobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("提交工作 - 立即回傳工作 ID,背景完成後通知訂閱者並廣播")
+    void submitDescription_CompletesInBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(deepseekService.complete("新品上市")).thenAnswer(invocation -> {
+            release.await();
+            return new TextGeneration("prompt", "限時優惠,立即選購!", 42, new BigDecimal("0.000009"));
+        });
+
+        AiGenerationLog job = jobService.submitDescription("新品上市", ADMIN_ID, ENDPOINT);
+        CompletableFuture<AiGenerationLog> completed = new CompletableFuture<>();
+        jobService.onCompletion(job.getId(), completed::complete);
+
+        assertThat(job.getStatus()).isEqualTo(AiGenerationStatus.PENDING);
+        assertThat(completed).isNotDone();
+
+        release.countDown();
+        AiGenerationLog result = completed.get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getStatus()).isEqualTo(AiGenerationStatus.SUCCESS);
+        assertThat(result.getResponseContent()).isEqualTo("限時優惠,立即選購!");
+        verify(aiGenerationLogService).createJob(ADMIN_ID, ENDPOINT, GenerationType.TEXT, AiProvider.DEEPSEEK,
+                "deepseek-chat", "prompt: 新品上市");
+        verify(aiGenerationLogService).markRunning(job.getId());
+        verify(aiGenerationLogService).markSuccess(job.getId(), "限時優惠,立即選購!", null, 42, new BigDecimal("0.000009"));
+        verify(redisTemplate, timeout(1000)).convertAndSend("ai:job:completed", String.valueOf(job.getId()));
+    }
+
+    @Test
+    @DisplayName("外部調用逾時 - 中斷調用並標記失敗")
+    void submitDescription_Timeout() throws Exception {
+        jobService.shutdown();
+        jobService = newJobService(10, 1, 1);
+        when(deepseekService.complete(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(60_000);
+            return null;
+        });
+
+        AiGenerationLog job = jobService.submitDescription("新品上市", ADMIN_ID, ENDPOINT);
+        CompletableFuture<AiGenerationLog> completed = new CompletableFuture<>();
+        jobService.onCompletion(job.getId(), completed::complete);
+
+        AiGenerationLog result = completed.get(5, TimeUnit.SECONDS);
+        assertThat(result.getStatus()).isEqualTo(AiGenerationStatus.FAILED);
+        assertThat(result.getErrorMessage()).contains("逾時");
+    }
+
+    @Test
+    @DisplayName("外部調用失敗 - 記錄錯誤訊息")
+    void submitDescription_ProviderFailure() throws Exception {
+        when(deepseekService.complete(anyString())).thenThrow(new java.io.IOException("Deepseek API 調用失敗: 500"));
+
+        AiGenerationLog job = jobService.submitDescription("新品上市", ADMIN_ID, ENDPOINT);
+        CompletableFuture<AiGenerationLog> completed = new CompletableFuture<>();
+        jobService.onCompletion(job.getId(), completed::complete);
+
+        AiGenerationLog result = completed.get(5, TimeUnit.SECONDS);
+        assertThat(result.getStatus()).isEqualTo(AiGenerationStatus.FAILED);
+        assertThat(result.getErrorMessage()).isEqualTo("Deepseek API 調用失敗: 500");
+    }
+
+    @Test
+    @DisplayName("提供商並行上限 - 同時最多執行設定數量的調用")
+    void submitDescription_ProviderConcurrencyLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(deepseekService.complete(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return new TextGeneration("prompt", "文案", 1, BigDecimal.ZERO);
+        });
+
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            AiGenerationLog job = jobService.submitDescription("新品上市 " + i, ADMIN_ID, ENDPOINT);
+            jobService.onCompletion(job.getId(), completed -> done.countDown());
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("等待中的工作已達上限 - 拒絕提交")
+    void submitDescription_QueueFull() throws Exception {
+        jobService.shutdown();
+        jobService = newJobService(1, 1, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deepseekService.complete(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return new TextGeneration("prompt", "文案", 1, BigDecimal.ZERO);
+        });
+
+        jobService.submitDescription("第一個", ADMIN_ID, ENDPOINT);
+
+        assertThatThrownBy(() -> jobService.submitDescription("第二個", ADMIN_ID, ENDPOINT))
+                .isInstanceOf(AiJobQueueFullException.class);
+        verify(aiGenerationLogService, times(1)).createJob(anyLong(), anyString(), any(), any(), anyString(), anyString());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("訂閱已完成的工作 - 立即通知")
+    void onCompletion_AlreadyCompleted() {
+        AiGenerationLog job = new AiGenerationLog();
+        job.setId(99L);
+        job.setAdminId(ADMIN_ID);
+        job.setStatus(AiGenerationStatus.SUCCESS);
+        jobs.put(99L, job);
+        AtomicInteger notified = new AtomicInteger();
+
+        jobService.onCompletion(99L, completed -> notified.incrementAndGet());
+
+        assertThat(notified).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("查詢其他管理員的工作 - 拋出工作不存在異常")
+    void getJob_OtherAdmin() {
+        AiGenerationLog job = new AiGenerationLog();
+        job.setId(99L);
+        job.setAdminId(2L);
+        job.setStatus(AiGenerationStatus.RUNNING);
+        jobs.put(99L, job);
+
+        assertThatThrownBy(() -> jobService.getJob(99L, ADMIN_ID))
+                .isInstanceOf(AiJobNotFoundException.class);
+        assertThat(jobService.getJob(99L, 2L)).isSameAs(job);
+    }
+
+    @Test
+    @DisplayName("工作已被標記為失敗 - 不執行外部調用")
+    void submitDescription_AlreadyFailed() throws Exception {
+        when(aiGenerationLogService.markRunning(anyLong())).thenReturn(false);
+
+        AiGenerationLog job = jobService.submitDescription("新品上市", ADMIN_ID, ENDPOINT);
+
+        verify(aiGenerationLogService, timeout(1000)).markRunning(job.getId());
+        jobService.shutdown();
+        verify(deepseekService, never()).complete(anyString());
+        verify(aiGenerationLogService, never()).markSuccess(anyLong(), any(), any(), any(), any());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("心跳 - 更新本節點等待與執行中的工作")
+    void heartbeat_TouchesInFlightJobs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(deepseekService.complete(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return new TextGeneration("prompt", "文案", 1, BigDecimal.ZERO);
+        });
+        AiGenerationLog job = jobService.submitDescription("新品上市", ADMIN_ID, ENDPOINT);
+
+        jobService.heartbeat();
+        release.countDown();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(aiGenerationLogService).heartbeat(ids.capture());
+        assertThat(ids.getValue()).containsExactly(job.getId());
+    }
+
+    @Test
+    @DisplayName("逾時工作清理 - 標記失敗並通知訂閱者,已完成或重新收到心跳的工作不通知")
+    void failStaleJobs_PublishesCompletion() {
+        AiGenerationLog stale = new AiGenerationLog();
+        stale.setId(99L);
+        stale.setAdminId(ADMIN_ID);
+        stale.setStatus(AiGenerationStatus.RUNNING);
+        jobs.put(99L, stale);
+        when(aiGenerationLogService.findStaleJobIds(any())).thenReturn(List.of(99L, 100L));
+        when(aiGenerationLogService.failStaleJob(eq(99L), any(), anyString())).thenAnswer(invocation -> {
+            stale.setStatus(AiGenerationStatus.FAILED);
+            stale.setErrorMessage(invocation.getArgument(2));
+            return Optional.of(stale);
+        });
+        when(aiGenerationLogService.failStaleJob(eq(100L), any(), anyString())).thenReturn(Optional.empty());
+        CompletableFuture<AiGenerationLog> completed = new CompletableFuture<>();
+        jobService.onCompletion(99L, completed::complete);
+
+        assertThat(jobService.failStaleJobs()).isEqualTo(1);
+
+        assertThat(completed).isCompletedWithValueMatching(job -> job.getStatus() == AiGenerationStatus.FAILED);
+        verify(redisTemplate).convertAndSend("ai:job:completed", "99");
+        verify(redisTemplate, never()).convertAndSend("ai:job:completed", "100");
+    }
+
+    private AiGenerationJobService newJobService(int maxPending, int deepseekMaxConcurrent, long timeoutSeconds) {
+        return new AiGenerationJobService(aiGenerationLogService, deepseekService, openAiImageService,
+                redisTemplate, listenerContainer, maxPending, deepseekMaxConcurrent, timeoutSeconds,
+                1, timeoutSeconds, 300, 1800);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mimimart.application.service;
+
+import com.mimimart.api.dto.cart.AddToCartRequest;
+import com.mimimart.api.dto.cart.CartSummaryDTO;
+import com.mimimart.fixtures.TestFixtures;
+import com.mimimart.infrastructure.persistence.entity.Category;
+import com.mimimart.infrastructure.persistence.entity.Member;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購物車查詢次數回歸測試
+ * 查詢購物車的 SQL 次數不應隨購物車項目數增加 (避免 N+1 查詢)
+ *
+ * 需要資料庫與 Redis,預設不執行,使用 mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= 執行
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+@DisplayName("購物車查詢次數回歸測試")
+class CartQueryCountBenchmarkTest {
+
+    private static final int[] CART_SIZES = {1, 10, 50};
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private TestFixtures testFixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("查詢購物車 - SQL 次數與購物車項目數無關")
+    void getCart_ConstantQueryCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Category category = testFixtures.createTestCategory(901);
+        Map<Integer, Long> queryCounts = new LinkedHashMap<>();
+        for (int i = 0; i < CART_SIZES.length; i++) {
+            Member member = testFixtures.createTestMember(901 + i);
+            cartService.clearCart(member.getId());
+            for (int j = 0; j < CART_SIZES[i]; j++) {
+                Product product = testFixtures.createTestProduct(category.getId(), i * 100 + j);
+                AddToCartRequest request = new AddToCartRequest();
+                request.setProductId(product.getId());
+                request.setQuantity(1);
+                cartService.addToCart(member.getId(), request);
+            }
+
+            statistics.clear();
+            CartSummaryDTO cart = cartService.getCart(member.getId());
+            queryCounts.put(CART_SIZES[i], statistics.getPrepareStatementCount());
+
+            assertThat(cart.getItems()).hasSize(CART_SIZES[i]);
+            assertThat(cart.getItems()).allSatisfy(item -> assertThat(item.getCategoryName()).isEqualTo(category.getName()));
+        }
+
+        System.out.printf("購物車項目數 → SQL 次數: %s%n", queryCounts);
+        assertThat(queryCounts.values()).containsOnly(1L);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mimimart.application.service;
+
+import com.mimimart.api.dto.cart.MergeCartRequest;
+import com.mimimart.domain.cart.service.CartMergeService;
+import com.mimimart.infrastructure.cache.MemberCartWriteBehindBuffer;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 購物車合併單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("購物車合併單元測試")
+class CartServiceMergeTest {
+
+    private static final Long MEMBER_ID = 1L;
+
+    @Mock
+    private RedisCartItemRepository redisCartItemRepository;
+
+    @Mock
+    private MemberCartWriteBehindBuffer memberCartWriteBehindBuffer;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private CartService cartService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cartService = new CartService(redisCartItemRepository, memberCartWriteBehindBuffer,
+                productRepository, new CartMergeService());
+        when(memberCartWriteBehindBuffer.getMaxItemsCount(MEMBER_ID)).thenReturn(100);
+        when(productRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : (Collection<Long>) invocation.getArgument(0)) {
+                Product product = new Product();
+                product.setId(id);
+                products.add(product);
+            }
+            return products;
+        });
+    }
+
+    @Test
+    @DisplayName("合併 - 訪客購物車項目數不影響 Redis 寫入次數")
+    @SuppressWarnings("unchecked")
+    void mergeCart_SingleBatchWrite() {
+        when(redisCartItemRepository.findAllByMemberId(MEMBER_ID)).thenReturn(new HashMap<>());
+
+        cartService.mergeCart(MEMBER_ID, request(30, 2));
+
+        ArgumentCaptor<Map<Long, Integer>> quantities = ArgumentCaptor.forClass(Map.class);
+        verify(redisCartItemRepository, times(1)).saveAll(eq(MEMBER_ID), quantities.capture(), eq(100));
+        assertThat(quantities.getValue()).hasSize(30).containsEntry(1L, 2).containsEntry(30L, 2);
+        verify(redisCartItemRepository, never()).countByMemberId(any());
+        verify(redisCartItemRepository, never()).save(any(), any(), any());
+        verify(memberCartWriteBehindBuffer).markDirty(MEMBER_ID);
+    }
+
+    @Test
+    @DisplayName("合併 - 相同商品累加至上限,項目數達上限後略過新商品")
+    @SuppressWarnings("unchecked")
+    void mergeCart_AdditionCappedAndCartLimit() {
+        when(memberCartWriteBehindBuffer.getMaxItemsCount(MEMBER_ID)).thenReturn(2);
+        Map<Long, CartItemValue> memberItems = new HashMap<>();
+        memberItems.put(1L, new CartItemValue(900, System.currentTimeMillis()));
+        when(redisCartItemRepository.findAllByMemberId(MEMBER_ID)).thenReturn(memberItems);
+
+        cartService.mergeCart(MEMBER_ID, request(3, 200));
+
+        ArgumentCaptor<Map<Long, Integer>> quantities = ArgumentCaptor.forClass(Map.class);
+        verify(redisCartItemRepository).saveAll(eq(MEMBER_ID), quantities.capture(), eq(2));
+        assertThat(quantities.getValue()).containsExactly(Map.entry(1L, 999), Map.entry(2L, 200));
+    }
+
+    private static MergeCartRequest request(int itemCount, int quantity) {
+        List<MergeCartRequest.MergeCartItem> items = new ArrayList<>();
+        for (long productId = 1; productId <= itemCount; productId++) {
+            MergeCartRequest.MergeCartItem item = new MergeCartRequest.MergeCartItem();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+        MergeCartRequest request = new MergeCartRequest();
+        request.setItems(items);
+        return request;
+    }
+}
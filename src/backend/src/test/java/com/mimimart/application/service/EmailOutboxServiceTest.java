@@ -0,0 +1,93 @@
+package com.mimimart.application.service;
+
+import com.mimimart.infrastructure.persistence.entity.EmailOutbox;
+import com.mimimart.infrastructure.persistence.repository.EmailOutboxRepository;
+import com.mimimart.shared.valueobject.EmailOutboxStatus;
+import com.mimimart.shared.valueobject.EmailType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 郵件發送佇列服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("郵件發送佇列服務單元測試")
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailSendLogService emailSendLogService;
+
+    @InjectMocks
+    private EmailOutboxService emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(emailOutboxService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailOutboxService, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(emailOutboxService, "retryMaxSeconds", 3600L);
+    }
+
+    @Test
+    @DisplayName("發送失敗未達重試上限 - 保留郵件內容並排程重試")
+    void markFailed_Retry() {
+        EmailOutbox email = email(1);
+
+        emailOutboxService.markFailed(List.of(email), "timeout");
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(email.getHtmlContent()).isNotNull();
+        assertThat(email.getNextAttemptAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("發送失敗達重試上限 - 標記失敗並清除郵件內容")
+    void markFailed_FinalFailureClearsContent() {
+        EmailOutbox email = email(3);
+
+        emailOutboxService.markFailed(List.of(email), "timeout");
+
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.FAILED);
+        assertThat(email.getHtmlContent()).isNull();
+        verify(emailOutboxRepository).saveAll(List.of(email));
+        verify(emailSendLogService).logEmailFailed(eq(null), eq("test@example.com"), eq(EmailType.PASSWORD_RESET),
+                eq("密碼重設"), eq("timeout"));
+    }
+
+    @Test
+    @DisplayName("發送成功 - 以批次更新標記成功 (同時清除郵件內容)")
+    void markSent() {
+        EmailOutbox email = email(1);
+
+        emailOutboxService.markSent(List.of(email));
+
+        verify(emailOutboxRepository).markSent(eq(List.of(10L)), eq(EmailOutboxStatus.SENT), any());
+    }
+
+    private static EmailOutbox email(int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(10L);
+        email.setRecipientEmail("test@example.com");
+        email.setEmailType(EmailType.PASSWORD_RESET);
+        email.setSubject("密碼重設");
+        email.setHtmlContent("<a href=\"http://localhost:3000/reset-password?token=secret\">重設密碼</a>");
+        email.setStatus(EmailOutboxStatus.SENDING);
+        email.setAttempts(attempts);
+        return email;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mimimart.application.service;
+
+import com.mimimart.application.service.ExpiredPaymentService.ChunkResult;
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import com.mimimart.infrastructure.persistence.repository.OrderRepository;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 逾期付款處理服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("逾期付款處理服務單元測試")
+class ExpiredPaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderStatisticsService orderStatisticsService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @InjectMocks
+    private ExpiredPaymentService expiredPaymentService;
+
+    @Test
+    @DisplayName("批次處理 - 批次標記逾期、取消可取消的訂單並合併釋放庫存")
+    void expireChunk() {
+        when(paymentRepository.findAllByIdInAndStatusForUpdate(List.of(1L, 2L, 3L), PaymentStatus.PENDING_PAYMENT))
+                .thenReturn(List.of(payment(1L, 100L), payment(2L, 200L)));
+        OrderEntity pending = order(100L, OrderStatus.PAYMENT_PENDING);
+        when(orderRepository.findAllByIdInForUpdate(List.of(100L, 200L)))
+                .thenReturn(List.of(pending, order(200L, OrderStatus.PAID)));
+
+        ChunkResult result = expiredPaymentService.expireChunk(List.of(1L, 2L, 3L));
+
+        assertThat(result).isEqualTo(new ChunkResult(2, 1));
+        verify(paymentRepository).updateStatusByIdIn(eq(List.of(1L, 2L)), eq(PaymentStatus.EXPIRED), any());
+        verify(orderStatisticsService).recordTransitions(List.of(pending), OrderStatus.CANCELLED);
+        verify(orderRepository).cancelAllByIdIn(eq(List.of(100L)), eq(OrderStatus.PAYMENT_PENDING),
+                eq(OrderStatus.CANCELLED), eq(ExpiredPaymentService.CANCELLATION_REASON), any());
+        verify(stockReservationService).releaseAll(List.of(100L));
+    }
+
+    @Test
+    @DisplayName("批次處理 - 付款已非待付款 (已付款或處理中) 時不做任何更新")
+    void expireChunk_NothingPending() {
+        when(paymentRepository.findAllByIdInAndStatusForUpdate(anyCollection(), eq(PaymentStatus.PENDING_PAYMENT)))
+                .thenReturn(List.of());
+
+        ChunkResult result = expiredPaymentService.expireChunk(List.of(1L));
+
+        assertThat(result).isEqualTo(new ChunkResult(0, 0));
+        verify(paymentRepository, never()).updateStatusByIdIn(anyCollection(), any(), any());
+        verifyNoInteractions(orderRepository, orderStatisticsService, stockReservationService);
+    }
+
+    @Test
+    @DisplayName("批次處理 - 尚未到期的付款不處理")
+    void expireChunk_NotYetExpired() {
+        PaymentEntity payment = payment(1L, 100L);
+        payment.setExpiredAt(Instant.now().plusSeconds(60));
+        when(paymentRepository.findAllByIdInAndStatusForUpdate(List.of(1L), PaymentStatus.PENDING_PAYMENT))
+                .thenReturn(List.of(payment));
+
+        ChunkResult result = expiredPaymentService.expireChunk(List.of(1L));
+
+        assertThat(result).isEqualTo(new ChunkResult(0, 0));
+        verifyNoInteractions(orderRepository, orderStatisticsService, stockReservationService);
+    }
+
+    private PaymentEntity payment(Long id, Long orderId) {
+        PaymentEntity payment = new PaymentEntity();
+        payment.setId(id);
+        payment.setOrderId(orderId);
+        payment.setStatus(PaymentStatus.PENDING_PAYMENT);
+        payment.setExpiredAt(Instant.now().minusSeconds(1));
+        return payment;
+    }
+
+    private OrderEntity order(Long id, OrderStatus status) {
+        OrderEntity order = new OrderEntity();
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+}
@@ -0,0 +1,174 @@
+package com.mimimart.application.service;
+
+import com.mimimart.infrastructure.persistence.entity.ImageDerivative;
+import com.mimimart.infrastructure.persistence.repository.ImageDerivativeRepository;
+import com.mimimart.infrastructure.storage.S3StorageService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 圖片衍生檔服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("圖片衍生檔服務單元測試")
+class ImageDerivativeServiceTest {
+
+    private static final String SOURCE_URL = "https://cdn.example.com/banners/banner-1.png";
+    private static final String SOURCE_KEY = "banners/banner-1.png";
+
+    @Mock
+    private ImageDerivativeRepository imageDerivativeRepository;
+
+    @Mock
+    private S3StorageService s3StorageService;
+
+    @Mock
+    private RedisDistributedLock distributedLock;
+
+    private ImageDerivativeService imageDerivativeService;
+
+    @BeforeEach
+    void setUp() {
+        imageDerivativeService = new ImageDerivativeService(imageDerivativeRepository, s3StorageService,
+                distributedLock, 300, List.of(320, 640, 1600), 0.8f, 40_000_000L, 2, 60, 100);
+    }
+
+    @Test
+    @DisplayName("產生縮圖 - 上傳至原圖旁並記錄各寬度")
+    @SuppressWarnings("unchecked")
+    void generate_UploadsDerivatives() throws Exception {
+        when(distributedLock.tryLock(anyString(), any())).thenReturn("token");
+        when(imageDerivativeRepository.findBySourceUrl(SOURCE_URL)).thenReturn(List.of());
+        when(s3StorageService.downloadPublicImage(SOURCE_URL)).thenReturn(png(1200, 400));
+        when(s3StorageService.getPublicS3Key(SOURCE_URL)).thenReturn(SOURCE_KEY);
+        when(s3StorageService.uploadPublicImage(anyString(), any(byte[].class), anyString()))
+                .thenAnswer(invocation -> "https://cdn.example.com/" + invocation.getArgument(0));
+        when(imageDerivativeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        imageDerivativeService.generate(SOURCE_URL);
+
+        verify(s3StorageService).uploadPublicImage(eq("banners/banner-1-w320.jpg"), any(byte[].class), eq("image/jpeg"));
+        verify(s3StorageService).uploadPublicImage(eq("banners/banner-1-w640.jpg"), any(byte[].class), eq("image/jpeg"));
+        verify(s3StorageService, times(2)).uploadPublicImage(anyString(), any(byte[].class), anyString());
+
+        ArgumentCaptor<List<ImageDerivative>> captor = ArgumentCaptor.forClass(List.class);
+        verify(imageDerivativeRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(ImageDerivative::getWidth).containsExactly(320, 640);
+        assertThat(captor.getValue()).extracting(ImageDerivative::getHeight).containsExactly(107, 213);
+        assertThat(captor.getValue()).extracting(ImageDerivative::getUrl).containsExactly(
+                "https://cdn.example.com/banners/banner-1-w320.jpg",
+                "https://cdn.example.com/banners/banner-1-w640.jpg");
+        assertThat(captor.getValue()).allSatisfy(derivative -> assertThat(derivative.getSourceUrl()).isEqualTo(SOURCE_URL));
+        verify(distributedLock).unlock("image:derivatives:claim:" + SOURCE_URL, "token");
+    }
+
+    @Test
+    @DisplayName("產生縮圖 - 已產生過時不重複下載")
+    void generate_AlreadyGenerated() throws Exception {
+        when(distributedLock.tryLock(anyString(), any())).thenReturn("token");
+        when(imageDerivativeRepository.findBySourceUrl(SOURCE_URL)).thenReturn(List.of(derivative(SOURCE_URL, 320)));
+
+        imageDerivativeService.generate(SOURCE_URL);
+
+        verifyNoInteractions(s3StorageService);
+        verify(imageDerivativeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("產生縮圖 - 其他工作正在產生時略過")
+    void generate_ClaimedByOtherWorker() throws Exception {
+        when(distributedLock.tryLock(anyString(), any())).thenReturn(null);
+
+        assertThat(imageDerivativeService.generate(SOURCE_URL)).isEmpty();
+
+        verifyNoInteractions(s3StorageService, imageDerivativeRepository);
+        verify(distributedLock, never()).unlock(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("產生縮圖 - 其他工作已先寫入時沿用既有記錄,不刪除同名 S3 物件")
+    void generate_LostInsertRace() throws Exception {
+        List<ImageDerivative> winner = List.of(derivative(SOURCE_URL, 320), derivative(SOURCE_URL, 640));
+        when(distributedLock.tryLock(anyString(), any())).thenThrow(new IllegalStateException("redis down"));
+        when(imageDerivativeRepository.findBySourceUrl(SOURCE_URL)).thenReturn(List.of(), winner);
+        when(s3StorageService.downloadPublicImage(SOURCE_URL)).thenReturn(png(1200, 400));
+        when(s3StorageService.getPublicS3Key(SOURCE_URL)).thenReturn(SOURCE_KEY);
+        when(s3StorageService.uploadPublicImage(anyString(), any(byte[].class), anyString()))
+                .thenAnswer(invocation -> "https://cdn.example.com/" + invocation.getArgument(0));
+        when(imageDerivativeRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_source_url_width"));
+
+        assertThat(imageDerivativeService.generate(SOURCE_URL)).isEqualTo(winner);
+
+        verify(s3StorageService, never()).deletePublicImage(anyString());
+        verify(distributedLock, never()).unlock(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("查詢縮圖 - 多張原圖單次查詢,再次查詢命中本地快取")
+    void findDerivatives_BatchedAndCached() {
+        String otherUrl = "https://cdn.example.com/products/product-2.jpg";
+        when(imageDerivativeRepository.findBySourceUrlInOrderByWidthAsc(anyCollection()))
+                .thenReturn(List.of(derivative(SOURCE_URL, 320), derivative(SOURCE_URL, 640)));
+
+        Map<String, List<ImageDerivative>> first = imageDerivativeService.findDerivatives(
+                Arrays.asList(SOURCE_URL, otherUrl, null));
+        Map<String, List<ImageDerivative>> second = imageDerivativeService.findDerivatives(List.of(SOURCE_URL, otherUrl));
+
+        assertThat(first.get(SOURCE_URL)).extracting(ImageDerivative::getWidth).containsExactly(320, 640);
+        assertThat(first.get(otherUrl)).isEmpty();
+        assertThat(second).isEqualTo(first);
+        verify(imageDerivativeRepository, times(1)).findBySourceUrlInOrderByWidthAsc(anyCollection());
+    }
+
+    @Test
+    @DisplayName("刪除縮圖 - 刪除 S3 物件與記錄,並清除快取")
+    void deleteDerivatives() {
+        ImageDerivative derivative = derivative(SOURCE_URL, 320);
+        when(imageDerivativeRepository.findBySourceUrl(SOURCE_URL)).thenReturn(List.of(derivative));
+        when(imageDerivativeRepository.findBySourceUrlInOrderByWidthAsc(anyCollection())).thenReturn(List.of());
+
+        imageDerivativeService.findDerivatives(SOURCE_URL);
+        imageDerivativeService.deleteDerivatives(SOURCE_URL);
+        imageDerivativeService.findDerivatives(SOURCE_URL);
+
+        verify(s3StorageService).deletePublicImage(derivative.getUrl());
+        verify(imageDerivativeRepository).deleteBySourceUrl(SOURCE_URL);
+        verify(imageDerivativeRepository, times(2)).findBySourceUrlInOrderByWidthAsc(anyCollection());
+    }
+
+    private static ImageDerivative derivative(String sourceUrl, int width) {
+        ImageDerivative derivative = new ImageDerivative();
+        derivative.setSourceUrl(sourceUrl);
+        derivative.setWidth(width);
+        derivative.setHeight(width / 2);
+        derivative.setUrl(sourceUrl.replace(".png", "-w" + width + ".jpg"));
+        derivative.setContentType("image/jpeg");
+        derivative.setSizeBytes(1000L);
+        return derivative;
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+}
@@ -3,6 +3,8 @@ package com.mimimart.application.service;
 import com.mimimart.domain.member.exception.*;
 import com.mimimart.infrastructure.persistence.entity.Member;
 import com.mimimart.infrastructure.persistence.repository.MemberRepository;
+import com.mimimart.infrastructure.storage.AvatarFileCache;
+import com.mimimart.infrastructure.storage.AvatarFileCache.CachedAvatar;
 import com.mimimart.infrastructure.storage.S3StorageService;
 import com.mimimart.shared.valueobject.MemberStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -42,6 +45,9 @@ class MemberServiceAvatarTest {
     @Mock
     private S3StorageService s3StorageService;
 
+    @Mock
+    private AvatarFileCache avatarFileCache;
+
     @InjectMocks
     private MemberService memberService;
 
@@ -202,36 +208,34 @@ class MemberServiceAvatarTest {
 
         // Assert
         verify(s3StorageService).deleteAvatar(oldS3Key);
+        verify(avatarFileCache).invalidate(oldS3Key);
         verify(s3StorageService).uploadAvatar(eq(memberId), any(MultipartFile.class));
     }
 
     @Test
-    @DisplayName("取得頭貼資料 - 成功")
-    void getAvatarData_Success() {
+    @DisplayName("取得頭貼 S3 Key - 成功")
+    void getAvatarS3Key_Success() {
         // Arrange
         Long memberId = 1L;
         String s3Key = "avatars/1/avatar.jpg";
-        byte[] avatarData = "image data".getBytes();
 
         testMember.setAvatarS3Key(s3Key);
 
         when(memberRepository.findById(memberId)).thenReturn(Optional.of(testMember));
-        when(s3StorageService.downloadAvatar(s3Key)).thenReturn(avatarData);
 
         // Act
-        byte[] result = memberService.getAvatarData(memberId);
+        String result = memberService.getAvatarS3Key(memberId);
 
         // Assert
-        assertThat(result).isEqualTo(avatarData);
+        assertThat(result).isEqualTo(s3Key);
         verify(memberRepository).findById(memberId);
-        verify(s3StorageService).downloadAvatar(s3Key);
     }
 
     // 此測試已移除 - 頭貼改為公開訪問,不再檢查權限
 
     @Test
-    @DisplayName("取得頭貼資料 - 會員尚未上傳頭貼")
-    void getAvatarData_NoAvatar() {
+    @DisplayName("取得頭貼 S3 Key - 會員尚未上傳頭貼")
+    void getAvatarS3Key_NoAvatar() {
         // Arrange
         Long memberId = 1L;
         testMember.setAvatarS3Key(null); // 沒有頭貼
@@ -239,33 +243,42 @@ class MemberServiceAvatarTest {
         when(memberRepository.findById(memberId)).thenReturn(Optional.of(testMember));
 
         // Act & Assert
-        assertThatThrownBy(() -> memberService.getAvatarData(memberId))
+        assertThatThrownBy(() -> memberService.getAvatarS3Key(memberId))
                 .isInstanceOf(AvatarNotFoundException.class)
                 .hasMessageContaining("該會員尚未上傳頭貼");
 
         verify(memberRepository).findById(memberId);
-        verify(s3StorageService, never()).downloadAvatar(any());
     }
 
     @Test
-    @DisplayName("取得頭貼 Content-Type - 成功")
-    void getAvatarContentType_Success() {
+    @DisplayName("取得頭貼檔案 - 經由磁碟快取取得")
+    void getAvatar_Success() {
         // Arrange
-        Long memberId = 1L;
         String s3Key = "avatars/1/avatar.jpg";
-        String contentType = "image/jpeg";
-
-        testMember.setAvatarS3Key(s3Key);
+        CachedAvatar cachedAvatar = new CachedAvatar(Path.of("avatar"), 10L, "image/jpeg",
+                AvatarFileCache.eTagOf(s3Key));
 
-        when(memberRepository.findById(memberId)).thenReturn(Optional.of(testMember));
-        when(s3StorageService.getContentType(s3Key)).thenReturn(contentType);
+        when(avatarFileCache.get(s3Key)).thenReturn(cachedAvatar);
 
         // Act
-        String result = memberService.getAvatarContentType(memberId);
+        CachedAvatar result = memberService.getAvatar(s3Key);
 
         // Assert
-        assertThat(result).isEqualTo(contentType);
-        verify(memberRepository).findById(memberId);
-        verify(s3StorageService).getContentType(s3Key);
+        assertThat(result).isEqualTo(cachedAvatar);
+        verifyNoInteractions(memberRepository, s3StorageService);
+    }
+
+    @Test
+    @DisplayName("取得頭貼檔案 - S3 下載失敗")
+    void getAvatar_DownloadFailed() {
+        // Arrange
+        String s3Key = "avatars/1/avatar.jpg";
+
+        when(avatarFileCache.get(s3Key)).thenThrow(new RuntimeException("頭貼不存在"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> memberService.getAvatar(s3Key))
+                .isInstanceOf(AvatarNotFoundException.class)
+                .hasMessageContaining("頭貼下載失敗");
     }
 }
@@ -0,0 +1,202 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.order.model.OrderStatus;
+import com.mimimart.infrastructure.persistence.entity.OrderDailyStatistics;
+import com.mimimart.infrastructure.persistence.entity.OrderEntity;
+import com.mimimart.infrastructure.persistence.repository.OrderDailyStatisticsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 訂單統計服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("訂單統計服務單元測試")
+class OrderStatisticsServiceTest {
+
+    private static final LocalDate ORDER_DATE = LocalDate.of(2025, 6, 1);
+
+    @Mock
+    private OrderDailyStatisticsRepository orderDailyStatisticsRepository;
+
+    private OrderStatisticsService orderStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        orderStatisticsService = new OrderStatisticsService(orderDailyStatisticsRepository, 1);
+    }
+
+    @Test
+    @DisplayName("建立訂單 - 累加建立日期的待付款計數")
+    void recordCreated() {
+        orderStatisticsService.recordCreated(order(OrderStatus.PAYMENT_PENDING));
+
+        verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "PAYMENT_PENDING", 0, 1, new BigDecimal("500.00"));
+        verifyNoMoreInteractions(orderDailyStatisticsRepository);
+    }
+
+    @Test
+    @DisplayName("建立訂單 - 計數分散至各分片")
+    void recordCreated_SpreadsAcrossShards() {
+        orderStatisticsService = new OrderStatisticsService(orderDailyStatisticsRepository, 4);
+
+        for (int i = 0; i < 200; i++) {
+            orderStatisticsService.recordCreated(order(OrderStatus.PAYMENT_PENDING));
+        }
+
+        ArgumentCaptor<Integer> shards = ArgumentCaptor.forClass(Integer.class);
+        verify(orderDailyStatisticsRepository, times(200))
+                .increment(eq(ORDER_DATE), eq("PAYMENT_PENDING"), shards.capture(), eq(1L), any());
+        assertThat(shards.getAllValues()).containsOnly(0, 1, 2, 3).contains(0, 1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("狀態轉換 - 舊狀態扣除、新狀態累加,依狀態順序更新")
+    void recordTransition() {
+        orderStatisticsService.recordTransition(order(OrderStatus.CANCELLED), OrderStatus.PAID);
+
+        InOrder inOrder = inOrder(orderDailyStatisticsRepository);
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "PAID", 0, -1, new BigDecimal("-500.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "CANCELLED", 0, 1, new BigDecimal("500.00"));
+    }
+
+    @Test
+    @DisplayName("狀態轉換 - 狀態未變更時不更新")
+    void recordTransition_SameStatus() {
+        orderStatisticsService.recordTransition(order(OrderStatus.PAID), OrderStatus.PAID);
+
+        verifyNoInteractions(orderDailyStatisticsRepository);
+    }
+
+    @Test
+    @DisplayName("批次狀態轉換 - 相同日期與狀態合併為一次更新,依日期、狀態順序更新")
+    void recordTransitions() {
+        OrderEntity nextDayOrder = order(OrderStatus.PAYMENT_PENDING);
+        nextDayOrder.setCreatedAt(ORDER_DATE.plusDays(1).atTime(9, 0));
+
+        orderStatisticsService.recordTransitions(List.of(nextDayOrder,
+                order(OrderStatus.PAYMENT_PENDING), order(OrderStatus.PAYMENT_PENDING)), OrderStatus.CANCELLED);
+
+        InOrder inOrder = inOrder(orderDailyStatisticsRepository);
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "PAYMENT_PENDING", 0, -2, new BigDecimal("-1000.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "CANCELLED", 0, 2, new BigDecimal("1000.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE.plusDays(1), "PAYMENT_PENDING", 0, -1, new BigDecimal("-500.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE.plusDays(1), "CANCELLED", 0, 1, new BigDecimal("500.00"));
+        verifyNoMoreInteractions(orderDailyStatisticsRepository);
+    }
+
+    @Test
+    @DisplayName("查詢統計 - 指定日期區間時彙總並附每日明細")
+    void getStatistics_DateRange() {
+        LocalDate nextDay = ORDER_DATE.plusDays(1);
+        when(orderDailyStatisticsRepository.findByStatDateBetweenOrderByStatDateAsc(ORDER_DATE, nextDay))
+                .thenReturn(List.of(
+                        statistics(ORDER_DATE, "PAID", 3, "1500.00"),
+                        statistics(ORDER_DATE, "PAID", -1, "-500.00"),
+                        statistics(ORDER_DATE, "CANCELLED", 1, "100.00"),
+                        statistics(ORDER_DATE, "CANCELLED", -1, "-100.00"),
+                        statistics(nextDay, "PAID", 1, "300.00"),
+                        statistics(nextDay, "COMPLETED", 3, "900.00")));
+
+        Map<String, Object> result = orderStatisticsService.getStatistics(ORDER_DATE, nextDay);
+
+        assertThat(result.get("totalOrders")).isEqualTo(6L);
+        assertThat(result.get("totalAmount")).isEqualTo(new BigDecimal("2200.00"));
+        assertThat(result.get("statusDistribution")).isEqualTo(Map.of("PAID", 3L, "COMPLETED", 3L));
+        List<?> daily = (List<?>) result.get("daily");
+        assertThat(daily).hasSize(2);
+        assertThat(((Map<?, ?>) daily.get(1)).get("totalOrders")).isEqualTo(4L);
+        verify(orderDailyStatisticsRepository, never()).sumByStatus();
+    }
+
+    @Test
+    @DisplayName("校正統計 - 比對訂單表與計數器彙總,僅將差額累加至分片 0")
+    void rebuild_AppliesDifference() {
+        LocalDate nextDay = ORDER_DATE.plusDays(1);
+        List<OrderDailyStatisticsRepository.DailyTotal> totals = List.of(
+                total(ORDER_DATE, OrderStatus.PAID, 2, "1000.00"),
+                total(ORDER_DATE, OrderStatus.CANCELLED, 1, "500.00"),
+                total(nextDay, OrderStatus.PAID, 1, "300.00"));
+        List<OrderDailyStatisticsRepository.DailyCounter> counters = List.of(
+                counter(ORDER_DATE, "PAID", 3, "1500.00"),
+                counter(ORDER_DATE, "CANCELLED", 1, "500.00"),
+                counter(nextDay, "COMPLETED", 1, "200.00"));
+        when(orderDailyStatisticsRepository.sumOrdersByDateAndStatus()).thenReturn(totals);
+        when(orderDailyStatisticsRepository.sumCountersByDateAndStatus()).thenReturn(counters);
+
+        assertThat(orderStatisticsService.rebuild()).isEqualTo(3);
+
+        InOrder inOrder = inOrder(orderDailyStatisticsRepository);
+        inOrder.verify(orderDailyStatisticsRepository).lockForRebuild();
+        inOrder.verify(orderDailyStatisticsRepository).increment(ORDER_DATE, "PAID", 0, -1L, new BigDecimal("-500.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(nextDay, "PAID", 0, 1L, new BigDecimal("300.00"));
+        inOrder.verify(orderDailyStatisticsRepository).increment(nextDay, "COMPLETED", 0, -1L, new BigDecimal("-200.00"));
+        verify(orderDailyStatisticsRepository, never()).increment(eq(ORDER_DATE), eq("CANCELLED"), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("校正統計 - 計數器無偏差時不寫入")
+    void rebuild_NoDrift() {
+        List<OrderDailyStatisticsRepository.DailyTotal> totals = List.of(total(ORDER_DATE, OrderStatus.PAID, 2, "1000.00"));
+        List<OrderDailyStatisticsRepository.DailyCounter> counters = List.of(counter(ORDER_DATE, "PAID", 2, "1000"));
+        when(orderDailyStatisticsRepository.sumOrdersByDateAndStatus()).thenReturn(totals);
+        when(orderDailyStatisticsRepository.sumCountersByDateAndStatus()).thenReturn(counters);
+
+        assertThat(orderStatisticsService.rebuild()).isZero();
+
+        verify(orderDailyStatisticsRepository, never()).increment(any(), anyString(), anyInt(), anyLong(), any());
+    }
+
+    private static OrderDailyStatisticsRepository.DailyTotal total(LocalDate date, OrderStatus status,
+                                                                   long count, String amount) {
+        OrderDailyStatisticsRepository.DailyTotal total = mock(OrderDailyStatisticsRepository.DailyTotal.class);
+        when(total.getStatDate()).thenReturn(date);
+        when(total.getStatus()).thenReturn(status);
+        when(total.getOrderCount()).thenReturn(count);
+        when(total.getTotalAmount()).thenReturn(new BigDecimal(amount));
+        return total;
+    }
+
+    private static OrderDailyStatisticsRepository.DailyCounter counter(LocalDate date, String status,
+                                                                       long count, String amount) {
+        OrderDailyStatisticsRepository.DailyCounter counter = mock(OrderDailyStatisticsRepository.DailyCounter.class);
+        when(counter.getStatDate()).thenReturn(date);
+        when(counter.getStatus()).thenReturn(status);
+        when(counter.getOrderCount()).thenReturn(count);
+        when(counter.getTotalAmount()).thenReturn(new BigDecimal(amount));
+        return counter;
+    }
+
+    private OrderEntity order(OrderStatus status) {
+        OrderEntity entity = new OrderEntity();
+        entity.setId(1L);
+        entity.setStatus(status);
+        entity.setTotalAmount(new BigDecimal("500.00"));
+        entity.setCreatedAt(ORDER_DATE.atTime(10, 0));
+        return entity;
+    }
+
+    private OrderDailyStatistics statistics(LocalDate date, String status, long count, String amount) {
+        OrderDailyStatistics statistics = new OrderDailyStatistics();
+        statistics.setStatDate(date);
+        statistics.setStatus(status);
+        statistics.setOrderCount(count);
+        statistics.setTotalAmount(new BigDecimal(amount));
+        return statistics;
+    }
+}
@@ -0,0 +1,120 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.order.model.Money;
+import com.mimimart.domain.payment.exception.InvalidPaymentStatusException;
+import com.mimimart.domain.payment.model.Payment;
+import com.mimimart.domain.payment.model.PaymentNumber;
+import com.mimimart.infrastructure.persistence.entity.PaymentEntity;
+import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import com.mimimart.infrastructure.persistence.mapper.OrderMapper;
+import com.mimimart.infrastructure.persistence.mapper.PaymentMapper;
+import com.mimimart.infrastructure.persistence.repository.OrderRepository;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 付款完成服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("付款完成服務單元測試")
+class PaymentCompletionServiceTest {
+
+    private static final String PAYMENT_NUMBER = "PAY0000000000001";
+    private static final String TRADE_NO = "2501011200001234";
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private OrderStatisticsService orderStatisticsService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @InjectMocks
+    private PaymentCompletionService paymentCompletionService;
+
+    private final PaymentEntity paymentEntity = new PaymentEntity();
+
+    @BeforeEach
+    void setUp() {
+        paymentEntity.setId(1L);
+        paymentEntity.setStatus(PaymentStatus.PENDING_PAYMENT);
+        when(paymentRepository.findByPaymentNumber(PAYMENT_NUMBER)).thenReturn(Optional.of(paymentEntity));
+    }
+
+    @Test
+    @DisplayName("完成付款 - 已付款時判定為重複回調,不更新")
+    void complete_AlreadyPaid() {
+        paymentEntity.setStatus(PaymentStatus.PAID);
+
+        boolean completed = paymentCompletionService.complete(PAYMENT_NUMBER, TRADE_NO, new BigDecimal("1000"));
+
+        assertThat(completed).isFalse();
+        verify(paymentRepository, never()).markPaidIfPending(any(), any(), any(), any(), any());
+        verifyNoInteractions(orderRepository, stockReservationService);
+    }
+
+    @Test
+    @DisplayName("完成付款 - 條件式更新未命中且已由並行回調完成時,不重複更新訂單")
+    void complete_ConcurrentDuplicate() {
+        when(paymentMapper.toDomain(paymentEntity)).thenReturn(pendingPayment());
+        when(paymentRepository.markPaidIfPending(eq(1L), eq(TRADE_NO), any(Instant.class),
+                eq(PaymentStatus.PENDING_PAYMENT), eq(PaymentStatus.PAID))).thenReturn(0);
+        when(paymentRepository.findStatusById(1L)).thenReturn(Optional.of(PaymentStatus.PAID));
+
+        boolean completed = paymentCompletionService.complete(PAYMENT_NUMBER, TRADE_NO, new BigDecimal("1000"));
+
+        assertThat(completed).isFalse();
+        verifyNoInteractions(orderRepository, orderStatisticsService, stockReservationService);
+    }
+
+    @Test
+    @DisplayName("完成付款 - 條件式更新未命中且付款已逾期時拋出異常")
+    void complete_ExpiredConcurrently() {
+        when(paymentMapper.toDomain(paymentEntity)).thenReturn(pendingPayment());
+        when(paymentRepository.markPaidIfPending(any(), any(), any(), any(), any())).thenReturn(0);
+        when(paymentRepository.findStatusById(1L)).thenReturn(Optional.of(PaymentStatus.EXPIRED));
+
+        assertThatThrownBy(() -> paymentCompletionService.complete(PAYMENT_NUMBER, TRADE_NO, new BigDecimal("1000")))
+                .isInstanceOf(InvalidPaymentStatusException.class);
+
+        verifyNoInteractions(orderRepository, stockReservationService);
+    }
+
+    private Payment pendingPayment() {
+        return Payment.builder()
+                .id(1L)
+                .orderId(100L)
+                .paymentNumber(PaymentNumber.of(PAYMENT_NUMBER))
+                .paymentMethod("ECPAY_Credit")
+                .status(PaymentStatus.PENDING_PAYMENT)
+                .amount(Money.of(new BigDecimal("1000")))
+                .expiredAt(Instant.now().plusSeconds(600))
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.payment.exception.PaymentCallbackInProgressException;
+import com.mimimart.infrastructure.payment.ecpay.ECPayService;
+import com.mimimart.infrastructure.persistence.mapper.PaymentMapper;
+import com.mimimart.infrastructure.persistence.repository.OrderRepository;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentCallbackRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentCallbackRepository.ClaimResult;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentExpiryQueue;
+import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 付款服務 - 付款回調冪等性單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("付款服務 - 付款回調冪等性單元測試")
+class PaymentServiceCallbackTest {
+
+    private static final String TRADE_NO = "2501011200001234";
+    private static final Map<String, String> PARAMS = Map.of("TradeNo", TRADE_NO);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @Mock
+    private ECPayService ecPayService;
+
+    @Mock
+    private PaymentCompletionService paymentCompletionService;
+
+    @Mock
+    private RedisPaymentExpiryQueue redisPaymentExpiryQueue;
+
+    @Mock
+    private RedisPaymentCallbackRepository redisPaymentCallbackRepository;
+
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = new PaymentService(paymentRepository, orderRepository, paymentMapper, ecPayService,
+                paymentCompletionService, new SnowflakeIdGenerator(1L), redisPaymentExpiryQueue,
+                redisPaymentCallbackRepository, 30, 168);
+
+        ECPayService.ECPayCallbackInfo callbackInfo = new ECPayService.ECPayCallbackInfo();
+        callbackInfo.setMerchantTradeNo("PAY0000000000001");
+        callbackInfo.setTradeNo(TRADE_NO);
+        callbackInfo.setRtnCode("1");
+        callbackInfo.setTradeAmt("1000");
+        when(ecPayService.verifyCallback(PARAMS)).thenReturn(true);
+        when(ecPayService.parseCallback(PARAMS)).thenReturn(callbackInfo);
+        when(ecPayService.isPaymentSuccess("1")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("付款回調 - 首次回調完成付款後記錄冪等鍵")
+    void handlePaymentCallback_FirstCallback() {
+        when(redisPaymentCallbackRepository.claim(eq(TRADE_NO), any(Duration.class))).thenReturn(ClaimResult.CLAIMED);
+
+        paymentService.handlePaymentCallback(PARAMS);
+
+        verify(paymentCompletionService).complete("PAY0000000000001", TRADE_NO, new BigDecimal("1000"));
+        verify(redisPaymentCallbackRepository).markDone(TRADE_NO, Duration.ofHours(168));
+    }
+
+    @Test
+    @DisplayName("付款回調 - 已完成的重複回調直接返回,不觸及資料庫")
+    void handlePaymentCallback_Duplicate() {
+        when(redisPaymentCallbackRepository.claim(eq(TRADE_NO), any(Duration.class))).thenReturn(ClaimResult.DONE);
+
+        paymentService.handlePaymentCallback(PARAMS);
+
+        verifyNoInteractions(paymentCompletionService, paymentRepository, orderRepository);
+    }
+
+    @Test
+    @DisplayName("付款回調 - 相同交易處理中時拋出異常,由綠界稍後重送")
+    void handlePaymentCallback_InProgress() {
+        when(redisPaymentCallbackRepository.claim(eq(TRADE_NO), any(Duration.class))).thenReturn(ClaimResult.PROCESSING);
+
+        assertThatThrownBy(() -> paymentService.handlePaymentCallback(PARAMS))
+                .isInstanceOf(PaymentCallbackInProgressException.class);
+
+        verifyNoInteractions(paymentCompletionService);
+    }
+
+    @Test
+    @DisplayName("付款回調 - 處理失敗時釋放冪等鍵,讓重送的回調重新處理")
+    void handlePaymentCallback_ReleasesOnFailure() {
+        when(redisPaymentCallbackRepository.claim(eq(TRADE_NO), any(Duration.class))).thenReturn(ClaimResult.CLAIMED);
+        when(paymentCompletionService.complete(any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> paymentService.handlePaymentCallback(PARAMS))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(redisPaymentCallbackRepository).release(TRADE_NO);
+        verify(redisPaymentCallbackRepository, never()).markDone(any(), any());
+    }
+
+    @Test
+    @DisplayName("付款回調 - Redis 不可用時改由資料庫條件式更新判定")
+    void handlePaymentCallback_RedisUnavailable() {
+        when(redisPaymentCallbackRepository.claim(eq(TRADE_NO), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        paymentService.handlePaymentCallback(PARAMS);
+
+        verify(paymentCompletionService).complete("PAY0000000000001", TRADE_NO, new BigDecimal("1000"));
+    }
+}
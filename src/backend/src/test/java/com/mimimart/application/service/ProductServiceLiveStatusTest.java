@@ -0,0 +1,104 @@
+package com.mimimart.application.service;
+
+import com.mimimart.infrastructure.cache.ProductCatalogCache;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.repository.CategoryRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品前台可見狀態排程測試
+ *
+ * @author MimiMart Development Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("商品前台可見狀態排程測試")
+class ProductServiceLiveStatusTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @Test
+    @DisplayName("更新可見狀態 - 分別翻轉上線與下線商品並失效其前台快取")
+    void refreshLiveStatus_FlipsAndEvicts() {
+        Product goingLive = product(1L, 10L);
+        Product goingOffline1 = product(2L, 10L);
+        Product goingOffline2 = product(3L, 20L);
+        when(productRepository.findProductsToGoLive(any(LocalDateTime.class))).thenReturn(List.of(goingLive));
+        when(productRepository.findProductsToGoOffline(any(LocalDateTime.class)))
+                .thenReturn(List.of(goingOffline1, goingOffline2));
+
+        int flipped = productService.refreshLiveStatus();
+
+        assertThat(flipped).isEqualTo(3);
+        verify(productRepository).updateLiveStatus(List.of(1L), true);
+        verify(productRepository).updateLiveStatus(List.of(2L, 3L), false);
+        verify(productCatalogCache).evictProduct(1L, 10L);
+        verify(productCatalogCache).evictProduct(2L, 10L);
+        verify(productCatalogCache).evictProduct(3L, 20L);
+    }
+
+    @Test
+    @DisplayName("更新可見狀態 - 上線與下線查詢使用同一個時間點")
+    void refreshLiveStatus_UsesSameInstant() {
+        when(productRepository.findProductsToGoLive(any(LocalDateTime.class))).thenReturn(List.of());
+        when(productRepository.findProductsToGoOffline(any(LocalDateTime.class))).thenReturn(List.of());
+
+        productService.refreshLiveStatus();
+
+        var liveCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        var offlineCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(productRepository).findProductsToGoLive(liveCaptor.capture());
+        verify(productRepository).findProductsToGoOffline(offlineCaptor.capture());
+        assertThat(offlineCaptor.getValue()).isEqualTo(liveCaptor.getValue());
+    }
+
+    @Test
+    @DisplayName("更新可見狀態 - 無需翻轉時不更新也不失效快取")
+    void refreshLiveStatus_NothingToFlip() {
+        when(productRepository.findProductsToGoLive(any(LocalDateTime.class))).thenReturn(List.of());
+        when(productRepository.findProductsToGoOffline(any(LocalDateTime.class))).thenReturn(List.of());
+
+        int flipped = productService.refreshLiveStatus();
+
+        assertThat(flipped).isZero();
+        verify(productRepository, never()).updateLiveStatus(anyCollection(), anyBoolean());
+        verifyNoInteractions(productCatalogCache);
+    }
+
+    private Product product(Long id, Long categoryId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        return product;
+    }
+}
@@ -0,0 +1,242 @@
+package com.mimimart.application.service;
+
+import com.mimimart.domain.cart.exception.InsufficientStockException;
+import com.mimimart.domain.order.model.Money;
+import com.mimimart.domain.order.model.OrderItem;
+import com.mimimart.infrastructure.cache.ProductCatalogCache;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.entity.StockReservation;
+import com.mimimart.infrastructure.persistence.entity.StockReservationStatus;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisStockRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisStockRepository.ReserveResult;
+import com.mimimart.infrastructure.persistence.repository.StockReservationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 庫存預留服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("庫存預留服務單元測試")
+class StockReservationServiceTest {
+
+    private static final Instant EXPIRES_AT = Instant.parse("2025-06-01T12:30:00Z");
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private RedisStockRepository redisStockRepository;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Test
+    @DisplayName("預留 - Redis 扣減成功後以條件式 UPDATE 扣減資料庫並記錄預留")
+    void reserve_Success() {
+        when(redisStockRepository.tryReserve(Map.of(1L, 3, 2L, 1)))
+                .thenReturn(new ReserveResult(ReserveResult.Status.RESERVED, null, null, Map.of(1L, 7L, 2L, 4L)));
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
+
+        stockReservationService.reserve(100L, List.of(item(1L, 2), item(2L, 1), item(1L, 1)), EXPIRES_AT);
+
+        verify(productRepository).decrementStock(1L, 3);
+        verify(productRepository).decrementStock(2L, 1);
+        verify(stockReservationRepository, times(2)).save(argThat(reservation ->
+                reservation.getOrderId().equals(100L)
+                        && reservation.getStatus() == StockReservationStatus.RESERVED
+                        && reservation.getExpiresAt().equals(EXPIRES_AT)));
+        verifyNoInteractions(productCatalogCache);
+    }
+
+    @Test
+    @DisplayName("預留 - Redis 可售數量不足時直接拒絕,不觸及資料庫")
+    void reserve_InsufficientInRedis() {
+        when(redisStockRepository.tryReserve(anyMap()))
+                .thenReturn(new ReserveResult(ReserveResult.Status.INSUFFICIENT, 1L, 0, Map.of()));
+
+        assertThatThrownBy(() -> stockReservationService.reserve(100L, List.of(item(1L, 1)), EXPIRES_AT))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(stockReservationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("預留 - Redis 無可售數量時從資料庫載入後重試,售完時失效前台快取")
+    void reserve_LoadsMissingStock() {
+        when(redisStockRepository.tryReserve(anyMap()))
+                .thenReturn(new ReserveResult(ReserveResult.Status.MISSING, 1L, null, Map.of()))
+                .thenReturn(new ReserveResult(ReserveResult.Status.RESERVED, null, null, Map.of(1L, 0L)));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1L, 2)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 0)));
+        when(productRepository.decrementStock(1L, 2)).thenReturn(1);
+
+        stockReservationService.reserve(100L, List.of(item(1L, 2)), EXPIRES_AT);
+
+        verify(redisStockRepository).loadIfAbsent(1L, 2);
+        verify(productCatalogCache).evictProduct(1L, 10L);
+    }
+
+    @Test
+    @DisplayName("預留 - 資料庫庫存不足時拋出異常")
+    void reserve_InsufficientInDatabase() {
+        when(redisStockRepository.tryReserve(anyMap()))
+                .thenReturn(new ReserveResult(ReserveResult.Status.RESERVED, null, null, Map.of(1L, 5L)));
+        when(productRepository.decrementStock(1L, 1)).thenReturn(0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 0)));
+
+        assertThatThrownBy(() -> stockReservationService.reserve(100L, List.of(item(1L, 1)), EXPIRES_AT))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(stockReservationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("預留 - Redis 不可用時退回僅以資料庫扣減")
+    void reserve_RedisUnavailable() {
+        when(redisStockRepository.tryReserve(anyMap())).thenThrow(new RedisConnectionFailureException("down"));
+        when(productRepository.decrementStock(1L, 1)).thenReturn(1);
+
+        stockReservationService.reserve(100L, List.of(item(1L, 1)), EXPIRES_AT);
+
+        verify(productRepository).decrementStock(1L, 1);
+        verify(stockReservationRepository).save(any(StockReservation.class));
+    }
+
+    @Test
+    @DisplayName("釋放 - 歸還資料庫與 Redis 庫存並標記為已釋放")
+    void release_RestoresStock() {
+        StockReservation reservation = reservation(10L, 100L, 1L, 3);
+        when(stockReservationRepository.findByOrderIdAndStatus(100L, StockReservationStatus.RESERVED))
+                .thenReturn(new ArrayList<>(List.of(reservation)));
+        when(stockReservationRepository.updateStatusIfMatch(eq(10L), eq(StockReservationStatus.RESERVED),
+                eq(StockReservationStatus.RELEASED), any())).thenReturn(1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 3)));
+
+        stockReservationService.release(100L);
+
+        verify(productRepository).incrementStock(1L, 3);
+        verify(redisStockRepository).release(Map.of(1L, 3));
+        assertThat(reservation.getStatus()).isEqualTo(StockReservationStatus.RELEASED);
+    }
+
+    @Test
+    @DisplayName("釋放 - 無待釋放預留時不歸還庫存")
+    void release_NothingReserved() {
+        when(stockReservationRepository.findByOrderIdAndStatus(100L, StockReservationStatus.RESERVED))
+                .thenReturn(new ArrayList<>());
+
+        stockReservationService.release(100L);
+
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+        verifyNoInteractions(redisStockRepository);
+    }
+
+    @Test
+    @DisplayName("釋放 - 預留已被並行交易釋放時不歸還庫存")
+    void release_AlreadyClaimed() {
+        when(stockReservationRepository.findByOrderIdAndStatus(100L, StockReservationStatus.RESERVED))
+                .thenReturn(new ArrayList<>(List.of(reservation(10L, 100L, 1L, 3))));
+        when(stockReservationRepository.updateStatusIfMatch(anyLong(), any(), any(), any())).thenReturn(0);
+
+        stockReservationService.release(100L);
+
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+        verifyNoInteractions(redisStockRepository, productCatalogCache);
+    }
+
+    @Test
+    @DisplayName("釋放 - 同一訂單並行釋放兩次只歸還一次庫存")
+    void release_ConcurrentReleasesRestoreOnce() throws Exception {
+        // 以記憶體中的狀態模擬資料庫條件式 UPDATE,兩個交易都讀到 RESERVED 後才更新
+        Map<Long, AtomicReference<StockReservationStatus>> statuses = new ConcurrentHashMap<>(Map.of(
+                10L, new AtomicReference<>(StockReservationStatus.RESERVED),
+                11L, new AtomicReference<>(StockReservationStatus.RESERVED)));
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        when(stockReservationRepository.findByOrderIdAndStatus(100L, StockReservationStatus.RESERVED))
+                .thenAnswer(invocation -> {
+                    List<StockReservation> reserved = new ArrayList<>(List.of(
+                            reservation(11L, 100L, 2L, 1), reservation(10L, 100L, 1L, 3)));
+                    bothRead.await(5, TimeUnit.SECONDS);
+                    return reserved;
+                });
+        when(stockReservationRepository.updateStatusIfMatch(anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> statuses.get(invocation.<Long>getArgument(0))
+                        .compareAndSet(invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+        when(productRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(product(invocation.getArgument(0), 3)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> stockReservationService.release(100L));
+            Future<?> second = executor.submit(() -> stockReservationService.release(100L));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(productRepository, times(1)).incrementStock(1L, 3);
+        verify(productRepository, times(1)).incrementStock(2L, 1);
+        verify(redisStockRepository, times(1)).release(anyMap());
+        assertThat(statuses.values()).allSatisfy(status ->
+                assertThat(status.get()).isEqualTo(StockReservationStatus.RELEASED));
+    }
+
+    private StockReservation reservation(Long id, Long orderId, Long productId, int quantity) {
+        StockReservation reservation = StockReservation.reserve(orderId, productId, quantity, EXPIRES_AT);
+        reservation.setId(id);
+        return reservation;
+    }
+
+    private OrderItem item(Long productId, int quantity) {
+        OrderItem.ProductSnapshot snapshot = OrderItem.ProductSnapshot.builder()
+                .productName("商品" + productId)
+                .price(Money.of(new BigDecimal("100")))
+                .build();
+        return OrderItem.of(productId, snapshot, quantity);
+    }
+
+    private Product product(Long id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStock(stock);
+        product.setCategoryId(10L);
+        return product;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mimimart.domain.payment.model;
+
+import com.mimimart.infrastructure.utils.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 付款編號值對象單元測試
+ */
+@DisplayName("付款編號值對象單元測試")
+class PaymentNumberTest {
+
+    @Test
+    @DisplayName("雪花算法 ID 編碼 - 固定 16 碼英數字,最大 ID 仍符合綠界 20 碼限制")
+    void fromSnowflakeId_FixedLengthAlphanumeric() {
+        PaymentNumber smallest = PaymentNumber.fromSnowflakeId(0);
+        PaymentNumber largest = PaymentNumber.fromSnowflakeId(Long.MAX_VALUE);
+
+        assertThat(smallest.getValue()).isEqualTo("PAY0000000000000");
+        assertThat(largest.getValue()).hasSize(16).matches("PAY[0-9A-Z]{13}");
+        assertThatThrownBy(() -> PaymentNumber.fromSnowflakeId(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("雪花算法 ID 編碼 - 字串排序與生成順序一致")
+    void fromSnowflakeId_PreservesOrder() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+
+        String previous = "";
+        for (int i = 0; i < 10_000; i++) {
+            String value = PaymentNumber.fromSnowflakeId(generator.nextId()).getValue();
+            assertThat(value).isGreaterThan(previous);
+            previous = value;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.mimimart.infrastructure.cache;
+
+import com.mimimart.infrastructure.persistence.entity.BannerEntity;
+import com.mimimart.infrastructure.persistence.entity.BannerStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 前台輪播圖快照單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("前台輪播圖快照單元測試")
+class ActiveBannerCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private MutableClock clock;
+    private ActiveBannerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        cache = new ActiveBannerCache(redisTemplate, listenerContainer, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    @DisplayName("快照有效期間 - 第二次讀取不再查詢資料庫")
+    void getActiveBanners_MemoryHit() {
+        AtomicInteger loads = new AtomicInteger();
+        List<BannerEntity> banners = List.of(banner(1L, null, null), banner(2L, null, null));
+
+        List<BannerEntity> first = cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+        clock.advance(Duration.ofMinutes(5));
+        List<BannerEntity> second = cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+
+        assertThat(first).extracting(BannerEntity::getId).containsExactly(1L, 2L);
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("排程上下架 - 只回傳上架期間內的輪播圖,並於下一個時間點重新載入")
+    void getActiveBanners_ExpiresAtNextBoundary() {
+        AtomicInteger loads = new AtomicInteger();
+        List<BannerEntity> banners = List.of(
+                banner(1L, NOW.minusDays(1), NOW.plusMinutes(3)),
+                banner(2L, NOW.plusMinutes(1), null),
+                banner(3L, NOW.minusDays(2), NOW.minusDays(1)));
+
+        List<BannerEntity> beforeBoundary = cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+        clock.advance(Duration.ofSeconds(59));
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+        clock.advance(Duration.ofSeconds(1));
+        List<BannerEntity> atPublish = cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+        clock.advance(Duration.ofMinutes(2));
+        List<BannerEntity> atUnpublish = cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return banners;
+        });
+
+        assertThat(beforeBoundary).extracting(BannerEntity::getId).containsExactly(1L);
+        assertThat(atPublish).extracting(BannerEntity::getId).containsExactly(1L, 2L);
+        assertThat(atUnpublish).extracting(BannerEntity::getId).containsExactly(2L);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("無排程時間點 - 快照於最長存活時間後重新載入")
+    void getActiveBanners_ExpiresAtMaxTtl() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+        clock.advance(Duration.ofMinutes(10));
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("後台異動 - 清除本節點快照並發布失效通知")
+    void evict_PublishesInvalidation() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        cache.evict();
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        verify(redisTemplate).convertAndSend(eq("banner:active:invalidate"), anyString());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Redis 不可用 - 仍清除本節點快照")
+    void evict_RedisUnavailable() {
+        doThrow(new IllegalStateException("redis down"))
+                .when(redisTemplate).convertAndSend(anyString(), anyString());
+        AtomicInteger loads = new AtomicInteger();
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        cache.evict();
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("收到其他節點失效通知 - 丟棄本地快照")
+    void onMessage_ClearsSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        cache.onMessage(new DefaultMessage("banner:active:invalidate".getBytes(StandardCharsets.UTF_8),
+                "evict".getBytes(StandardCharsets.UTF_8)), null);
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("載入期間收到失效通知 - 不保存可能過期的快照")
+    void getActiveBanners_InvalidatedDuringLoad() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            cache.onMessage(new DefaultMessage(new byte[0], new byte[0]), null);
+            return List.of(banner(1L, null, null));
+        });
+        cache.getActiveBanners(() -> {
+            loads.incrementAndGet();
+            return List.of(banner(1L, null, null));
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static BannerEntity banner(Long id, LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
+        BannerEntity banner = new BannerEntity();
+        banner.setId(id);
+        banner.setTitle("Banner " + id);
+        banner.setImageUrl("https://cdn.example.com/banners/banner-" + id + ".jpg");
+        banner.setStatus(BannerStatus.ACTIVE);
+        banner.setPublishedAt(publishedAt);
+        banner.setUnpublishedAt(unpublishedAt);
+        return banner;
+    }
+
+    /**
+     * 可手動推進的時鐘
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime start) {
+            this.instant = start.toInstant(ZoneOffset.UTC);
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
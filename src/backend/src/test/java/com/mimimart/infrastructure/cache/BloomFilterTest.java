@@ -0,0 +1,60 @@
+package com.mimimart.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 布隆過濾器單元測試
+ */
+@DisplayName("布隆過濾器單元測試")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("已新增的元素一定判定為可能存在")
+    void mightContain_NoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            String token = "token-" + i;
+            long h1 = BloomFilter.hash64(token, 1);
+            filter.put(h1, BloomFilter.mix64(h1 ^ 2));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            String token = "token-" + i;
+            long h1 = BloomFilter.hash64(token, 1);
+            assertThat(filter.mightContain(h1, BloomFilter.mix64(h1 ^ 2))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("未新增的元素誤判率接近設定值")
+    void mightContain_FalsePositiveRateWithinBound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            String token = "token-" + i;
+            long h1 = BloomFilter.hash64(token, 1);
+            filter.put(h1, BloomFilter.mix64(h1 ^ 2));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String token = "other-" + i;
+            long h1 = BloomFilter.hash64(token, 1);
+            if (filter.mightContain(h1, BloomFilter.mix64(h1 ^ 2))) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("不同種子產生不同雜湊值,相同輸入結果一致")
+    void hash64_SeedIndependentAndDeterministic() {
+        assertThat(BloomFilter.hash64("eyJhbGciOiJIUzI1NiJ9.a.b", 1))
+                .isEqualTo(BloomFilter.hash64(new StringBuilder("eyJhbGciOiJIUzI1NiJ9.a.b"), 1))
+                .isNotEqualTo(BloomFilter.hash64("eyJhbGciOiJIUzI1NiJ9.a.b", 2));
+    }
+}
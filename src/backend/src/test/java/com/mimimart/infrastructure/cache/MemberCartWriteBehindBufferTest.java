@@ -0,0 +1,90 @@
+package com.mimimart.infrastructure.cache;
+
+import com.mimimart.infrastructure.persistence.entity.MemberCart;
+import com.mimimart.infrastructure.persistence.repository.MemberCartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 會員購物車主表延遲寫入緩衝單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("會員購物車主表延遲寫入緩衝單元測試")
+class MemberCartWriteBehindBufferTest {
+
+    @Mock
+    private MemberCartRepository memberCartRepository;
+
+    private MemberCartWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new MemberCartWriteBehindBuffer(memberCartRepository, 600, 1000);
+    }
+
+    @Test
+    @DisplayName("刷新 - 多次異動合併為一次批次更新,並建立尚未存在的主表")
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesAndCreatesMissingCarts() {
+        buffer.markDirty(1L);
+        buffer.markDirty(2L);
+        buffer.markDirty(1L);
+        when(memberCartRepository.touchByMemberIds(anyCollection(), any(LocalDateTime.class))).thenReturn(1);
+        when(memberCartRepository.findMemberIdsByMemberIdIn(anyCollection())).thenReturn(List.of(1L));
+
+        int flushed = buffer.flush();
+
+        assertThat(flushed).isEqualTo(2);
+        ArgumentCaptor<Collection<Long>> memberIds = ArgumentCaptor.forClass(Collection.class);
+        verify(memberCartRepository).touchByMemberIds(memberIds.capture(), any(LocalDateTime.class));
+        assertThat(memberIds.getValue()).containsExactlyInAnyOrder(1L, 2L);
+        ArgumentCaptor<Iterable<MemberCart>> created = ArgumentCaptor.forClass(Iterable.class);
+        verify(memberCartRepository).saveAll(created.capture());
+        assertThat(created.getValue()).extracting(MemberCart::getMemberId).containsExactly(2L);
+
+        // 已刷新的標記不再重複寫入
+        assertThat(buffer.flush()).isZero();
+        verifyNoMoreInteractions(memberCartRepository);
+    }
+
+    @Test
+    @DisplayName("刷新 - 寫入失敗時保留標記,下次刷新重試")
+    void flush_RetainsDirtyOnFailure() {
+        buffer.markDirty(1L);
+        when(memberCartRepository.touchByMemberIds(anyCollection(), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+
+        assertThatThrownBy(() -> buffer.flush()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(buffer.flush()).isEqualTo(1);
+        verify(memberCartRepository, times(2)).touchByMemberIds(anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("項目上限 - 主表不存在時使用預設值,並快取查詢結果")
+    void getMaxItemsCount_DefaultsAndCaches() {
+        when(memberCartRepository.findByMemberId(1L)).thenReturn(Optional.empty());
+
+        assertThat(buffer.getMaxItemsCount(1L)).isEqualTo(100);
+        assertThat(buffer.getMaxItemsCount(1L)).isEqualTo(100);
+
+        verify(memberCartRepository, times(1)).findByMemberId(1L);
+    }
+}
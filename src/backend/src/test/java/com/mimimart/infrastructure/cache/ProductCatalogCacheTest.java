@@ -0,0 +1,219 @@
+package com.mimimart.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品目錄快取單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("商品目錄快取單元測試")
+class ProductCatalogCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private ProductCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(1L);
+        cache = new ProductCatalogCache(redisTemplate, listenerContainer, objectMapper, 30, 100, 600);
+    }
+
+    @Test
+    @DisplayName("商品詳情 - 第二次讀取命中本地快取,不再查詢資料庫")
+    void getPublishedProduct_LocalHit() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Optional<Product> first = cache.getPublishedProduct(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(product(1L, 10L));
+        });
+        Optional<Product> second = cache.getPublishedProduct(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(product(1L, 10L));
+        });
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(second.get().getName()).isEqualTo("商品1");
+        assertThat(loads.get()).isEqualTo(1);
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("catalog:product:detail:1", "catalog:product:version:detail:1")),
+                eq(""), anyString(), eq("600"));
+        assertThat(cache.getStats().get("localHits")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("商品詳情 - 本地未命中時從 Redis 讀取")
+    void getPublishedProduct_RedisHit() throws Exception {
+        String json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(product(2L, 10L));
+        when(valueOperations.get("catalog:product:detail:2")).thenReturn(json);
+
+        Optional<Product> result = cache.getPublishedProduct(2L, Optional::empty);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo(2L);
+        assertThat(cache.getStats().get("redisHits")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("商品詳情 - 不存在的商品不寫入快取")
+    void getPublishedProduct_NotFoundNotCached() {
+        Optional<Product> result = cache.getPublishedProduct(3L, Optional::empty);
+
+        assertThat(result).isEmpty();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("商品列表 - 寫入 Redis 並記錄於列表索引")
+    void getPublishedPage_IndexesListKey() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<Product> page = new PageImpl<>(List.of(product(1L, 10L)), pageable, 1);
+
+        Page<Product> result = cache.getPublishedPageByCategory(10L, pageable, () -> page);
+
+        assertThat(result.getContent()).hasSize(1);
+        verify(redisTemplate).execute(any(RedisScript.class), argThat((List<String> keys) ->
+                        keys.get(0).startsWith("catalog:product:list:cat10:0:20:")
+                                && keys.get(1).equals("catalog:product:version:list:cat10")
+                                && keys.get(2).equals("catalog:product:list-keys:cat10")),
+                eq(""), anyString(), eq("600"));
+    }
+
+    @Test
+    @DisplayName("失效 - 刪除詳情與受影響範圍的列表並發佈通知")
+    void evictProduct_DeletesKeysAndPublishes() {
+        when(setOperations.members("catalog:product:list-keys:all")).thenReturn(Set.of("catalog:product:list:all:0:20:UNSORTED"));
+
+        cache.evictProduct(1L, 10L);
+
+        verify(redisTemplate).delete(argThat((Collection<String> keys) ->
+                keys.contains("catalog:product:detail:1")
+                        && keys.contains("catalog:product:list:all:0:20:UNSORTED")
+                        && keys.contains("catalog:product:list-keys:cat10")));
+        verify(redisTemplate).convertAndSend("catalog:product:invalidate", "1|all,cat10");
+        verify(valueOperations).increment("catalog:product:version:detail:1");
+        verify(valueOperations).increment("catalog:product:version:list:all");
+        verify(valueOperations).increment("catalog:product:version:list:cat10");
+    }
+
+    @Test
+    @DisplayName("載入期間其他節點失效 - 版本已變更,不回寫 Redis 與本地快取")
+    void getPublishedProduct_InvalidatedDuringLoadOnOtherNode() {
+        when(valueOperations.get("catalog:product:version:detail:1")).thenReturn("3");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(0L);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPublishedProduct(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(product(1L, 10L));
+        });
+        cache.getPublishedProduct(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(product(1L, 10L));
+        });
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), eq("3"), anyString(), eq("600"));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("載入期間收到失效通知 - 不保存本地快取")
+    void getPublishedPage_InvalidatedDuringLoadOnThisNode() {
+        Pageable pageable = PageRequest.of(0, 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPublishedPage(pageable, () -> {
+            loads.incrementAndGet();
+            cache.onMessage(new DefaultMessage("catalog:product:invalidate".getBytes(StandardCharsets.UTF_8),
+                    "1|all".getBytes(StandardCharsets.UTF_8)), null);
+            return new PageImpl<>(List.of(product(1L, 10L)), pageable, 1);
+        });
+        cache.getPublishedPage(pageable, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(product(1L, 10L)), pageable, 1);
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("失效通知 - 清除本地快取中的詳情與列表")
+    void onMessage_EvictsLocal() {
+        Pageable pageable = PageRequest.of(0, 20);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getPublishedPage(pageable, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(product(1L, 10L)), pageable, 1);
+        });
+
+        cache.onMessage(new DefaultMessage("catalog:product:invalidate".getBytes(StandardCharsets.UTF_8),
+                "1|all".getBytes(StandardCharsets.UTF_8)), null);
+        cache.getPublishedPage(pageable, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(product(1L, 10L)), pageable, 1);
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private Product product(Long id, Long categoryId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("商品" + id);
+        product.setPrice(new BigDecimal("100.00"));
+        product.setStock(10);
+        product.setCategoryId(categoryId);
+        return product;
+    }
+}
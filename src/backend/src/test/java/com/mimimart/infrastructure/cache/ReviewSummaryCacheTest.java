@@ -0,0 +1,107 @@
+package com.mimimart.infrastructure.cache;
+
+import com.mimimart.domain.review.model.ReviewSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品評價彙總快取單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("商品評價彙總快取單元測試")
+class ReviewSummaryCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ReviewSummaryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new ReviewSummaryCache(redisTemplate, 600);
+    }
+
+    @Test
+    @DisplayName("批次查詢 - 命中的商品不查資料庫,未命中的商品一次載入並回寫")
+    void getAll_LoadsOnlyMisses() {
+        when(valueOperations.multiGet(List.of("review:summary:1", "review:summary:2", "review:summary:3",
+                "review:summary:version:1", "review:summary:version:2", "review:summary:version:3")))
+                .thenReturn(Arrays.asList("2,9,0,0,0,1,1", null, null, null, "4", null));
+        List<Collection<Long>> loaderCalls = new ArrayList<>();
+
+        Map<Long, ReviewSummary> result = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loaderCalls.add(List.copyOf(ids));
+            return Map.of(2L, new ReviewSummary(1, 3, new long[] {0, 0, 1, 0, 0}));
+        });
+
+        assertThat(result.keySet()).containsExactly(1L, 2L, 3L);
+        assertThat(result.get(1L).avgRating()).isEqualTo(4.5);
+        assertThat(result.get(1L).ratingDistribution()).containsExactly(
+                Map.entry(1, 0L), Map.entry(2, 0L), Map.entry(3, 0L), Map.entry(4, 1L), Map.entry(5, 1L));
+        assertThat(result.get(2L).totalReviews()).isEqualTo(1);
+        assertThat(result.get(3L).totalReviews()).isZero();
+        assertThat(loaderCalls).containsExactly(List.of(2L, 3L));
+        // 回寫時比對載入前讀取的版本 (無版本 Key 時為空字串)
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("review:summary:2", "review:summary:version:2",
+                        "review:summary:3", "review:summary:version:3")),
+                eq("600"), eq("4"), eq("1,3,0,0,1,0,0"), eq(""), eq("0,0,0,0,0,0,0"));
+    }
+
+    @Test
+    @DisplayName("失效 - 刪除彙總並遞增版本,使載入中的讀取不回寫")
+    void evict_BumpsVersion() {
+        cache.evict(7L);
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("review:summary:7", "review:summary:version:7")), eq("600"));
+    }
+
+    @Test
+    @DisplayName("批次查詢 - Redis 不可用時改由資料庫載入全部商品")
+    void getAll_RedisUnavailable() {
+        when(valueOperations.multiGet(any())).thenThrow(new RuntimeException("connection refused"));
+
+        Map<Long, ReviewSummary> result = cache.getAll(List.of(1L), ids -> Map.of());
+
+        assertThat(result.get(1L).totalReviews()).isZero();
+        assertThat(result.get(1L).avgRating()).isZero();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("編碼 - 編碼後可還原")
+    void encodeDecode_RoundTrip() {
+        ReviewSummary summary = new ReviewSummary(5, 19, new long[] {0, 1, 1, 1, 2});
+
+        ReviewSummary decoded = ReviewSummaryCache.decode(ReviewSummaryCache.encode(summary));
+
+        assertThat(decoded.totalReviews()).isEqualTo(5);
+        assertThat(decoded.ratingSum()).isEqualTo(19);
+        assertThat(decoded.ratingCounts()).containsExactly(0, 1, 1, 1, 2);
+    }
+}
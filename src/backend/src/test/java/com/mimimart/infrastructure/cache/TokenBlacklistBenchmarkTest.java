@@ -0,0 +1,105 @@
+package com.mimimart.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token 黑名單查詢效能基準測試
+ * 比較原本每次請求的 SHA-256 + 十六進位字串組裝 (不含其後的 Redis 往返) 與布隆過濾器查詢
+ *
+ * 預設不執行,使用 mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= 執行
+ */
+@Tag("benchmark")
+@DisplayName("Token 黑名單查詢效能基準測試")
+class TokenBlacklistBenchmarkTest {
+
+    private static final int BLACKLIST_SIZE = 100_000;
+    private static final int TOKEN_COUNT = 10_000;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    @DisplayName("布隆過濾器 vs SHA-256 雜湊鍵")
+    void compareWithSha256Key() throws Exception {
+        Random random = new Random(42);
+        BloomFilter filter = new BloomFilter(BLACKLIST_SIZE, 0.01);
+        for (int i = 0; i < BLACKLIST_SIZE; i++) {
+            String token = randomToken(random);
+            long h1 = BloomFilter.hash64(token, 1);
+            filter.put(h1, BloomFilter.mix64(h1 ^ 2));
+        }
+        List<String> tokens = new ArrayList<>(TOKEN_COUNT);
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            tokens.add(randomToken(random));
+        }
+
+        // 暖機
+        runFilter(filter, tokens);
+        runSha256(tokens);
+
+        long start = System.nanoTime();
+        long hits = runFilter(filter, tokens);
+        long filterNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long keyLength = runSha256(tokens);
+        long shaNanos = System.nanoTime() - start;
+
+        long lookups = (long) ITERATIONS * TOKEN_COUNT;
+        System.out.printf("黑名單筆數=%d, 查詢次數=%d, 誤判率=%.4f%n", BLACKLIST_SIZE, lookups, (double) hits / lookups);
+        System.out.printf("布隆過濾器: 平均 %.1f ns/次%n", (double) filterNanos / lookups);
+        System.out.printf("SHA-256 雜湊鍵: 平均 %.1f ns/次 (尚未計入 Redis 往返)%n", (double) shaNanos / lookups);
+
+        assertThat(keyLength).isPositive();
+    }
+
+    private long runFilter(BloomFilter filter, List<String> tokens) {
+        long hits = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String token : tokens) {
+                long h1 = BloomFilter.hash64(token, 1);
+                if (filter.mightContain(h1, BloomFilter.mix64(h1 ^ 2))) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 與 TokenBlacklistService.hashToken 相同的運算
+     */
+    private long runSha256(List<String> tokens) throws Exception {
+        long length = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String token : tokens) {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+                StringBuilder hexString = new StringBuilder();
+                for (byte b : hash) {
+                    String hex = Integer.toHexString(0xff & b);
+                    if (hex.length() == 1) {
+                        hexString.append('0');
+                    }
+                    hexString.append(hex);
+                }
+                length += ("auth:blacklist:token:" + hexString).length();
+            }
+        }
+        return length;
+    }
+
+    private static String randomToken(Random random) {
+        byte[] bytes = new byte[180];
+        random.nextBytes(bytes);
+        return "eyJhbGciOiJIUzI1NiJ9." + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mimimart.infrastructure.email;
+
+import com.mimimart.application.service.EmailOutboxService;
+import com.mimimart.infrastructure.email.sender.EmailSender;
+import com.mimimart.infrastructure.persistence.entity.EmailOutbox;
+import com.mimimart.shared.valueobject.EmailType;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 郵件發送佇列派送器單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("郵件發送佇列派送器單元測試")
+class EmailOutboxDispatcherTest {
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private EmailSender emailSender;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailOutboxDispatcher(emailOutboxService, emailSender, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("派送 - 單封郵件成功後標記為已發送")
+    void dispatch_SingleSuccess() throws Exception {
+        List<EmailOutbox> chunk = List.of(outbox(1L));
+
+        dispatcher.dispatch(chunk);
+
+        verify(emailSender).send("user1@example.com", "主旨1", "<html>1</html>");
+        verify(emailOutboxService).markSent(chunk);
+        verify(emailOutboxService, never()).markFailed(any(), any());
+    }
+
+    @Test
+    @DisplayName("派送 - 多封郵件使用批次發送")
+    void dispatch_Batch() throws Exception {
+        List<EmailOutbox> chunk = List.of(outbox(1L), outbox(2L));
+
+        dispatcher.dispatch(chunk);
+
+        verify(emailSender).sendBatch(argThat(messages -> messages.size() == 2
+                && messages.get(1).to().equals("user2@example.com")));
+        verify(emailSender, never()).send(any(), any(), any());
+        verify(emailOutboxService).markSent(chunk);
+    }
+
+    @Test
+    @DisplayName("派送 - 發送失敗時記錄失敗以排程重試")
+    void dispatch_Failure() throws Exception {
+        List<EmailOutbox> chunk = List.of(outbox(1L));
+        doThrow(new MessagingException("SMTP timeout")).when(emailSender).send(any(), any(), any());
+
+        dispatcher.dispatch(chunk);
+
+        verify(emailOutboxService).markFailed(chunk, "SMTP timeout");
+        verify(emailOutboxService, never()).markSent(any());
+    }
+
+    @Test
+    @DisplayName("取出 - 依發送器批次上限分批,取滿時繼續取出下一批")
+    void drain_PartitionsByMaxBatchSize() throws Exception {
+        when(emailSender.maxBatchSize()).thenReturn(2);
+        when(emailOutboxService.claimDueEmails(3))
+                .thenReturn(List.of(outbox(1L), outbox(2L), outbox(3L)))
+                .thenReturn(List.of());
+
+        dispatcher.drain();
+
+        verify(emailOutboxService, timeout(1000).times(2)).markSent(anyList());
+        verify(emailSender, timeout(1000)).sendBatch(argThat(messages -> messages.size() == 2));
+        verify(emailSender, timeout(1000)).send("user3@example.com", "主旨3", "<html>3</html>");
+        verify(emailOutboxService, times(2)).claimDueEmails(3);
+    }
+
+    private EmailOutbox outbox(Long id) {
+        EmailOutbox outbox = new EmailOutbox();
+        outbox.setId(id);
+        outbox.setRecipientEmail("user" + id + "@example.com");
+        outbox.setEmailType(EmailType.VERIFICATION);
+        outbox.setSubject("主旨" + id);
+        outbox.setHtmlContent("<html>" + id + "</html>");
+        outbox.setAttempts(1);
+        return outbox;
+    }
+}
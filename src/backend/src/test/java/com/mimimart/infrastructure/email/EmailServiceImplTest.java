@@ -1,12 +1,8 @@
 package com.mimimart.infrastructure.email;
 
+import com.mimimart.application.service.EmailOutboxService;
 import com.mimimart.application.service.EmailQuotaService;
-import com.mimimart.application.service.EmailRateLimitService;
-import com.mimimart.application.service.EmailSendLogService;
-import com.mimimart.application.service.EmailService;
-import com.mimimart.infrastructure.email.sender.EmailSender;
 import com.mimimart.shared.valueobject.EmailType;
-import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,9 +28,6 @@ import static org.mockito.Mockito.*;
 @DisplayName("EmailService 單元測試")
 class EmailServiceImplTest {
 
-    @Mock
-    private EmailSender emailSender;
-
     @Mock
     private TemplateEngine templateEngine;
 
@@ -42,10 +35,10 @@ class EmailServiceImplTest {
     private EmailQuotaService emailQuotaService;
 
     @Mock
-    private EmailRateLimitService emailRateLimitService;
+    private EmailOutboxService emailOutboxService;
 
     @Mock
-    private EmailSendLogService emailSendLogService;
+    private EmailOutboxDispatcher emailOutboxDispatcher;
 
     @InjectMocks
     private EmailServiceImpl emailService;
@@ -62,7 +55,7 @@ class EmailServiceImplTest {
 
     @Test
     @DisplayName("發送歡迎郵件 - 成功")
-    void sendWelcomeEmail_Success() throws Exception {
+    void sendWelcomeEmail_Success() {
         // Given
         String htmlContent = "<html>Welcome</html>";
         when(templateEngine.process(eq("email/welcome"), any(Context.class)))
@@ -73,15 +66,15 @@ class EmailServiceImplTest {
 
         // Then
         verify(templateEngine).process(eq("email/welcome"), any(Context.class));
-        verify(emailSender).send(eq(TEST_EMAIL), eq("歡迎加入 MimiMart！"), eq(htmlContent));
         verify(emailQuotaService).checkAndIncrementQuota();
-        verify(emailSendLogService).logEmailSent(isNull(), eq(TEST_EMAIL), eq(EmailType.WELCOME), eq("歡迎加入 MimiMart！"));
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq(EmailType.WELCOME), eq("歡迎加入 MimiMart！"), eq(htmlContent));
+        verify(emailOutboxDispatcher).wakeUp();
     }
 
 
     @Test
     @DisplayName("發送驗證郵件 - 成功")
-    void sendVerificationEmail_Success() throws Exception {
+    void sendVerificationEmail_Success() {
         // Given
         String htmlContent = "<html>Verify your email</html>";
         when(templateEngine.process(eq("email/verification"), any(Context.class)))
@@ -93,9 +86,9 @@ class EmailServiceImplTest {
         // Then
         ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
         verify(templateEngine).process(eq("email/verification"), contextCaptor.capture());
-        verify(emailSender).send(eq(TEST_EMAIL), eq("請驗證您的 Email"), eq(htmlContent));
         verify(emailQuotaService).checkAndIncrementQuota();
-        verify(emailSendLogService).logEmailSent(isNull(), eq(TEST_EMAIL), eq(EmailType.VERIFICATION), eq("請驗證您的 Email"));
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq(EmailType.VERIFICATION), eq("請驗證您的 Email"), eq(htmlContent));
+        verify(emailOutboxDispatcher).wakeUp();
 
         Context context = contextCaptor.getValue();
         assertThat(context.getVariable("memberName")).isEqualTo(TEST_NAME);
@@ -108,7 +101,7 @@ class EmailServiceImplTest {
 
     @Test
     @DisplayName("發送密碼重設郵件 - 成功")
-    void sendPasswordResetEmail_Success() throws Exception {
+    void sendPasswordResetEmail_Success() {
         // Given
         String htmlContent = "<html>Reset your password</html>";
         when(templateEngine.process(eq("email/password-reset"), any(Context.class)))
@@ -120,9 +113,9 @@ class EmailServiceImplTest {
         // Then
         ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
         verify(templateEngine).process(eq("email/password-reset"), contextCaptor.capture());
-        verify(emailSender).send(eq(TEST_EMAIL), eq("重設您的密碼"), eq(htmlContent));
         verify(emailQuotaService).checkAndIncrementQuota();
-        verify(emailSendLogService).logEmailSent(isNull(), eq(TEST_EMAIL), eq(EmailType.PASSWORD_RESET), eq("重設您的密碼"));
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq(EmailType.PASSWORD_RESET), eq("重設您的密碼"), eq(htmlContent));
+        verify(emailOutboxDispatcher).wakeUp();
 
         Context context = contextCaptor.getValue();
         assertThat(context.getVariable("memberName")).isEqualTo(TEST_NAME);
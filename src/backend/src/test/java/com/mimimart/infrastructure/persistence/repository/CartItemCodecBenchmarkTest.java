@@ -0,0 +1,102 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購物車項目值編碼效能基準測試
+ * 比較舊字串格式 ("{quantity}|{addedAt}" + String.split) 與二進位格式的值大小、解碼時間與配置量
+ *
+ * 預設不執行,使用 mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= 執行
+ */
+@Tag("benchmark")
+@DisplayName("購物車項目值編碼效能基準測試")
+class CartItemCodecBenchmarkTest {
+
+    private static final int VALUE_COUNT = 100;
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    @DisplayName("二進位格式 - 值較小,解碼配置量較少")
+    void binaryVersusLegacy() {
+        Random random = new Random(42);
+        String[] legacy = new String[VALUE_COUNT];
+        byte[][] binary = new byte[VALUE_COUNT][];
+        long legacyBytes = 0;
+        long binaryBytes = 0;
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            int quantity = 1 + random.nextInt(20);
+            long addedAt = 1_760_000_000_000L + random.nextInt(1_000_000_000);
+            legacy[i] = quantity + "|" + addedAt;
+            binary[i] = CartItemCodec.encode(quantity, addedAt);
+            legacyBytes += legacy[i].getBytes(StandardCharsets.UTF_8).length;
+            binaryBytes += binary[i].length;
+        }
+
+        // 暖機
+        long sink = decodeLegacy(legacy, 2_000) + decodeBinary(binary, 2_000);
+
+        Measurement legacyResult = measure(() -> decodeLegacy(legacy, ITERATIONS));
+        Measurement binaryResult = measure(() -> decodeBinary(binary, ITERATIONS));
+        sink += legacyResult.sink() + binaryResult.sink();
+
+        long decodes = (long) VALUE_COUNT * ITERATIONS;
+        System.out.printf("值大小 (平均位元組): 字串 %.1f, 二進位 %.1f%n",
+                (double) legacyBytes / VALUE_COUNT, (double) binaryBytes / VALUE_COUNT);
+        System.out.printf("解碼時間 (ns/筆): 字串 %.1f, 二進位 %.1f%n",
+                (double) legacyResult.nanos() / decodes, (double) binaryResult.nanos() / decodes);
+        System.out.printf("解碼配置 (位元組/筆): 字串 %.1f, 二進位 %.1f (sink=%d)%n",
+                (double) legacyResult.allocatedBytes() / decodes, (double) binaryResult.allocatedBytes() / decodes, sink);
+
+        assertThat(binaryBytes).isLessThan(legacyBytes);
+        assertThat(binaryResult.allocatedBytes()).isLessThan(legacyResult.allocatedBytes());
+    }
+
+    /**
+     * 舊實作: String.split 後以 Integer.parseInt / Long.parseLong 解析
+     */
+    private static long decodeLegacy(String[] values, int iterations) {
+        long sink = 0;
+        for (int n = 0; n < iterations; n++) {
+            for (String value : values) {
+                String[] parts = value.split("\\|");
+                CartItemValue decoded = new CartItemValue(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+                sink += decoded.quantity + decoded.addedAt;
+            }
+        }
+        return sink;
+    }
+
+    private static long decodeBinary(byte[][] values, int iterations) {
+        long sink = 0;
+        for (int n = 0; n < iterations; n++) {
+            for (byte[] value : values) {
+                CartItemValue decoded = CartItemCodec.decode(value);
+                sink += decoded.quantity + decoded.addedAt;
+            }
+        }
+        return sink;
+    }
+
+    private static Measurement measure(java.util.function.LongSupplier task) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long sink = task.getAsLong();
+        long nanos = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(nanos, allocated, sink);
+    }
+
+    private record Measurement(long nanos, long allocatedBytes, long sink) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購物車項目值二進位編碼單元測試
+ */
+@DisplayName("購物車項目值二進位編碼單元測試")
+class CartItemCodecTest {
+
+    private static final long ADDED_AT = 1_760_000_000_123L;
+
+    @Test
+    @DisplayName("編碼後解碼 - 數量與加入時間一致,且長度小於舊字串格式")
+    void encodeDecode_RoundTrip() {
+        byte[] encoded = CartItemCodec.encode(999, ADDED_AT);
+
+        CartItemValue decoded = CartItemCodec.decode(encoded);
+
+        assertThat(decoded.quantity).isEqualTo(999);
+        assertThat(decoded.addedAt).isEqualTo(ADDED_AT);
+        assertThat(CartItemCodec.isLegacy(encoded)).isFalse();
+        assertThat(encoded.length).isLessThan(("999|" + ADDED_AT).length());
+    }
+
+    @Test
+    @DisplayName("時間戳單獨編碼 - 附加於版本與數量之後等同完整編碼 (Lua 腳本寫入格式)")
+    void encodeTimestamp_MatchesFullEncoding() {
+        byte[] timestamp = CartItemCodec.encodeTimestamp(ADDED_AT);
+        byte[] composed = new byte[2 + timestamp.length];
+        composed[0] = CartItemCodec.VERSION_1;
+        composed[1] = 5;
+        System.arraycopy(timestamp, 0, composed, 2, timestamp.length);
+
+        assertThat(composed).isEqualTo(CartItemCodec.encode(5, ADDED_AT));
+    }
+
+    @Test
+    @DisplayName("舊字串格式 - 可解碼並標記為待改寫,格式錯誤時回傳 null")
+    void decode_LegacyFormat() {
+        byte[] legacy = ("3|" + ADDED_AT).getBytes(StandardCharsets.UTF_8);
+
+        CartItemValue decoded = CartItemCodec.decode(legacy);
+
+        assertThat(CartItemCodec.isLegacy(legacy)).isTrue();
+        assertThat(decoded.quantity).isEqualTo(3);
+        assertThat(decoded.addedAt).isEqualTo(ADDED_AT);
+        assertThat(CartItemCodec.decode("abc".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(CartItemCodec.decode(new byte[] {CartItemCodec.VERSION_1, (byte) 0x80})).isNull();
+    }
+}
@@ -0,0 +1,158 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.persistence.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品前台可見查詢測試 (H2 MySQL 相容模式)
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=INFO",
+        "logging.level.com.mimimart=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DisplayName("商品前台可見查詢測試")
+class ProductRepositoryLiveTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private static final long CATEGORY_ID = 10L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("前台列表 - 僅回傳可見且在上架期間內的商品,上架時間含邊界、下架時間不含邊界")
+    void findLiveProducts_WindowEdges() {
+        long always = live(product("無期限", null, null));
+        long publishedNow = live(product("剛上架", NOW, null));
+        live(product("尚未上架", NOW.plusMinutes(1), null));
+        live(product("剛下架", null, NOW));
+        long beforeUnpublish = live(product("即將下架", null, NOW.plusMinutes(1)));
+        offline(product("不可見", null, null));
+
+        Page<Product> firstPage = productRepository.findLiveProducts(NOW, PageRequest.of(0, 2, Sort.by("id")));
+        Page<Product> secondPage = productRepository.findLiveProducts(NOW, PageRequest.of(1, 2, Sort.by("id")));
+
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.getTotalPages()).isEqualTo(2);
+        assertThat(firstPage.getContent()).extracting(Product::getId).containsExactly(always, publishedNow);
+        assertThat(secondPage.getContent()).extracting(Product::getId).containsExactly(beforeUnpublish);
+    }
+
+    @Test
+    @DisplayName("前台分類列表 - 依分類過濾並回傳正確的總筆數")
+    void findLiveProductsByCategory() {
+        long inCategory = live(product("分類內", null, null));
+        Product otherCategory = product("其他分類", null, null);
+        otherCategory.setCategoryId(CATEGORY_ID + 1);
+        live(otherCategory);
+        live(product("分類內已下架", null, NOW.minusDays(1)));
+
+        Page<Product> page = productRepository.findLiveProductsByCategory(CATEGORY_ID, NOW, PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(Product::getId).containsExactly(inCategory);
+    }
+
+    @Test
+    @DisplayName("排程 - 進入上架期間的商品標記為可見,停用、刪除與期間外的商品不標記")
+    void findProductsToGoLive() {
+        long due = offline(product("到期上架", NOW.minusMinutes(1), null));
+        long noWindow = offline(product("無期限", null, null));
+        offline(product("尚未上架", NOW.plusMinutes(1), null));
+        offline(product("已過下架時間", null, NOW));
+        Product inactive = product("已停用", null, null);
+        inactive.deactivate();
+        offline(inactive);
+        Product deleted = product("已刪除", null, null);
+        deleted.markAsDeleted();
+        offline(deleted);
+        live(product("已可見", null, null));
+
+        List<Product> result = productRepository.findProductsToGoLive(NOW);
+
+        assertThat(result).extracting(Product::getId).containsExactlyInAnyOrder(due, noWindow);
+    }
+
+    @Test
+    @DisplayName("排程 - 離開上架期間或狀態不符的可見商品標記為不可見")
+    void findProductsToGoOffline() {
+        long expired = live(product("到期下架", null, NOW));
+        long notYet = live(product("上架時間延後", NOW.plusMinutes(1), null));
+        Product inactive = product("已停用", null, null);
+        inactive.deactivate();
+        long inactiveId = live(inactive);
+        Product unpublished = product("已下架", null, null);
+        unpublished.unpublish();
+        long unpublishedId = live(unpublished);
+        Product deleted = product("已刪除", null, null);
+        deleted.markAsDeleted();
+        long deletedId = live(deleted);
+        live(product("仍在期間內", NOW.minusDays(1), NOW.plusDays(1)));
+        offline(product("已不可見", null, NOW.minusDays(1)));
+
+        List<Product> result = productRepository.findProductsToGoOffline(NOW);
+
+        assertThat(result).extracting(Product::getId)
+                .containsExactlyInAnyOrder(expired, notYet, inactiveId, unpublishedId, deletedId);
+    }
+
+    private Product product(String name, LocalDateTime publishedAt, LocalDateTime unpublishedAt) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("100.00"));
+        product.setStock(10);
+        product.setCategoryId(CATEGORY_ID);
+        product.setPublishedAt(publishedAt);
+        product.setUnpublishedAt(unpublishedAt);
+        return product;
+    }
+
+    private long live(Product product) {
+        return persistWithLiveFlag(product, true);
+    }
+
+    private long offline(Product product) {
+        return persistWithLiveFlag(product, false);
+    }
+
+    /**
+     * 儲存後直接設定 is_live (模擬排程尚未翻轉的狀態)
+     */
+    private long persistWithLiveFlag(Product product, boolean live) {
+        Long id = entityManager.persistAndFlush(product).getId();
+        productRepository.updateLiveStatus(List.of(id), live);
+        entityManager.clear();
+        return id;
+    }
+}
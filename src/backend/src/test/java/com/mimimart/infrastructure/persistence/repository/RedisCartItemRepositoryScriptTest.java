@@ -0,0 +1,201 @@
+package com.mimimart.infrastructure.persistence.repository;
+
+import com.mimimart.infrastructure.config.RedisConfiguration;
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.AddResult;
+import com.mimimart.infrastructure.persistence.repository.RedisCartItemRepository.CartItemValue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購物車加入腳本測試 (內嵌 Redis 實際執行 Lua 腳本)
+ */
+@DisplayName("購物車加入腳本測試")
+class RedisCartItemRepositoryScriptTest {
+
+    private static final long MEMBER_ID = 1L;
+    private static final int MAX_ITEMS = 5;
+    private static final int MAX_QUANTITY = 999;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<byte[], byte[]> binaryRedisTemplate;
+
+    private RedisCartItemRepository repository;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        binaryRedisTemplate = new RedisConfiguration().binaryRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        binaryRedisTemplate.delete(cartKey());
+        repository = new RedisCartItemRepository(binaryRedisTemplate);
+    }
+
+    @Test
+    @DisplayName("加入新項目 - 寫入二進位格式並設定 TTL")
+    void add_NewItem() {
+        AddResult result = repository.add(MEMBER_ID, 100L, 2, MAX_ITEMS, MAX_QUANTITY);
+
+        assertThat(result.status()).isEqualTo(AddResult.Status.ADDED);
+        assertThat(result.quantity()).isEqualTo(2);
+        assertThat(result.newItem()).isTrue();
+        assertThat(storedValue(100L)[0]).isEqualTo(CartItemCodec.VERSION_1);
+        CartItemValue stored = CartItemCodec.decode(storedValue(100L));
+        assertThat(stored.quantity).isEqualTo(2);
+        assertThat(stored.addedAt).isEqualTo(result.addedAt());
+        assertThat(binaryRedisTemplate.getExpire(cartKey())).isPositive();
+    }
+
+    @Test
+    @DisplayName("購物車已滿 - 新項目回傳 CART_FULL 且不寫入,既有項目仍可累加")
+    void add_CartFull() {
+        for (long productId = 1; productId <= MAX_ITEMS; productId++) {
+            repository.save(MEMBER_ID, productId, 1);
+        }
+
+        AddResult full = repository.add(MEMBER_ID, 100L, 1, MAX_ITEMS, MAX_QUANTITY);
+        AddResult existing = repository.add(MEMBER_ID, 1L, 1, MAX_ITEMS, MAX_QUANTITY);
+
+        assertThat(full.status()).isEqualTo(AddResult.Status.CART_FULL);
+        assertThat(full.quantity()).isEqualTo(MAX_ITEMS);
+        assertThat(repository.exists(MEMBER_ID, 100L)).isFalse();
+        assertThat(existing.status()).isEqualTo(AddResult.Status.ADDED);
+        assertThat(existing.quantity()).isEqualTo(2);
+        assertThat(repository.countByMemberId(MEMBER_ID)).isEqualTo(MAX_ITEMS);
+    }
+
+    @Test
+    @DisplayName("超過單項數量上限 - 回傳 QUANTITY_EXCEEDED 與累加後數量,原值不變")
+    void add_QuantityExceeded() {
+        repository.save(MEMBER_ID, 100L, 98);
+        byte[] before = storedValue(100L);
+
+        AddResult result = repository.add(MEMBER_ID, 100L, 5, MAX_ITEMS, 99);
+
+        assertThat(result.status()).isEqualTo(AddResult.Status.QUANTITY_EXCEEDED);
+        assertThat(result.quantity()).isEqualTo(103);
+        assertThat(storedValue(100L)).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("累加舊字串格式項目 - 解析舊數量並改寫為二進位格式")
+    void add_LegacyValue() {
+        binaryRedisTemplate.opsForHash().put(cartKey(), field(100L),
+                "5|1700000000000".getBytes(StandardCharsets.US_ASCII));
+
+        AddResult result = repository.add(MEMBER_ID, 100L, 3, MAX_ITEMS, MAX_QUANTITY);
+
+        assertThat(result.status()).isEqualTo(AddResult.Status.ADDED);
+        assertThat(result.quantity()).isEqualTo(8);
+        assertThat(result.newItem()).isFalse();
+        assertThat(CartItemCodec.isLegacy(storedValue(100L))).isFalse();
+        assertThat(repository.getQuantity(MEMBER_ID, 100L)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("累加多位元組 varint 數量 - 數量 >= 128 時正確解碼與編碼")
+    void add_MultiByteVarintQuantity() {
+        repository.save(MEMBER_ID, 100L, 200);
+        repository.save(MEMBER_ID, 200L, 127);
+
+        AddResult large = repository.add(MEMBER_ID, 100L, 100, MAX_ITEMS, MAX_QUANTITY);
+        AddResult crossing = repository.add(MEMBER_ID, 200L, 1, MAX_ITEMS, MAX_QUANTITY);
+
+        assertThat(large.quantity()).isEqualTo(300);
+        assertThat(crossing.quantity()).isEqualTo(128);
+        assertThat(storedValue(100L)).isEqualTo(CartItemCodec.encode(300, large.addedAt()));
+        assertThat(storedValue(200L)).isEqualTo(CartItemCodec.encode(128, crossing.addedAt()));
+        assertThat(repository.getQuantity(MEMBER_ID, 100L)).isEqualTo(300);
+        assertThat(repository.getQuantity(MEMBER_ID, 200L)).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("並行加入 - 項目數差一達上限時僅一個新項目成功,不超過上限")
+    void add_ConcurrentAtLimit() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; round++) {
+                binaryRedisTemplate.delete(cartKey());
+                for (long productId = 1; productId < MAX_ITEMS; productId++) {
+                    repository.save(MEMBER_ID, productId, 1);
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<AddResult>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    long productId = 100L + i;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return repository.add(MEMBER_ID, productId, 1, MAX_ITEMS, MAX_QUANTITY);
+                    }));
+                }
+                start.countDown();
+
+                int added = 0;
+                for (Future<AddResult> future : futures) {
+                    if (future.get().status() == AddResult.Status.ADDED) {
+                        added++;
+                    }
+                }
+                assertThat(added).isEqualTo(1);
+                assertThat(repository.countByMemberId(MEMBER_ID)).isEqualTo(MAX_ITEMS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] cartKey() {
+        return ("cart:" + MEMBER_ID).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] field(long productId) {
+        return String.valueOf(productId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] storedValue(long productId) {
+        return (byte[]) binaryRedisTemplate.opsForHash().get(cartKey(), field(productId));
+    }
+}
@@ -0,0 +1,59 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.application.service.OrderStatisticsService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 訂單定時任務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("訂單定時任務單元測試")
+class OrderScheduledTasksTest {
+
+    @Mock
+    private OrderStatisticsService orderStatisticsService;
+
+    @Mock
+    private RedisDistributedLock redisDistributedLock;
+
+    private OrderScheduledTasks orderScheduledTasks;
+
+    @BeforeEach
+    void setUp() {
+        orderScheduledTasks = new OrderScheduledTasks(orderStatisticsService, redisDistributedLock, 3600);
+    }
+
+    @Test
+    @DisplayName("校正統計 - 取得分散式鎖後執行並釋放")
+    void rebuildStatistics_LockAcquired() {
+        when(redisDistributedLock.tryLock(OrderScheduledTasks.LOCK_KEY, Duration.ofHours(1))).thenReturn("token");
+        when(orderStatisticsService.rebuild()).thenThrow(new IllegalStateException("db down"));
+
+        orderScheduledTasks.rebuildStatistics();
+
+        verify(orderStatisticsService).rebuild();
+        verify(redisDistributedLock).unlock(OrderScheduledTasks.LOCK_KEY, "token");
+    }
+
+    @Test
+    @DisplayName("校正統計 - 其他節點執行中時略過")
+    void rebuildStatistics_LockHeldByOtherNode() {
+        when(redisDistributedLock.tryLock(anyString(), any())).thenReturn(null);
+
+        orderScheduledTasks.rebuildStatistics();
+
+        verifyNoInteractions(orderStatisticsService);
+        verify(redisDistributedLock, never()).unlock(anyString(), anyString());
+    }
+}
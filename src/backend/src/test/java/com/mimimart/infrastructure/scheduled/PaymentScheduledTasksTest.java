@@ -0,0 +1,117 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.application.service.ExpiredPaymentService;
+import com.mimimart.application.service.ExpiredPaymentService.ChunkResult;
+import com.mimimart.infrastructure.persistence.entity.PaymentStatus;
+import com.mimimart.infrastructure.persistence.repository.PaymentRepository;
+import com.mimimart.infrastructure.persistence.repository.RedisPaymentExpiryQueue;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 付款定時任務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("付款定時任務單元測試")
+class PaymentScheduledTasksTest {
+
+    @Mock
+    private ExpiredPaymentService expiredPaymentService;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private RedisPaymentExpiryQueue redisPaymentExpiryQueue;
+
+    @Mock
+    private RedisDistributedLock redisDistributedLock;
+
+    private PaymentScheduledTasks paymentScheduledTasks;
+
+    @BeforeEach
+    void setUp() {
+        // 每批 2 筆、2 個並行批次 (每頁 4 筆)
+        paymentScheduledTasks = new PaymentScheduledTasks(
+                expiredPaymentService, paymentRepository, redisPaymentExpiryQueue, redisDistributedLock, 2, 2, 300);
+    }
+
+    @Test
+    @DisplayName("逾期佇列 - 取出已到期的付款並處理,直到佇列無到期項目")
+    void expireDuePayments_DrainsDueEntries() {
+        when(redisPaymentExpiryQueue.pollDue(any(Instant.class), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(expiredPaymentService.expireChunk(anyList())).thenReturn(new ChunkResult(1, 1));
+
+        paymentScheduledTasks.expireDuePayments();
+
+        verify(expiredPaymentService).expireChunk(List.of(1L, 2L));
+        verify(expiredPaymentService).expireChunk(List.of(3L));
+        verify(redisPaymentExpiryQueue, times(2)).pollDue(any(Instant.class), eq(2));
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    @DisplayName("逾期佇列 - 處理失敗時延後重新排入佇列")
+    void expireDuePayments_ReschedulesOnFailure() {
+        when(redisPaymentExpiryQueue.pollDue(any(Instant.class), eq(2))).thenReturn(List.of(1L));
+        when(expiredPaymentService.expireChunk(List.of(1L))).thenThrow(new IllegalStateException("db down"));
+
+        paymentScheduledTasks.expireDuePayments();
+
+        verify(redisPaymentExpiryQueue).reschedule(eq(List.of(1L)), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("逾期檢查 - 分頁讀取並分批處理,單一批次失敗不影響其他批次,完成後釋放鎖")
+    void handleExpiredPayments_ProcessesAllChunks() {
+        when(redisDistributedLock.tryLock(eq(PaymentScheduledTasks.LOCK_KEY), any(Duration.class))).thenReturn("token");
+        when(redisDistributedLock.renew(eq(PaymentScheduledTasks.LOCK_KEY), eq("token"), any())).thenReturn(true);
+        when(paymentRepository.findIdsByStatusAndExpiredAtBefore(eq(PaymentStatus.PENDING_PAYMENT), any(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(paymentRepository.findIdsByStatusAndExpiredAtBefore(eq(PaymentStatus.PENDING_PAYMENT), any(), eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(5L));
+        Set<List<Long>> processed = ConcurrentHashMap.newKeySet();
+        when(expiredPaymentService.expireChunk(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = List.copyOf(invocation.getArgument(0));
+            processed.add(chunk);
+            if (chunk.contains(3L)) {
+                throw new IllegalStateException("deadlock");
+            }
+            return new ChunkResult(chunk.size(), chunk.size());
+        });
+
+        paymentScheduledTasks.handleExpiredPayments();
+
+        assertThat(processed).containsExactlyInAnyOrder(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        verify(redisDistributedLock).unlock(PaymentScheduledTasks.LOCK_KEY, "token");
+    }
+
+    @Test
+    @DisplayName("逾期檢查 - 其他節點持有鎖時略過")
+    void handleExpiredPayments_LockHeldElsewhere() {
+        when(redisDistributedLock.tryLock(eq(PaymentScheduledTasks.LOCK_KEY), any(Duration.class))).thenReturn(null);
+
+        paymentScheduledTasks.handleExpiredPayments();
+
+        verifyNoInteractions(paymentRepository, expiredPaymentService);
+        verify(redisDistributedLock, never()).unlock(any(), any());
+    }
+}
@@ -0,0 +1,59 @@
+package com.mimimart.infrastructure.scheduled;
+
+import com.mimimart.application.service.ProductService;
+import com.mimimart.infrastructure.utils.RedisDistributedLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品定時任務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("商品定時任務單元測試")
+class ProductScheduledTasksTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private RedisDistributedLock redisDistributedLock;
+
+    private ProductScheduledTasks productScheduledTasks;
+
+    @BeforeEach
+    void setUp() {
+        productScheduledTasks = new ProductScheduledTasks(productService, redisDistributedLock, 300);
+    }
+
+    @Test
+    @DisplayName("更新可見狀態 - 取得分散式鎖後執行並釋放")
+    void refreshLiveStatus_LockAcquired() {
+        when(redisDistributedLock.tryLock(ProductScheduledTasks.LOCK_KEY, Duration.ofMinutes(5))).thenReturn("token");
+        when(productService.refreshLiveStatus()).thenThrow(new IllegalStateException("db down"));
+
+        productScheduledTasks.refreshLiveStatus();
+
+        verify(productService).refreshLiveStatus();
+        verify(redisDistributedLock).unlock(ProductScheduledTasks.LOCK_KEY, "token");
+    }
+
+    @Test
+    @DisplayName("更新可見狀態 - 其他節點執行中時略過")
+    void refreshLiveStatus_LockHeldByOtherNode() {
+        when(redisDistributedLock.tryLock(anyString(), any())).thenReturn(null);
+
+        productScheduledTasks.refreshLiveStatus();
+
+        verifyNoInteractions(productService);
+        verify(redisDistributedLock, never()).unlock(anyString(), anyString());
+    }
+}
@@ -0,0 +1,124 @@
+package com.mimimart.infrastructure.search;
+
+import com.mimimart.infrastructure.persistence.entity.Category;
+import com.mimimart.infrastructure.persistence.entity.Product;
+import com.mimimart.infrastructure.persistence.repository.CategoryRepository;
+import com.mimimart.infrastructure.persistence.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 倒排索引商品搜尋服務單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("倒排索引商品搜尋服務單元測試")
+class InvertedIndexProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, Product> products = new HashMap<>();
+    private InvertedIndexProductSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("3C 配件");
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(productRepository.findAllByIsActiveTrueAndIsPublishedTrueAndIsDeletedFalse(any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.copyOf(products.values())));
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(products.get(invocation.<Long>getArgument(0))));
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(products::get).filter(p -> p != null).toList();
+        });
+
+        for (long id = 1; id <= 3; id++) {
+            products.put(id, product(id, "藍牙耳機 " + id));
+        }
+        searchService = new InvertedIndexProductSearchService(
+                productRepository, categoryRepository, redisTemplate, listenerContainer);
+        searchService.rebuild();
+    }
+
+    @Test
+    @DisplayName("索引包含已下架商品 - 分頁前移除,本頁筆數與總數正確")
+    void search_RemovesStaleEntriesBeforePaging() {
+        // 其他節點下架商品,本節點索引尚未更新
+        products.get(3L).setIsPublished(false);
+
+        Page<Product> page = searchService.search("藍牙耳機", PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).extracting(Product::getId).containsExactly(2L, 1L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("收到其他節點的異動通知 - 從資料庫重新載入商品")
+    void onMessage_ReloadsProduct() {
+        products.put(4L, product(4L, "降噪耳機"));
+        products.get(1L).setIsDeleted(true);
+
+        searchService.onMessage(message("other-node|4"), null);
+        searchService.onMessage(message("other-node|1"), null);
+
+        assertThat(searchService.search("降噪", PageRequest.of(0, 10)).getContent())
+                .extracting(Product::getId).containsExactly(4L);
+        assertThat(searchService.search("藍牙耳機", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(2);
+        verify(productRepository).findById(4L);
+        verify(productRepository).findById(1L);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("product:search:changed".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+        product.setIsPublished(true);
+        product.setIsDeleted(false);
+        return product;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mimimart.infrastructure.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品倒排索引單元測試
+ */
+@DisplayName("商品倒排索引單元測試")
+class ProductInvertedIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private ProductInvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductInvertedIndex();
+        index.put(1L, "無線藍牙耳機", "3C 配件", "降噪耳機,續航 30 小時", null, null);
+        index.put(2L, "有線耳機", "3C 配件", "入門款", null, null);
+        index.put(3L, "藍牙喇叭", "音響", "可搭配藍牙耳機使用", null, null);
+        index.put(4L, "iPhone 手機殼", "3C 配件", "透明防摔", null, null);
+    }
+
+    @Test
+    @DisplayName("分詞 - 中文切成二元組,英文數字為單詞並轉小寫")
+    void tokenizer_CjkBigramsAndWords() {
+        assertThat(ProductTokenizer.tokenizeForQuery("藍牙耳機"))
+                .containsExactly("藍牙", "牙耳", "耳機");
+        assertThat(ProductTokenizer.tokenizeForQuery("ＩＰｈｏｎｅ 15 手機殼"))
+                .containsExactly("iphone", "15", "手機", "機殼");
+        assertThat(ProductTokenizer.tokenizeForIndex("耳機"))
+                .containsExactly("耳", "機", "耳機");
+    }
+
+    @Test
+    @DisplayName("搜尋 - 所有詞彙皆須命中,名稱命中排序優先於描述命中")
+    void search_RanksNameMatchesFirst() {
+        ProductInvertedIndex.SearchResult result = index.search("藍牙耳機", NOW, 0, 10);
+
+        assertThat(result.totalHits()).isEqualTo(2);
+        assertThat(result.productIds()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("搜尋 - 單一中文字可命中")
+    void search_SingleCjkCharacter() {
+        ProductInvertedIndex.SearchResult result = index.search("殼", NOW, 0, 10);
+
+        assertThat(result.productIds()).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("搜尋 - 分類名稱可命中")
+    void search_MatchesCategoryName() {
+        ProductInvertedIndex.SearchResult result = index.search("音響", NOW, 0, 10);
+
+        assertThat(result.productIds()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("搜尋 - 分頁回傳正確的命中總數")
+    void search_Pagination() {
+        ProductInvertedIndex.SearchResult firstPage = index.search("耳機", NOW, 0, 2);
+        ProductInvertedIndex.SearchResult secondPage = index.search("耳機", NOW, 2, 2);
+
+        assertThat(firstPage.totalHits()).isEqualTo(3);
+        assertThat(firstPage.productIds()).hasSize(2);
+        assertThat(secondPage.productIds()).hasSize(1);
+        assertThat(secondPage.productIds()).doesNotContainAnyElementsOf(firstPage.productIds());
+    }
+
+    @Test
+    @DisplayName("搜尋 - 過濾不在上架期間的商品")
+    void search_FiltersPublishWindow() {
+        index.put(5L, "藍牙耳機 預購", "3C 配件", null, NOW.plusDays(1), null);
+        index.put(6L, "藍牙耳機 舊款", "3C 配件", null, null, NOW.minusDays(1));
+
+        ProductInvertedIndex.SearchResult result = index.search("藍牙耳機", NOW, 0, 10);
+
+        assertThat(result.productIds()).doesNotContain(5L, 6L);
+    }
+
+    @Test
+    @DisplayName("更新與移除 - 舊詞彙不再命中")
+    void putAndRemove_UpdatesPostings() {
+        index.put(2L, "頭戴式喇叭", "音響", null, null, null);
+        assertThat(index.search("有線", NOW, 0, 10).totalHits()).isZero();
+
+        index.remove(3L);
+        assertThat(index.search("藍牙喇叭", NOW, 0, 10).totalHits()).isZero();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("分詞 - 英數詞片段為詞內所有子字串,不含整個詞")
+    void tokenizer_WordParts() {
+        assertThat(ProductTokenizer.tokenizeWordPartsForIndex("USB 耳機"))
+                .containsExactly("u", "us", "s", "sb", "b");
+        assertThat(ProductTokenizer.tokenizeWordPartsForIndex("iPhone15"))
+                .contains("phone", "iph", "15", "one1")
+                .doesNotContain("iphone15");
+    }
+
+    @Test
+    @DisplayName("搜尋 - 名稱中英數詞的部分片段可命中 (與名稱 LIKE 查詢一致)")
+    void search_MatchesPartOfLatinWordInName() {
+        index.put(5L, "iphone15 Pro 保護貼", "3C 配件", null, null, null);
+
+        assertThat(index.search("phone", NOW, 0, 10).productIds()).containsExactlyInAnyOrder(4L, 5L);
+        assertThat(index.search("iph", NOW, 0, 10).productIds()).containsExactlyInAnyOrder(4L, 5L);
+        assertThat(index.search("15", NOW, 0, 10).productIds()).containsExactly(5L);
+        assertThat(index.search("iphone 15", NOW, 0, 10).productIds()).containsExactly(5L);
+        assertThat(index.search("phone 殼", NOW, 0, 10).productIds()).containsExactly(4L);
+        assertThat(index.search("phones", NOW, 0, 10).totalHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("搜尋 - 完整詞命中排序優先於部分片段命中")
+    void search_RanksWholeWordAbovePart() {
+        index.put(5L, "Phone 支架", "3C 配件", null, null, null);
+
+        assertThat(index.search("phone", NOW, 0, 10).productIds()).containsExactly(5L, 4L);
+    }
+
+    @Test
+    @DisplayName("搜尋 - 極大的略過筆數不溢位,回傳空頁與命中總數")
+    void search_HugeOffset() {
+        ProductInvertedIndex.SearchResult result = index.search("耳機", NOW, Integer.MAX_VALUE - 1, 100);
+
+        assertThat(result.totalHits()).isEqualTo(3);
+        assertThat(result.productIds()).isEmpty();
+    }
+}
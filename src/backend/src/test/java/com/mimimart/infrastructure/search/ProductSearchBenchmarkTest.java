@@ -0,0 +1,113 @@
+package com.mimimart.infrastructure.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品搜尋效能基準測試
+ * 比較倒排索引與 LIKE %keyword% 等價的全表掃描 (120,000 筆商品,僅比較記憶體內運算,不含資料庫 I/O)
+ *
+ * 預設不執行,使用 mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= 執行
+ */
+@Tag("benchmark")
+@DisplayName("商品搜尋效能基準測試")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCT_COUNT = 120_000;
+    private static final int ITERATIONS = 50;
+    private static final int VOCABULARY_SIZE = 3_000;
+    private static final String[] CATEGORIES = {"3C 配件", "生活用品", "服飾", "食品", "居家"};
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<String> NAMES = new ArrayList<>(PRODUCT_COUNT);
+    private static final List<String> QUERIES = new ArrayList<>();
+    private static final ProductInvertedIndex INDEX = new ProductInvertedIndex();
+
+    /**
+     * 以常用漢字隨機組成詞彙,商品名稱由 3 個詞彙組成,描述由 8 個詞彙組成
+     */
+    @BeforeAll
+    static void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = "" + (char) (0x4E00 + random.nextInt(3000)) + (char) (0x4E00 + random.nextInt(3000));
+        }
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            String name = randomWords(random, vocabulary, 3) + " 第" + i + "號";
+            NAMES.add(name);
+            INDEX.put(i, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    randomWords(random, vocabulary, 8), null, null);
+        }
+
+        // 查詢: 單一詞彙與名稱中連續兩個詞彙
+        for (int i = 0; i < 10; i++) {
+            QUERIES.add(vocabulary[random.nextInt(VOCABULARY_SIZE)]);
+            QUERIES.add(NAMES.get(random.nextInt(PRODUCT_COUNT)).substring(0, 4));
+        }
+    }
+
+    @Test
+    @DisplayName("倒排索引查詢 vs LIKE 全表掃描")
+    void compareWithLinearScan() {
+        // 暖機
+        runIndex();
+        runLinearScan();
+
+        long indexNanos = runIndex();
+        long scanNanos = runLinearScan();
+
+        System.out.printf("商品數=%d, 查詢次數=%d%n", PRODUCT_COUNT, ITERATIONS * QUERIES.size());
+        System.out.printf("倒排索引: 平均 %.3f ms/次%n", indexNanos / 1e6 / (ITERATIONS * QUERIES.size()));
+        System.out.printf("LIKE 掃描: 平均 %.3f ms/次%n", scanNanos / 1e6 / (ITERATIONS * QUERIES.size()));
+
+        assertThat(INDEX.size()).isEqualTo(PRODUCT_COUNT);
+    }
+
+    private long runIndex() {
+        long start = System.nanoTime();
+        long hits = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String query : QUERIES) {
+                hits += INDEX.search(query, NOW, 0, 20).totalHits();
+            }
+        }
+        assertThat(hits).isPositive();
+        return System.nanoTime() - start;
+    }
+
+    private long runLinearScan() {
+        long start = System.nanoTime();
+        long hits = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String query : QUERIES) {
+                // LIKE %keyword% 無法使用索引,需逐筆比對並計算總數 (COUNT)
+                for (String name : NAMES) {
+                    if (name.contains(query)) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        assertThat(hits).isPositive();
+        return System.nanoTime() - start;
+    }
+
+    private static String randomWords(Random random, String[] vocabulary, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return builder.toString();
+    }
+}
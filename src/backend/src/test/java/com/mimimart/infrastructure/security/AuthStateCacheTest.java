@@ -0,0 +1,80 @@
+package com.mimimart.infrastructure.security;
+
+import com.mimimart.application.service.TokenBlacklistService;
+import com.mimimart.infrastructure.persistence.repository.AdminRepository;
+import com.mimimart.infrastructure.persistence.repository.MemberRepository;
+import com.mimimart.shared.valueobject.AdminStatus;
+import com.mimimart.shared.valueobject.MemberStatus;
+import com.mimimart.shared.valueobject.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 認證狀態本地快取單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("認證狀態本地快取單元測試")
+class AuthStateCacheTest {
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private AdminRepository adminRepository;
+
+    private AuthStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthStateCache(tokenBlacklistService, memberRepository, adminRepository, 30, 100);
+    }
+
+    @Test
+    @DisplayName("撤銷狀態 - 重複檢查同一 Token 只查詢一次 Redis")
+    void isRevoked_CachesResult() {
+        when(tokenBlacklistService.isBlacklisted("token")).thenReturn(false);
+
+        assertThat(cache.isRevoked("token")).isFalse();
+        assertThat(cache.isRevoked("token")).isFalse();
+
+        verify(tokenBlacklistService, times(1)).isBlacklisted("token");
+    }
+
+    @Test
+    @DisplayName("撤銷狀態 - 本節點登出後立即生效")
+    void markRevoked_TakesEffectImmediately() {
+        when(tokenBlacklistService.isBlacklisted("token")).thenReturn(false);
+        assertThat(cache.isRevoked("token")).isFalse();
+
+        cache.markRevoked("token");
+
+        assertThat(cache.isRevoked("token")).isTrue();
+    }
+
+    @Test
+    @DisplayName("帳號狀態 - 啟用會員通過並快取,停用管理員與不存在帳號拒絕")
+    void isActive_ChecksStatusByUserType() {
+        when(memberRepository.findStatusById(1L)).thenReturn(Optional.of(MemberStatus.ACTIVE));
+        when(memberRepository.findStatusById(2L)).thenReturn(Optional.empty());
+        when(adminRepository.findStatusById(1L)).thenReturn(Optional.of(AdminStatus.DISABLED));
+
+        assertThat(cache.isActive(UserType.MEMBER, 1L)).isTrue();
+        assertThat(cache.isActive(UserType.MEMBER, 1L)).isTrue();
+        assertThat(cache.isActive(UserType.MEMBER, 2L)).isFalse();
+        assertThat(cache.isActive(UserType.ADMIN, 1L)).isFalse();
+
+        verify(memberRepository, times(1)).findStatusById(1L);
+    }
+}
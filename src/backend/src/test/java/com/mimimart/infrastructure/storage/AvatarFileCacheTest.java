@@ -0,0 +1,161 @@
+package com.mimimart.infrastructure.storage;
+
+import com.mimimart.infrastructure.storage.AvatarFileCache.CachedAvatar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 會員頭貼本機磁碟快取單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("會員頭貼本機磁碟快取單元測試")
+class AvatarFileCacheTest {
+
+    private static final String S3_KEY = "avatars/1/20241031120000_test.jpg";
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private S3StorageService s3StorageService;
+
+    private AvatarFileCache avatarFileCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        avatarFileCache = new AvatarFileCache(s3StorageService, directory.toString(), 1);
+        avatarFileCache.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        avatarFileCache.shutdown();
+    }
+
+    @Test
+    @DisplayName("未命中時下載至磁碟,再次取得直接命中")
+    void get_DownloadsOnceThenHits() {
+        when(s3StorageService.downloadAvatarToFile(eq(S3_KEY), any(Path.class)))
+                .thenAnswer(invocation -> writeFile(invocation.getArgument(1), 10));
+
+        CachedAvatar first = avatarFileCache.get(S3_KEY);
+        CachedAvatar second = avatarFileCache.get(S3_KEY);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.size()).isEqualTo(10);
+        assertThat(first.contentType()).isEqualTo("image/jpeg");
+        assertThat(first.eTag()).isEqualTo(AvatarFileCache.eTagOf(S3_KEY));
+        assertThat(first.file()).exists().hasParent(avatarFileCache.getDirectory());
+        assertThat(avatarFileCache.getDirectory()).hasParent(directory);
+        verify(s3StorageService, times(1)).downloadAvatarToFile(eq(S3_KEY), any(Path.class));
+    }
+
+    @Test
+    @DisplayName("同一頭貼同時未命中時只下載一次")
+    void get_ConcurrentMissesShareDownload() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(s3StorageService.downloadAvatarToFile(eq(S3_KEY), any(Path.class))).thenAnswer(invocation -> {
+            release.await();
+            return writeFile(invocation.getArgument(1), 10);
+        });
+
+        List<Future<CachedAvatar>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> avatarFileCache.get(S3_KEY)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+        }
+
+        for (Future<CachedAvatar> result : results) {
+            assertThat(result.get()).isEqualTo(results.get(0).get());
+        }
+        verify(s3StorageService, times(1)).downloadAvatarToFile(eq(S3_KEY), any(Path.class));
+    }
+
+    @Test
+    @DisplayName("快取檔案遺失時重新下載")
+    void get_ReloadsWhenFileMissing() throws Exception {
+        when(s3StorageService.downloadAvatarToFile(eq(S3_KEY), any(Path.class)))
+                .thenAnswer(invocation -> writeFile(invocation.getArgument(1), 10));
+
+        CachedAvatar first = avatarFileCache.get(S3_KEY);
+        Files.delete(first.file());
+        CachedAvatar second = avatarFileCache.get(S3_KEY);
+
+        assertThat(second.file()).exists().isNotEqualTo(first.file());
+        verify(s3StorageService, times(2)).downloadAvatarToFile(eq(S3_KEY), any(Path.class));
+    }
+
+    @Test
+    @DisplayName("下載失敗時拋出異常且不留下暫存檔")
+    void get_DownloadFailed() throws Exception {
+        when(s3StorageService.downloadAvatarToFile(eq(S3_KEY), any(Path.class)))
+                .thenThrow(new RuntimeException("頭貼不存在"));
+
+        assertThatThrownBy(() -> avatarFileCache.get(S3_KEY))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("頭貼不存在");
+
+        try (var files = Files.list(avatarFileCache.getDirectory())) {
+            assertThat(files).extracting(file -> file.getFileName().toString()).containsExactly(".lock");
+        }
+    }
+
+    @Test
+    @DisplayName("啟動時只清除已結束執行個體的子目錄,保留其他檔案與使用中的子目錄")
+    void initialize_ClearsOnlyAbandonedInstances() throws Exception {
+        Path abandoned = Files.createDirectory(directory.resolve("instance-previous"));
+        Files.writeString(abandoned.resolve("avatar-stale"), "stale");
+        Path unrelated = Files.writeString(directory.resolve("notes.txt"), "keep");
+
+        AvatarFileCache another = new AvatarFileCache(s3StorageService, directory.toString(), 1);
+        another.initialize();
+        try {
+            assertThat(abandoned).doesNotExist();
+            assertThat(unrelated).exists();
+            assertThat(avatarFileCache.getDirectory()).exists();
+            assertThat(another.getDirectory()).exists().isNotEqualTo(avatarFileCache.getDirectory());
+        } finally {
+            another.shutdown();
+        }
+        assertThat(another.getDirectory()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("ETag 由 S3 Key 推導,Key 變更時 ETag 隨之變更")
+    void eTagOf_DependsOnKey() {
+        assertThat(AvatarFileCache.eTagOf(S3_KEY))
+                .isEqualTo(AvatarFileCache.eTagOf(S3_KEY))
+                .isNotEqualTo(AvatarFileCache.eTagOf("avatars/1/20241101120000_test.jpg"))
+                .startsWith("\"")
+                .endsWith("\"");
+    }
+
+    private static String writeFile(Path target, int size) throws Exception {
+        Files.write(target, new byte[size]);
+        return "image/jpeg";
+    }
+}
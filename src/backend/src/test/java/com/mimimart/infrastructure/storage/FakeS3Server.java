@@ -0,0 +1,253 @@
+package com.mimimart.infrastructure.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 測試用的本機 S3 替身 (路徑樣式)
+ * 支援 PutObject、Multipart Upload (Create / UploadPart / Complete)、GetObject、HeadObject 與 DeleteObject,
+ * 並記錄分段上傳次數與最大同時上傳分段數,供驗證分段並行上傳。
+ */
+class FakeS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger putObjectCount = new AtomicInteger();
+    private final AtomicInteger completedMultipartCount = new AtomicInteger();
+    private final AtomicInteger uploadedPartCount = new AtomicInteger();
+    private final AtomicInteger inFlightParts = new AtomicInteger();
+    private final AtomicInteger maxInFlightParts = new AtomicInteger();
+
+    FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    StoredObject object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    int putObjectCount() {
+        return putObjectCount.get();
+    }
+
+    int completedMultipartCount() {
+        return completedMultipartCount.get();
+    }
+
+    int uploadedPartCount() {
+        return uploadedPartCount.get();
+    }
+
+    int maxInFlightParts() {
+        return maxInFlightParts.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    if (query.containsKey("partNumber")) {
+                        uploadPart(exchange, query);
+                    } else {
+                        putObject(exchange, path);
+                    }
+                }
+                case "POST" -> {
+                    if (query.containsKey("uploads")) {
+                        createMultipartUpload(exchange, path);
+                    } else {
+                        completeMultipartUpload(exchange, path, query.get("uploadId"));
+                    }
+                }
+                case "GET", "HEAD" -> getObject(exchange, path);
+                case "DELETE" -> {
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void putObject(HttpExchange exchange, String path) throws IOException {
+        byte[] body = readBody(exchange);
+        objects.put(path, new StoredObject(body, exchange.getRequestHeaders().getFirst("Content-Type")));
+        putObjectCount.incrementAndGet();
+        exchange.getResponseHeaders().add("ETag", eTag(body));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void createMultipartUpload(HttpExchange exchange, String path) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentHashMap<>());
+        objects.put(path + "#" + uploadId,
+                new StoredObject(new byte[0], exchange.getRequestHeaders().getFirst("Content-Type")));
+        int slash = path.indexOf('/');
+        sendXml(exchange, "<InitiateMultipartUploadResult><Bucket>" + path.substring(0, slash) + "</Bucket><Key>"
+                + path.substring(slash + 1) + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int inFlight = inFlightParts.incrementAndGet();
+        maxInFlightParts.accumulateAndGet(inFlight, Math::max);
+        try {
+            byte[] body = readBody(exchange);
+            // 模擬網路延遲,讓並行上傳的分段重疊
+            Thread.sleep(50);
+            uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+            uploadedPartCount.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", eTag(body));
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            inFlightParts.decrementAndGet();
+        }
+    }
+
+    private void completeMultipartUpload(HttpExchange exchange, String path, String uploadId) throws IOException {
+        readBody(exchange);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] part : new TreeMap<>(uploads.remove(uploadId)).values()) {
+            content.write(part);
+        }
+        StoredObject pending = objects.remove(path + "#" + uploadId);
+        objects.put(path, new StoredObject(content.toByteArray(), pending.contentType()));
+        completedMultipartCount.incrementAndGet();
+        sendXml(exchange, "<CompleteMultipartUploadResult><Key>" + path + "</Key><ETag>"
+                + eTag(content.toByteArray()) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void getObject(HttpExchange exchange, String path) throws IOException {
+        StoredObject object = objects.get(path);
+        if (object == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", object.contentType());
+        exchange.getResponseHeaders().add("ETag", eTag(object.content()));
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.content().length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, object.content().length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(object.content());
+        }
+    }
+
+    private static void sendXml(HttpExchange exchange, String xml) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] body = ("<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 讀取請求內容 (含 aws-chunked 編碼的解碼)
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw;
+        try (InputStream in = exchange.getRequestBody()) {
+            raw = in.readAllBytes();
+        }
+        if (exchange.getRequestHeaders().getFirst("x-amz-decoded-content-length") == null) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            query.put(equals < 0 ? pair : pair.substring(0, equals), equals < 0 ? "" : pair.substring(equals + 1));
+        }
+        return query;
+    }
+
+    private static String eTag(byte[] content) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record StoredObject(byte[] content, String contentType) {
+    }
+}
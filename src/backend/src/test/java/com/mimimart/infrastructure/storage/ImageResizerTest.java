@@ -0,0 +1,109 @@
+package com.mimimart.infrastructure.storage;
+
+import com.mimimart.infrastructure.storage.ImageResizer.Rendition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 圖片縮放工具單元測試
+ */
+@DisplayName("圖片縮放工具單元測試")
+class ImageResizerTest {
+
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    @Test
+    @DisplayName("不透明圖片 - 依寬度等比例產生 JPEG 縮圖,不放大")
+    void resize_OpaqueImage() throws IOException {
+        byte[] source = encode(image(1200, 600, BufferedImage.TYPE_INT_RGB), "png");
+
+        List<Rendition> renditions = ImageResizer.resize(source, List.of(1600, 640, 320, 640), 0.8f, MAX_PIXELS);
+
+        assertThat(renditions).extracting(Rendition::width).containsExactly(320, 640);
+        assertThat(renditions).extracting(Rendition::height).containsExactly(160, 320);
+        assertThat(renditions).allSatisfy(rendition -> {
+            assertThat(rendition.contentType()).isEqualTo("image/jpeg");
+            assertThat(rendition.fileExtension()).isEqualTo(".jpg");
+            assertThat(rendition.data().length).isLessThan(source.length);
+        });
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(renditions.get(1).data()));
+        assertThat(decoded.getWidth()).isEqualTo(640);
+        assertThat(decoded.getHeight()).isEqualTo(320);
+    }
+
+    @Test
+    @DisplayName("透明圖片 - 產生 PNG 縮圖並保留透明通道")
+    void resize_TransparentImage() throws IOException {
+        byte[] source = encode(image(800, 800, BufferedImage.TYPE_INT_ARGB), "png");
+
+        List<Rendition> renditions = ImageResizer.resize(source, List.of(320), 0.8f, MAX_PIXELS);
+
+        assertThat(renditions).singleElement().satisfies(rendition -> {
+            assertThat(rendition.contentType()).isEqualTo("image/png");
+            assertThat(rendition.fileExtension()).isEqualTo(".png");
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(rendition.data()));
+            assertThat(decoded.getColorModel().hasAlpha()).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("原圖小於所有目標寬度 - 不產生縮圖")
+    void resize_SmallImage() throws IOException {
+        byte[] source = encode(image(200, 100, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        assertThat(ImageResizer.resize(source, List.of(320, 640), 0.8f, MAX_PIXELS)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("無法解碼的資料 - 拋出異常")
+    void resize_InvalidImage() {
+        assertThatThrownBy(() -> ImageResizer.resize("not an image".getBytes(), List.of(320), 0.8f, MAX_PIXELS))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("標頭宣告超大尺寸 - 不解碼直接拒絕")
+    void resize_TooManyPixels() throws IOException {
+        // 1x1 PNG 竄改 IHDR 宣告為 100000x100000 (解碼將需約 40GB 記憶體)
+        byte[] source = encode(image(1, 1, BufferedImage.TYPE_INT_RGB), "png");
+        ByteBuffer.wrap(source, 16, 8).putInt(100_000).putInt(100_000);
+        CRC32 crc = new CRC32();
+        crc.update(source, 12, 17);
+        ByteBuffer.wrap(source, 29, 4).putInt((int) crc.getValue());
+
+        assertThatThrownBy(() -> ImageResizer.resize(source, List.of(320), 0.8f, MAX_PIXELS))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("圖片尺寸過大");
+    }
+
+    private static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+package com.mimimart.infrastructure.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * S3 儲存服務上傳單元測試 (以本機 S3 替身驗證分段並行上傳)
+ */
+@DisplayName("S3 儲存服務上傳單元測試")
+class S3StorageServiceUploadTest {
+
+    private static final String BUCKET = "private-bucket";
+    private static final String PUBLIC_BUCKET = "public-bucket";
+    private static final String PUBLIC_BASE_URL = "https://cdn.example.com";
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    private FakeS3Server fakeS3;
+    private S3StorageService s3StorageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeS3 = new FakeS3Server();
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create("test", "test"));
+        S3Client s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(fakeS3.endpoint())
+                .forcePathStyle(true)
+                .build();
+        S3AsyncClient s3AsyncClient = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(fakeS3.endpoint())
+                .forcePathStyle(true)
+                .multipartEnabled(true)
+                .multipartConfiguration(multipart -> multipart
+                        .thresholdInBytes(PART_SIZE)
+                        .minimumPartSizeInBytes(PART_SIZE)
+                        .apiCallBufferSizeInBytes(4 * PART_SIZE))
+                .build();
+        s3StorageService = new S3StorageService(s3Client, s3AsyncClient, BUCKET, PUBLIC_BUCKET, PUBLIC_BASE_URL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3StorageService.shutdown();
+        fakeS3.close();
+    }
+
+    @Test
+    @DisplayName("上傳輪播圖 - 小檔以單次上傳完成")
+    void uploadBanner_SmallFile() {
+        byte[] content = randomBytes(64 * 1024);
+        MockMultipartFile file = new MockMultipartFile("image", "banner.jpg", "image/jpeg", content);
+
+        String url = s3StorageService.uploadBanner(file);
+
+        assertThat(url).startsWith(PUBLIC_BASE_URL + "/banners/banner-").endsWith(".jpg");
+        FakeS3Server.StoredObject stored = fakeS3.object(PUBLIC_BUCKET, url.substring(PUBLIC_BASE_URL.length() + 1));
+        assertThat(stored.content()).isEqualTo(content);
+        assertThat(stored.contentType()).isEqualTo("image/jpeg");
+        assertThat(fakeS3.putObjectCount()).isEqualTo(1);
+        assertThat(fakeS3.completedMultipartCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("上傳輪播圖 - 大檔以分段並行上傳,內容完整")
+    void uploadBanner_LargeFileUsesParallelMultipart() {
+        byte[] content = randomBytes((int) (4 * PART_SIZE + 1024));
+        MockMultipartFile file = new MockMultipartFile("image", "banner.png", "image/png", content);
+
+        String url = s3StorageService.uploadBanner(file);
+
+        FakeS3Server.StoredObject stored = fakeS3.object(PUBLIC_BUCKET, url.substring(PUBLIC_BASE_URL.length() + 1));
+        assertThat(stored.content()).isEqualTo(content);
+        assertThat(stored.contentType()).isEqualTo("image/png");
+        assertThat(fakeS3.completedMultipartCount()).isEqualTo(1);
+        assertThat(fakeS3.uploadedPartCount()).isEqualTo(5);
+        assertThat(fakeS3.maxInFlightParts()).isGreaterThan(1);
+        assertThat(fakeS3.putObjectCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("上傳頭貼 - 串流上傳後可由同步客戶端下載")
+    void uploadAvatar_RoundTrip() {
+        byte[] content = randomBytes(128 * 1024);
+        MockMultipartFile file = new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", content);
+
+        String s3Key = s3StorageService.uploadAvatar(1L, file);
+
+        assertThat(s3Key).startsWith("avatars/1/").endsWith("_avatar.jpg");
+        assertThat(s3StorageService.downloadAvatar(s3Key)).isEqualTo(content);
+        assertThat(s3StorageService.getContentType(s3Key)).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    @DisplayName("上傳 AI 圖片 - 大檔以分段上傳")
+    void uploadAiImage_LargeImage() {
+        byte[] content = randomBytes((int) (2 * PART_SIZE));
+
+        String s3Key = s3StorageService.uploadAiImage(content, "image/png", ".png");
+
+        assertThat(s3Key).startsWith("ai-generated/ai-").endsWith(".png");
+        assertThat(fakeS3.object(BUCKET, s3Key).content()).isEqualTo(content);
+        assertThat(fakeS3.completedMultipartCount()).isEqualTo(1);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mimimart.infrastructure.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 雪花算法 ID 生成器單元測試
+ */
+@DisplayName("雪花算法 ID 生成器單元測試")
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    @DisplayName("多執行緒生成 - ID 不重複且包含指派的工作機器 ID")
+    void nextId_UniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(37);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(160_000);
+        assertThat(SnowflakeIdGenerator.parse(ids.iterator().next())).contains("工作機器ID=37");
+    }
+
+    @Test
+    @DisplayName("時鐘回撥 - 借用已用過的毫秒繼續遞增,不拋出例外且 ID 仍遞增")
+    void nextId_BorrowsOnClockRegression() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, clock::get);
+        generator.assignWorkerId(1);
+
+        long before = generator.nextId();
+        clock.set(NOW - 2);
+        long after = generator.nextId();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("序列號用盡 - 借用下一毫秒,超過借用上限時等待時鐘追上")
+    void nextId_WaitsWhenBorrowLimitExceeded() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> {
+            // 每次讀取時鐘前進 0.01 毫秒,模擬等待期間時間流逝
+            return clock.getAndAdd(1) / 100 + NOW;
+        });
+        generator.assignWorkerId(1);
+
+        long previous = -1;
+        for (int i = 0; i < 4096 * 3; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("尚未指派工作機器 ID - 拒絕生成,指派超出範圍時拋出例外")
+    void nextId_RequiresWorkerId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> generator.assignWorkerId(1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("租約過期 - 拒絕生成,續約延長期限後恢復,撤銷後拒絕生成")
+    void nextId_FencedByLease() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, clock::get);
+        generator.assignWorkerId(7, NOW + 1_000);
+
+        generator.nextId();
+        clock.set(NOW + 1_000);
+        assertThatThrownBy(generator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("租約已過期");
+
+        generator.extendLease(8, NOW + 5_000);
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        generator.extendLease(7, NOW + 5_000);
+        assertThat(SnowflakeIdGenerator.parse(generator.nextId())).contains("工作機器ID=7");
+
+        generator.revokeWorkerId();
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThat(generator.getWorkerId()).isEqualTo(-1L);
+    }
+}
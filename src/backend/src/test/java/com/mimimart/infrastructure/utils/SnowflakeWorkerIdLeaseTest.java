@@ -0,0 +1,138 @@
+package com.mimimart.infrastructure.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 雪花算法工作機器 ID 租約單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("雪花算法工作機器 ID 租約單元測試")
+class SnowflakeWorkerIdLeaseTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private SnowflakeIdGenerator generator;
+    private SnowflakeWorkerIdLease lease;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        generator = new SnowflakeIdGenerator(5, clock::get);
+        lease = new SnowflakeWorkerIdLease(redisTemplate, generator, -1, 60, clock::get);
+    }
+
+    @Test
+    @DisplayName("續約成功 - 依續約時間延長生成期限")
+    void heartbeat_RenewExtendsLease() {
+        leaseAnyWorkerId();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(1L);
+
+        clock.set(NOW + 50_000);
+        lease.heartbeat();
+        clock.set(NOW + 100_000);
+
+        assertThat(generator.nextId()).isPositive();
+    }
+
+    @Test
+    @DisplayName("租約遺失且無可用 ID - 撤銷原 ID,不繼續生成")
+    void heartbeat_LeaseLostWithoutReplacement() {
+        leaseAnyWorkerId();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        lease.heartbeat();
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThat(generator.getWorkerId()).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("租約遺失 - 改用新租用的工作機器 ID")
+    void heartbeat_LeaseLostReplaced() {
+        leaseAnyWorkerId();
+        long original = generator.getWorkerId();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(valueOperations.setIfAbsent(eq("snowflake:worker:" + original), anyString(), any(Duration.class)))
+                .thenReturn(false);
+        when(valueOperations.setIfAbsent(eq("snowflake:worker:" + (original + 1) % 1024), anyString(),
+                any(Duration.class))).thenReturn(true);
+
+        lease.heartbeat();
+
+        assertThat(generator.getWorkerId()).isEqualTo((original + 1) % 1024);
+        assertThat(generator.nextId()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Redis 中斷超過租約期限 - 停止生成,恢復後重新取得租約")
+    void heartbeat_RedisOutageFencesGenerator() {
+        leaseAnyWorkerId();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        clock.set(NOW + 20_000);
+        lease.heartbeat();
+        assertThat(generator.nextId()).isPositive();
+
+        clock.set(NOW + 60_000);
+        lease.heartbeat();
+        assertThatThrownBy(generator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("租約已過期");
+
+        // Redis 恢復時原租約已過期,續約失敗後重新租用
+        reset(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease.heartbeat();
+        assertThat(generator.nextId()).isPositive();
+    }
+
+    @Test
+    @DisplayName("設定固定工作機器 ID - 不使用租約,不受期限限制")
+    void acquire_ConfiguredWorkerId() {
+        SnowflakeWorkerIdLease configured = new SnowflakeWorkerIdLease(redisTemplate, generator, 3, 60, clock::get);
+
+        configured.acquire();
+        configured.heartbeat();
+        clock.set(NOW + 3_600_000);
+
+        assertThat(SnowflakeIdGenerator.parse(generator.nextId())).contains("工作機器ID=3");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private void leaseAnyWorkerId() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease.acquire();
+        reset(valueOperations);
+    }
+}
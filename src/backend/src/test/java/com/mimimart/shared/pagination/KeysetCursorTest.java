@@ -0,0 +1,46 @@
+package com.mimimart.shared.pagination;
+
+import com.mimimart.shared.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 游標分頁游標單元測試
+ */
+@DisplayName("游標分頁游標單元測試")
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("編碼後解碼 - 還原排序鍵值與 ID (鍵值可含分隔符號)")
+    void encodeDecode_RoundTrip() {
+        KeysetCursor cursor = new KeysetCursor("name", Sort.Direction.ASC, 42L, "限量|聯名 T-shirt");
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), "name", Sort.Direction.ASC);
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("解碼 - 排序條件不一致時拋出異常")
+    void decode_SortMismatch() {
+        String token = new KeysetCursor("price", Sort.Direction.DESC, 1L, "100.00").encode();
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token, "price", Sort.Direction.ASC))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(token, "createdAt", Sort.Direction.DESC))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("解碼 - 格式錯誤時拋出異常")
+    void decode_Malformed() {
+        assertThatThrownBy(() -> KeysetCursor.decode("!!not-base64!!", "price", Sort.Direction.ASC))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("cHJpY2V8QVND", "price", Sort.Direction.ASC))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}